@@ -65,6 +65,20 @@ chmod a+x mobie-project
 echo "Installed mobie-project in current directory."
 echo "Execute ./mobie-project to see all options"
 
+echo '#!/bin/bash' > mobie-screenshot
+echo '' >> mobie-screenshot
+echo "JAR=\$HOME/.m2/repository/org/embl/mobie/mobie-viewer-fiji/${VERSION}/mobie-viewer-fiji-${VERSION}.jar" >> mobie-screenshot
+echo "${JAVA_HOME}/bin/java \\" >> mobie-screenshot
+echo "  -Xmx${MEM}g \\" >> mobie-screenshot
+echo '  -XX:+UseConcMarkSweepGC \' >> mobie-screenshot
+echo -n '  -cp $JAR:' >> mobie-screenshot
+echo -n $(cat cp.txt) >> mobie-screenshot
+echo ' \' >> mobie-screenshot
+echo '  org.embl.mobie.cmd.ScreenShotCmd "$@"' >> mobie-screenshot
+chmod a+x mobie-screenshot
+echo "Installed mobie-screenshot in current directory."
+echo "Execute ./mobie-screenshot to see all options"
+
 rm cp.txt
 
 # Examples
@@ -75,5 +89,7 @@ rm cp.txt
 #
 # ./mobie-project -p "https://github.com/mobie/platybrowser-datasets" -v "cells"
 #
+# ./mobie-screenshot -p "https://github.com/mobie/platybrowser-datasets" -v "cells" -s 0.1 -o "/home/cells.ome.zarr"
+#
 # ./mobie-hcs TODO
 
@@ -60,6 +60,7 @@ import org.embl.mobie.lib.image.DefaultAnnotatedLabelImage;
 import org.embl.mobie.lib.image.CachedCellImage;
 import org.embl.mobie.lib.image.Image;
 import org.embl.mobie.lib.image.SpimDataImage;
+import org.embl.mobie.lib.image.SiteImage;
 import org.embl.mobie.lib.image.SpotAnnotationImage;
 import org.embl.mobie.lib.io.FileImageSource;
 import org.embl.mobie.lib.io.IOHelper;
@@ -86,7 +87,6 @@ import org.embl.mobie.lib.table.LazyAnnotatedSegmentTableModel;
 import org.embl.mobie.lib.table.TableDataFormat;
 import org.embl.mobie.lib.io.TableImageSource;
 import org.embl.mobie.lib.table.TableSource;
-import org.embl.mobie.lib.table.columns.SegmentColumnNames;
 import org.embl.mobie.lib.table.saw.TableOpener;
 import org.embl.mobie.lib.table.saw.TableSawAnnotatedSegment;
 import org.embl.mobie.lib.table.saw.TableSawAnnotatedSegmentCreator;
@@ -679,6 +679,8 @@ public class MoBIE
 
 		// tables
 		//
+		if ( settings.values.getTableDataFormats().size() == 0 )
+			settings.addTableDataFormat( TableDataFormat.Parquet );
 		settings.addTableDataFormat( TableDataFormat.TSV );
 	}
 
@@ -771,6 +773,14 @@ public class MoBIE
 	private void buildUI()
 	{
 		sourceNameToImgLoader = new HashMap<>();
+		DataStore.setMaxNumCachedImages( settings.values.getMaxNumCachedImages() );
+		if ( GraphicsEnvironment.isHeadless() )
+		{
+			// without a display the views are only opened,
+			// e.g. for rendering them with the mobie-screenshot command
+			viewManager = new ViewManager( this, null, dataset.is2D() );
+			return;
+		}
 		userInterface = new UserInterface( this );
 		adjustLogWindow( userInterface );
 		viewManager = new ViewManager( this, userInterface, dataset.is2D() );
@@ -821,6 +831,7 @@ public class MoBIE
 			IJ.log( "Closing I/O threads..." );
 			ThreadHelper.resetIOThreads();
 			viewManager.close();
+			DataStore.clearCache();
 			IJ.log( "MoBIE closed." );
 			if ( settings.values.getCli() )
 				System.exit( 0 );
@@ -887,15 +898,15 @@ public class MoBIE
 		}
 
 
-		for ( TableDataFormat sourceFormat : tableData.keySet() )
+		for ( TableDataFormat settingsFormat : settingsFormats )
 		{
-			if ( settingsFormats.contains( sourceFormat ) )
+			if ( tableData.containsKey( settingsFormat ) )
 			{
 				/*
-					return the first source format that is
-					specified by the settings
+					return the first format, in the order of preference
+					of the settings, that is provided by the source
 			 	*/
-				return sourceFormat;
+				return settingsFormat;
 			}
 		}
 
@@ -934,7 +945,7 @@ public class MoBIE
 
 		if ( storageLocation.relativePath != null )
 		{
-			storageLocation.defaultChunk = TableDataFormat.MOBIE_DEFAULT_CHUNK;
+			storageLocation.defaultChunk = tableDataFormat.getDefaultChunk();
 			storageLocation.absolutePath = combinePath( tableRoot, dataset.getName(), storageLocation.relativePath );
 			return storageLocation;
 		}
@@ -1033,11 +1044,16 @@ public class MoBIE
 				continue;
 			}
 
+			// reuse data that has been opened for a previous view
+			final String cacheKey = getCacheKey( dataSource );
+			if ( DataStore.putCachedImage( cacheKey ) )
+				continue;
+
 			futures.add(
 				ThreadHelper.ioExecutorService.submit( () ->
 					{
 						String log = getLog( sourceIndex, numImages, sourceLoggingModulo, lastLogMillis );
-						initDataSource( dataSource, log );
+						initDataSource( dataSource, cacheKey, log );
 					}
 				) );
 		}
@@ -1046,7 +1062,7 @@ public class MoBIE
 		IJ.log( "Initialised " + dataSources.size() + " data source(s) in " + (System.currentTimeMillis() - startTime) + " ms, using up to " + ThreadHelper.getNumIoThreads() + " thread(s).");
 	}
 
-	private void initDataSource( DataSource dataSource, String log )
+	private void initDataSource( DataSource dataSource, @Nullable String cacheKey, String log )
 	{
 		if ( dataSource instanceof ImageDataSource )
 		{
@@ -1076,7 +1092,7 @@ public class MoBIE
 					final DefaultAnnData< TableSawAnnotatedSegment > annData = new DefaultAnnData<>( tableModel );
 					final DefaultAnnotationAdapter< TableSawAnnotatedSegment > annotationAdapter = new DefaultAnnotationAdapter( annData );
 					final AnnotatedLabelImage< TableSawAnnotatedSegment > annotatedLabelImage = new DefaultAnnotatedLabelImage( image, annData, annotationAdapter );
-					DataStore.putImage( annotatedLabelImage );
+					DataStore.putImage( annotatedLabelImage, cacheKey );
 				}
 				else
 				{
@@ -1084,15 +1100,15 @@ public class MoBIE
 
 					final LazyAnnotatedSegmentTableModel tableModel = new LazyAnnotatedSegmentTableModel( image.getName() );
 					final DefaultAnnData< AnnotatedSegment > annData = new DefaultAnnData<>( tableModel );
-					final LazyAnnotatedSegmentAdapter segmentAdapter = new LazyAnnotatedSegmentAdapter( image.getName(), tableModel );
+					final LazyAnnotatedSegmentAdapter segmentAdapter = new LazyAnnotatedSegmentAdapter( image.getName(), tableModel, settings.values.getMaxNumLazySegments() );
 					final DefaultAnnotatedLabelImage< ? > annotatedLabelImage = new DefaultAnnotatedLabelImage( image, annData, segmentAdapter );
-					DataStore.putImage( annotatedLabelImage );
+					DataStore.putImage( annotatedLabelImage, cacheKey );
 				}
 			}
 			else
 			{
 				// intensity image
-				DataStore.putImage( image );
+				DataStore.putImage( image, cacheKey );
 			}
 		}
 
@@ -1103,18 +1119,17 @@ public class MoBIE
 			final StorageLocation tableLocation = getTableLocation( spotDataSource.tableData );
 			final TableDataFormat tableFormat = getTableDataFormat( spotDataSource.tableData );
 
-			Table table = TableOpener.open( tableLocation, tableFormat );
+			final TableSawAnnotationCreator< TableSawAnnotatedSpot > annotationCreator = new TableSawAnnotatedSpotCreator();
 
-			final TableSawAnnotationCreator< TableSawAnnotatedSpot > annotationCreator = new TableSawAnnotatedSpotCreator( table );
-
-			final TableSawAnnotationTableModel< AnnotatedSpot > tableModel = new TableSawAnnotationTableModel( dataSource.getName(), annotationCreator, tableLocation, tableFormat, table );
+			// the spots are created from the table right away, by the spots image
+			final TableSawAnnotationTableModel< AnnotatedSpot > tableModel = new TableSawAnnotationTableModel( dataSource.getName(), annotationCreator, tableLocation, tableFormat, null, spotDataSource.getRequiredTableColumns() );
 
 			final DefaultAnnData< AnnotatedSpot > spotAnnData = new DefaultAnnData<>( tableModel );
 
-			final SpotAnnotationImage< AnnotatedSpot > spotAnnotationImage = new SpotAnnotationImage( spotDataSource.getName(), spotAnnData, 1.0, spotDataSource.boundingBoxMin, spotDataSource.boundingBoxMax );
+			final SpotAnnotationImage< AnnotatedSpot > spotAnnotationImage = new SpotAnnotationImage( spotDataSource.getName(), spotAnnData, 1.0, spotDataSource.boundingBoxMin, spotDataSource.boundingBoxMax, settings.values.getSpotRasterPixelSize() );
 
 			// Spots image, built from spots table
-			DataStore.putImage( spotAnnotationImage );
+			DataStore.putImage( spotAnnotationImage, cacheKey );
 
 			// System.out.println("Created spots image " + spotsImage.getName() + " with " + spotAnnData.getTable().numAnnotations() + " spots in [ms] " + ( System.currentTimeMillis() - start ));
 		}
@@ -1138,21 +1153,85 @@ public class MoBIE
 			IJ.log( log + dataSource.getName() );
 	}
 
+	// Identifies the image that is created from the data source,
+	// such that it can be reused across views.
+	// Returns null for data that is not cached.
+	@Nullable
+	public String getCacheKey( DataSource dataSource )
+	{
+		final ArrayList< String > parts = new ArrayList<>();
+		parts.add( dataSource.getClass().getName() );
+		parts.add( dataSource.getName() );
+
+		if ( dataSource instanceof ImageDataSource )
+		{
+			final ImageDataSource imageSource = ( ImageDataSource ) dataSource;
+			final ImageDataFormat imageDataFormat = getImageDataFormat( imageSource );
+			final StorageLocation storageLocation = imageSource.imageData.get( imageDataFormat );
+			parts.add( imageDataFormat.toString() );
+			parts.add( getCacheKeyPart( storageLocation, imageRoot ) );
+			parts.add( String.valueOf( storageLocation.getChannel() ) );
+			parts.add( String.valueOf( settings.values.getRemoveSpatialCalibration() ) );
+
+			if ( dataSource instanceof SegmentationDataSource )
+			{
+				final SegmentationDataSource segmentationDataSource = ( SegmentationDataSource ) dataSource;
+				if ( segmentationDataSource.tableData != null )
+				{
+					final TableDataFormat tableDataFormat = getTableDataFormat( segmentationDataSource.tableData );
+					parts.add( tableDataFormat.toString() );
+					parts.add( getCacheKeyPart( segmentationDataSource.tableData.get( tableDataFormat ), tableRoot ) );
+				}
+				else
+				{
+					parts.add( String.valueOf( settings.values.getMaxNumLazySegments() ) );
+				}
+			}
+		}
+		else if ( dataSource instanceof SpotDataSource )
+		{
+			final SpotDataSource spotDataSource = ( SpotDataSource ) dataSource;
+			final TableDataFormat tableDataFormat = getTableDataFormat( spotDataSource.tableData );
+			parts.add( tableDataFormat.toString() );
+			parts.add( getCacheKeyPart( spotDataSource.tableData.get( tableDataFormat ), tableRoot ) );
+			parts.add( Arrays.toString( spotDataSource.boundingBoxMin ) );
+			parts.add( Arrays.toString( spotDataSource.boundingBoxMax ) );
+			parts.add( String.valueOf( settings.values.getSpotRasterPixelSize() ) );
+		}
+		else
+		{
+			// region tables are kept as raw data
+			return null;
+		}
+
+		return DataStore.createCacheKey( parts.toArray( new String[ 0 ] ) );
+	}
+
+	private String getCacheKeyPart( StorageLocation storageLocation, String root )
+	{
+		if ( storageLocation.data != null || storageLocation instanceof Site )
+			return "object@" + System.identityHashCode( storageLocation.data != null ? storageLocation.data : storageLocation );
+		else if ( storageLocation.absolutePath != null )
+			return storageLocation.absolutePath;
+		else if ( storageLocation.relativePath != null )
+			return combinePath( root, dataset.getName(), storageLocation.relativePath );
+		else
+			return storageLocation.s3Address;
+	}
+
 	private TableSawAnnotationTableModel< TableSawAnnotatedSegment > createTableModel( SegmentationDataSource dataSource )
 	{
 		final StorageLocation tableLocation = getTableLocation( dataSource.tableData );
 		final TableDataFormat tableFormat = getTableDataFormat( dataSource.tableData );
 
-		Table table = null;
-		SegmentColumnNames segmentColumnNames = null;
-		if ( dataSource.preInit() )
-			table = TableOpener.open( tableLocation, tableFormat );
-		if ( table != null )
-			segmentColumnNames = TableDataFormat.getSegmentColumnNames( table.columnNames() );
+		final TableSawAnnotatedSegmentCreator annotationCreator = new TableSawAnnotatedSegmentCreator( null, null );
 
-		final TableSawAnnotatedSegmentCreator annotationCreator = new TableSawAnnotatedSegmentCreator( segmentColumnNames, table );
+		// only the columns that are needed to create the segments, and the required ones,
+		// are loaded with the segments; the others are loaded when they are first accessed
+		final TableSawAnnotationTableModel tableModel = new TableSawAnnotationTableModel( dataSource.getName(), annotationCreator, tableLocation, tableFormat, null, dataSource.getRequiredTableColumns() );
 
-		final TableSawAnnotationTableModel tableModel = new TableSawAnnotationTableModel( dataSource.getName(), annotationCreator, tableLocation, tableFormat, table );
+		if ( dataSource.preInit() )
+			tableModel.numAnnotations(); // loads the table
 
 		return tableModel;
 	}
@@ -1172,7 +1251,11 @@ public class MoBIE
 
 		if ( storageLocation instanceof Site )
 		{
-			return new SpimDataImage( ( Site ) storageLocation, name );
+			final Site site = ( Site ) storageLocation;
+			if ( site.getImageDataFormat().equals( ImageDataFormat.Tiff ) )
+				return new SiteImage( site, name, ThreadHelper.sharedQueue );
+
+			return new SpimDataImage( site, name );
 		}
 
 		// TODO improve caching: https://github.com/mobie/mobie-viewer-fiji/issues/857
@@ -33,6 +33,7 @@ import org.embl.mobie.lib.serialize.View;
 import org.embl.mobie.lib.table.TableDataFormat;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class MoBIESettings
@@ -64,6 +65,8 @@ public class MoBIESettings
 		return this;
 	}
 
+	// If a table is available in several formats, the
+	// format that has been added first is used.
 	public MoBIESettings addTableDataFormat( TableDataFormat tableDataFormat )
 	{
 		this.values.tableDataFormats.add( tableDataFormat );
@@ -112,6 +115,38 @@ public class MoBIESettings
 		return this;
 	}
 
+	// For segmentations without a table the segments
+	// are created while browsing the data;
+	// this limits their number (per source and time point),
+	// removing the least recently used, unselected segments if needed.
+	public MoBIESettings maxNumLazySegments( Integer maxNumLazySegments )
+	{
+		this.values.maxNumLazySegments = maxNumLazySegments;
+		return this;
+	}
+
+	// If set, spots are rasterised into cached label images
+	// with the given pixel size (in the units of the spot coordinates),
+	// which renders much faster for large numbers of spots.
+	// If null, the closest spot is searched for each rendered pixel.
+	public MoBIESettings spotRasterPixelSize( Double spotRasterPixelSize )
+	{
+		this.values.spotRasterPixelSize = spotRasterPixelSize;
+		return this;
+	}
+
+	// The number of images that are kept in memory,
+	// such that switching back to a previously shown view
+	// does not need to reload the data.
+	// Images of the currently shown view are always kept;
+	// the others are freed earlier if the memory runs low.
+	// 0: no caching
+	public MoBIESettings maxNumCachedImages( Integer maxNumCachedImages )
+	{
+		this.values.maxNumCachedImages = maxNumCachedImages;
+		return this;
+	}
+
 	public static class Values
 	{
 		private String[] s3AccessAndSecretKey;
@@ -120,11 +155,14 @@ public class MoBIESettings
 		private String tableDataBranch;
 		private Set< ImageDataFormat > imageDataFormats = new HashSet<>();
 		private String imageDataLocation;
-		private Set< TableDataFormat > tableDataFormats = new HashSet<>();
+		private Set< TableDataFormat > tableDataFormats = new LinkedHashSet<>(); // in the order of preference
 		private String tableDataLocation;
 		private String view = View.DEFAULT;
 		private Boolean removeSpatialCalibration = false;
 		private Boolean cli = false; // started from CLI
+		private Integer maxNumLazySegments = -1; // -1: no limit
+		private Double spotRasterPixelSize = null; // null: no rasterisation
+		private Integer maxNumCachedImages = 100;
 
 		public Boolean getRemoveSpatialCalibration()
 		{
@@ -182,5 +220,20 @@ public class MoBIESettings
 		{
 			return cli;
 		}
+
+		public Integer getMaxNumLazySegments()
+		{
+			return maxNumLazySegments;
+		}
+
+		public Double getSpotRasterPixelSize()
+		{
+			return spotRasterPixelSize;
+		}
+
+		public Integer getMaxNumCachedImages()
+		{
+			return maxNumCachedImages;
+		}
 	}
 }
@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.cmd;
+
+import bdv.util.BdvHandle;
+import bdv.viewer.Source;
+import bdv.viewer.SourceAndConverter;
+import net.imglib2.realtransform.AffineTransform3D;
+import org.embl.mobie.MoBIE;
+import org.embl.mobie.MoBIESettings;
+import org.embl.mobie.lib.DataStore;
+import org.embl.mobie.lib.bdv.ScreenShotMaker;
+import org.embl.mobie.lib.bdv.TiledScreenShotExporter;
+import org.embl.mobie.lib.serialize.View;
+import org.embl.mobie.lib.serialize.display.Display;
+import org.embl.mobie.lib.transform.NormalizedAffineViewerTransform;
+import org.embl.mobie.lib.transform.TransformHelper;
+import org.embl.mobie.lib.transform.viewer.AffineViewerTransform;
+import org.embl.mobie.lib.transform.viewer.ImageZoomViewerTransform;
+import org.embl.mobie.lib.transform.viewer.TimepointViewerTransform;
+import org.embl.mobie.lib.transform.viewer.ViewerTransform;
+import picocli.CommandLine;
+import picocli.CommandLine.Option;
+
+import javax.annotation.Nullable;
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+@CommandLine.Command(name = "mobie-screenshot", mixinStandardHelpOptions = true, version = "4.0.3", description = "Render a view of a MoBIE project tile by tile into an RGB OME-Zarr, also without a display, see https://mobie.github.io/")
+public class ScreenShotCmd implements Callable< Void > {
+
+	static { net.imagej.patcher.LegacyInjector.preinit(); }
+
+	@Option(names = {"-p", "--project"}, required = true, description = "MoBIE project, e.g., \"https://github.com/mobie/platybrowser-datasets\"")
+	public String project = null;
+
+	@Option(names = {"-v", "--view"}, required = false, description = "view within the above MoBIE project, e.g., \"Figure 2C: Muscle segmentation\"")
+	public String view = null;
+
+	@Option(names = {"-o", "--output"}, required = true, description = "output OME-Zarr path, e.g., \"/home/screenshot.ome.zarr\"")
+	public String output = null;
+
+	@Option(names = {"-s", "--sampling"}, required = true, description = "pixel size of the screenshot, in the physical unit of the view")
+	public Double sampling = null;
+
+	@Option(names = {"-u", "--unit"}, required = false, description = "physical unit of the pixel size; default: the unit of the first visible source")
+	public String unit = null;
+
+	@Option(names = {"--tile-size"}, required = false, description = "size of the tiles that are rendered and written in parallel; default: " + TiledScreenShotExporter.DEFAULT_TILE_SIZE)
+	public int tileSize = TiledScreenShotExporter.DEFAULT_TILE_SIZE;
+
+	@Option(names = {"--threads"}, required = false, description = "number of threads for rendering the tiles; default: number of processors")
+	public int numThreads = Runtime.getRuntime().availableProcessors();
+
+	@Option(names = {"--width"}, required = false, description = "without a display: width of the viewer window that shows the view, in pixels; default: 800")
+	public int width = 800;
+
+	@Option(names = {"--height"}, required = false, description = "without a display: height of the viewer window that shows the view, in pixels; default: 600")
+	public int height = 600;
+
+	@Override
+	public Void call() throws Exception {
+
+		final MoBIESettings settings = new MoBIESettings()
+				.cli( true );
+
+		if ( view != null ) settings.view( view );
+
+		final MoBIE moBIE = new MoBIE( project, settings );
+
+		final TiledScreenShotExporter exporter;
+		if ( GraphicsEnvironment.isHeadless() )
+		{
+			// there is no BigDataViewer, thus render the sources of the view
+			// with its viewer transform, e.g. on a cluster node
+			final View mobieView = moBIE.getViews().get( settings.values.getView() );
+			final List< Display > displays = moBIE.getViewManager().getCurrentSourceDisplays();
+			final List< SourceAndConverter< ? > > sacs = new ArrayList<>();
+			for ( Display< ? > display : displays )
+				if ( display.isVisible() )
+					sacs.addAll( display.sourceAndConverters() );
+
+			final ViewerTransform viewerTransform = mobieView.getViewerTransform();
+			final int timepoint = viewerTransform != null && viewerTransform.getTimepoint() != null ? viewerTransform.getTimepoint() : 0;
+			final int[] windowDimensions = { width, height };
+			exporter = new TiledScreenShotExporter( sacs, getViewerTransform( viewerTransform, displays, timepoint, windowDimensions ), timepoint, windowDimensions, sampling, getUnit( sacs ) );
+		}
+		else
+		{
+			final BdvHandle bdvHandle = moBIE.getViewManager().getSliceViewer().getBdvHandle();
+			exporter = new TiledScreenShotExporter( bdvHandle, sampling, getUnit( ScreenShotMaker.getScreenShotSacs( bdvHandle ) ) );
+		}
+
+		exporter.setTileSize( tileSize );
+		exporter.setNumThreads( numThreads );
+		exporter.export( output );
+
+		moBIE.close();
+
+		return null;
+	}
+
+	private String getUnit( List< SourceAndConverter< ? > > sacs )
+	{
+		if ( unit != null )
+			return unit;
+
+		if ( sacs.isEmpty() )
+			throw new IllegalArgumentException( "There are no visible sources in the view, thus the unit cannot be determined." );
+
+		return sacs.get( 0 ).getSpimSource().getVoxelDimensions().unit();
+	}
+
+	// compare ViewManager.show( View ) and ViewerTransformChanger
+	private static AffineTransform3D getViewerTransform( @Nullable ViewerTransform viewerTransform, List< Display > displays, int timepoint, int[] windowDimensions )
+	{
+		if ( viewerTransform instanceof AffineViewerTransform )
+		{
+			return TransformHelper.asAffineTransform3D( viewerTransform.getParameters() );
+		}
+		else if ( viewerTransform instanceof NormalizedAffineViewerTransform )
+		{
+			return TransformHelper.createUnnormalizedViewerTransform( TransformHelper.asAffineTransform3D( viewerTransform.getParameters() ), windowDimensions );
+		}
+		else if ( viewerTransform instanceof ImageZoomViewerTransform )
+		{
+			final String imageName = ( ( ImageZoomViewerTransform ) viewerTransform ).getImageName();
+			return TransformHelper.getIntervalViewerTransform( DataStore.getImage( imageName ).getMask(), windowDimensions );
+		}
+		else if ( viewerTransform == null || viewerTransform instanceof TimepointViewerTransform )
+		{
+			// show the sources of the first display, as the MoBIEViewerTransformAdjuster
+			if ( displays.isEmpty() )
+				throw new IllegalArgumentException( "There are no displays in the view." );
+			final List< Source< ? > > sources = ( ( Display< ? > ) displays.get( 0 ) ).sourceAndConverters().stream().map( SourceAndConverter::getSpimSource ).collect( Collectors.toList() );
+			return TransformHelper.getIntervalViewerTransform( TransformHelper.createMask( sources, timepoint ), windowDimensions );
+		}
+		else
+		{
+			throw new UnsupportedOperationException( "Without a display, the viewer transform of the view cannot be a " + viewerTransform.getClass().getSimpleName() + "; please use an affine or normalizedAffine viewer transform." );
+		}
+	}
+
+	public static final void main( final String... args ) {
+
+		final ScreenShotCmd screenShotCmd = new ScreenShotCmd();
+
+		if ( args == null || args.length == 0 )
+			new CommandLine( screenShotCmd ).execute( "--help" );
+		else
+			new CommandLine( screenShotCmd ).execute( args );
+	}
+}
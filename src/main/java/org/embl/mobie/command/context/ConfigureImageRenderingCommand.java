@@ -31,6 +31,7 @@ package org.embl.mobie.command.context;
 import bdv.util.BdvHandle;
 import bdv.viewer.SourceAndConverter;
 import org.embl.mobie.command.CommandConstants;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGBFactory;
 import org.embl.mobie.lib.bdv.blend.BlendingMode;
 import org.embl.mobie.lib.volume.ImageVolumeViewer;
 import org.scijava.Initializable;
@@ -104,6 +105,7 @@ public class ConfigureImageRenderingCommand extends DynamicCommand implements Bd
 			final BlendingMode blendingMode = BlendingMode.valueOf( this.blendingMode );
 			SourceAndConverterServices.getSourceAndConverterService().setMetadata( sourceAndConverter, BlendingMode.class.getName(), blendingMode );
 		}
+		AccumulateAlphaBlendingProjectorARGBFactory.invalidateBlending();
 		bdvh.getViewerPanel().requestRepaint();
 	}
 
@@ -29,10 +29,12 @@
 package org.embl.mobie.command.context;
 
 import bdv.util.BdvHandle;
+import bdv.viewer.SourceAndConverter;
 import ij.IJ;
 import org.embl.mobie.MoBIE;
 import org.embl.mobie.command.CommandConstants;
 import org.embl.mobie.lib.bdv.ScreenShotMaker;
+import org.embl.mobie.lib.bdv.TiledScreenShotExporter;
 import org.scijava.Initializable;
 import org.scijava.command.DynamicCommand;
 import org.scijava.module.MutableModuleItem;
@@ -40,8 +42,11 @@ import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import sc.fiji.bdvpg.scijava.command.BdvPlaygroundActionCommand;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 @Plugin(type = BdvPlaygroundActionCommand.class, menuPath = CommandConstants.CONTEXT_MENU_ITEMS_ROOT + "Take Screenshot")
 public class ScreenShotMakerCommand extends DynamicCommand implements BdvPlaygroundActionCommand, Initializable
@@ -65,17 +70,45 @@ public class ScreenShotMakerCommand extends DynamicCommand implements BdvPlaygro
     @Parameter(label="Show Multi-Channel Image")
     public boolean showMultiChannel = true;
 
+    @Parameter(label="Save RGB Image as tiled OME-Zarr", description = "Renders the RGB image tile by tile directly to disk, instead of showing the images; use this for captures that are too large for the memory.")
+    public boolean saveTiledOMEZarr = false;
+
+    @Parameter(label="OME-Zarr path", style = "save", required = false)
+    public File omeZarrPath;
 
     @Override
     public void run() {
         ScreenShotMaker screenShotMaker = new ScreenShotMaker( bdvh );
         screenShotMaker.setPhysicalPixelSpacingInXY( targetSamplingInXY, pixelUnit );
 
-        if( showRGB )
-            screenShotMaker.getRgbScreenShot().show();
-
-        if( showMultiChannel )
-            screenShotMaker.getRawScreenShot().show();
+        if ( saveTiledOMEZarr )
+        {
+            // the tiled export is meant for captures that do not fit into the memory,
+            // thus the in-memory images are not created
+            if ( omeZarrPath == null )
+            {
+                IJ.error( "Please provide an OME-Zarr path for saving the tiled screenshot." );
+            }
+            else
+            {
+                try
+                {
+                    new TiledScreenShotExporter( bdvh, targetSamplingInXY, pixelUnit ).export( omeZarrPath.getAbsolutePath() );
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        }
+        else
+        {
+            if( showRGB )
+                screenShotMaker.getRgbScreenShot().show();
+
+            if( showMultiChannel )
+                screenShotMaker.getRawScreenShot().show();
+        }
 
         if ( MoBIE.openedFromCLI )
             MoBIE.imageJ.ui().showUI();
@@ -88,7 +121,9 @@ public class ScreenShotMakerCommand extends DynamicCommand implements BdvPlaygro
         //
         final MutableModuleItem< String > pixelUnitItem = //
                 getInfo().getMutableInput("pixelUnit", String.class);
-        String pixelUnit = bdvh.getViewerPanel().state().getCurrentSource().getSpimSource().getVoxelDimensions().unit();
+        final List< SourceAndConverter< ? > > sacs = ScreenShotMaker.getScreenShotSacs( bdvh );
+        if ( sacs.isEmpty() ) return; // keep the default choices
+        String pixelUnit = sacs.get( 0 ).getSpimSource().getVoxelDimensions().unit();
         final ArrayList< String > units = new ArrayList<>();
         units.add( pixelUnit );
         pixelUnitItem.setChoices( units );
@@ -31,12 +31,20 @@ package org.embl.mobie.lib;
 import org.embl.mobie.lib.image.Image;
 import org.embl.mobie.lib.serialize.DataSource;
 
+import javax.annotation.Nullable;
+
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class DataStore
@@ -46,6 +54,22 @@ public abstract class DataStore
 	// Images of the current view
 	private static Map< String, Image< ? > > images = new ConcurrentHashMap<>();
 
+	// Cache keys of the images of the current view
+	private static Map< String, String > imageKeys = new ConcurrentHashMap<>();
+
+	// Images that were opened or transformed, shared across views.
+	// The key identifies the data source(s) and the chain of
+	// transformations that were applied to them.
+	// The order is the LRU order for evicting images
+	// that are not part of the current view; it is
+	// updated by {@code getCachedImage} and {@code putImage}.
+	// Images that are not part of the current view are only
+	// softly referenced, such that they are freed before
+	// the memory runs out.
+	private static final LinkedHashMap< String, CachedImage > cache = new LinkedHashMap<>();
+
+	private static int maxNumCachedImages = 100;
+
 	// Currently, only used to pre-load tables for region annotations
 	private static Map< String, DataSource > rawData = new ConcurrentHashMap<>();
 
@@ -94,22 +118,214 @@ public abstract class DataStore
 	}
 
 	public static void putImage( Image< ? > image )
+	{
+		putImage( image, null );
+	}
+
+	// Adds the image to the current view and, if a {@code cacheKey}
+	// is given, also to the cache, such that it can be reused
+	// by other views via {@code getCachedImage( cacheKey )}.
+	public static void putImage( Image< ? > image, @Nullable String cacheKey )
 	{
 		if ( image.getName() == null )
 			throw new UnsupportedOperationException( "The image " + image.getClass().getSimpleName() + " does not have a name." );
 
-		images.put( image.getName(), image );
+		synchronized ( cache )
+		{
+			final String previousKey = imageKeys.remove( image.getName() );
+			if ( previousKey != null )
+			{
+				release( previousKey );
+
+				// The image may have been transformed in place,
+				// in which case it does not correspond anymore
+				// to what it was cached for.
+				final CachedImage previous = cache.get( previousKey );
+				if ( previous != null && previous.get() == image && ! previousKey.equals( cacheKey ) )
+					cache.remove( previousKey );
+			}
+
+			if ( cacheKey != null && maxNumCachedImages > 0 )
+			{
+				CachedImage cachedImage = cache.remove( cacheKey );
+				if ( cachedImage == null || cachedImage.get() != image )
+					cachedImage = new CachedImage( image );
+				cachedImage.acquire( image );
+				cache.put( cacheKey, cachedImage );
+				imageKeys.put( image.getName(), cacheKey );
+			}
+
+			images.put( image.getName(), image );
+		}
 	}
 
 	public static void putImages( Collection< ? extends Image< ? > > images )
 	{
 		for ( Image< ? > image : images )
-			DataStore.images.put( image.getName(), image );
+			putImage( image );
+	}
+
+	@Nullable
+	public static Image< ? > getCachedImage( @Nullable String cacheKey )
+	{
+		if ( cacheKey == null ) return null;
+
+		synchronized ( cache )
+		{
+			final CachedImage cachedImage = cache.remove( cacheKey );
+			if ( cachedImage == null ) return null;
+
+			final Image< ? > image = cachedImage.get();
+			if ( image == null ) return null; // freed by the garbage collector
+
+			// mark as most recently used
+			cache.put( cacheKey, cachedImage );
+			return image;
+		}
+	}
+
+	public static boolean containsCachedImage( @Nullable String cacheKey )
+	{
+		return getCachedImage( cacheKey ) != null;
+	}
+
+	// Adds the cached image to the current view.
+	// Returns false if the image is not cached.
+	public static boolean putCachedImage( @Nullable String cacheKey )
+	{
+		return putCachedImages( Collections.singletonList( cacheKey ) );
+	}
+
+	// Adds the cached images to the current view, if all of them
+	// are cached. Otherwise, nothing is added and false is returned.
+	public static boolean putCachedImages( List< String > cacheKeys )
+	{
+		synchronized ( cache )
+		{
+			final ArrayList< Image< ? > > cachedImages = new ArrayList<>();
+			for ( String cacheKey : cacheKeys )
+			{
+				final Image< ? > image = getCachedImage( cacheKey );
+				if ( image == null ) return false;
+				cachedImages.add( image );
+			}
+
+			for ( int i = 0; i < cacheKeys.size(); i++ )
+				putImage( cachedImages.get( i ), cacheKeys.get( i ) );
+
+			return true;
+		}
+	}
+
+	@Nullable
+	public static String getCacheKey( String imageName )
+	{
+		return imageKeys.get( imageName );
 	}
 
+	// Removes the images from the current view.
+	// The cached images remain available for other views,
+	// up to {@code maxNumCachedImages}, evicting the
+	// least recently used ones.
 	public static void clearImages()
 	{
-		// FIXME Caching: https://github.com/mobie/mobie-viewer-fiji/issues/813
-		images.clear();
+		synchronized ( cache )
+		{
+			for ( String cacheKey : imageKeys.values() )
+				release( cacheKey );
+			imageKeys.clear();
+			images.clear();
+			evict();
+		}
+	}
+
+	// Forgets all cached data, such that it will be
+	// reloaded from disk the next time it is needed.
+	public static void clearCache()
+	{
+		synchronized ( cache )
+		{
+			cache.clear();
+			imageKeys.clear();
+			rawData.clear();
+		}
+	}
+
+	public static int getNumCachedImages()
+	{
+		synchronized ( cache )
+		{
+			return cache.size();
+		}
+	}
+
+	public static void setMaxNumCachedImages( int maxNumCachedImages )
+	{
+		synchronized ( cache )
+		{
+			DataStore.maxNumCachedImages = maxNumCachedImages;
+			evict();
+		}
+	}
+
+	// Creates a compact key from the given parts,
+	// e.g. the description of a data source or
+	// of a transformation and the keys of its input images.
+	public static String createCacheKey( String... parts )
+	{
+		final String joined = String.join( "\n", parts );
+		return UUID.nameUUIDFromBytes( joined.getBytes( StandardCharsets.UTF_8 ) ).toString();
+	}
+
+	private static void release( String cacheKey )
+	{
+		final CachedImage cachedImage = cache.get( cacheKey );
+		if ( cachedImage != null )
+			cachedImage.release();
+	}
+
+	private static void evict()
+	{
+		// drop images that have been freed by the garbage collector
+		cache.values().removeIf( cachedImage -> cachedImage.get() == null );
+
+		// images of the current view are never evicted
+		final Iterator< CachedImage > iterator = cache.values().iterator();
+		while ( cache.size() > maxNumCachedImages && iterator.hasNext() )
+		{
+			if ( iterator.next().numReferences == 0 )
+				iterator.remove();
+		}
+	}
+
+	private static class CachedImage
+	{
+		private final SoftReference< Image< ? > > softImage;
+		private Image< ? > image; // only while referenced by the current view
+		private int numReferences;
+
+		CachedImage( Image< ? > image )
+		{
+			this.softImage = new SoftReference<>( image );
+		}
+
+		Image< ? > get()
+		{
+			return image != null ? image : softImage.get();
+		}
+
+		void acquire( Image< ? > image )
+		{
+			this.image = image;
+			numReferences++;
+		}
+
+		void release()
+		{
+			if ( numReferences > 0 )
+				numReferences--;
+			if ( numReferences == 0 )
+				image = null;
+		}
 	}
 }
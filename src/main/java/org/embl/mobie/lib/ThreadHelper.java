@@ -55,6 +55,22 @@ public class ThreadHelper
 
 	public static ExecutorService executorService = Executors.newFixedThreadPool( N_THREADS );
 
+	// for notifying selection listeners (see SelectionEventDispatcher)
+	public static ExecutorService selectionListenerExecutorService = Executors.newFixedThreadPool( Math.max( 1, N_THREADS ) );
+
+	// for parsing chunks of a table in parallel (see TableOpener);
+	// a dedicated pool, because tables are opened from within
+	// tasks that run on the other pools
+	public static ExecutorService tableParsingExecutorService = Executors.newFixedThreadPool( Math.max( 1, N_THREADS ) );
+
+	// for computing the meshes of segments (see SegmentVolumeViewer)
+	public static ExecutorService meshExecutorService = Executors.newFixedThreadPool( Math.max( 1, N_THREADS ) );
+
+	// the 3D viewer is only modified by this one thread,
+	// such that meshes can be computed in parallel
+	// and added as soon as they are ready
+	public static ExecutorService universeExecutorService = Executors.newSingleThreadExecutor();
+
 	public static ExecutorService stitchedImageExecutorService;
 	static {
 		// queue that only keep the latest requests.
@@ -241,6 +241,8 @@ public class AnnotationUI< A extends Annotation > extends JFrame implements Sele
 				row.setString( annotationColumnName, annotationName );
 			}
 
+			coloringModel.valuesChanged();
+
 			if( isKeepSelectedMode )
 			{
 				selectionModel.clearSelection(); // Hack to notify all listeners that the coloring might have changed.
@@ -0,0 +1,289 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.annotation;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Maps the labels of one source and time point
+ * to annotations that are created on demand.
+ *
+ * The labels are distributed onto independently locked stripes,
+ * such that concurrent lookups (e.g. from several BDV render threads)
+ * rarely wait for each other.
+ *
+ * Optionally, the number of annotations can be bounded;
+ * if a stripe is full, its least recently used annotations are evicted
+ * (approximately, giving recently used annotations another chance),
+ * except for annotations that must be retained, e.g. selected ones.
+ *
+ * The consumers of added and evicted annotations are informed outside of
+ * the stripe locks, but per stripe in the order of the changes,
+ * such that an annotation is never reported as evicted before it
+ * has been reported as added.
+ */
+public class ConcurrentLabelToAnnotationMap< A extends Annotation >
+{
+	private static final int NUM_STRIPES = 64; // must be a power of two
+	private static final int MAX_USAGE = 2;
+
+	private final Stripe[] stripes;
+	private final IntFunction< A > labelToNewAnnotation;
+	@Nullable
+	private final Consumer< A > addedAnnotationConsumer;
+	@Nullable
+	private final Consumer< List< A > > evictedAnnotationsConsumer;
+	private final Predicate< A > isRetained;
+
+	public ConcurrentLabelToAnnotationMap( IntFunction< A > labelToNewAnnotation, int maxNumAnnotations, @Nullable Consumer< List< A > > evictedAnnotationsConsumer )
+	{
+		this( labelToNewAnnotation, null, maxNumAnnotations, evictedAnnotationsConsumer, annotation -> false );
+	}
+
+	/**
+	 * @param labelToNewAnnotation
+	 * 			creates the annotation for a label that is not yet in the map;
+	 * 			this is called without locking and thus may be called concurrently
+	 * 			for the same label, in which case only one of the annotations is kept
+	 * @param addedAnnotationConsumer
+	 * 			is informed once about each annotation that is added to the map
+	 * @param maxNumAnnotations
+	 * 			the maximal number of annotations, or -1 for no limit
+	 * @param evictedAnnotationsConsumer
+	 * 			is informed about evicted annotations
+	 * @param isRetained
+	 * 			annotations for which this is true are not evicted
+	 */
+	public ConcurrentLabelToAnnotationMap( IntFunction< A > labelToNewAnnotation, @Nullable Consumer< A > addedAnnotationConsumer, int maxNumAnnotations, @Nullable Consumer< List< A > > evictedAnnotationsConsumer, Predicate< A > isRetained )
+	{
+		this.labelToNewAnnotation = labelToNewAnnotation;
+		this.addedAnnotationConsumer = addedAnnotationConsumer;
+		this.evictedAnnotationsConsumer = evictedAnnotationsConsumer;
+		this.isRetained = isRetained;
+
+		final int stripeCapacity = maxNumAnnotations < 0 ? -1 : Math.max( 1, maxNumAnnotations / NUM_STRIPES );
+		stripes = new ConcurrentLabelToAnnotationMap.Stripe[ NUM_STRIPES ];
+		for ( int i = 0; i < NUM_STRIPES; i++ )
+			stripes[ i ] = new Stripe( stripeCapacity );
+	}
+
+	public A get( int label )
+	{
+		final Stripe stripe = stripes[ stripeIndex( label ) ];
+
+		synchronized ( stripe )
+		{
+			final A existing = stripe.get( label );
+			if ( existing != null )
+				return existing;
+		}
+
+		// create the annotation outside of the lock,
+		// such that lookups of other labels are not blocked
+		final A annotation = labelToNewAnnotation.apply( label );
+
+		synchronized ( stripe )
+		{
+			final A existing = stripe.get( label );
+			if ( existing != null )
+				return existing; // created concurrently
+
+			final List< A > evicted = stripe.add( label, annotation );
+
+			// queue the notifications in the order of the changes
+			if ( addedAnnotationConsumer != null )
+				stripe.notifications.add( () -> addedAnnotationConsumer.accept( annotation ) );
+
+			if ( evicted != null && evictedAnnotationsConsumer != null )
+				stripe.notifications.add( () -> evictedAnnotationsConsumer.accept( evicted ) );
+		}
+
+		stripe.notifyConsumers();
+
+		return annotation;
+	}
+
+	private static int stripeIndex( int label )
+	{
+		// spread neighbouring labels onto different stripes
+		final int hash = label * 0x9E3779B9;
+		return ( hash ^ ( hash >>> 16 ) ) & ( NUM_STRIPES - 1 );
+	}
+
+	private class Entry
+	{
+		private final A annotation;
+
+		// how often the annotation has been used since the last
+		// evictions (up to MAX_USAGE), i.e. how recently used it is
+		private int usage;
+
+		Entry( A annotation )
+		{
+			this.annotation = annotation;
+			// a new annotation counts as used once, such that
+			// it is not evicted before it has been handed out
+			this.usage = 1;
+		}
+	}
+
+	private class Stripe
+	{
+		private final TIntObjectHashMap< Entry > labelToEntry = new TIntObjectHashMap<>();
+
+		// guarded by the stripe
+		private final ArrayDeque< Runnable > notifications = new ArrayDeque<>();
+
+		// held while notifying, such that the notifications
+		// are delivered one after the other, in order
+		private final Object notifyLock = new Object();
+
+		// the labels, from the least to the most recently added or kept,
+		// only if the number of annotations is bounded
+		private int[] labels;
+		private int size = 0;
+
+		Stripe( int capacity )
+		{
+			labels = capacity < 0 ? null : new int[ capacity ];
+		}
+
+		// Delivers the queued notifications, including the ones
+		// that other threads have queued in the meantime.
+		void notifyConsumers()
+		{
+			synchronized ( notifyLock )
+			{
+				while ( true )
+				{
+					final Runnable notification;
+					synchronized ( this )
+					{
+						notification = notifications.poll();
+					}
+
+					if ( notification == null )
+						return;
+
+					notification.run();
+				}
+			}
+		}
+
+		A get( int label )
+		{
+			final Entry entry = labelToEntry.get( label );
+			if ( entry == null )
+				return null;
+
+			if ( entry.usage < MAX_USAGE )
+				entry.usage++;
+			return entry.annotation;
+		}
+
+		/**
+		 * @return the evicted annotations or null
+		 */
+		List< A > add( int label, A annotation )
+		{
+			labelToEntry.put( label, new Entry( annotation ) );
+
+			if ( labels == null )
+				return null;
+
+			List< A > evicted = null;
+			if ( size == labels.length )
+			{
+				evicted = evict();
+				if ( size == labels.length )
+					labels = Arrays.copyOf( labels, 2 * labels.length ); // all retained
+			}
+
+			labels[ size++ ] = label;
+
+			return evicted;
+		}
+
+		// Evicts a quarter of the annotations at once,
+		// such that listeners are not notified
+		// about every single annotation.
+		// Annotations that have been used since the last
+		// eviction are kept, once per use, as are retained ones.
+		private List< A > evict()
+		{
+			final int numEvict = Math.max( 1, labels.length / 4 );
+			final List< A > evicted = new ArrayList<>( numEvict );
+
+			for ( int pass = 0; pass <= MAX_USAGE && evicted.size() < numEvict; pass++ )
+			{
+				final int[] kept = new int[ labels.length ];
+				int numKept = 0;
+				final int[] recentlyUsed = new int[ labels.length ];
+				int numRecentlyUsed = 0;
+
+				for ( int i = 0; i < size; i++ )
+				{
+					final int label = labels[ i ];
+					final Entry entry = labelToEntry.get( label );
+					if ( entry.usage > 0 || isRetained.test( entry.annotation ) )
+					{
+						if ( entry.usage > 0 )
+							entry.usage--;
+						recentlyUsed[ numRecentlyUsed++ ] = label;
+					}
+					else if ( evicted.size() < numEvict )
+					{
+						labelToEntry.remove( label );
+						evicted.add( entry.annotation );
+					}
+					else
+					{
+						kept[ numKept++ ] = label;
+					}
+				}
+
+				// the recently used labels become the most recent ones
+				System.arraycopy( kept, 0, labels, 0, numKept );
+				System.arraycopy( recentlyUsed, 0, labels, numKept, numRecentlyUsed );
+				size = numKept + numRecentlyUsed;
+			}
+
+			return evicted.isEmpty() ? null : evicted;
+		}
+	}
+}
@@ -28,9 +28,13 @@
  */
 package org.embl.mobie.lib.annotation;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
 import org.embl.mobie.lib.table.AnnData;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,7 +46,7 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 	private final AtomicBoolean throwError = new AtomicBoolean( true );
 	private final AnnData< A > annData;
 	private Map< String, A > uuidToAnnotation; // FIXME this should go somewhere else!
-	private Map< String, A > stlToAnnotation; // source, timepoint, label
+	private volatile Map< String, TIntObjectHashMap< LabelToAnnotationMap< A > > > stlToAnnotation; // source, timepoint, label
 
 	public DefaultAnnotationAdapter( AnnData< A > annData )
 	{
@@ -80,8 +84,10 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 	// This is for mapping for voxels within an
 	// {@code AnnotatedLabelSource}
 	// to the corresponding annotation.
+	// This is called for every rendered voxel and thus
+	// must not lock, such that BDV can render multi-threaded.
 	@Override
-	public synchronized A getAnnotation( String source, int timePoint, int label )
+	public A getAnnotation( String source, int timePoint, int label )
 	{
 		if ( label == 0 )
 		{
@@ -90,45 +96,68 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 			return null ;
 		}
 
-		// TODO the fact that this method currently is synchronized may cause
-		//   rendering in BDV effectively single threaded!
-		//   In theory, once stlToAnnotation is initialised this does
-		//   not need to be synchronised anymore; but I did not figure out
-		//   yet how to fix concurrency issues.
+		Map< String, TIntObjectHashMap< LabelToAnnotationMap< A > > > stlToAnnotation = this.stlToAnnotation;
 		if ( stlToAnnotation == null )
-			initMapping();
+			stlToAnnotation = initMapping();
 
-		final String stl = stlKey( source, timePoint, label );
-		final A annotation = stlToAnnotation.get( stl );
+		final A annotation = getAnnotation( stlToAnnotation, source, timePoint, label );
 
 		if ( annotation == null )
 		{
-			if ( throwError.get() )
+			if ( throwError.getAndSet( false ) ) // Not to crash the system by too many Serr prints
 			{
-				System.err.println( "AnnotationAdapter: Missing annotation: " + source+ "; time point = " + timePoint + "; label = " + label + "\nSuppressing further errors of that kind." );
+				System.err.println( "AnnotationAdapter: Missing annotation: " + source+ "; time point = " + timePoint + "; label = " + label );
 				System.err.println( "AnnotationAdapter: Suppressing further errors of that kind.");
 			}
-
-			throwError.set( false ); // Not to crash the system by too many Serr prints
 		}
 
 		return annotation;
 	}
 
-	private void initMapping()
+	private A getAnnotation( Map< String, TIntObjectHashMap< LabelToAnnotationMap< A > > > stlToAnnotation, String source, int timePoint, int label )
+	{
+		final TIntObjectHashMap< LabelToAnnotationMap< A > > tlToAnnotation = stlToAnnotation.get( source );
+		if ( tlToAnnotation == null )
+			return null;
+
+		final LabelToAnnotationMap< A > labelToAnnotation = tlToAnnotation.get( timePoint );
+		if ( labelToAnnotation == null )
+			return null;
+
+		return labelToAnnotation.get( label );
+	}
+
+	private synchronized Map< String, TIntObjectHashMap< LabelToAnnotationMap< A > > > initMapping()
 	{
-		stlToAnnotation = new ConcurrentHashMap<>();
+		// another thread may have initialised it meanwhile
+		if ( stlToAnnotation != null )
+			return stlToAnnotation;
+
+		final Map< String, TIntObjectHashMap< List< A > > > stlToAnnotations = new HashMap<>();
 		final Iterator< A > iterator = annData.getTable().annotations().iterator();
 		while( iterator.hasNext() )
 		{
 			A annotation = iterator.next();
-			stlToAnnotation.put( stlKey( annotation.source(), annotation.timePoint(), annotation.label() ), annotation );
+			final TIntObjectHashMap< List< A > > tlToAnnotations = stlToAnnotations.computeIfAbsent( annotation.source(), source -> new TIntObjectHashMap<>() );
+			final int timePoint = annotation.timePoint();
+			if ( ! tlToAnnotations.containsKey( timePoint ) )
+				tlToAnnotations.put( timePoint, new ArrayList<>() );
+			tlToAnnotations.get( timePoint ).add( annotation );
 		}
-	}
 
-	private String stlKey( String source, int timePoint, int label )
-	{
-		return source + ";" + timePoint + ";" + label;
+		final Map< String, TIntObjectHashMap< LabelToAnnotationMap< A > > > mapping = new HashMap<>();
+		for ( Map.Entry< String, TIntObjectHashMap< List< A > > > entry : stlToAnnotations.entrySet() )
+		{
+			final TIntObjectHashMap< LabelToAnnotationMap< A > > tlToAnnotation = new TIntObjectHashMap<>();
+			entry.getValue().forEachEntry( ( timePoint, annotations ) -> {
+				tlToAnnotation.put( timePoint, new LabelToAnnotationMap<>( annotations ) );
+				return true;
+			} );
+			mapping.put( entry.getKey(), tlToAnnotation );
+		}
+
+		stlToAnnotation = mapping;
+		return mapping;
 	}
 
 	@Override
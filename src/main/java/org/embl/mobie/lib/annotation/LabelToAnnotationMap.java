@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.annotation;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.util.List;
+
+/**
+ * Maps the labels of one source and time point
+ * to the corresponding annotations.
+ *
+ * If the labels are compact the annotations are stored
+ * in an array that is indexed by the label,
+ * otherwise in a primitive int map.
+ *
+ * The map is not modified after construction
+ * and thus can be read concurrently without locking.
+ */
+public class LabelToAnnotationMap< A extends Annotation >
+{
+	// use an array if its length is at most
+	// this many times the number of labels
+	private static final int MAX_ARRAY_SPARSITY = 4;
+
+	private final A[] labelToAnnotationArray;
+	private final TIntObjectHashMap< A > labelToAnnotationMap;
+
+	public LabelToAnnotationMap( List< A > annotations )
+	{
+		int minLabel = Integer.MAX_VALUE;
+		int maxLabel = 0;
+		for ( A annotation : annotations )
+		{
+			minLabel = Math.min( minLabel, annotation.label() );
+			maxLabel = Math.max( maxLabel, annotation.label() );
+		}
+
+		if ( minLabel >= 0 && maxLabel < ( long ) MAX_ARRAY_SPARSITY * annotations.size() )
+		{
+			labelToAnnotationArray = ( A[] ) new Annotation[ maxLabel + 1 ];
+			for ( A annotation : annotations )
+				labelToAnnotationArray[ annotation.label() ] = annotation;
+			labelToAnnotationMap = null;
+		}
+		else
+		{
+			labelToAnnotationArray = null;
+			labelToAnnotationMap = new TIntObjectHashMap<>( annotations.size() );
+			for ( A annotation : annotations )
+				labelToAnnotationMap.put( annotation.label(), annotation );
+		}
+	}
+
+	public A get( int label )
+	{
+		if ( labelToAnnotationArray != null )
+		{
+			if ( label < 0 || label >= labelToAnnotationArray.length )
+				return null;
+
+			return labelToAnnotationArray[ label ];
+		}
+
+		return labelToAnnotationMap.get( label );
+	}
+}
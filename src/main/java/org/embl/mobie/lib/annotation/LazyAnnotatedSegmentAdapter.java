@@ -28,6 +28,7 @@
  */
 package org.embl.mobie.lib.annotation;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
 import org.embl.mobie.lib.table.DefaultAnnotatedSegment;
 import org.embl.mobie.lib.table.LazyAnnotatedSegmentTableModel;
 
@@ -40,14 +41,28 @@ public class LazyAnnotatedSegmentAdapter implements AnnotationAdapter< Annotated
 {
 	private final String name;
 	private final LazyAnnotatedSegmentTableModel tableModel;
-	private Map< String, AnnotatedSegment > uuidToAnnotation;
-	private Map< String, AnnotatedSegment > stlToAnnotation; // source, timepoint, label
+	private final int maxNumAnnotations;
+	// source, timepoint, label
+	private final Map< String, TIntObjectHashMap< ConcurrentLabelToAnnotationMap< AnnotatedSegment > > > stlToAnnotation;
 
 	public LazyAnnotatedSegmentAdapter( String name, LazyAnnotatedSegmentTableModel tableModel )
+	{
+		this( name, tableModel, -1 );
+	}
+
+	/**
+	 * @param maxNumAnnotations
+	 * 			the maximal number of annotations per source and time point;
+	 * 			if more segments are encountered (e.g. while browsing a large
+	 * 			segmentation), the least recently used ones are removed again,
+	 * 			except for the ones that the table model retains (e.g. selected ones).
+	 * 			-1 means no limit.
+	 */
+	public LazyAnnotatedSegmentAdapter( String name, LazyAnnotatedSegmentTableModel tableModel, int maxNumAnnotations )
 	{
 		this.name = name;
 		this.tableModel = tableModel;
-		uuidToAnnotation = new ConcurrentHashMap<>();
+		this.maxNumAnnotations = maxNumAnnotations;
 		stlToAnnotation = new ConcurrentHashMap<>();
 	}
 
@@ -66,8 +81,10 @@ public class LazyAnnotatedSegmentAdapter implements AnnotationAdapter< Annotated
 	// This is for mapping for voxels within an
 	// {@code AnnotatedLabelSource}
 	// to the corresponding annotation.
+	// This is called for every rendered voxel and thus
+	// must not use a global lock, such that BDV can render multi-threaded.
 	@Override
-	public synchronized AnnotatedSegment getAnnotation( String source, int timePoint, int label )
+	public AnnotatedSegment getAnnotation( String source, int timePoint, int label )
 	{
 		if ( label == 0 )
 		{
@@ -76,22 +93,44 @@ public class LazyAnnotatedSegmentAdapter implements AnnotationAdapter< Annotated
 			return null ;
 		}
 
-		// FIXME The fact that the method is synchronized makes
-		//   rendering in BDV effectively single threaded!
-		//   Once itlToAnnotation is initialised this does
-		//   not need to be synchronised anymore.
-		final String stl = stlKey( source, timePoint, label );
-		if ( ! stlToAnnotation.containsKey( stl ) )
+		return getLabelToAnnotation( source, timePoint ).get( label );
+	}
+
+	private ConcurrentLabelToAnnotationMap< AnnotatedSegment > getLabelToAnnotation( String source, int timePoint )
+	{
+		final TIntObjectHashMap< ConcurrentLabelToAnnotationMap< AnnotatedSegment > > tlToAnnotation = stlToAnnotation.get( source );
+		if ( tlToAnnotation != null )
 		{
-			final AnnotatedSegment annotatedSegment = tableModel.createAnnotation( source, timePoint, label );
-			stlToAnnotation.put( stl, annotatedSegment );
+			final ConcurrentLabelToAnnotationMap< AnnotatedSegment > labelToAnnotation = tlToAnnotation.get( timePoint );
+			if ( labelToAnnotation != null )
+				return labelToAnnotation;
 		}
-		return stlToAnnotation.get( stl );
+
+		return addLabelToAnnotation( source, timePoint );
 	}
 
-	private String stlKey( String source, int timePoint, int label )
+	private synchronized ConcurrentLabelToAnnotationMap< AnnotatedSegment > addLabelToAnnotation( String source, int timePoint )
 	{
-		return source + ";" + timePoint + ";" + label;
+		final TIntObjectHashMap< ConcurrentLabelToAnnotationMap< AnnotatedSegment > > tlToAnnotation = stlToAnnotation.get( source );
+		if ( tlToAnnotation != null && tlToAnnotation.containsKey( timePoint ) )
+			return tlToAnnotation.get( timePoint );
+
+		// copy on write, such that getLabelToAnnotation()
+		// can read the time points without locking
+		final TIntObjectHashMap< ConcurrentLabelToAnnotationMap< AnnotatedSegment > > copy =
+				tlToAnnotation == null ? new TIntObjectHashMap<>() : new TIntObjectHashMap<>( tlToAnnotation );
+
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > labelToAnnotation = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( source, timePoint, label ),
+				tableModel::addAnnotation,
+				maxNumAnnotations,
+				evicted -> tableModel.removeAnnotations( evicted ),
+				tableModel::isRetained );
+
+		copy.put( timePoint, labelToAnnotation );
+		stlToAnnotation.put( source, copy );
+
+		return labelToAnnotation;
 	}
 
 	@Override
@@ -42,6 +42,7 @@ import net.imglib2.type.Type;
 import net.imglib2.type.numeric.real.FloatType;
 import org.embl.mobie.lib.annotation.Annotation;
 import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGBFactory;
 import net.imglib2.Cursor;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
@@ -150,18 +151,7 @@ public class ScreenShotMaker
 
         final ArrayList< double[] > displayRanges = new ArrayList<>();
 
-        final List< SourceAndConverter <?> > visibleSacs = getVisibleSacs( bdvHandle );
-        if ( visibleSacs.size() == 0 ) return;
-
-        List< SourceAndConverter< ? > > sacs = new ArrayList<>();
-        for ( SourceAndConverter< ?  > sac : visibleSacs )
-        {
-            // TODO: can we determine from BDV whether a source is intersecting viewer plane?
-            //       why do we need is2D=false ?
-            if ( ! isSourceIntersectingCurrentView( bdvHandle, sac.getSpimSource(), false ) )
-                continue;
-            sacs.add( sac );
-        }
+        final List< SourceAndConverter< ? > > sacs = getScreenShotSacs( bdvHandle );
         if ( sacs.size() == 0 ) return;
 
         final int t = bdvHandle.getViewerPanel().state().getCurrentTimepoint();
@@ -275,11 +265,28 @@ public class ScreenShotMaker
         }
     }
 
-    private List< SourceAndConverter< ? > > getVisibleSacs( BdvHandle bdv )
+    /**
+     * @return the visible sources that intersect the current view of the {@code bdvHandle}
+     */
+    public static List< SourceAndConverter< ? > > getScreenShotSacs( BdvHandle bdvHandle )
+    {
+        List< SourceAndConverter< ? > > sacs = new ArrayList<>();
+        for ( SourceAndConverter< ?  > sac : getVisibleSacs( bdvHandle ) )
+        {
+            // TODO: can we determine from BDV whether a source is intersecting viewer plane?
+            //       why do we need is2D=false ?
+            if ( ! isSourceIntersectingCurrentView( bdvHandle, sac.getSpimSource(), false ) )
+                continue;
+            sacs.add( sac );
+        }
+        return sacs;
+    }
+
+    private static List< SourceAndConverter< ? > > getVisibleSacs( BdvHandle bdv )
     {
         final SourceAndConverterBdvDisplayService displayService = SourceAndConverterServices.getBdvDisplayService();
 
-        final List< SourceAndConverter< ? > > sacs = displayService.getSourceAndConverterOf( bdvHandle );
+        final List< SourceAndConverter< ? > > sacs = displayService.getSourceAndConverterOf( bdv );
         List< SourceAndConverter< ? > > visibleSacs = new ArrayList<>(  );
         for ( SourceAndConverter sac : sacs )
         {
@@ -358,8 +365,9 @@ public class ScreenShotMaker
         final Cursor< ARGBType > argbCursor = Views.iterable( argbTarget ).localizingCursor();
         final int numVisibleSources = argbSources.size();
         Cursor< ARGBType >[] cursors = getCursors( argbSources, numVisibleSources );
-        final boolean[] occlusions = AccumulateAlphaBlendingProjectorARGB.getAlphaBlending( sacs );
-        final int[] order = AccumulateAlphaBlendingProjectorARGB.getOrder( sacs );
+        final AccumulateAlphaBlendingProjectorARGBFactory.Blending blending = AccumulateAlphaBlendingProjectorARGBFactory.getBlending( sacs );
+        final boolean[] occlusions = blending.alphaBlending;
+        final int[] order = blending.order;
 
         while ( argbCursor.hasNext() )
         {
@@ -0,0 +1,527 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv;
+
+import bdv.util.BdvHandle;
+import bdv.viewer.Interpolation;
+import bdv.viewer.Source;
+import bdv.viewer.SourceAndConverter;
+import ij.IJ;
+import net.imglib2.Interval;
+import net.imglib2.RealRandomAccess;
+import net.imglib2.algorithm.util.Grids;
+import net.imglib2.converter.Converter;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.util.LinAlgHelpers;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGBFactory;
+import org.embl.mobie.lib.source.AnnotationType;
+import org.janelia.saalfeldlab.n5.ByteArrayDataBlock;
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.N5Writer;
+import org.janelia.saalfeldlab.n5.zarr.N5ZarrWriter;
+import sc.fiji.bdvpg.bdv.BdvHandleHelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static sc.fiji.bdvpg.bdv.BdvHandleHelper.getLevel;
+
+/**
+ * Renders the current view of a {@link BdvHandle}, as the RGB image of the
+ * {@link ScreenShotMaker}, tile by tile and writes the tiles into an
+ * OME-Zarr (with one channel per colour and a resolution pyramid).
+ *
+ * The view can also be given as sources, viewer transform and window size,
+ * which does not need a BigDataViewer window and thus works without a display.
+ *
+ * In contrast to the {@link ScreenShotMaker} the capture is never held in memory,
+ * such that it can be much larger than the available RAM; only one tile
+ * per thread (plus the cached source data) is in memory at any time.
+ */
+public class TiledScreenShotExporter
+{
+	public static final int DEFAULT_TILE_SIZE = 1024;
+	public static final String[] CHANNEL_NAMES = { "red", "green", "blue" };
+	public static final String[] CHANNEL_COLORS = { "FF0000", "00FF00", "0000FF" };
+
+	private final List< SourceAndConverter< ? > > sacs;
+	private final AffineTransform3D viewerTransform;
+	private final int timepoint;
+	private final int[] windowDimensions;
+	private final double samplingXY;
+	private final String physicalUnit;
+	private int tileSize = DEFAULT_TILE_SIZE;
+	private int numThreads = Runtime.getRuntime().availableProcessors();
+
+	public TiledScreenShotExporter( BdvHandle bdvHandle, double samplingXY, String physicalUnit )
+	{
+		this(
+				ScreenShotMaker.getScreenShotSacs( bdvHandle ),
+				getViewerTransform( bdvHandle ),
+				bdvHandle.getViewerPanel().state().getCurrentTimepoint(),
+				new int[]{ bdvHandle.getViewerPanel().getWidth(), bdvHandle.getViewerPanel().getHeight() },
+				samplingXY,
+				physicalUnit );
+	}
+
+	/**
+	 * @param sacs
+	 * 			the visible sources, registered with the SourceAndConverterService,
+	 * 			e.g. as by {@link org.embl.mobie.lib.bdv.view.SliceViewer#register}
+	 * @param viewerTransform
+	 * 			the transform from global to viewer window coordinates
+	 * @param timepoint
+	 * 			the rendered time point
+	 * @param windowDimensions
+	 * 			the width and height of the viewer window, in pixels
+	 */
+	public TiledScreenShotExporter( List< SourceAndConverter< ? > > sacs, AffineTransform3D viewerTransform, int timepoint, int[] windowDimensions, double samplingXY, String physicalUnit )
+	{
+		this.sacs = sacs;
+		this.viewerTransform = viewerTransform;
+		this.timepoint = timepoint;
+		this.windowDimensions = windowDimensions;
+		this.samplingXY = samplingXY;
+		this.physicalUnit = physicalUnit;
+	}
+
+	public void setTileSize( int tileSize )
+	{
+		this.tileSize = tileSize;
+	}
+
+	public void setNumThreads( int numThreads )
+	{
+		this.numThreads = numThreads;
+	}
+
+	public void export( String path ) throws IOException
+	{
+		if ( sacs.size() == 0 )
+		{
+			IJ.log( "Tiled screenshot: There are no visible sources in the current view." );
+			return;
+		}
+
+		final double viewerVoxelSpacing = getViewerVoxelSpacing( viewerTransform );
+		final long[] dimensions = getCaptureImageSizeInPixels( windowDimensions, viewerVoxelSpacing, samplingXY );
+		final List< SourceSampler > samplers = createSamplers( viewerVoxelSpacing );
+
+		final List< long[] > levelDimensions = getLevelDimensions( dimensions, tileSize );
+
+		IJ.log( "\nTiled screenshot: Writing " + Arrays.toString( dimensions ) + " pixels from " + sacs.size() + " sources to " + path );
+		final long start = System.currentTimeMillis();
+
+		final N5Writer n5 = new N5ZarrWriter( path );
+		final List< DatasetAttributes > attributes = new ArrayList<>();
+		for ( int level = 0; level < levelDimensions.size(); level++ )
+		{
+			attributes.add( new DatasetAttributes( levelDimensions.get( level ), new int[]{ tileSize, tileSize, 1 }, DataType.UINT8, new GzipCompression() ) );
+			n5.createDataset( getDataset( level ), attributes.get( level ) );
+		}
+		writeMultiscalesMetadata( n5, levelDimensions.size() );
+
+		final ExecutorService executorService = Executors.newFixedThreadPool( numThreads );
+		try
+		{
+			final List< Interval > tiles = getTiles( levelDimensions.get( 0 ) );
+			run( executorService, tiles, "resolution level 0", tile -> writeTile( n5, attributes.get( 0 ), samplers, tile ) );
+
+			for ( int level = 1; level < levelDimensions.size(); level++ )
+			{
+				final int finalLevel = level;
+				run( executorService, getTiles( levelDimensions.get( level ) ), "resolution level " + level,
+						tile -> writeDownsampledTile( n5, finalLevel, attributes.get( finalLevel - 1 ), attributes.get( finalLevel ), tile, tileSize ) );
+			}
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+
+		IJ.log( "Tiled screenshot: Done in " + ( System.currentTimeMillis() - start ) + " ms." );
+	}
+
+	// Halves the XY dimensions, until the whole image fits into one tile.
+	static List< long[] > getLevelDimensions( long[] dimensions, int tileSize )
+	{
+		final List< long[] > levelDimensions = new ArrayList<>();
+		levelDimensions.add( new long[]{ dimensions[ 0 ], dimensions[ 1 ], 3 } );
+		long[] previous = levelDimensions.get( 0 );
+		while ( Math.max( previous[ 0 ], previous[ 1 ] ) > tileSize )
+		{
+			previous = new long[]{ ( previous[ 0 ] + 1 ) / 2, ( previous[ 1 ] + 1 ) / 2, 3 };
+			levelDimensions.add( previous );
+		}
+		return levelDimensions;
+	}
+
+	private static AffineTransform3D getViewerTransform( BdvHandle bdvHandle )
+	{
+		final AffineTransform3D viewerTransform = new AffineTransform3D();
+		bdvHandle.getViewerPanel().state().getViewerTransform( viewerTransform );
+		return viewerTransform;
+	}
+
+	// The physical size of one pixel of the viewer window.
+	static double getViewerVoxelSpacing( AffineTransform3D viewerTransform )
+	{
+		final double[] origin = new double[ 3 ];
+		final double[] unitX = new double[ 3 ];
+		viewerTransform.applyInverse( origin, new double[]{ 0, 0, 0 } );
+		viewerTransform.applyInverse( unitX, new double[]{ 1, 0, 0 } );
+		return LinAlgHelpers.distance( origin, unitX );
+	}
+
+	// compare ScreenShotMaker.getCaptureImageSizeInPixels
+	static long[] getCaptureImageSizeInPixels( int[] windowDimensions, double viewerVoxelSpacing, double samplingXY )
+	{
+		final long[] capturePixelSize = new long[ 2 ];
+		for ( int d = 0; d < 2; d++ )
+			capturePixelSize[ d ] = ( long ) Math.ceil( windowDimensions[ d ] * viewerVoxelSpacing / samplingXY );
+		return capturePixelSize;
+	}
+
+	private List< SourceSampler > createSamplers( double viewerVoxelSpacing )
+	{
+		final double canvasStepSize = samplingXY / viewerVoxelSpacing;
+
+		final AccumulateAlphaBlendingProjectorARGBFactory.Blending blending = AccumulateAlphaBlendingProjectorARGBFactory.getBlending( sacs );
+
+		final List< SourceSampler > samplers = new ArrayList<>();
+		for ( int sourceIndex : blending.order )
+		{
+			final SourceAndConverter< ? > sac = sacs.get( sourceIndex );
+			final Source< ? > source = sac.getSpimSource();
+			final int level = getLevel( source, samplingXY );
+
+			final AffineTransform3D viewerToSourceTransform = new AffineTransform3D();
+			viewerToSourceTransform.preConcatenate( viewerTransform.inverse() );
+			viewerToSourceTransform.preConcatenate( BdvHandleHelper.getSourceTransform( source, timepoint, level ).inverse() );
+
+			samplers.add( new SourceSampler( sac, timepoint, level, viewerToSourceTransform, canvasStepSize, blending.alphaBlending[ sourceIndex ] ) );
+		}
+		return samplers;
+	}
+
+	private List< Interval > getTiles( long[] dimensions )
+	{
+		return getTiles( dimensions, tileSize );
+	}
+
+	static List< Interval > getTiles( long[] dimensions, int tileSize )
+	{
+		return Grids.collectAllContainedIntervals( new long[]{ dimensions[ 0 ], dimensions[ 1 ] }, new int[]{ tileSize, tileSize } );
+	}
+
+	static long[] getGridPosition( Interval tile, int tileSize, int channel )
+	{
+		return new long[]{ tile.min( 0 ) / tileSize, tile.min( 1 ) / tileSize, channel };
+	}
+
+	private void run( ExecutorService executorService, List< Interval > tiles, String name, TileWriter tileWriter ) throws IOException
+	{
+		final AtomicInteger numTilesDone = new AtomicInteger();
+		final int numTiles = tiles.size();
+		final int logInterval = Math.max( 1, numTiles / 10 );
+
+		final List< Callable< Void > > tasks = new ArrayList<>();
+		for ( Interval tile : tiles )
+		{
+			tasks.add( () -> {
+				tileWriter.write( tile );
+				final int done = numTilesDone.incrementAndGet();
+				if ( done % logInterval == 0 || done == numTiles )
+					IJ.log( "Tiled screenshot: " + name + ": " + done + "/" + numTiles + " tiles" );
+				return null;
+			} );
+		}
+
+		try
+		{
+			for ( Future< Void > future : executorService.invokeAll( tasks ) )
+				future.get();
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException( "Interrupted while writing the tiled screenshot.", e );
+		}
+		catch ( ExecutionException e )
+		{
+			throw new IOException( "Could not write the tiled screenshot.", e.getCause() );
+		}
+	}
+
+	private void writeTile( N5Writer n5, DatasetAttributes attributes, List< SourceSampler > samplers, Interval tile ) throws IOException
+	{
+		final int width = ( int ) tile.dimension( 0 );
+		final int height = ( int ) tile.dimension( 1 );
+		final int numPixels = width * height;
+
+		final int[] argb = new int[ numPixels ];
+		final int[] red = new int[ numPixels ];
+		final int[] green = new int[ numPixels ];
+		final int[] blue = new int[ numPixels ];
+
+		for ( SourceSampler sampler : samplers )
+		{
+			sampler.sample( tile, argb );
+			AccumulateAlphaBlendingProjectorARGB.accumulate( argb, sampler.alphaBlending, 0, numPixels, red, green, blue );
+		}
+
+		final int[][] channels = { red, green, blue };
+		for ( int c = 0; c < 3; c++ )
+		{
+			final byte[] data = new byte[ numPixels ];
+			for ( int i = 0; i < numPixels; i++ )
+				data[ i ] = ( byte ) Math.min( channels[ c ][ i ], 255 );
+			writeBlock( n5, getDataset( 0 ), attributes, tile, c, data, tileSize );
+		}
+	}
+
+	/*
+	 * Averages 2x2 pixels of the tiles of the previous resolution level,
+	 * which are read back from the OME-Zarr.
+	 */
+	static void writeDownsampledTile( N5Writer n5, int level, DatasetAttributes previousAttributes, DatasetAttributes attributes, Interval tile, int tileSize ) throws IOException
+	{
+		final int width = ( int ) tile.dimension( 0 );
+		final int height = ( int ) tile.dimension( 1 );
+		final long[] previousDimensions = previousAttributes.getDimensions();
+		final int previousWidth = ( int ) Math.min( 2L * width, previousDimensions[ 0 ] - 2 * tile.min( 0 ) );
+		final int previousHeight = ( int ) Math.min( 2L * height, previousDimensions[ 1 ] - 2 * tile.min( 1 ) );
+		final long gridX = tile.min( 0 ) / tileSize;
+		final long gridY = tile.min( 1 ) / tileSize;
+
+		for ( int c = 0; c < 3; c++ )
+		{
+			// the 2x2 tiles of the previous level, as one array
+			final int[] previous = new int[ previousWidth * previousHeight ];
+			for ( int dy = 0; dy < 2; dy++ )
+				for ( int dx = 0; dx < 2; dx++ )
+				{
+					final DataBlock< ? > block = n5.readBlock( getDataset( level - 1 ), previousAttributes, 2 * gridX + dx, 2 * gridY + dy, c );
+					if ( block == null ) continue;
+					copyBlock( ( byte[] ) block.getData(), block.getSize()[ 0 ], block.getSize()[ 1 ], dx, dy, tileSize, previous, previousWidth, previousHeight );
+				}
+
+			writeBlock( n5, getDataset( level ), attributes, tile, c, downsample( previous, previousWidth, previousHeight, width, height ), tileSize );
+		}
+	}
+
+	// Copies the block at ( dx, dy ) of 2x2 blocks into the array that holds all of them.
+	static void copyBlock( byte[] data, int blockWidth, int blockHeight, int dx, int dy, int tileSize, int[] previous, int previousWidth, int previousHeight )
+	{
+		// Zarr pads the blocks at the border to the full block size
+		final int width = Math.min( blockWidth, previousWidth - dx * tileSize );
+		final int height = Math.min( blockHeight, previousHeight - dy * tileSize );
+		for ( int y = 0; y < height; y++ )
+			for ( int x = 0; x < width; x++ )
+				previous[ ( dy * tileSize + y ) * previousWidth + dx * tileSize + x ] = data[ y * blockWidth + x ] & 0xff;
+	}
+
+	// Averages 2x2 pixels, repeating the last row and column at odd sizes.
+	static byte[] downsample( int[] previous, int previousWidth, int previousHeight, int width, int height )
+	{
+		final byte[] data = new byte[ width * height ];
+		for ( int y = 0; y < height; y++ )
+		{
+			final int y0 = 2 * y;
+			final int y1 = Math.min( y0 + 1, previousHeight - 1 );
+			for ( int x = 0; x < width; x++ )
+			{
+				final int x0 = 2 * x;
+				final int x1 = Math.min( x0 + 1, previousWidth - 1 );
+				final int sum = previous[ y0 * previousWidth + x0 ] + previous[ y0 * previousWidth + x1 ]
+						+ previous[ y1 * previousWidth + x0 ] + previous[ y1 * previousWidth + x1 ];
+				data[ y * width + x ] = ( byte ) ( ( sum + 2 ) / 4 );
+			}
+		}
+		return data;
+	}
+
+	private static void writeBlock( N5Writer n5, String dataset, DatasetAttributes attributes, Interval tile, int channel, byte[] data, int tileSize ) throws IOException
+	{
+		final int[] size = { ( int ) tile.dimension( 0 ), ( int ) tile.dimension( 1 ), 1 };
+		n5.writeBlock( dataset, attributes, new ByteArrayDataBlock( size, getGridPosition( tile, tileSize, channel ), data ) );
+	}
+
+	private void writeMultiscalesMetadata( N5Writer n5, int numLevels ) throws IOException
+	{
+		final List< Map< String, Object > > axes = new ArrayList<>();
+		axes.add( axis( "c", "channel", null ) );
+		axes.add( axis( "y", "space", physicalUnit ) );
+		axes.add( axis( "x", "space", physicalUnit ) );
+
+		final List< Map< String, Object > > datasets = new ArrayList<>();
+		for ( int level = 0; level < numLevels; level++ )
+		{
+			final double scale = samplingXY * ( 1 << level );
+			// pixel centres of the downsampled levels are shifted by half of the downsampling
+			final double offset = 0.5 * ( ( 1 << level ) - 1 ) * samplingXY;
+
+			final List< Map< String, Object > > transformations = new ArrayList<>();
+			final Map< String, Object > scaleTransformation = new LinkedHashMap<>();
+			scaleTransformation.put( "type", "scale" );
+			scaleTransformation.put( "scale", new double[]{ 1.0, scale, scale } );
+			transformations.add( scaleTransformation );
+			if ( level > 0 )
+			{
+				final Map< String, Object > translation = new LinkedHashMap<>();
+				translation.put( "type", "translation" );
+				translation.put( "translation", new double[]{ 0.0, offset, offset } );
+				transformations.add( translation );
+			}
+
+			final Map< String, Object > dataset = new LinkedHashMap<>();
+			dataset.put( "path", getDataset( level ) );
+			dataset.put( "coordinateTransformations", transformations );
+			datasets.add( dataset );
+		}
+
+		final Map< String, Object > multiscale = new LinkedHashMap<>();
+		multiscale.put( "version", "0.4" );
+		multiscale.put( "name", "screenshot" );
+		multiscale.put( "axes", axes );
+		multiscale.put( "datasets", datasets );
+		n5.setAttribute( "", "multiscales", Arrays.asList( multiscale ) );
+
+		final List< Map< String, Object > > channels = new ArrayList<>();
+		for ( int c = 0; c < 3; c++ )
+		{
+			final Map< String, Object > window = new LinkedHashMap<>();
+			window.put( "start", 0 );
+			window.put( "end", 255 );
+			window.put( "min", 0 );
+			window.put( "max", 255 );
+
+			final Map< String, Object > channel = new LinkedHashMap<>();
+			channel.put( "label", CHANNEL_NAMES[ c ] );
+			channel.put( "color", CHANNEL_COLORS[ c ] );
+			channel.put( "window", window );
+			channel.put( "active", true );
+			channels.add( channel );
+		}
+		final Map< String, Object > omero = new LinkedHashMap<>();
+		omero.put( "channels", channels );
+		n5.setAttribute( "", "omero", omero );
+	}
+
+	private static Map< String, Object > axis( String name, String type, String unit )
+	{
+		final Map< String, Object > axis = new LinkedHashMap<>();
+		axis.put( "name", name );
+		axis.put( "type", type );
+		if ( unit != null )
+			axis.put( "unit", unit );
+		return axis;
+	}
+
+	static String getDataset( int level )
+	{
+		return "s" + level;
+	}
+
+	private interface TileWriter
+	{
+		void write( Interval tile ) throws IOException;
+	}
+
+	private static class SourceSampler
+	{
+		private final Source< ? > source;
+		private final Converter< Object, ARGBType > converter;
+		private final int t;
+		private final int level;
+		private final AffineTransform3D viewerToSourceTransform;
+		private final double canvasStepSize;
+		private final boolean interpolate;
+		private final boolean alphaBlending;
+
+		SourceSampler( SourceAndConverter< ? > sac, int t, int level, AffineTransform3D viewerToSourceTransform, double canvasStepSize, boolean alphaBlending )
+		{
+			this.source = sac.getSpimSource();
+			this.converter = ( Converter< Object, ARGBType > ) sac.getConverter();
+			this.t = t;
+			this.level = level;
+			this.viewerToSourceTransform = viewerToSourceTransform;
+			this.canvasStepSize = canvasStepSize;
+			this.interpolate = ! ( source.getType() instanceof AnnotationType );
+			this.alphaBlending = alphaBlending;
+		}
+
+		/*
+		 * Samples the ARGB values of the source for the tile
+		 * (in capture pixel coordinates) into argb.
+		 */
+		void sample( Interval tile, int[] argb )
+		{
+			final RealRandomAccess< ? > access = source.getInterpolatedSource( t, level, interpolate ? Interpolation.NLINEAR : Interpolation.NEARESTNEIGHBOR ).realRandomAccess();
+			final double[] canvasPosition = new double[ 3 ];
+			final double[] sourceRealPosition = new double[ 3 ];
+			final ARGBType argbType = new ARGBType();
+
+			int i = 0;
+			for ( long y = tile.min( 1 ); y <= tile.max( 1 ); y++ )
+			{
+				for ( long x = tile.min( 0 ); x <= tile.max( 0 ); x++ )
+				{
+					canvasPosition[ 0 ] = x * canvasStepSize;
+					canvasPosition[ 1 ] = y * canvasStepSize;
+					viewerToSourceTransform.apply( canvasPosition, sourceRealPosition );
+					access.setPosition( sourceRealPosition );
+
+					final Object value = access.get();
+					if ( value instanceof ARGBType )
+						argbType.set( ( ARGBType ) value );
+					else
+						converter.convert( value, argbType );
+
+					argb[ i++ ] = argbType.get();
+				}
+			}
+		}
+	}
+}
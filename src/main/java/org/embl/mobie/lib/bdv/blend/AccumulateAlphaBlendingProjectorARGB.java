@@ -30,12 +30,16 @@ package org.embl.mobie.lib.bdv.blend;
 
 import bdv.util.BdvHandle;
 import bdv.viewer.SourceAndConverter;
-import bdv.viewer.render.AccumulateProjector;
 import bdv.viewer.render.VolatileProjector;
 import net.imglib2.Cursor;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.parallel.Parallelization;
 import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
 import sc.fiji.bdvpg.services.ISourceAndConverterService;
 import sc.fiji.bdvpg.services.SourceAndConverterServices;
 
@@ -44,32 +48,69 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
-public class AccumulateAlphaBlendingProjectorARGB extends AccumulateProjector< ARGBType, ARGBType >
+/**
+ * Accumulates the ARGB screen images of the sources, in the order in which
+ * they have been added, either by adding them or by alpha blending them
+ * onto what has been accumulated so far (see {@link BlendingMode}).
+ *
+ * The blending operates on whole rows of the underlying int[] pixel
+ * arrays, using integer alpha values in [0,255], and is distributed
+ * over row ranges using the current {@link Parallelization} context.
+ * Screen images that are not backed by a single int[] are copied
+ * into one first.
+ */
+public class AccumulateAlphaBlendingProjectorARGB implements VolatileProjector
 {
 	public static BdvHandle bdvHandle;
 	public static ISourceAndConverterService sacService = SourceAndConverterServices.getSourceAndConverterService();;
 
+	private final List< VolatileProjector > sourceProjectors;
+	private final List< ? extends RandomAccessible< ? extends ARGBType > > sourceScreenImages;
+	private final RandomAccessibleInterval< ARGBType > target;
 	private final boolean[] alphaBlending;
 	private final int[] order;
 
+	private volatile boolean canceled = false;
+	private boolean valid = false;
+	private long lastFrameRenderNanoTime;
+
 	public AccumulateAlphaBlendingProjectorARGB(
 			final List< VolatileProjector > sourceProjectors,
 			final List< SourceAndConverter< ? > > sources,
 			final List< ? extends RandomAccessible< ? extends ARGBType > > sourceScreenImages,
 			final RandomAccessibleInterval< ARGBType > target )
 	{
-		super( sourceProjectors, sourceScreenImages, target );
-		alphaBlending = getAlphaBlending( sources );
-		order = getOrder( sources );
+		this( sourceProjectors, getAlphaBlending( sources ), getOrder( sources ), sourceScreenImages, target );
+	}
+
+	public AccumulateAlphaBlendingProjectorARGB(
+			final List< VolatileProjector > sourceProjectors,
+			final boolean[] alphaBlending,
+			final int[] order,
+			final List< ? extends RandomAccessible< ? extends ARGBType > > sourceScreenImages,
+			final RandomAccessibleInterval< ARGBType > target )
+	{
+		this.sourceProjectors = sourceProjectors;
+		this.sourceScreenImages = sourceScreenImages;
+		this.target = target;
+		this.alphaBlending = alphaBlending;
+		this.order = order;
 	}
 
 	public static synchronized int[] getOrder( List< SourceAndConverter< ? > > sources )
 	{
-		final ArrayList< SourceAndConverter< ? > > sorted = new ArrayList<>( sources );
-		Collections.sort( sorted, Comparator.comparingLong( sac -> ( long ) sacService.getMetadata( sac, BlendingMode.TIME_ADDED ) ) );
-		int[] order = new int[ sorted.size() ];
+		final int numSources = sources.size();
+		final long[] timesAdded = new long[ numSources ];
+		final List< Integer > sorted = new ArrayList<>( numSources );
+		for ( int i = 0; i < numSources; i++ )
+		{
+			timesAdded[ i ] = ( long ) sacService.getMetadata( sources.get( i ), BlendingMode.TIME_ADDED );
+			sorted.add( i );
+		}
+		Collections.sort( sorted, Comparator.comparingLong( i -> timesAdded[ i ] ) );
+		int[] order = new int[ numSources ];
 		for ( int i = 0; i < order.length; i++)
-			order[i] = sources.indexOf( sorted.get(i) );
+			order[i] = sorted.get(i);
 		return order;
 	}
 
@@ -88,56 +129,238 @@ public class AccumulateAlphaBlendingProjectorARGB extends AccumulateProjector< A
 	}
 
 	@Override
-	protected void accumulate(
-			final Cursor< ? extends ARGBType >[] accesses,
-			final ARGBType target )
+	public boolean map( final boolean clearUntouchedTargetPixels )
+	{
+		if ( canceled )
+			return false;
+
+		if ( isValid() )
+			return true;
+
+		final long startTime = System.nanoTime();
+
+		// render the sources that are not (yet) complete
+		valid = true;
+		for ( final VolatileProjector projector : sourceProjectors )
+		{
+			if ( ! projector.isValid() )
+			{
+				if ( ! projector.map( clearUntouchedTargetPixels ) )
+					return false;
+				valid &= projector.isValid();
+			}
+		}
+
+		if ( canceled )
+			return false;
+
+		final int width = ( int ) target.dimension( 0 );
+		final int numPixels = ( int ) Intervals.numElements( target );
+		final int numSources = order.length;
+
+		final int[][] sources = new int[ numSources ][];
+		final boolean[] sourceAlphaBlending = new boolean[ numSources ];
+		for ( int i = 0; i < numSources; i++ )
+		{
+			sources[ i ] = getPixels( sourceScreenImages.get( order[ i ] ), target );
+			sourceAlphaBlending[ i ] = alphaBlending[ order[ i ] ];
+		}
+
+		final int[] targetPixels = getPixels( target, target );
+		final boolean copyTarget = targetPixels == null;
+		final int[] pixels = copyTarget ? new int[ numPixels ] : targetPixels;
+
+		final int numRows = width == 0 ? 0 : numPixels / width;
+		final int numTasks = Math.max( 1, Math.min( numRows, Parallelization.getTaskExecutor().suggestNumberOfTasks() ) );
+		final List< Integer > tasks = new ArrayList<>( numTasks );
+		for ( int i = 0; i < numTasks; i++ )
+			tasks.add( i );
+
+		Parallelization.getTaskExecutor().forEach( tasks, task -> {
+			final int fromRow = ( int ) ( ( long ) task * numRows / numTasks );
+			final int toRow = ( int ) ( ( long ) ( task + 1 ) * numRows / numTasks );
+			final int[] red = new int[ width ];
+			final int[] green = new int[ width ];
+			final int[] blue = new int[ width ];
+			for ( int row = fromRow; row < toRow; row++ )
+			{
+				if ( canceled )
+					return;
+				blendRow( sources, sourceAlphaBlending, pixels, row * width, width, red, green, blue );
+			}
+		} );
+
+		if ( canceled )
+			return false;
+
+		if ( copyTarget )
+			setPixels( pixels, target );
+
+		lastFrameRenderNanoTime = System.nanoTime() - startTime;
+
+		return ! canceled;
+	}
+
+	@Override
+	public boolean map()
 	{
-		final int argbIndex = getArgbIndex( accesses, alphaBlending, order );
-		target.set( argbIndex );
+		return map( true );
 	}
 
-	public static int getArgbIndex( Cursor< ? extends ARGBType >[] accesses, boolean[] alphaBlending, int[] order )
+	@Override
+	public void cancel()
+	{
+		canceled = true;
+		for ( final VolatileProjector p : sourceProjectors )
+			p.cancel();
+	}
+
+	@Override
+	public long getLastFrameRenderNanoTime()
+	{
+		return lastFrameRenderNanoTime;
+	}
+
+	@Override
+	public boolean isValid()
+	{
+		return valid;
+	}
+
+	/**
+	 * Blends {@code length} pixels, starting at {@code offset}, of the
+	 * ARGB {@code sources} (given in blending order) into {@code target}.
+	 *
+	 * The output alpha is 0, as in {@link #getArgbIndex}.
+	 * The red, green and blue arrays are used to accumulate
+	 * the channels and must be at least {@code length} long.
+	 */
+	public static void blendRow(
+			final int[][] sources,
+			final boolean[] alphaBlending,
+			final int[] target,
+			final int offset,
+			final int length,
+			final int[] red,
+			final int[] green,
+			final int[] blue )
 	{
-		try
+		for ( int i = 0; i < length; i++ )
 		{
-			int aAccu = 0, rAccu = 0, gAccu = 0, bAccu = 0;
+			red[ i ] = 0;
+			green[ i ] = 0;
+			blue[ i ] = 0;
+		}
+
+		for ( int s = 0; s < sources.length; s++ )
+			accumulate( sources[ s ], alphaBlending[ s ], offset, length, red, green, blue );
 
-			for ( int sourceIndex : order )
+		for ( int i = 0; i < length; i++ )
+			target[ offset + i ] = ( Math.min( red[ i ], 255 ) << 16 ) | ( Math.min( green[ i ], 255 ) << 8 ) | Math.min( blue[ i ], 255 );
+	}
+
+	/**
+	 * Accumulates {@code length} pixels of the ARGB {@code source}, starting at {@code offset},
+	 * into the red, green and blue accumulators (starting at 0),
+	 * either adding them or alpha blending them onto what has been accumulated.
+	 */
+	public static void accumulate(
+			final int[] source,
+			final boolean alphaBlending,
+			final int offset,
+			final int length,
+			final int[] red,
+			final int[] green,
+			final int[] blue )
+	{
+		// a fully transparent pixel (alpha = 0) leaves the accumulators unchanged,
+		// thus the loops do not need to branch on it
+		if ( alphaBlending )
+		{
+			for ( int i = 0; i < length; i++ )
+			{
+				final int argb = source[ offset + i ];
+				final int alpha = argb >>> 24;
+				final int beta = 255 - alpha;
+				red[ i ] = ( red[ i ] * beta + ( ( argb >> 16 ) & 0xff ) * alpha ) / 255;
+				green[ i ] = ( green[ i ] * beta + ( ( argb >> 8 ) & 0xff ) * alpha ) / 255;
+				blue[ i ] = ( blue[ i ] * beta + ( argb & 0xff ) * alpha ) / 255;
+			}
+		}
+		else
+		{
+			for ( int i = 0; i < length; i++ )
 			{
-				final int argb = accesses[ sourceIndex ].get().get();
-				final double alpha = ARGBType.alpha( argb ) / 255.0;
-				if ( alpha == 0 ) continue;
-
-				final int r = ARGBType.red( argb );
-				final int g = ARGBType.green( argb );
-				final int b = ARGBType.blue( argb );
-
-				if ( alphaBlending[ sourceIndex ] )
-				{
-					rAccu *= ( 1 - alpha );
-					gAccu *= ( 1 - alpha );
-					bAccu *= ( 1 - alpha );
-				}
-
-				rAccu += r * alpha;
-				gAccu += g * alpha;
-				bAccu += b * alpha;
+				final int argb = source[ offset + i ];
+				final int alpha = argb >>> 24;
+				red[ i ] += ( ( argb >> 16 ) & 0xff ) * alpha / 255;
+				green[ i ] += ( ( argb >> 8 ) & 0xff ) * alpha / 255;
+				blue[ i ] += ( argb & 0xff ) * alpha / 255;
 			}
+		}
+	}
+
+	public static int getArgbIndex( Cursor< ? extends ARGBType >[] accesses, boolean[] alphaBlending, int[] order )
+	{
+		int rAccu = 0, gAccu = 0, bAccu = 0;
 
-			if ( aAccu > 255 )
-				aAccu = 255;
-			if ( rAccu > 255 )
-				rAccu = 255;
-			if ( gAccu > 255 )
-				gAccu = 255;
-			if ( bAccu > 255 )
-				bAccu = 255;
+		for ( int sourceIndex : order )
+		{
+			final int argb = accesses[ sourceIndex ].get().get();
+			final int alpha = argb >>> 24;
+			if ( alpha == 0 ) continue;
+
+			final int r = ARGBType.red( argb );
+			final int g = ARGBType.green( argb );
+			final int b = ARGBType.blue( argb );
 
-			return ARGBType.rgba( rAccu, gAccu, bAccu, aAccu );
+			if ( alphaBlending[ sourceIndex ] )
+			{
+				final int beta = 255 - alpha;
+				rAccu = ( rAccu * beta + r * alpha ) / 255;
+				gAccu = ( gAccu * beta + g * alpha ) / 255;
+				bAccu = ( bAccu * beta + b * alpha ) / 255;
+			}
+			else
+			{
+				rAccu += r * alpha / 255;
+				gAccu += g * alpha / 255;
+				bAccu += b * alpha / 255;
+			}
 		}
-		catch ( Exception e )
+
+		return ARGBType.rgba( Math.min( rAccu, 255 ), Math.min( gAccu, 255 ), Math.min( bAccu, 255 ), 0 );
+	}
+
+	/**
+	 * Returns the int[] holding the pixels of {@code image} within {@code interval},
+	 * without copying if the image is an {@link ArrayImg} that exactly covers the interval.
+	 * Returns null for {@code interval} itself if it is not such an image.
+	 */
+	private static int[] getPixels( final RandomAccessible< ? extends ARGBType > image, final RandomAccessibleInterval< ARGBType > interval )
+	{
+		if ( image instanceof ArrayImg
+				&& Intervals.equals( ( ArrayImg< ?, ? > ) image, interval ) )
 		{
-			throw new RuntimeException();
+			final Object access = ( ( ArrayImg< ?, ? > ) image ).update( null );
+			if ( access instanceof IntArray )
+				return ( ( IntArray ) access ).getCurrentStorageArray();
 		}
+
+		if ( image == interval )
+			return null;
+
+		final int[] pixels = new int[ ( int ) Intervals.numElements( interval ) ];
+		int i = 0;
+		for ( final ARGBType pixel : Views.flatIterable( Views.interval( image, interval ) ) )
+			pixels[ i++ ] = pixel.get();
+		return pixels;
+	}
+
+	private static void setPixels( final int[] pixels, final RandomAccessibleInterval< ARGBType > target )
+	{
+		int i = 0;
+		for ( final ARGBType pixel : Views.flatIterable( target ) )
+			pixel.set( pixels[ i++ ] );
 	}
 }
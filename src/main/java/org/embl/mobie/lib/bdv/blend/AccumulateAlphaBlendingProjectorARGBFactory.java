@@ -35,15 +35,32 @@ import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.type.numeric.ARGBType;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
- * For information about this projector, see {@link AccumulateMixedProjectorARGB}
+ * For information about this projector, see {@link AccumulateAlphaBlendingProjectorARGB}
+ *
+ * The blending order and modes of the sources are cached per list of sources,
+ * such that they are not queried from the SourceAndConverterService on every repaint.
+ * The cache must be invalidated, using {@link #invalidateBlending()},
+ * whenever the {@link BlendingMode} or the {@link BlendingMode#TIME_ADDED}
+ * metadata of a source changes.
  */
 
 public class AccumulateAlphaBlendingProjectorARGBFactory implements AccumulateProjectorFactory< ARGBType >
 {
+	// bounds the cache if many different combinations of sources are shown
+	private static final int MAX_NUM_CACHED_BLENDINGS = 64;
+
+	private static final Map< List< SourceAndConverter< ? > >, Blending > sourcesToBlending = new ConcurrentHashMap<>();
+	private static final AtomicLong blendingVersion = new AtomicLong();
+	private static final AtomicLong numBlendingComputations = new AtomicLong();
+
 	public VolatileProjector createProjector(
 			List< VolatileProjector > sourceProjectors,
 			List<SourceAndConverter< ? >> sources,
@@ -52,13 +69,75 @@ public class AccumulateAlphaBlendingProjectorARGBFactory implements AccumulatePr
 			int numThreads,
 			ExecutorService executorService )
 	{
+		final Blending blending = getBlending( sources );
+
 		return new AccumulateAlphaBlendingProjectorARGB(
 						sourceProjectors,
-						sources,
+						blending.alphaBlending,
+						blending.order,
 						sourceScreenImages,
 						targetScreenImage
 		);
 	}
 
+	/**
+	 * Returns the blending order and modes of the sources,
+	 * computing them only if the sources or their blending metadata have
+	 * changed since they have been computed last.
+	 *
+	 * The returned arrays are shared and must not be modified.
+	 */
+	public static Blending getBlending( List< SourceAndConverter< ? > > sources )
+	{
+		final long version = blendingVersion.get();
+		final Blending cached = sourcesToBlending.get( sources );
+		if ( cached != null && cached.version == version )
+			return cached;
+
+		final Blending blending = new Blending(
+				version,
+				AccumulateAlphaBlendingProjectorARGB.getAlphaBlending( sources ),
+				AccumulateAlphaBlendingProjectorARGB.getOrder( sources ) );
+		numBlendingComputations.incrementAndGet();
 
+		if ( sourcesToBlending.size() >= MAX_NUM_CACHED_BLENDINGS )
+			sourcesToBlending.clear();
+		sourcesToBlending.put( new ArrayList<>( sources ), blending );
+
+		return blending;
+	}
+
+	/**
+	 * Must be called after the {@link BlendingMode} or {@link BlendingMode#TIME_ADDED}
+	 * metadata of any source has been changed.
+	 */
+	public static void invalidateBlending()
+	{
+		blendingVersion.incrementAndGet();
+		sourcesToBlending.clear();
+	}
+
+	/**
+	 * @return the number of times the blending order and modes have been computed,
+	 * 		   i.e. not been served from the cache.
+	 * 		   For a static set of sources this should not increase while rendering.
+	 */
+	public static long getNumBlendingComputations()
+	{
+		return numBlendingComputations.get();
+	}
+
+	public static class Blending
+	{
+		private final long version;
+		public final boolean[] alphaBlending;
+		public final int[] order;
+
+		private Blending( long version, boolean[] alphaBlending, int[] order )
+		{
+			this.version = version;
+			this.alphaBlending = alphaBlending;
+			this.order = order;
+		}
+	}
 }
@@ -78,7 +78,7 @@ public class AnnotationSliceView< A extends Annotation > extends AbstractSliceVi
 		{
 			SourceAndConverter< ? > sourceAndConverter = createSourceAndConverter( display, image );
 
-			configureRendering( sourceAndConverter );
+			configureRendering( display, sourceAndConverter );
 
 			display.sliceViewer.show( image, sourceAndConverter, display );
 
@@ -88,19 +88,43 @@ public class AnnotationSliceView< A extends Annotation > extends AbstractSliceVi
 				SourceAndConverterServices.getSourceAndConverterService().setMetadata( sourceAndConverter, SegmentVolumeViewer.class.getName(), segmentationDisplay.segmentVolumeViewer );
 			}
 
-			if ( display instanceof SpotDisplay )
-			{
-				final SpotDisplay spotDisplay = ( SpotDisplay ) display;
+			configureSpots( display, image, sourceAndConverter );
+		}
+	}
 
-				final SpotAnnotationImage spotAnnotationImage = ( ( SpotAnnotationImage ) image );
-				spotAnnotationImage.setRadius( spotDisplay.spotRadius );
+	/**
+	 * Creates and configures the sources of the display as they are shown
+	 * in the {@link SliceViewer}, but without showing them, which works
+	 * without a display, e.g. to render them on a headless machine.
+	 */
+	public static < A extends Annotation > void createSourceAndConverters( AbstractAnnotationDisplay< A > display )
+	{
+		for ( Image< AnnotationType< A > > image : display.images() )
+		{
+			SourceAndConverter< ? > sourceAndConverter = createSourceAndConverter( display, image );
 
-				SourceAndConverterServices.getSourceAndConverterService().setMetadata( sourceAndConverter, SpotAnnotationImage.class.getName(), spotAnnotationImage );
-			}
+			configureRendering( display, sourceAndConverter );
+
+			SliceViewer.register( image, sourceAndConverter, display );
+
+			configureSpots( display, image, sourceAndConverter );
+		}
+	}
+
+	private static < A extends Annotation > void configureSpots( AbstractAnnotationDisplay< A > display, Image< AnnotationType< A > > image, SourceAndConverter< ? > sourceAndConverter )
+	{
+		if ( display instanceof SpotDisplay )
+		{
+			final SpotDisplay spotDisplay = ( SpotDisplay ) display;
+
+			final SpotAnnotationImage spotAnnotationImage = ( ( SpotAnnotationImage ) image );
+			spotAnnotationImage.setRadius( spotDisplay.spotRadius );
+
+			SourceAndConverterServices.getSourceAndConverterService().setMetadata( sourceAndConverter, SpotAnnotationImage.class.getName(), spotAnnotationImage );
 		}
 	}
 
-	private SourceAndConverter createSourceAndConverter( AbstractAnnotationDisplay< A > display, Image< AnnotationType< A > > image )
+	private static < A extends Annotation > SourceAndConverter createSourceAndConverter( AbstractAnnotationDisplay< A > display, Image< AnnotationType< A > > image )
 	{
 		// create non-volatile sac
 		//
@@ -138,7 +162,7 @@ public class AnnotationSliceView< A extends Annotation > extends AbstractSliceVi
 
 	}
 
-	private void configureRendering( SourceAndConverter< ? > sourceAndConverter )
+	private static void configureRendering( AbstractAnnotationDisplay< ? > display, SourceAndConverter< ? > sourceAndConverter )
 	{
 		final boolean showAsBoundaries = display.showAsBoundaries();
 
@@ -148,11 +172,11 @@ public class AnnotationSliceView< A extends Annotation > extends AbstractSliceVi
 		{
 			if ( display instanceof RegionDisplay )
 			{
-				final RegionDisplay< ? > display = ( RegionDisplay ) this.display;
-				if ( display.boundaryThicknessIsRelative() )
+				final RegionDisplay< ? > regionDisplay = ( RegionDisplay ) display;
+				if ( regionDisplay.boundaryThicknessIsRelative() )
 				{
-					final String someRegion = display.sources.keySet().iterator().next();
-					final String someSource = display.sources.get( someRegion ).get( 0 );
+					final String someRegion = regionDisplay.sources.keySet().iterator().next();
+					final String someSource = regionDisplay.sources.get( someRegion ).get( 0 );
 					final RealMaskRealInterval mask = DataStore.getImage( someSource ).getMask();
 					final double width = mask.realMax( 0 ) - mask.realMin( 0 );
 					boundaryThickness = width * boundaryThickness;
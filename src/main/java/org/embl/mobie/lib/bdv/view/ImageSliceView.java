@@ -63,17 +63,36 @@ public class ImageSliceView< T extends NumericType< T > & RealType< T > > extend
 		{
 			SourceAndConverter< ? > sourceAndConverter = createSourceAndConverter( image );
 
-			adaptColor( sourceAndConverter );
+			adaptColor( display, sourceAndConverter );
 
 			// below command will configure opacity,
 			// blending mode and visibility
 			display.sliceViewer.show( image, sourceAndConverter, display );
 
-			adaptContrastLimits( sourceAndConverter );
+			adaptContrastLimits( display, sourceAndConverter );
 		}
 	}
 
-	private SourceAndConverter createSourceAndConverter( Image< T > image )
+	/**
+	 * Creates and configures the sources of the display as they are shown
+	 * in the {@link SliceViewer}, but without showing them, which works
+	 * without a display, e.g. to render them on a headless machine.
+	 */
+	public static < T extends NumericType< T > & RealType< T > > void createSourceAndConverters( ImageDisplay< T > display )
+	{
+		for ( Image< T > image : display.images() )
+		{
+			SourceAndConverter< ? > sourceAndConverter = createSourceAndConverter( image );
+
+			adaptColor( display, sourceAndConverter );
+
+			SliceViewer.register( image, sourceAndConverter, display );
+
+			adaptContrastLimits( display, sourceAndConverter );
+		}
+	}
+
+	private static < T extends NumericType< T > & RealType< T > > SourceAndConverter createSourceAndConverter( Image< T > image )
 	{
 		final Converter< T, ARGBType > converter = createConverterToARGB( image.getSourcePair().getSource().getType() );
 		final SourceAndConverter volatileSac = new SourceAndConverter( image.getSourcePair().getVolatileSource(), converter );
@@ -81,7 +100,7 @@ public class ImageSliceView< T extends NumericType< T > & RealType< T > > extend
 		return sac;
 	}
 
-	private Converter< T, ARGBType > createConverterToARGB( final T t )
+	private static < T extends NumericType< T > & RealType< T > > Converter< T, ARGBType > createConverterToARGB( final T t )
 	{
 		final double typeMin = Math.max( 0, Math.min( t.getMinValue(), 65535 ) );
 		final double typeMax = Math.max( 0, Math.min( t.getMaxValue(), 65535 ) );
@@ -89,7 +108,7 @@ public class ImageSliceView< T extends NumericType< T > & RealType< T > > extend
 		return new AdjustableOpacityColorConverter( converter );
 	}
 
-	private void adaptContrastLimits( SourceAndConverter< ? > sourceAndConverter )
+	private static void adaptContrastLimits( ImageDisplay< ? > display, SourceAndConverter< ? > sourceAndConverter )
 	{
 		double[] contrastLimits = display.getContrastLimits();
 
@@ -100,7 +119,7 @@ public class ImageSliceView< T extends NumericType< T > & RealType< T > > extend
 		}
 	}
 
-	private void adaptColor( SourceAndConverter< ? > sourceAndConverter )
+	private static void adaptColor( ImageDisplay< ? > display, SourceAndConverter< ? > sourceAndConverter )
 	{
 		if ( display.getColor() == null ) return;
 
@@ -44,6 +44,7 @@ import org.embl.mobie.lib.bdv.MobieSerializableBdvOptions;
 import org.embl.mobie.lib.bdv.ImageNameOverlay;
 import org.embl.mobie.lib.bdv.SourcesAtMousePositionSupplier;
 import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGBFactory;
 import org.embl.mobie.lib.bdv.blend.BlendingMode;
 import org.embl.mobie.lib.color.OpacityHelper;
 import org.embl.mobie.lib.image.Image;
@@ -69,6 +70,7 @@ public class SliceViewer
 {
 	public static final String UNDO_SEGMENT_SELECTIONS = "Undo Segment Selections [ Ctrl Shift N ]";
 	public static final String LOAD_ADDITIONAL_VIEWS = "Load Additional Views";
+	public static final String RELOAD_DATA_FROM_DISK = "Reload Data From Disk";
 	public static final String SAVE_CURRENT_SETTINGS_AS_VIEW = "Save Current View";
 	public static final String FRAME_TITLE = "MoBIE BigDataViewer";
 	public static boolean tileRenderOverlay = false;
@@ -146,6 +148,10 @@ public class SliceViewer
 			moBIE.getViewManager().getViewsSaver().saveCurrentSettingsAsViewDialog();
 		} );
 
+		sacService.registerAction( RELOAD_DATA_FROM_DISK, sourceAndConverters -> {
+			new Thread( () -> moBIE.getViewManager().reloadCurrentView() ).start();
+		} );
+
 		final Set< String > actionsKeys = sacService.getActionsKeys();
 
 		final ArrayList< String > actions = new ArrayList< String >();
@@ -158,6 +164,7 @@ public class SliceViewer
 		actions.add( UNDO_SEGMENT_SELECTIONS );
 		actions.add( LOAD_ADDITIONAL_VIEWS );
 		actions.add( SAVE_CURRENT_SETTINGS_AS_VIEW );
+		actions.add( RELOAD_DATA_FROM_DISK );
 
 		if ( projectCommands != null )
 		{
@@ -214,6 +221,18 @@ public class SliceViewer
 	}
 
 	public void show( Image< ? > image, SourceAndConverter< ? > sourceAndConverter, AbstractDisplay display )
+	{
+		register( image, sourceAndConverter, display );
+
+		// show in Bdv
+		SourceAndConverterServices.getBdvDisplayService().show( bdvHandle, display.isVisible(), sourceAndConverter );
+
+		updateTimepointSlider();
+	}
+
+	// Configures the source as it is shown, without showing it,
+	// which also works without a display (and thus without a BDV).
+	public static void register( Image< ? > image, SourceAndConverter< ? > sourceAndConverter, AbstractDisplay display )
 	{
 		// register
 		SourceAndConverterServices.getSourceAndConverterService().register( sourceAndConverter );
@@ -227,14 +246,10 @@ public class SliceViewer
 
 		// time added (for alpha blending)
 		SourceAndConverterServices.getSourceAndConverterService().setMetadata( sourceAndConverter, BlendingMode.TIME_ADDED, System.currentTimeMillis() );
+		AccumulateAlphaBlendingProjectorARGBFactory.invalidateBlending();
 
 		// opacity
 		OpacityHelper.setOpacity( sourceAndConverter, display.getOpacity() );
-
-		// show in Bdv
-		SourceAndConverterServices.getBdvDisplayService().show( bdvHandle, display.isVisible(), sourceAndConverter );
-
-		updateTimepointSlider();
 	}
 
 	public void updateTimepointSlider()
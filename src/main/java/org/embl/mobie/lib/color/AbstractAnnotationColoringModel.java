@@ -42,4 +42,11 @@ public abstract class AbstractAnnotationColoringModel< T > extends AbstractColor
 	public ARGBLut getLut() {
 		return this.lut;
 	}
+
+	// Call this after editing values in the coloring column,
+	// such that cached colors are recomputed.
+	public void valuesChanged()
+	{
+		notifyColoringListeners();
+	}
 }
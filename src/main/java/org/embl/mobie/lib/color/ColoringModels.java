@@ -29,6 +29,7 @@
 package org.embl.mobie.lib.color;
 
 import org.embl.mobie.lib.annotation.Annotation;
+import org.embl.mobie.lib.table.AnnotationTableModel;
 import net.imglib2.type.numeric.ARGBType;
 import net.imglib2.util.Pair;
 
@@ -80,6 +81,7 @@ public class ColoringModels
 			String columnName,
 			String lutName,
 			Pair< Double, Double > contrastLimits,
+			AnnotationTableModel< A > tableModel,
 			boolean showUI
 	)
 	{
@@ -87,7 +89,8 @@ public class ColoringModels
 				= new NumericAnnotationColoringModel<>(
 						columnName,
 						lutName,
-						contrastLimits );
+						contrastLimits,
+						tableModel );
 
 		if ( showUI )
 			SwingUtilities.invokeLater( () ->
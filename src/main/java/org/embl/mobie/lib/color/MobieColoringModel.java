@@ -28,9 +28,13 @@
  */
 package org.embl.mobie.lib.color;
 
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import org.embl.mobie.lib.select.SelectionModel;
 import net.imglib2.type.numeric.ARGBType;
 
+import java.util.Collection;
+
 import static net.imglib2.type.numeric.ARGBType.alpha;
 import static net.imglib2.type.numeric.ARGBType.blue;
 import static net.imglib2.type.numeric.ARGBType.green;
@@ -38,12 +42,31 @@ import static net.imglib2.type.numeric.ARGBType.red;
 
 public class MobieColoringModel< T > extends AbstractColoringModel< T >
 {
+	private static final int NUM_STRIPES = 16; // must be a power of two
+
+	// Marks elements whose color is not cached, as the primitive maps
+	// cannot hold null; a color that equals it is just not cached.
+	private static final int NOT_CACHED = 0x01010101;
+
 	private ColoringModel< T > coloringModel;
 	private SelectionModel< T > selectionModel;
 
 	private ARGBType selectionColor;
 	private double opacityNotSelected;
 
+	// The colors of the wrapped coloring model, which
+	// can be expensive to compute (e.g. table lookups),
+	// are cached per element; the selection is applied on top.
+	// The whole cache is replaced upon invalidation, such that
+	// a concurrent convert cannot put a stale color into the new cache.
+	private volatile ColorCache colorCache = new ColorCache();
+
+	private final ColoringListener wrappedModelListener = () ->
+	{
+		invalidateColors();
+		notifyColoringListeners();
+	};
+
 	// Wraps a base coloring model and combines it with a selection model,
 	// such that selected elements can have special colors and opacities.
 	public MobieColoringModel( ColoringModel< T > coloringModel, SelectionModel< T > selectionModel, ARGBType selectionColor, double opacityNotSelected  )
@@ -57,7 +80,17 @@ public class MobieColoringModel< T > extends AbstractColoringModel< T >
 	@Override
 	public void convert( T value, ARGBType color )
 	{
-		coloringModel.convert( value, color );
+		final ColorCache colorCache = this.colorCache;
+		final int argb = colorCache.get( value );
+		if ( argb == NOT_CACHED )
+		{
+			coloringModel.convert( value, color );
+			colorCache.put( value, color.get() );
+		}
+		else
+		{
+			color.set( argb );
+		}
 
 		if ( selectionModel == null ) return;
 
@@ -93,14 +126,34 @@ public class MobieColoringModel< T > extends AbstractColoringModel< T >
 
 	public void setColoringModel( ColoringModel< T > coloringModel )
 	{
+		// only listen to the currently wrapped coloring model
+		if ( this.coloringModel != null )
+			this.coloringModel.listeners().remove( wrappedModelListener );
+
 		this.coloringModel = coloringModel;
-		notifyListeners();
+		coloringModel.listeners().add( wrappedModelListener );
+		invalidateColors();
+		notifyColoringListeners();
 	}
 
-	private void notifyListeners()
+	/**
+	 * Discards all cached colors, e.g. because the
+	 * values that the coloring is based on have been edited.
+	 */
+	public void invalidateColors()
 	{
-		notifyColoringListeners();
-		coloringModel.listeners().add( () -> notifyColoringListeners() );
+		colorCache = new ColorCache();
+	}
+
+	/**
+	 * Discards the cached colors of the given elements,
+	 * e.g. because they have been edited or removed.
+	 */
+	public void invalidateColors( Collection< ? extends T > elements )
+	{
+		final ColorCache colorCache = this.colorCache;
+		for ( T element : elements )
+			colorCache.remove( element );
 	}
 
 	public ColoringModel< T > getWrappedColoringModel()
@@ -117,7 +170,53 @@ public class MobieColoringModel< T > extends AbstractColoringModel< T >
 	{
 		this.opacityNotSelected = opacityNotSelected;
 
-		notifyListeners();
+		notifyColoringListeners();
 	}
 
+	// Maps the elements to their colors in primitive maps, to not box
+	// the colors, which are locked independently, such that concurrent
+	// lookups (e.g. from several BDV render threads) rarely wait for each other.
+	private class ColorCache
+	{
+		private final TObjectIntHashMap< T >[] stripes = new TObjectIntHashMap[ NUM_STRIPES ];
+
+		ColorCache()
+		{
+			for ( int i = 0; i < NUM_STRIPES; i++ )
+				stripes[ i ] = new TObjectIntHashMap<>( Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, NOT_CACHED );
+		}
+
+		int get( T element )
+		{
+			final TObjectIntHashMap< T > stripe = stripe( element );
+			synchronized ( stripe )
+			{
+				return stripe.get( element );
+			}
+		}
+
+		void put( T element, int argb )
+		{
+			final TObjectIntHashMap< T > stripe = stripe( element );
+			synchronized ( stripe )
+			{
+				stripe.put( element, argb );
+			}
+		}
+
+		void remove( T element )
+		{
+			final TObjectIntHashMap< T > stripe = stripe( element );
+			synchronized ( stripe )
+			{
+				stripe.remove( element );
+			}
+		}
+
+		private TObjectIntHashMap< T > stripe( T element )
+		{
+			final int hash = element.hashCode();
+			return stripes[ ( hash ^ ( hash >>> 16 ) ) & ( NUM_STRIPES - 1 ) ];
+		}
+	}
 }
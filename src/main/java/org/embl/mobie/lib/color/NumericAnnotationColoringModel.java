@@ -30,6 +30,8 @@ package org.embl.mobie.lib.color;
 
 import org.embl.mobie.lib.annotation.Annotation;
 import org.embl.mobie.lib.color.lut.LUTs;
+import org.embl.mobie.lib.table.AnnotationTableModel;
+import org.embl.mobie.lib.table.NumberColumnAccessor;
 import net.imglib2.type.numeric.ARGBType;
 import net.imglib2.util.Pair;
 import net.imglib2.util.ValuePair;
@@ -39,21 +41,46 @@ public class NumericAnnotationColoringModel< A extends Annotation > extends Abst
 	public static final int ZERO_ARGB = ARGBType.rgba( 0, 0, 0, 0 );
 	private Pair< Double, Double > contrastLimits;
 	private final boolean isZeroTransparent;
+	private final AnnotationTableModel< A > tableModel;
+	private final NumberColumnAccessor accessor;
 
 	public NumericAnnotationColoringModel(
 			String columnName,
 			String lutName,
 			Pair< Double, Double > contrastLimits )
+	{
+		this( columnName, lutName, contrastLimits, null );
+	}
+
+	// The values of the annotations are read from the given table model,
+	// if they are rows of it, which avoids boxing and column lookups.
+	public NumericAnnotationColoringModel(
+			String columnName,
+			String lutName,
+			Pair< Double, Double > contrastLimits,
+			AnnotationTableModel< A > tableModel )
 	{
 		this.columnName = columnName;
 		this.lut = LUTs.getLut( lutName );
 		this.contrastLimits = contrastLimits;
 		this.isZeroTransparent = LUTs.isZeroTransparent( lutName );
+		this.tableModel = tableModel;
+		this.accessor = tableModel == null ? null : tableModel.numberColumnAccessor( columnName );
 	}
 
 	@Override
 	public void convert( A annotation, ARGBType output )
 	{
+		if ( accessor != null )
+		{
+			final int rowIndex = tableModel.rowIndexOf( annotation );
+			if ( rowIndex != -1 )
+			{
+				setColorLinearly( ( float ) accessor.getDouble( rowIndex ), output );
+				return;
+			}
+		}
+
 		final Number number = ( Number ) annotation.getValue( columnName );
 		if ( number == null )
 			output.set( ZERO_ARGB );
@@ -83,7 +110,7 @@ public class NumericAnnotationColoringModel< A extends Annotation > extends Abst
 		notifyColoringListeners();
 	}
 
-	private void setColorLinearly( Float value, ARGBType output )
+	private void setColorLinearly( float value, ARGBType output )
 	{
 		if ( isZeroTransparent )
 		{
@@ -94,7 +121,7 @@ public class NumericAnnotationColoringModel< A extends Annotation > extends Abst
 			}
 		}
 
-		if ( value.isNaN() )
+		if ( Float.isNaN( value ) )
 		{
 			output.set( ARGBType.rgba( 0, 0, 0, 0 ) );
 			return;
@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs;
+
+/**
+ * An image file of a plate, with the channel, well, site, t and z
+ * that are decoded from its path by a {@link HCSPattern}.
+ */
+public class HCSFile
+{
+	private final String path;
+	private final String channel;
+	private final String well;
+	private final String site;
+	private final String t;
+	private final String z;
+
+	public HCSFile( String path, String channel, String well, String site, String t, String z )
+	{
+		this.path = path;
+		this.channel = channel;
+		this.well = well;
+		this.site = site;
+		this.t = t;
+		this.z = z;
+	}
+
+	public String getPath()
+	{
+		return path;
+	}
+
+	public String getChannel()
+	{
+		return channel;
+	}
+
+	public String getWell()
+	{
+		return well;
+	}
+
+	public String getSite()
+	{
+		return site;
+	}
+
+	public String getT()
+	{
+		return t;
+	}
+
+	public String getZ()
+	{
+		return z;
+	}
+}
@@ -63,7 +63,12 @@ public enum HCSPattern
 	MIP-2P-2sub_C05_s1_w146C9B2CD-0BB3-4B8A-9187-2805F4C90506.tif
 	well = C05, site = 1, channel = 1
 	 */
-	private final String MOLDEV_WELL_SITE_CHANNEL = ".*_(?<"+WELL+">[A-Z]{1}[0-9]{2})_s(?<"+SITE+">.*)_w(?<"+CHANNEL+">[0-9])[^_thumb].*";
+	private static final String MOLDEV_WELL_SITE_CHANNEL = ".*_(?<"+WELL+">[A-Z]{1}[0-9]{2})_s(?<"+SITE+">.*)_w(?<"+CHANNEL+">[0-9])[^_thumb].*";
+
+	// compiled once, because matching is done for every file of a plate
+	private static final Pattern OPERETTA_PATTERN = Pattern.compile( OPERETTA );
+	private static final Pattern INCUCYTE_PATTERN = Pattern.compile( INCUCYTE );
+	private static final Pattern MOLDEV_PATTERN = Pattern.compile( MOLDEV_WELL_SITE_CHANNEL );
 
 
 	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
@@ -95,12 +100,12 @@ public enum HCSPattern
 		switch( this )
 		{
 			case Operetta:
-				return Pattern.compile( OPERETTA ).matcher( path );
+				return OPERETTA_PATTERN.matcher( path );
 			case MolecularDevices:
-				return Pattern.compile( MOLDEV_WELL_SITE_CHANNEL ).matcher( path );
+				return MOLDEV_PATTERN.matcher( path );
 			default:
 			case IncuCyte:
-				return Pattern.compile( INCUCYTE ).matcher( path );
+				return INCUCYTE_PATTERN.matcher( path );
 		}
 	}
 
@@ -109,22 +114,32 @@ public enum HCSPattern
 		if ( new File( path ).getName().startsWith( "." ) )
 			return false;
 
-		switch( this )
-		{
-			case Operetta:
-				matcher = Pattern.compile( OPERETTA ).matcher( path );
-				break;
-			case MolecularDevices:
-				matcher = Pattern.compile( MOLDEV_WELL_SITE_CHANNEL ).matcher( path );
-				break;
-			default:
-			case IncuCyte:
-				matcher = Pattern.compile( INCUCYTE ).matcher( path );
-		}
+		matcher = getMatcher( path );
 
 		return matcher.matches();
 	}
 
+	/**
+	 * In contrast to {@code setPath}, this does not change
+	 * the state of this pattern and can thus be called concurrently.
+	 *
+	 * @param path
+	 * 			the path of an image file
+	 * @return the file with its decoded channel, well, site, t and z,
+	 * 			or null if the path does not match this pattern
+	 */
+	public HCSFile match( String path )
+	{
+		if ( new File( path ).getName().startsWith( "." ) )
+			return null;
+
+		final Matcher matcher = getMatcher( path );
+		if ( ! matcher.matches() )
+			return null;
+
+		return new HCSFile( path, getChannelGroup( matcher ), getWellGroup( matcher ), getSiteGroup( matcher ), getT( matcher ), getZ( matcher ) );
+	}
+
 	public int[] decodeWellGridPosition( String well )
 	{
 		switch ( this )
@@ -190,6 +205,31 @@ public enum HCSPattern
 	}
 
 	public String getChannelGroup()
+	{
+		return getChannelGroup( matcher );
+	}
+
+	public String getWellGroup()
+	{
+		return getWellGroup( matcher );
+	}
+
+	public String getSiteGroup()
+	{
+		return getSiteGroup( matcher );
+	}
+
+	public String getT()
+	{
+		return getT( matcher );
+	}
+
+	public String getZ()
+	{
+		return getZ( matcher );
+	}
+
+	private String getChannelGroup( Matcher matcher )
 	{
 		if ( hasChannels() )
 			return matcher.group( HCSPattern.CHANNEL );
@@ -197,17 +237,17 @@ public enum HCSPattern
 			return "1" ;
 	}
 
-	public String getWellGroup()
+	private String getWellGroup( Matcher matcher )
 	{
 		return matcher.group( HCSPattern.WELL );
 	}
 
-	public String getSiteGroup()
+	private String getSiteGroup( Matcher matcher )
 	{
 		return matcher.group( HCSPattern.SITE );
 	}
 
-	public String getT()
+	private String getT( Matcher matcher )
 	{
 		if ( hasT() )
 			return matcher.group( HCSPattern.T );
@@ -215,7 +255,7 @@ public enum HCSPattern
 			return "1";
 	}
 
-	public String getZ()
+	private String getZ( Matcher matcher )
 	{
 		if ( hasZ() )
 			return matcher.group( HCSPattern.T );
@@ -28,29 +28,46 @@
  */
 package org.embl.mobie.lib.hcs;
 
-import ij.gui.PointRoi;
-import ij.gui.Roi;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import mpicbg.spim.data.sequence.FinalVoxelDimensions;
 import mpicbg.spim.data.sequence.VoxelDimensions;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 // one could extract an interface here for the
 // getter methods if this is useful for other data
 public class OperettaMetadata
 {
-	private HashMap< String, Element > filenameToMetadata;
+	private static final String IMAGE = "Image";
+	private static final String URL = "URL";
+	private static final String RESOLUTION_X = "ImageResolutionX";
+	private static final String RESOLUTION_Y = "ImageResolutionY";
+	private static final String POSITION_X = "PositionX";
+	private static final String POSITION_Y = "PositionY";
+
+	// The Index.xml of large plates can be hundreds of MB,
+	// thus it is streamed and only the fields that are
+	// needed are stored, indexed by the image file name.
+	private final TObjectIntHashMap< String > filenameToIndex = new TObjectIntHashMap<>( 10, 0.5F, -1 );
+	private final TDoubleArrayList resolutionsX = new TDoubleArrayList();
+	private final TDoubleArrayList resolutionsY = new TDoubleArrayList();
+	private final TDoubleArrayList positionsX = new TDoubleArrayList();
+	private final TDoubleArrayList positionsY = new TDoubleArrayList();
+	private final List< String > units = new ArrayList<>();
 
 	public OperettaMetadata( File xml )
 	{
@@ -70,74 +87,144 @@ public class OperettaMetadata
 		}
 	}
 
-	private void parse( File xml ) throws ParserConfigurationException, SAXException, IOException
+	private void parse( File xml ) throws XMLStreamException, IOException
 	{
-		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		Document doc = builder.parse( xml );
-		doc.getDocumentElement().normalize();
-
-		final double dx = Double.parseDouble( doc.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getTextContent() );
-		final double dy = Double.parseDouble( doc.getElementsByTagName( "ImageResolutionY" ).item( 0 ).getTextContent() );
-		final String unit = doc.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getAttributes().item( 0 ).getTextContent();
-
-		filenameToMetadata = new HashMap<>();
-		final NodeList fileNames = doc.getElementsByTagName( "URL" );
-		final int numFiles = fileNames.getLength();
-		for ( int i = 0; i < numFiles; i++ )
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+		factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+
+		// share the unit strings across all images
+		final Map< String, String > uniqueUnits = new HashMap<>();
+
+		try ( InputStream inputStream = new BufferedInputStream( new FileInputStream( xml ) ) )
 		{
-			final Node item = fileNames.item( i );
-			final Element parentNode = (Element) item.getParentNode();
-			filenameToMetadata.put( item.getTextContent(), parentNode );
+			final XMLStreamReader reader = factory.createXMLStreamReader( inputStream );
+
+			int imageDepth = -1; // -1: not within an image element
+			int depth = 0;
+			String url = null;
+			String unit = null;
+			double resolutionX = Double.NaN, resolutionY = Double.NaN, positionX = Double.NaN, positionY = Double.NaN;
+
+			while ( reader.hasNext() )
+			{
+				final int event = reader.next();
+				if ( event == XMLStreamConstants.START_ELEMENT )
+				{
+					depth++;
+					final String name = reader.getLocalName();
+					if ( imageDepth == -1 )
+					{
+						if ( name.equals( IMAGE ) )
+						{
+							imageDepth = depth;
+							url = null;
+							unit = null;
+							resolutionX = resolutionY = positionX = positionY = Double.NaN;
+						}
+						continue;
+					}
+
+					switch ( name )
+					{
+						case URL:
+							url = reader.getElementText().trim();
+							depth--;
+							break;
+						case RESOLUTION_X:
+							if ( reader.getAttributeCount() > 0 )
+								unit = uniqueUnits.computeIfAbsent( reader.getAttributeValue( 0 ), u -> u );
+							resolutionX = Double.parseDouble( reader.getElementText().trim() );
+							depth--;
+							break;
+						case RESOLUTION_Y:
+							resolutionY = Double.parseDouble( reader.getElementText().trim() );
+							depth--;
+							break;
+						case POSITION_X:
+							positionX = Double.parseDouble( reader.getElementText().trim() );
+							depth--;
+							break;
+						case POSITION_Y:
+							positionY = Double.parseDouble( reader.getElementText().trim() );
+							depth--;
+							break;
+					}
+				}
+				else if ( event == XMLStreamConstants.END_ELEMENT )
+				{
+					if ( depth == imageDepth )
+					{
+						// image references (e.g., within wells) have no URL
+						if ( url != null )
+							add( url, unit, resolutionX, resolutionY, positionX, positionY );
+						imageDepth = -1;
+					}
+					depth--;
+				}
+			}
+
+			reader.close();
 		}
 	}
 
+	private void add( String url, String unit, double resolutionX, double resolutionY, double positionX, double positionY )
+	{
+		filenameToIndex.put( url, resolutionsX.size() );
+		units.add( unit );
+		resolutionsX.add( resolutionX );
+		resolutionsY.add( resolutionY );
+		positionsX.add( positionX );
+		positionsY.add( positionY );
+	}
+
 	public VoxelDimensions getVoxelDimensions( String path )
 	{
-		final Element element = getElement( path );
-		final double imageResolutionX = getDouble( element, "ImageResolutionX" );
-		final double imageResolutionY = getDouble( element, "ImageResolutionY" );
-		final String unit = element.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getAttributes().item( 0 ).getTextContent();
+		final int index = getIndex( path );
+		final double imageResolutionX = getDouble( resolutionsX, index, RESOLUTION_X );
+		final double imageResolutionY = getDouble( resolutionsY, index, RESOLUTION_Y );
+		final String unit = units.get( index );
 
 		return new FinalVoxelDimensions( unit, imageResolutionX, imageResolutionY, 1.0 );
 	}
 
-	private double getDouble( Element element, String tag )
+	private double getDouble( TDoubleArrayList values, int index, String tag )
 	{
-		try
-		{
-			return Double.parseDouble( element.getElementsByTagName( tag ).item( 0 ).getTextContent() );
-		}
-		catch ( Exception e )
-		{
-			e.printStackTrace();
-			throw new RuntimeException( e );
-		}
+		final double value = values.get( index );
+		if ( Double.isNaN( value ) )
+			throw new RuntimeException( "Could not find " + tag + " in the operetta metadata." );
+		return value;
 	}
 
-	private Element getElement( String path )
+	private int getIndex( String path )
 	{
 		final String filename = new File( path ).getName();
-		final Element element = filenameToMetadata.get( filename );
-		if ( element == null )
+		final int index = filenameToIndex.get( filename );
+		if ( index == -1 )
 		{
 			System.err.println("Could not find operetta metadata for " + filename );
 			throw new RuntimeException();
 		}
-		return element;
+		return index;
 	}
 
 	public boolean contains( String path )
 	{
 		final String filename = new File( path ).getName();
-		return filenameToMetadata.containsKey( filename );
+		return filenameToIndex.containsKey( filename );
+	}
+
+	public int numImages()
+	{
+		return filenameToIndex.size();
 	}
 
 	public double[] getRealPosition( String path )
 	{
-		final Element element = getElement( path );
+		final int index = getIndex( path );
 		return new double[]{
-				getDouble( element, "PositionX" ),
-				-getDouble( element, "PositionY" )
+				getDouble( positionsX, index, POSITION_X ),
+				-getDouble( positionsY, index, POSITION_Y )
 		  };
 	}
 }
@@ -40,16 +40,22 @@ import org.embl.mobie.lib.io.TPosition;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -66,39 +72,220 @@ public class Plate
 	private int wellsPerPlate;
 	private ImageDataFormat imageDataFormat;
 	private OperettaMetadata metadata;
+	private Map< String, Long > directoryModificationTimes;
+
+	// The results of scanning a plate are cached in this directory
+	// (one manifest file per plate), which makes re-opening large plates
+	// much faster; set to null to always scan the plate directory.
+	public static File manifestCacheDirectory = new File( System.getProperty( "user.home" ), ".mobie" + File.separator + "hcs" );
 
 	public Plate( String hcsDirectory ) throws IOException
 	{
 		this.hcsDirectory = hcsDirectory;
 
-		final List< String > imageSitePaths;
-		if ( hcsDirectory.endsWith( ".zarr" ) )
-		{
-			final int minDepth = 3;
-			final int maxDepth = 3;
-			final Path rootPath = Paths.get(hcsDirectory);
-			final int rootPathDepth = rootPath.getNameCount();
-			imageSitePaths = Files.walk( rootPath, maxDepth )
-					.filter( e -> e.toFile().isDirectory() )
-					.filter( e -> e.getNameCount() - rootPathDepth >= minDepth )
-					.map( e -> e.toString() )
-					.collect( Collectors.toList() );
-		}
-		else
+		final File manifestFile = getManifestFile();
+		if ( manifestFile != null && tryReadManifest( manifestFile ) )
 		{
-			imageSitePaths = Files.walk( Paths.get( hcsDirectory ), 3 ).map( p -> p.toString() ).collect( Collectors.toList() );
+			openMetadata();
+			return;
 		}
 
+		final List< String > imageSitePaths = scanDirectory();
+
 		hcsPattern = determineHCSPattern( hcsDirectory, imageSitePaths );
 
+		openMetadata();
+
+		buildPlateMap( imageSitePaths );
+
+		if ( manifestFile != null )
+			tryWriteManifest( manifestFile );
+	}
+
+	private void openMetadata()
+	{
 		if ( hcsPattern == HCSPattern.Operetta )
 		{
 			//final File xml = new File( hcsDirectory, "Index.idx.xml" );
 			final File xml = new File( hcsDirectory, "Index.xml" );
 			metadata = new OperettaMetadata( xml );
 		}
+	}
 
-		buildPlateMap( imageSitePaths );
+	private List< String > scanDirectory() throws IOException
+	{
+		final boolean isZarr = hcsDirectory.endsWith( ".zarr" );
+		final int minZarrDepth = 3;
+		final int maxDepth = 3;
+		final Path rootPath = Paths.get( hcsDirectory );
+		final int rootPathDepth = rootPath.getNameCount();
+		final List< String > paths = new ArrayList<>();
+		directoryModificationTimes = new LinkedHashMap<>();
+
+		// Walking the file tree (rather than Files.walk) provides
+		// the file attributes without additional file system calls.
+		Files.walkFileTree( rootPath, EnumSet.noneOf( FileVisitOption.class ), maxDepth, new SimpleFileVisitor< Path >()
+		{
+			@Override
+			public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+			{
+				// The modification time of a directory changes when
+				// files or directories are added to or removed from it.
+				directoryModificationTimes.put( dir.toString(), attrs.lastModifiedTime().toMillis() );
+				if ( ! isZarr )
+					paths.add( dir.toString() );
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+			{
+				// Note that this is also called for the directories at maxDepth.
+				if ( ! isZarr )
+					paths.add( file.toString() );
+				else if ( attrs.isDirectory() && file.getNameCount() - rootPathDepth >= minZarrDepth )
+					paths.add( file.toString() );
+				return FileVisitResult.CONTINUE;
+			}
+		} );
+
+		return paths;
+	}
+
+	private File getManifestFile()
+	{
+		if ( manifestCacheDirectory == null )
+			return null;
+
+		final String absolutePath = new File( hcsDirectory ).getAbsolutePath();
+		return new File( manifestCacheDirectory, getName() + "-" + Integer.toHexString( absolutePath.hashCode() ) + ".json" );
+	}
+
+	private boolean tryReadManifest( File manifestFile )
+	{
+		if ( ! manifestFile.exists() )
+			return false;
+
+		try
+		{
+			final long start = System.currentTimeMillis();
+			final PlateManifest manifest = PlateManifest.read( manifestFile );
+			if ( manifest == null || ! manifest.isValid( hcsDirectory ) )
+			{
+				IJ.log( "Plate has changed since it was last opened, scanning it again..." );
+				return false;
+			}
+
+			fromManifest( manifest );
+			IJ.log( "Opened HCS plate " + getName() + " from " + manifestFile + " in " + ( System.currentTimeMillis() - start ) + " ms." );
+			return true;
+		}
+		catch ( Exception e )
+		{
+			IJ.log( "[WARNING] Could not read plate manifest " + manifestFile + ": " + e.getMessage() );
+			return false;
+		}
+	}
+
+	private void tryWriteManifest( File manifestFile )
+	{
+		try
+		{
+			toManifest().write( manifestFile );
+		}
+		catch ( Exception e )
+		{
+			IJ.log( "[WARNING] Could not write plate manifest " + manifestFile + ": " + e.getMessage() );
+		}
+	}
+
+	private PlateManifest toManifest()
+	{
+		final PlateManifest manifest = new PlateManifest();
+		manifest.hcsDirectory = hcsDirectory;
+		manifest.directoryModificationTimes = directoryModificationTimes;
+		manifest.hcsPattern = hcsPattern.name();
+		manifest.imageDataFormat = imageDataFormat.name();
+		manifest.voxelUnit = voxelDimensions.unit();
+		manifest.voxelDimensions = new double[ voxelDimensions.numDimensions() ];
+		voxelDimensions.dimensions( manifest.voxelDimensions );
+		manifest.siteRealDimensions = siteRealDimensions;
+		manifest.siteDimensions = siteDimensions;
+		manifest.sitesPerWell = sitesPerWell;
+		manifest.wellsPerPlate = wellsPerPlate;
+		for ( TPosition tPosition : tPositions )
+			manifest.tPositions.add( tPosition.toString() );
+
+		for ( Channel channel : channelWellSites.keySet() )
+		{
+			final PlateManifest.ChannelEntry channelEntry = new PlateManifest.ChannelEntry();
+			channelEntry.name = channel.getName();
+			channelEntry.color = channel.getColor();
+			channelEntry.contrastLimits = channel.getContrastLimits();
+			manifest.channels.add( channelEntry );
+
+			for ( Well well : channelWellSites.get( channel ).keySet() )
+			{
+				final PlateManifest.WellEntry wellEntry = new PlateManifest.WellEntry();
+				wellEntry.name = well.getName();
+				channelEntry.wells.add( wellEntry );
+
+				for ( Site site : channelWellSites.get( channel ).get( well ) )
+				{
+					final PlateManifest.SiteEntry siteEntry = new PlateManifest.SiteEntry();
+					siteEntry.name = site.getName();
+					siteEntry.paths = new LinkedHashMap<>();
+					site.getPaths().forEach( ( t, zToPath ) -> {
+						final Map< String, String > paths = new LinkedHashMap<>();
+						zToPath.forEach( ( z, path ) -> paths.put( z.toString(), path ) );
+						siteEntry.paths.put( t.toString(), paths );
+					} );
+					wellEntry.sites.add( siteEntry );
+				}
+			}
+		}
+
+		return manifest;
+	}
+
+	private void fromManifest( PlateManifest manifest )
+	{
+		directoryModificationTimes = manifest.directoryModificationTimes;
+		hcsPattern = HCSPattern.valueOf( manifest.hcsPattern );
+		imageDataFormat = ImageDataFormat.valueOf( manifest.imageDataFormat );
+		voxelDimensions = new FinalVoxelDimensions( manifest.voxelUnit, manifest.voxelDimensions );
+		siteRealDimensions = manifest.siteRealDimensions;
+		siteDimensions = manifest.siteDimensions;
+		sitesPerWell = manifest.sitesPerWell;
+		wellsPerPlate = manifest.wellsPerPlate;
+		tPositions = new HashSet<>();
+		for ( String t : manifest.tPositions )
+			tPositions.add( new TPosition( t ) );
+
+		channelWellSites = new HashMap<>();
+		for ( PlateManifest.ChannelEntry channelEntry : manifest.channels )
+		{
+			final Channel channel = new Channel( channelEntry.name );
+			channel.setColor( channelEntry.color );
+			channel.setContrastLimits( channelEntry.contrastLimits );
+			final Map< Well, Set< Site > > wellSites = new HashMap<>();
+			channelWellSites.put( channel, wellSites );
+
+			for ( PlateManifest.WellEntry wellEntry : channelEntry.wells )
+			{
+				final Set< Site > sites = new HashSet<>();
+				wellSites.put( new Well( wellEntry.name ), sites );
+
+				for ( PlateManifest.SiteEntry siteEntry : wellEntry.sites )
+				{
+					final Site site = new Site( siteEntry.name, imageDataFormat );
+					site.setDimensions( siteDimensions );
+					site.setVoxelDimensions( voxelDimensions );
+					siteEntry.paths.forEach( ( t, zToPath ) -> zToPath.forEach( ( z, path ) -> site.addPath( t, z, path ) ) );
+					sites.add( site );
+				}
+			}
+		}
 	}
 
 	private void buildPlateMap( List< String > paths )
@@ -108,11 +295,25 @@ public class Plate
 		int numImages = 0;
 
 		IJ.log("Files: " + paths.size() );
-
-		for ( String path : paths )
+		final long start = System.currentTimeMillis();
+
+		// The matching is independent for each path and thus done in parallel.
+		// The order of the paths is preserved to keep the plate map
+		// construction below deterministic.
+		final List< HCSFile > hcsFiles = paths.parallelStream()
+				.map( path -> hcsPattern.match( path ) )
+				.filter( Objects::nonNull )
+				.collect( Collectors.toList() );
+
+		// Lookups by name, to avoid searching through
+		// the channels, wells and sites for every file.
+		final Map< String, Channel > nameToChannel = new HashMap<>();
+		final Map< Channel, Map< String, Well > > channelToWells = new HashMap<>();
+		final Map< Well, Map< String, Site > > wellToSites = new HashMap<>();
+
+		for ( HCSFile hcsFile : hcsFiles )
 		{
-			if ( ! hcsPattern.setPath( path ) )
-				continue;
+			final String path = hcsFile.getPath();
 
 			if ( metadata != null )
 			{
@@ -136,14 +337,16 @@ public class Plate
 
 			// channel
 			//
-			String channelGroup = hcsPattern.getChannelGroup();
-			Channel channel = getChannel( channelWellSites, channelGroup );
+			String channelGroup = hcsFile.getChannel();
+			Channel channel = nameToChannel.get( channelGroup );
 			if ( channel == null )
 			{
 				// configure channel properties
 				//
 
 				channel = new Channel( channelGroup );
+				nameToChannel.put( channelGroup, channel );
+				channelToWells.put( channel, new HashMap<>() );
 				channelWellSites.put( channel, new HashMap<>() );
 
 				// TODO: implement this properly
@@ -208,11 +411,13 @@ public class Plate
 
 			// well
 			//
-			String wellGroup = hcsPattern.getWellGroup();
-			Well well = getWell( channelWellSites, channel, wellGroup );
+			String wellGroup = hcsFile.getWell();
+			Well well = channelToWells.get( channel ).get( wellGroup );
 			if ( well == null )
 			{
 				well = new Well( wellGroup );
+				channelToWells.get( channel ).put( wellGroup, well );
+				wellToSites.put( well, new HashMap<>() );
 				channelWellSites.get( channel ).put( well, new HashSet<>() );
 				final int numWells = channelWellSites.get( channel ).size();
 				if ( numWells > wellsPerPlate )
@@ -221,11 +426,12 @@ public class Plate
 
 			// site
 			//
-			final String siteGroup = hcsPattern.getSiteGroup();
-			Site site = getSite( channelWellSites, channel, well, siteGroup );
+			final String siteGroup = hcsFile.getSite();
+			Site site = wellToSites.get( well ).get( siteGroup );
 			if ( site == null )
 			{
 				site = new Site( siteGroup, imageDataFormat );
+				wellToSites.get( well ).put( siteGroup, site );
 				site.setDimensions( siteDimensions );
 				site.setVoxelDimensions( voxelDimensions );
 				channelWellSites.get( channel ).get( well ).add( site );
@@ -234,13 +440,15 @@ public class Plate
 					sitesPerWell = numSites; // needed to compute the site position within a well
 			}
 
-			final String t = hcsPattern.getT();
-			final String z = hcsPattern.getZ();
+			final String t = hcsFile.getT();
+			final String z = hcsFile.getZ();
 			site.addPath( t, z, path );
 
 			tPositions.add( new TPosition( t ) );
 		}
 
+		final long durationMillis = System.currentTimeMillis() - start;
+		IJ.log( "Scanned " + paths.size() + " files in " + durationMillis + " ms (" + String.format( "%.1f", 1000.0 * paths.size() / Math.max( 1, durationMillis ) ) + " files/s)." );
 		IJ.log( "Initialised HCS plate: " + getName() );
 		IJ.log( "Images: " + numImages );
 		IJ.log( "Channels: " + channelWellSites.keySet().size() );
@@ -248,43 +456,6 @@ public class Plate
 		IJ.log( "Sites per well: " + sitesPerWell );
 	}
 
-	private Channel getChannel( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, String channelName )
-	{
-		try
-		{
-			return channelWellSites.keySet().stream().filter( c -> c.getName().equals( channelName ) ).findFirst().get();
-		}
-		catch ( NoSuchElementException e )
-		{
-			return null;
-		}
-
-	}
-
-	private Well getWell( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, Channel channel, String wellName )
-	{
-		try
-		{
-			return channelWellSites.get( channel ).keySet().stream().filter( w -> w.getName().equals( wellName ) ).findFirst().get();
-		}
-		catch ( NoSuchElementException e )
-		{
-			return null;
-		}
-	}
-
-	private Site getSite( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, Channel channel, Well well, String siteName )
-	{
-		try
-		{
-			return channelWellSites.get( channel ).get( well ).stream().filter( s -> s.getName().equals( siteName ) ).findFirst().get();
-		}
-		catch ( NoSuchElementException e )
-		{
-			return null;
-		}
-	}
-
 	private HCSPattern determineHCSPattern( String hcsDirectory, List< String > paths )
 	{
 		for ( String path : paths )
@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of scanning a plate directory, such that
+ * the plate can be re-opened without scanning it again.
+ *
+ * The manifest is only valid as long as the modification times
+ * of the scanned directories did not change.
+ */
+public class PlateManifest
+{
+	public static final int VERSION = 1;
+
+	public int version = VERSION;
+	public String hcsDirectory;
+	public Map< String, Long > directoryModificationTimes;
+	public String hcsPattern;
+	public String imageDataFormat;
+	public String voxelUnit;
+	public double[] voxelDimensions;
+	public double[] siteRealDimensions;
+	public int[] siteDimensions;
+	public int sitesPerWell;
+	public int wellsPerPlate;
+	public List< String > tPositions = new ArrayList<>();
+	public List< ChannelEntry > channels = new ArrayList<>();
+
+	public static class ChannelEntry
+	{
+		public String name;
+		public String color;
+		public double[] contrastLimits;
+		public List< WellEntry > wells = new ArrayList<>();
+	}
+
+	public static class WellEntry
+	{
+		public String name;
+		public List< SiteEntry > sites = new ArrayList<>();
+	}
+
+	public static class SiteEntry
+	{
+		public String name;
+		public Map< String, Map< String, String > > paths; // t => z => path
+	}
+
+	public boolean isValid( String hcsDirectory )
+	{
+		if ( version != VERSION || ! hcsDirectory.equals( this.hcsDirectory ) || directoryModificationTimes == null )
+			return false;
+
+		for ( Map.Entry< String, Long > entry : directoryModificationTimes.entrySet() )
+		{
+			// lastModified returns 0 for a directory that does not exist anymore
+			if ( new File( entry.getKey() ).lastModified() != entry.getValue() )
+				return false;
+		}
+
+		return true;
+	}
+
+	public static PlateManifest read( File file ) throws IOException
+	{
+		try ( Reader reader = new FileReader( file ) )
+		{
+			return gson().fromJson( reader, PlateManifest.class );
+		}
+	}
+
+	public void write( File file ) throws IOException
+	{
+		file.getParentFile().mkdirs();
+		try ( Writer writer = new FileWriter( file ) )
+		{
+			gson().toJson( this, writer );
+		}
+	}
+
+	private static Gson gson()
+	{
+		return new GsonBuilder().disableHtmlEscaping().create();
+	}
+}
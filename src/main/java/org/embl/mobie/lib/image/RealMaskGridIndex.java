@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.image;
+
+import gnu.trove.list.array.TIntArrayList;
+import net.imglib2.RealLocalizable;
+import net.imglib2.roi.RealMaskRealInterval;
+
+import java.util.List;
+
+/**
+ * Finds the mask that contains a location, using a uniform 2D grid
+ * over the bounding boxes of the masks, such that only the
+ * few masks whose bounding boxes overlap the grid cell of the
+ * location need to be tested.
+ *
+ * The grid has about as many cells as there are masks, which
+ * suits masks of similar size, such as the regions of a plate.
+ *
+ * @param <T> the type of the values that are associated with the masks
+ */
+public class RealMaskGridIndex< T >
+{
+	private final List< T > values;
+	private final RealMaskRealInterval[] masks;
+	private final int[][] cellToMaskIndices;
+	private final double[] min = new double[ 2 ];
+	private final double[] cellSize = new double[ 2 ];
+	private final int[] numCells = new int[ 2 ];
+
+	public RealMaskGridIndex( List< RealMaskRealInterval > masks, List< T > values )
+	{
+		this.values = values;
+		this.masks = masks.toArray( new RealMaskRealInterval[ 0 ] );
+
+		final double[] max = new double[ 2 ];
+		for ( int d = 0; d < 2; d++ )
+		{
+			min[ d ] = Double.MAX_VALUE;
+			max[ d ] = -Double.MAX_VALUE;
+			for ( RealMaskRealInterval mask : this.masks )
+			{
+				min[ d ] = Math.min( min[ d ], mask.realMin( d ) );
+				max[ d ] = Math.max( max[ d ], mask.realMax( d ) );
+			}
+		}
+
+		final int numCellsPerDimension = Math.max( 1, ( int ) Math.ceil( Math.sqrt( this.masks.length ) ) );
+		for ( int d = 0; d < 2; d++ )
+		{
+			numCells[ d ] = numCellsPerDimension;
+			cellSize[ d ] = Math.max( max[ d ] - min[ d ], Double.MIN_NORMAL ) / numCellsPerDimension;
+		}
+
+		final TIntArrayList[] cellToMaskIndexList = new TIntArrayList[ numCells[ 0 ] * numCells[ 1 ] ];
+		for ( int maskIndex = 0; maskIndex < this.masks.length; maskIndex++ )
+		{
+			final RealMaskRealInterval mask = this.masks[ maskIndex ];
+			final int minX = cellIndex( mask.realMin( 0 ), 0 );
+			final int maxX = cellIndex( mask.realMax( 0 ), 0 );
+			final int minY = cellIndex( mask.realMin( 1 ), 1 );
+			final int maxY = cellIndex( mask.realMax( 1 ), 1 );
+			for ( int x = minX; x <= maxX; x++ )
+				for ( int y = minY; y <= maxY; y++ )
+				{
+					final int cell = y * numCells[ 0 ] + x;
+					if ( cellToMaskIndexList[ cell ] == null )
+						cellToMaskIndexList[ cell ] = new TIntArrayList( 1 );
+					cellToMaskIndexList[ cell ].add( maskIndex );
+				}
+		}
+
+		cellToMaskIndices = new int[ cellToMaskIndexList.length ][];
+		for ( int cell = 0; cell < cellToMaskIndexList.length; cell++ )
+			cellToMaskIndices[ cell ] = cellToMaskIndexList[ cell ] == null ? new int[ 0 ] : cellToMaskIndexList[ cell ].toArray();
+	}
+
+	/**
+	 * @return the index of a mask that contains the location, or -1
+	 */
+	public int find( RealLocalizable location )
+	{
+		final double x = location.getDoublePosition( 0 );
+		final double y = location.getDoublePosition( 1 );
+		if ( x < min[ 0 ] || y < min[ 1 ] )
+			return -1;
+
+		final int cellX = ( int ) ( ( x - min[ 0 ] ) / cellSize[ 0 ] );
+		final int cellY = ( int ) ( ( y - min[ 1 ] ) / cellSize[ 1 ] );
+		if ( cellX > numCells[ 0 ] || cellY > numCells[ 1 ] )
+			return -1;
+
+		// the maximum of the masks falls onto the border of the last cell
+		final int[] maskIndices = cellToMaskIndices[ Math.min( cellY, numCells[ 1 ] - 1 ) * numCells[ 0 ] + Math.min( cellX, numCells[ 0 ] - 1 ) ];
+		for ( int maskIndex : maskIndices )
+			if ( masks[ maskIndex ].test( location ) )
+				return maskIndex;
+
+		return -1;
+	}
+
+	public RealMaskRealInterval getMask( int index )
+	{
+		return masks[ index ];
+	}
+
+	public T getValue( int index )
+	{
+		return values.get( index );
+	}
+
+	public int size()
+	{
+		return masks.length;
+	}
+
+	private int cellIndex( double position, int d )
+	{
+		final int cellIndex = ( int ) ( ( position - min[ d ] ) / cellSize[ d ] );
+		return Math.max( 0, Math.min( cellIndex, numCells[ d ] - 1 ) );
+	}
+}
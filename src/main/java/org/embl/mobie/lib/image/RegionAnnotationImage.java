@@ -46,12 +46,11 @@ import org.embl.mobie.lib.transform.TransformHelper;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class RegionAnnotationImage< AR extends AnnotatedRegion > implements AnnotationImage< AR >
 {
@@ -93,7 +92,9 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 
 		// one could add a time point parameter to LocationToAnnotatedRegionSupplier
 		// and then make a Map< Timepoint, regions > and modify RealRandomAccessibleIntervalTimelapseSource to consume this map
-		final FunctionRealRandomAccessible< AnnotationType< AR > > regions = new FunctionRealRandomAccessible( 3, new LocationToAnnotatedRegionSupplier(), () -> new AnnotationType<>( annData.getTable().annotations().get( 0 ) ) );
+		final LocationToAnnotatedRegionSupplier locationToRegionSupplier = new LocationToAnnotatedRegionSupplier();
+		locationToRegionSupplier.getIndex(); // build the spatial index upfront
+		final FunctionRealRandomAccessible< AnnotationType< AR > > regions = new FunctionRealRandomAccessible( 3, locationToRegionSupplier, () -> new AnnotationType<>( annData.getTable().annotations().get( 0 ) ) );
 
 		// TODO it would be nice if this Source had the same voxel unit
 		//   as the other sources, but that would mean touching one of the
@@ -125,72 +126,76 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 
 	class LocationToAnnotatedRegionSupplier implements Supplier< BiConsumer< RealLocalizable, AnnotationType< AR > > >
 	{
+		private RealMaskGridIndex< AR > index;
+
 		@Override
 		public BiConsumer< RealLocalizable, AnnotationType< AR > > get()
 		{
-			return new LocationToRegion();
+			return new LocationToRegion( getIndex() );
 		}
 
-		private class LocationToRegion implements BiConsumer< RealLocalizable, AnnotationType< AR > >
+		// The masks of the regions are recomputed when their
+		// images change, in which case the index is rebuilt.
+		synchronized RealMaskGridIndex< AR > getIndex()
 		{
-			private RealMaskRealInterval recentMask;
-			private HashMap< RealMaskRealInterval, AR > maskToAnnotatedRegion;
+			final ArrayList< AR > annotations = annData.getTable().annotations();
 
-			public LocationToRegion()
+			if ( index != null && index.size() == annotations.size() )
 			{
-				maskToAnnotatedRegion = new HashMap<>();
-				final ArrayList< AR > annotations = annData.getTable().annotations();
-				for ( AR annotatedRegion : annotations )
+				boolean isUpToDate = true;
+				for ( int i = 0; i < annotations.size(); i++ )
 				{
-					// one could filter here for the timepoint of the annotation
-					// if the constructor of LocationToAnnotatedRegionSupplier
-					// would have a time point parameter
-					// in fact, rather, an annotatedRegion
-					// could/should(?) annotate all timepoints of the
-					// source that is referred to in the annotatedRegion
-					final RealMaskRealInterval mask = annotatedRegion.getMask();
-					maskToAnnotatedRegion.put( mask, annotatedRegion );
+					if ( annotations.get( i ).getMask() != index.getMask( i ) )
+					{
+						isUpToDate = false;
+						break;
+					}
 				}
-				this.recentMask = maskToAnnotatedRegion.keySet().iterator().next();
+
+				if ( isUpToDate )
+					return index;
+			}
+
+			// one could filter here for the timepoint of the annotation
+			// if the constructor of LocationToAnnotatedRegionSupplier
+			// would have a time point parameter
+			// in fact, rather, an annotatedRegion
+			// could/should(?) annotate all timepoints of the
+			// source that is referred to in the annotatedRegion
+			final List< RealMaskRealInterval > masks = annotations.stream().map( AnnotatedRegion::getMask ).collect( Collectors.toList() );
+			index = new RealMaskGridIndex<>( masks, new ArrayList<>( annotations ) );
+			return index;
+		}
+
+		private class LocationToRegion implements BiConsumer< RealLocalizable, AnnotationType< AR > >
+		{
+			private final RealMaskGridIndex< AR > index;
+			private int recentIndex;
+
+			public LocationToRegion( RealMaskGridIndex< AR > index )
+			{
+				this.index = index;
+				this.recentIndex = 0;
 			}
 
 			@Override
 			public void accept( RealLocalizable location, AnnotationType< AR > value )
 			{
-				// TODO
-				//    There is a lof of background, which is expensive as one
-				//    needs to traverse the whole loop => implement a background mask
-				//    that is tested first.
-				//    This needs however: https://github.com/imglib/imglib2-roi/pull/63
-				//    Also this only makes sense if one can cache the mask such that it
-				//    it does not need to traverse (thus maybe not possible)?
-				//    Alternative: Is there some data structure that would allow to
-				//    first look for image annotations that are close to the point?
-				//    Maybe the idea with the most recent one is
-				//    still the best (see above)?
-
 				// It is likely that the next asked location
 				// is within the same mask, thus we test that one first
 				// to safe some computations.
-				if ( recentMask.test( location ) )
+				if ( index.getMask( recentIndex ).test( location ) )
 				{
-					value.setAnnotation( maskToAnnotatedRegion.get( recentMask) );
+					value.setAnnotation( index.getValue( recentIndex ) );
 					return;
 				}
 
-				for ( Map.Entry< RealMaskRealInterval, AR > entry : maskToAnnotatedRegion.entrySet() )
+				final int maskIndex = index.find( location );
+				if ( maskIndex >= 0 )
 				{
-					final RealMaskRealInterval mask = entry.getKey();
-
-					if ( mask == recentMask )
-						continue;
-
-					if ( mask.test( location ) )
-					{
-						recentMask = mask;
-						value.setAnnotation( entry.getValue() );
-						return;
-					}
+					recentIndex = maskIndex;
+					value.setAnnotation( index.getValue( maskIndex ) );
+					return;
 				}
 
 				// background
@@ -0,0 +1,379 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.image;
+
+import bdv.cache.SharedQueue;
+import bdv.tools.transformation.TransformedSource;
+import bdv.util.volatiles.VolatileTypeMatcher;
+import bdv.util.volatiles.VolatileViews;
+import bdv.viewer.Source;
+import ij.ImagePlus;
+import ij.io.FileInfo;
+import ij.io.Opener;
+import ij.io.TiffDecoder;
+import ij.process.ImageProcessor;
+import mpicbg.spim.data.sequence.VoxelDimensions;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.cache.img.CachedCellImg;
+import net.imglib2.cache.img.CellLoader;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgFactory;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgOptions;
+import net.imglib2.cache.img.SingleCellArrayImg;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.roi.RealMaskRealInterval;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.type.numeric.NumericType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+import org.embl.mobie.lib.hcs.Site;
+import org.embl.mobie.lib.io.TPosition;
+import org.embl.mobie.lib.io.ZPosition;
+import org.embl.mobie.lib.source.RandomAccessibleIntervalMipmapSource4D;
+import org.embl.mobie.lib.source.SourceHelper;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The image of one site of a plate, where each
+ * z-plane and time-point is stored in a separate (TIFF) file.
+ *
+ * Each file is exposed as one cell of a cached cell image,
+ * which is only read when it is needed. Lower resolution levels
+ * are computed on the fly by 2x2 averaging of the next higher
+ * resolution level and are cached as well, such that plate overviews
+ * can be rendered from the (small) low resolution levels.
+ */
+public class SiteImage< T extends NativeType< T > & NumericType< T > > implements Image< T >
+{
+	// the lowest resolution level is at least this large
+	public static final int MIN_LEVEL_SIZE = 64;
+
+	private final Site site;
+	private final String name;
+	@Nullable private final SharedQueue sharedQueue;
+	private SourcePair< T > sourcePair;
+	private TransformedSource< T > transformedSource;
+	private AffineTransform3D affineTransform3D = new AffineTransform3D();
+	@Nullable
+	private RealMaskRealInterval mask;
+	private String[][] paths; // [ t ][ z ]
+
+	public SiteImage( Site site, String name, @Nullable SharedQueue sharedQueue )
+	{
+		this.site = site;
+		this.name = name;
+		this.sharedQueue = sharedQueue;
+	}
+
+	@Override
+	public SourcePair< T > getSourcePair()
+	{
+		if( sourcePair == null ) open();
+		return sourcePair;
+	}
+
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+
+	@Override
+	public void transform( AffineTransform3D affineTransform3D )
+	{
+		if ( mask != null )
+		{
+			// The mask contains potential previous transforms already,
+			// thus we add the new transform on top.
+			mask = mask.transform( affineTransform3D.inverse() );
+		}
+
+		this.affineTransform3D.preConcatenate( affineTransform3D );
+
+		if ( transformedSource != null )
+			transformedSource.setFixedTransform( this.affineTransform3D );
+
+		for ( ImageListener listener : listeners.list )
+			listener.imageChanged();
+	}
+
+	@Override
+	public RealMaskRealInterval getMask( )
+	{
+		if ( mask == null )
+		{
+			// It is important to include the voxel dimensions,
+			// because otherwise rendering 2D sources in a 3D scene
+			// will make them so thin that the {@code RegionLabelImage}
+			// does not render anything.
+			return SourceHelper.estimateMask( getSourcePair().getSource(), 0, true );
+		}
+
+		return mask;
+	}
+
+	@Override
+	public void setMask( RealMaskRealInterval mask )
+	{
+		this.mask = mask;
+	}
+
+	private synchronized void open()
+	{
+		if ( sourcePair != null ) return;
+
+		final Map< TPosition, Map< ZPosition, String > > sitePaths = site.getPaths();
+		final ArrayList< TPosition > tPositions = new ArrayList<>( sitePaths.keySet() );
+		Collections.sort( tPositions );
+		final int nT = tPositions.size();
+		final int nZ = sitePaths.get( tPositions.get( 0 ) ).size();
+		paths = new String[ nT ][ nZ ];
+		for ( int t = 0; t < nT; t++ )
+		{
+			int z = 0;
+			for ( String path : sitePaths.get( tPositions.get( t ) ).values() )
+			{
+				if ( z == nZ ) break;
+				paths[ t ][ z++ ] = path;
+			}
+		}
+
+		final T type = createType( paths[ 0 ][ 0 ] );
+		final int[] siteDimensions = site.getDimensions();
+		final VoxelDimensions voxelDimensions = site.getVoxelDimensions();
+
+		final List< RandomAccessibleInterval< T > > levels = new ArrayList<>();
+		final List< RandomAccessibleInterval< ? > > volatileLevels = new ArrayList<>();
+		final List< AffineTransform3D > mipmapTransforms = new ArrayList<>();
+
+		long[] dimensions = { siteDimensions[ 0 ], siteDimensions[ 1 ], nZ, nT };
+		CachedCellImg< T, ? > img = createCachedCellImg( dimensions, type, new PlaneLoader() );
+		while ( true )
+		{
+			levels.add( img );
+			volatileLevels.add( sharedQueue == null ? VolatileViews.wrapAsVolatile( img ) : VolatileViews.wrapAsVolatile( img, sharedQueue ) );
+			mipmapTransforms.add( getMipmapTransform( voxelDimensions, 1 << ( levels.size() - 1 ) ) );
+
+			if ( Math.max( dimensions[ 0 ], dimensions[ 1 ] ) / 2 < MIN_LEVEL_SIZE )
+				break;
+
+			dimensions = new long[]{ ( dimensions[ 0 ] + 1 ) / 2, ( dimensions[ 1 ] + 1 ) / 2, nZ, nT };
+			img = createCachedCellImg( dimensions, type, new DownsamplingLoader( img ) );
+		}
+
+		final AffineTransform3D[] transforms = mipmapTransforms.toArray( new AffineTransform3D[ 0 ] );
+		final Source< T > source = new RandomAccessibleIntervalMipmapSource4D<>( levels, type, voxelDimensions, name, transforms );
+		final Source volatileSource = new RandomAccessibleIntervalMipmapSource4D( volatileLevels, VolatileTypeMatcher.getVolatileTypeForType( type ), voxelDimensions, name, transforms );
+
+		transformedSource = new TransformedSource( source );
+		transformedSource.setFixedTransform( affineTransform3D );
+
+		sourcePair = new DefaultSourcePair( transformedSource, new TransformedSource( volatileSource, transformedSource ) );
+	}
+
+	private static < T extends NativeType< T > > CachedCellImg< T, ? > createCachedCellImg( long[] dimensions, T type, CellLoader< T > loader )
+	{
+		// one cell per z-plane and time-point
+		final ReadOnlyCachedCellImgFactory factory = new ReadOnlyCachedCellImgFactory( ReadOnlyCachedCellImgOptions.options().cellDimensions( ( int ) dimensions[ 0 ], ( int ) dimensions[ 1 ], 1, 1 ) );
+		return factory.create( dimensions, type, loader );
+	}
+
+	private static AffineTransform3D getMipmapTransform( VoxelDimensions voxelDimensions, int downsamplingFactor )
+	{
+		// the centre of a downsampled pixel is in the
+		// centre of the pixels that it averages
+		final double offset = 0.5 * ( downsamplingFactor - 1 );
+		final double vx = voxelDimensions.dimension( 0 );
+		final double vy = voxelDimensions.dimension( 1 );
+		final double vz = voxelDimensions.dimension( 2 );
+		final AffineTransform3D transform = new AffineTransform3D();
+		transform.set(
+				vx * downsamplingFactor, 0, 0, vx * offset,
+				0, vy * downsamplingFactor, 0, vy * offset,
+				0, 0, vz, 0 );
+		return transform;
+	}
+
+	private T createType( String path )
+	{
+		// only read the TIFF header here, because the
+		// pixel data of all the sites of a plate may be huge
+		try
+		{
+			final File file = new File( path );
+			final FileInfo[] fileInfos = new TiffDecoder( file.getParent(), file.getName() ).getTiffInfo();
+			switch ( fileInfos[ 0 ].fileType )
+			{
+				case FileInfo.GRAY8:
+				case FileInfo.COLOR8:
+				case FileInfo.BITMAP:
+					return ( T ) new UnsignedByteType();
+				case FileInfo.GRAY12_UNSIGNED:
+				case FileInfo.GRAY16_SIGNED:
+				case FileInfo.GRAY16_UNSIGNED:
+					return ( T ) new UnsignedShortType();
+				case FileInfo.RGB:
+				case FileInfo.BGR:
+				case FileInfo.ARGB:
+				case FileInfo.ABGR:
+				case FileInfo.BARG:
+				case FileInfo.RGB_PLANAR:
+				case FileInfo.CMYK:
+					return ( T ) new ARGBType();
+				case FileInfo.GRAY32_INT:
+					// ImageJ reads 32-bit integers as floats, thus
+					// values beyond 2^24 are not exact
+					return ( T ) new IntType();
+				case FileInfo.GRAY32_UNSIGNED:
+					return ( T ) new UnsignedIntType();
+				case FileInfo.GRAY24_UNSIGNED:
+				case FileInfo.GRAY32_FLOAT:
+				case FileInfo.GRAY64_FLOAT:
+					return ( T ) new FloatType();
+				default:
+					throw new UnsupportedOperationException( "TIFF pixel type " + fileInfos[ 0 ].fileType + " not supported: " + path );
+			}
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "Could not read " + path, e );
+		}
+	}
+
+	private static ImageProcessor openPlane( String path )
+	{
+		final File file = new File( path );
+		final ImagePlus imagePlus = ( new Opener() ).openTiff( file.getParent(), file.getName() );
+		if ( imagePlus == null )
+			throw new RuntimeException( "Could not open " + path );
+		return imagePlus.getProcessor();
+	}
+
+	class PlaneLoader implements CellLoader< T >
+	{
+		@Override
+		public void load( SingleCellArrayImg< T, ? > cell ) throws Exception
+		{
+			final int z = ( int ) cell.min( 2 );
+			final int t = ( int ) cell.min( 3 );
+			final String path = paths[ t ][ z ];
+			if ( path == null ) return; // missing plane
+
+			final ImageProcessor processor = openPlane( path );
+			final int width = ( int ) cell.dimension( 0 );
+			final int height = ( int ) cell.dimension( 1 );
+			final int processorWidth = processor.getWidth();
+			final int processorHeight = processor.getHeight();
+			final boolean isReal = cell.firstElement() instanceof RealType;
+
+			// the cell is one plane, iterated in flat order
+			final Cursor< T > cursor = cell.cursor();
+			for ( int y = 0; y < height; y++ )
+			{
+				for ( int x = 0; x < width; x++ )
+				{
+					final T value = cursor.next();
+					if ( x >= processorWidth || y >= processorHeight )
+						continue;
+
+					if ( isReal )
+						( ( RealType< ? > ) value ).setReal( processor.getf( x, y ) );
+					else
+						( ( ARGBType ) value ).set( 0xff000000 | processor.get( x, y ) );
+				}
+			}
+		}
+	}
+
+	class DownsamplingLoader implements CellLoader< T >
+	{
+		private final RandomAccessibleInterval< T > higherResolution;
+
+		public DownsamplingLoader( RandomAccessibleInterval< T > higherResolution )
+		{
+			this.higherResolution = higherResolution;
+		}
+
+		@Override
+		public void load( SingleCellArrayImg< T, ? > cell ) throws Exception
+		{
+			final RandomAccess< T > access = higherResolution.randomAccess();
+			final long maxX = higherResolution.max( 0 );
+			final long maxY = higherResolution.max( 1 );
+			final long[] position = { 0, 0, cell.min( 2 ), cell.min( 3 ) };
+			final boolean isReal = cell.firstElement() instanceof RealType;
+
+			final Cursor< T > cursor = cell.localizingCursor();
+			while ( cursor.hasNext() )
+			{
+				final T value = cursor.next();
+				final long x = 2 * cursor.getLongPosition( 0 );
+				final long y = 2 * cursor.getLongPosition( 1 );
+
+				if ( ! isReal )
+				{
+					// no averaging of colors
+					position[ 0 ] = x;
+					position[ 1 ] = y;
+					access.setPosition( position );
+					value.set( access.get() );
+					continue;
+				}
+
+				double sum = 0;
+				int count = 0;
+				for ( long dy = 0; dy < 2 && y + dy <= maxY; dy++ )
+				{
+					for ( long dx = 0; dx < 2 && x + dx <= maxX; dx++ )
+					{
+						position[ 0 ] = x + dx;
+						position[ 1 ] = y + dy;
+						access.setPosition( position );
+						sum += ( ( RealType< ? > ) access.get() ).getRealDouble();
+						count++;
+					}
+				}
+				( ( RealType< ? > ) value ).setReal( sum / count );
+			}
+		}
+	}
+}
@@ -29,36 +29,53 @@
 package org.embl.mobie.lib.image;
 
 import bdv.tools.transformation.TransformedSource;
+import bdv.util.volatiles.VolatileViews;
 import bdv.viewer.Source;
+import mpicbg.spim.data.sequence.FinalVoxelDimensions;
 import net.imglib2.Interval;
 import net.imglib2.KDTree;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.RealLocalizable;
 import net.imglib2.Sampler;
-import net.imglib2.Volatile;
+import net.imglib2.cache.img.CachedCellImg;
+import net.imglib2.converter.Converters;
 import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
 import net.imglib2.position.FunctionRealRandomAccessible;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.roi.RealMaskRealInterval;
 import net.imglib2.roi.geom.GeomMasks;
 import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.volatiles.VolatileUnsignedIntType;
 import net.imglib2.util.Intervals;
+import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.annotation.AnnotatedSpot;
 import org.embl.mobie.lib.source.AnnotationType;
+import org.embl.mobie.lib.source.RandomAccessibleIntervalMipmapSource;
 import org.embl.mobie.lib.source.RealRandomAccessibleIntervalTimelapseSource;
+import org.embl.mobie.lib.source.VolatileAnnotationType;
 import org.embl.mobie.lib.table.AnnData;
 import org.embl.mobie.lib.table.DefaultAnnData;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 public class SpotAnnotationImage< AS extends AnnotatedSpot > implements AnnotationImage< AS >
 {
+	public static final int MAX_NUM_RASTER_LEVELS = 20;
+
 	private final String name;
 	private final DefaultAnnData< AS > annData;
-	private Source< ? extends Volatile< UnsignedIntType > > volatileSource = null;
+	@Nullable private final Double rasterPixelSize;
+	private Source< VolatileAnnotationType< AS > > volatileSource = null;
 	private KDTree< AS > kdTree;
+	private ArrayList< AS > annotations;
+	private List< SpotRasterizer > rasterizers;
+	private List< RandomAccessibleInterval< AnnotationType< AS > > > rasterLevels;
+	private List< RandomAccessibleInterval< VolatileAnnotationType< AS > > > volatileRasterLevels;
 	private RealMaskRealInterval mask;
 	private double radius;
 	private double[] boundingBoxMin;
@@ -68,12 +85,24 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 	private TransformedSource< AnnotationType< AS > > transformedSource;
 
 	public SpotAnnotationImage( String name, DefaultAnnData< AS > annData, double radius, @Nullable double[] boundingBoxMin, @Nullable double[] boundingBoxMax )
+	{
+		this( name, annData, radius, boundingBoxMin, boundingBoxMax, null );
+	}
+
+	/**
+	 * @param rasterPixelSize
+	 * 			if null, the closest spot is searched for every rendered pixel;
+	 * 			otherwise, the spots are rasterised into a cached (volatile)
+	 * 			label image with this pixel size (in the units of the spot coordinates).
+	 */
+	public SpotAnnotationImage( String name, DefaultAnnData< AS > annData, double radius, @Nullable double[] boundingBoxMin, @Nullable double[] boundingBoxMax, @Nullable Double rasterPixelSize )
 	{
 		this.name = name;
 		this.annData = annData;
 		this.radius = radius;
 		this.boundingBoxMin = boundingBoxMin;
 		this.boundingBoxMax = boundingBoxMax;
+		this.rasterPixelSize = rasterPixelSize;
 		affineTransform3D = new AffineTransform3D();
 		createImage();
 	}
@@ -85,7 +114,16 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 
 	public void setRadius( double radius )
 	{
-		this.radius = radius;
+		if ( rasterizers != null && radius != this.radius )
+		{
+			this.radius = radius;
+			// the previously rasterised cells are not valid anymore
+			updateRasterLevels();
+		}
+		else
+		{
+			this.radius = radius;
+		}
 	}
 
 	private void createImage()
@@ -93,17 +131,18 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 		//long start = System.currentTimeMillis();
 		// FIXME We could implement a kdTree that just uses float precision
 		//   to save memory.
-		final ArrayList< AS > annotations = annData.getTable().annotations();
-		kdTree = new KDTree( annotations, annotations );
-		//System.out.println( "Built tree with " + annotatedSpots.size() + " elements in " + ( System.currentTimeMillis() - start ) + " ms." );
+		annotations = annData.getTable().annotations();
 
-		if ( boundingBoxMin == null )
-			boundingBoxMin = kdTree.minAsDoubleArray();
+		if ( rasterPixelSize != null )
+		{
+			createRasterImage();
+			return;
+		}
 
-		if ( boundingBoxMax == null )
-			boundingBoxMax = kdTree.maxAsDoubleArray();
+		kdTree = new KDTree( annotations, annotations );
+		//System.out.println( "Built tree with " + annotatedSpots.size() + " elements in " + ( System.currentTimeMillis() - start ) + " ms." );
 
-		mask = GeomMasks.closedBox( boundingBoxMin, boundingBoxMax );
+		configureMask( kdTree );
 
 		// TODO: code duplication with RegionLabelImage
 		final ArrayList< Integer > timePoints = configureTimePoints();
@@ -114,6 +153,93 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 		source = new RealRandomAccessibleIntervalTimelapseSource( realRandomAccessible, interval, new AnnotationType<>( annotatedSpot ), new AffineTransform3D(), name, true, null );
 	}
 
+	private void configureMask( KDTree< ? > kdTree )
+	{
+		if ( boundingBoxMin == null )
+			boundingBoxMin = kdTree.minAsDoubleArray();
+
+		if ( boundingBoxMax == null )
+			boundingBoxMax = kdTree.maxAsDoubleArray();
+
+		mask = GeomMasks.closedBox( boundingBoxMin, boundingBoxMax );
+	}
+
+	private void createRasterImage()
+	{
+		// The values of this tree are the indices of the spots
+		// in the annotations list, such that the rasterised
+		// label images can store them as (index + 1).
+		// Note that the KDTree reorders the list of positions,
+		// thus it must not be given the annotations list itself.
+		final ArrayList< Integer > indices = new ArrayList<>( annotations.size() );
+		for ( int i = 0; i < annotations.size(); i++ )
+			indices.add( i );
+		final KDTree< Integer > indexTree = new KDTree<>( indices, new ArrayList<>( annotations ) );
+
+		configureMask( indexTree );
+
+		// Coarser resolution levels only contain one representative
+		// spot per pixel, such that BDV can render zoomed out views
+		// independent of the total number of spots.
+		rasterizers = new ArrayList<>();
+		rasterizers.add( new SpotRasterizer( indexTree, boundingBoxMin, boundingBoxMax, rasterPixelSize ) );
+		while ( ! rasterizers.get( rasterizers.size() - 1 ).isSingleCell() && rasterizers.size() < MAX_NUM_RASTER_LEVELS )
+			rasterizers.add( rasterizers.get( rasterizers.size() - 1 ).downsample() );
+
+		rasterLevels = new CopyOnWriteArrayList<>();
+		volatileRasterLevels = new CopyOnWriteArrayList<>();
+		updateRasterLevels();
+
+		final AffineTransform3D[] mipmapTransforms = rasterizers.stream().map( SpotRasterizer::getTransform ).toArray( AffineTransform3D[]::new );
+		final FinalVoxelDimensions voxelDimensions = new FinalVoxelDimensions( "", 1, 1, 1 );
+		final AS annotatedSpot = annotations.get( 0 );
+		source = new RandomAccessibleIntervalMipmapSource<>( rasterLevels, new AnnotationType<>( annotatedSpot ), voxelDimensions, name, mipmapTransforms );
+		volatileSource = new RandomAccessibleIntervalMipmapSource<>( volatileRasterLevels, new VolatileAnnotationType<>( annotatedSpot, true ), voxelDimensions, name, mipmapTransforms );
+	}
+
+	/*
+	 * (Re-)creates the lazy label images for the current radius.
+	 * The mipmap sources read from the (thread-safe) level lists,
+	 * thus replacing the list elements suffices.
+	 */
+	private synchronized void updateRasterLevels()
+	{
+		for ( int level = 0; level < rasterizers.size(); level++ )
+		{
+			final CachedCellImg< UnsignedIntType, ? > labels = rasterizers.get( level ).createLabelImage( radius );
+			final RandomAccessibleInterval< VolatileUnsignedIntType > volatileLabels = VolatileViews.wrapAsVolatile( labels, ThreadHelper.sharedQueue );
+
+			final RandomAccessibleInterval< AnnotationType< AS > > levelAnnotations = Converters.convert(
+					( RandomAccessibleInterval< UnsignedIntType > ) labels,
+					( label, annotationType ) -> annotationType.setAnnotation( toAnnotation( label.get() ) ),
+					new AnnotationType<>() );
+
+			final RandomAccessibleInterval< VolatileAnnotationType< AS > > volatileLevelAnnotations = Converters.convert(
+					volatileLabels,
+					( label, annotationType ) -> {
+						annotationType.setValid( label.isValid() );
+						annotationType.get().setAnnotation( toAnnotation( label.get().get() ) );
+					},
+					new VolatileAnnotationType<>() );
+
+			if ( rasterLevels.size() > level )
+			{
+				rasterLevels.set( level, levelAnnotations );
+				volatileRasterLevels.set( level, volatileLevelAnnotations );
+			}
+			else
+			{
+				rasterLevels.add( levelAnnotations );
+				volatileRasterLevels.add( volatileLevelAnnotations );
+			}
+		}
+	}
+
+	private AS toAnnotation( long label )
+	{
+		return label == 0 ? null : annotations.get( ( int ) ( label - 1 ) );
+	}
+
 	@Override
 	public AnnData< AS > getAnnData()
 	{
@@ -174,8 +300,11 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 	{
 		transformedSource = new TransformedSource( source );
 		transformedSource.setFixedTransform( affineTransform3D );
-		//final TransformedSource volatileTransformedSource = new TransformedSource( volatileSource, transformedSource );
-		return new DefaultSourcePair<>( transformedSource, null );
+		if ( volatileSource == null )
+			return new DefaultSourcePair<>( transformedSource, null );
+
+		final TransformedSource volatileTransformedSource = new TransformedSource( volatileSource, transformedSource );
+		return new DefaultSourcePair<>( transformedSource, volatileTransformedSource );
 	}
 
 	public String getName()
@@ -0,0 +1,302 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.image;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import net.imglib2.KDTree;
+import net.imglib2.RandomAccess;
+import net.imglib2.RealLocalizable;
+import net.imglib2.RealCursor;
+import net.imglib2.RealPoint;
+import net.imglib2.cache.img.CachedCellImg;
+import net.imglib2.cache.img.CellLoader;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgFactory;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgOptions;
+import net.imglib2.cache.img.SingleCellArrayImg;
+import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Rasterises spots into a lazily computed and cached label image.
+ *
+ * The label of a pixel is the index of the closest spot (within
+ * the spot radius) plus one; zero is background.
+ *
+ * Each cell of the label image is computed by querying the spots
+ * that intersect the cell once and then "splatting" each of those spots
+ * into the pixels that it covers, which is much cheaper than searching
+ * the closest spot for every rendered pixel.
+ *
+ * For coarser resolution levels (see {@link #downsample()}) only
+ * one representative spot per pixel is kept, such that the costs
+ * of rasterising a cell do not depend on the total number of spots.
+ */
+public class SpotRasterizer
+{
+	public static final int[] CELL_DIMENSIONS_2D = { 128, 128, 1 };
+	public static final int[] CELL_DIMENSIONS_3D = { 32, 32, 32 };
+
+	private final KDTree< Integer > kdTree;
+	private final double[] min;
+	private final double[] max;
+	private final long[] dimensions;
+	private final double pixelSize;
+	private final int[] cellDimensions;
+
+	/**
+	 * @param kdTree
+	 * 			the spot positions with the spot indices as values
+	 * @param min
+	 * 			the position of the centre of the first pixel
+	 * @param max
+	 * 			the maximum position that must be covered by the raster
+	 * @param pixelSize
+	 * 			the (isotropic) size of a pixel, in the units of the spot positions
+	 */
+	public SpotRasterizer( KDTree< Integer > kdTree, double[] min, double[] max, double pixelSize )
+	{
+		this.kdTree = kdTree;
+		this.pixelSize = pixelSize;
+		this.max = max;
+		this.min = new double[ 3 ];
+		for ( int d = 0; d < 3; d++ )
+			this.min[ d ] = d < min.length ? min[ d ] : 0;
+		dimensions = dimensions( pixelSize );
+		cellDimensions = dimensions[ 2 ] == 1 ? CELL_DIMENSIONS_2D : CELL_DIMENSIONS_3D;
+	}
+
+	/**
+	 * The returned image is lazy: a cell is only rasterised
+	 * when it is accessed for the first time.
+	 *
+	 * @param radius
+	 * 			the radius of the spots
+	 * @return a cached label image of the spots
+	 */
+	public CachedCellImg< UnsignedIntType, ? > createLabelImage( double radius )
+	{
+		final ReadOnlyCachedCellImgFactory factory = new ReadOnlyCachedCellImgFactory( ReadOnlyCachedCellImgOptions.options().cellDimensions( cellDimensions ) );
+		return factory.create( dimensions, new UnsignedIntType(), new SpotCellLoader( radius ) );
+	}
+
+	/**
+	 * @return the transformation from the pixel grid of the label image
+	 * 			into the coordinate system of the spots
+	 */
+	public AffineTransform3D getTransform()
+	{
+		final AffineTransform3D transform = new AffineTransform3D();
+		transform.set(
+				pixelSize, 0, 0, min[ 0 ],
+				0, pixelSize, 0, min[ 1 ],
+				0, 0, pixelSize, min[ 2 ] );
+		return transform;
+	}
+
+	public long[] getDimensions()
+	{
+		return dimensions;
+	}
+
+	public double getPixelSize()
+	{
+		return pixelSize;
+	}
+
+	public long getNumSpots()
+	{
+		return kdTree.size();
+	}
+
+	/**
+	 * @return true if the whole label image fits into one cell,
+	 * 			in which case further downsampling is not useful
+	 */
+	public boolean isSingleCell()
+	{
+		for ( int d = 0; d < 3; d++ )
+			if ( dimensions[ d ] > cellDimensions[ d ] )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Creates a rasterizer for a resolution level with twice the pixel size.
+	 * Of all spots that fall into the same pixel of that level only the one
+	 * closest to the pixel centre is kept as a representative.
+	 *
+	 * @return the rasterizer for the next coarser resolution level
+	 */
+	public SpotRasterizer downsample()
+	{
+		final double downsampledPixelSize = 2 * pixelSize;
+		final long[] downsampledDimensions = dimensions( downsampledPixelSize );
+
+		final TLongIntHashMap pixelToRepresentative = new TLongIntHashMap( 10, 0.5F, -1, -1 );
+		final ArrayList< Integer > values = new ArrayList<>();
+		final ArrayList< RealPoint > positions = new ArrayList<>();
+		final TDoubleArrayList distancesSquared = new TDoubleArrayList();
+
+		final int numSpotDimensions = kdTree.numDimensions();
+		final RealCursor< Integer > cursor = kdTree.localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			long pixelIndex = 0;
+			double distanceSquared = 0;
+			for ( int d = 2; d >= 0; d-- )
+			{
+				final double position = d < numSpotDimensions ? cursor.getDoublePosition( d ) : 0;
+				final long pixel = Math.max( 0, Math.min( downsampledDimensions[ d ] - 1, Math.round( ( position - min[ d ] ) / downsampledPixelSize ) ) );
+				final double distance = min[ d ] + pixel * downsampledPixelSize - position;
+				distanceSquared += distance * distance;
+				pixelIndex = pixelIndex * downsampledDimensions[ d ] + pixel;
+			}
+
+			final int representative = pixelToRepresentative.get( pixelIndex );
+			if ( representative == -1 )
+			{
+				pixelToRepresentative.put( pixelIndex, values.size() );
+				values.add( cursor.get() );
+				positions.add( new RealPoint( cursor ) );
+				distancesSquared.add( distanceSquared );
+			}
+			else if ( distanceSquared < distancesSquared.get( representative ) )
+			{
+				values.set( representative, cursor.get() );
+				positions.set( representative, new RealPoint( cursor ) );
+				distancesSquared.set( representative, distanceSquared );
+			}
+		}
+
+		return new SpotRasterizer( new KDTree<>( values, positions ), min, max, downsampledPixelSize );
+	}
+
+	private long[] dimensions( double pixelSize )
+	{
+		final long[] dimensions = new long[ 3 ];
+		for ( int d = 0; d < 3; d++ )
+		{
+			final double extent = d < max.length ? max[ d ] - min[ d ] : 0;
+			dimensions[ d ] = Math.max( 1, ( long ) Math.ceil( extent / pixelSize ) + 1 );
+		}
+		return dimensions;
+	}
+
+	class SpotCellLoader implements CellLoader< UnsignedIntType >
+	{
+		private final double radius;
+
+		public SpotCellLoader( double radius )
+		{
+			// Spots that are smaller than a pixel still
+			// cover the pixel that they are located in.
+			this.radius = Math.max( radius, 0.5 * Math.sqrt( 2 ) * pixelSize );
+		}
+
+		@Override
+		public void load( SingleCellArrayImg< UnsignedIntType, ? > cell ) throws Exception
+		{
+			final long[] cellMin = new long[ 3 ];
+			final long[] cellMax = new long[ 3 ];
+			cell.min( cellMin );
+			cell.max( cellMax );
+
+			// find the spots that intersect with this cell
+			final int numSpotDimensions = kdTree.numDimensions();
+			final RealPoint cellCenter = new RealPoint( numSpotDimensions );
+			double halfDiagonalSquared = 0;
+			for ( int d = 0; d < 3; d++ )
+			{
+				final double halfExtent = 0.5 * ( cellMax[ d ] - cellMin[ d ] + 1 ) * pixelSize;
+				halfDiagonalSquared += halfExtent * halfExtent;
+				if ( d < numSpotDimensions )
+					cellCenter.setPosition( min[ d ] + 0.5 * ( cellMin[ d ] + cellMax[ d ] ) * pixelSize, d );
+			}
+
+			final RadiusNeighborSearchOnKDTree< Integer > search = new RadiusNeighborSearchOnKDTree<>( kdTree );
+			search.search( cellCenter, radius + Math.sqrt( halfDiagonalSquared ), false );
+			final int numNeighbors = search.numNeighbors();
+			if ( numNeighbors == 0 ) return;
+
+			// splat the spots into the cell, keeping the closest spot per pixel
+			final int[] cellDims = new int[ 3 ];
+			for ( int d = 0; d < 3; d++ )
+				cellDims[ d ] = ( int ) ( cellMax[ d ] - cellMin[ d ] + 1 );
+			final double[] distancesSquared = new double[ cellDims[ 0 ] * cellDims[ 1 ] * cellDims[ 2 ] ];
+			Arrays.fill( distancesSquared, Double.MAX_VALUE );
+
+			final double radiusSquared = radius * radius;
+			final RandomAccess< UnsignedIntType > access = cell.randomAccess();
+			final double[] position = new double[ 3 ];
+			final long[] from = new long[ 3 ];
+			final long[] to = new long[ 3 ];
+			for ( int i = 0; i < numNeighbors; i++ )
+			{
+				final RealLocalizable spot = search.getPosition( i );
+				for ( int d = 0; d < 3; d++ )
+				{
+					position[ d ] = d < numSpotDimensions ? spot.getDoublePosition( d ) : 0;
+					from[ d ] = Math.max( cellMin[ d ], ( long ) Math.ceil( ( position[ d ] - radius - min[ d ] ) / pixelSize ) );
+					to[ d ] = Math.min( cellMax[ d ], ( long ) Math.floor( ( position[ d ] + radius - min[ d ] ) / pixelSize ) );
+				}
+
+				final long label = search.getSampler( i ).get() + 1;
+				for ( long z = from[ 2 ]; z <= to[ 2 ]; z++ )
+				{
+					final double dz = min[ 2 ] + z * pixelSize - position[ 2 ];
+					for ( long y = from[ 1 ]; y <= to[ 1 ]; y++ )
+					{
+						final double dy = min[ 1 ] + y * pixelSize - position[ 1 ];
+						for ( long x = from[ 0 ]; x <= to[ 0 ]; x++ )
+						{
+							final double dx = min[ 0 ] + x * pixelSize - position[ 0 ];
+							final double distanceSquared = dx * dx + dy * dy + dz * dz;
+							if ( distanceSquared > radiusSquared ) continue;
+
+							final int index = ( int ) ( ( x - cellMin[ 0 ] ) + cellDims[ 0 ] * ( ( y - cellMin[ 1 ] ) + cellDims[ 1 ] * ( z - cellMin[ 2 ] ) ) );
+							if ( distanceSquared >= distancesSquared[ index ] ) continue;
+
+							distancesSquared[ index ] = distanceSquared;
+							access.setPosition( x, 0 );
+							access.setPosition( y, 1 );
+							access.setPosition( z, 2 );
+							access.get().set( label );
+						}
+					}
+				}
+			}
+		}
+	}
+}
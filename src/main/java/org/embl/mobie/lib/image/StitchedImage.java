@@ -36,7 +36,9 @@ import bdv.viewer.Interpolation;
 import bdv.viewer.Source;
 import mpicbg.spim.data.sequence.VoxelDimensions;
 import net.imglib2.FinalInterval;
-import net.imglib2.Localizable;
+import net.imglib2.Interval;
+import net.imglib2.Point;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.RealInterval;
@@ -45,7 +47,6 @@ import net.imglib2.RealRandomAccessible;
 import net.imglib2.Volatile;
 import net.imglib2.interpolation.randomaccess.NearestNeighborInterpolatorFactory;
 import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
-import net.imglib2.position.FunctionRandomAccessible;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.roi.RealMaskRealInterval;
 import net.imglib2.roi.geom.GeomMasks;
@@ -74,14 +75,12 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiConsumer;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
 
 public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type< V > > implements Image< T >
 {
-	public static final String SEP = ",";
+	private static final Status[] STATUSES = Status.values();
 	private final T type;
 	private final String name;
 	private List< ? extends Image< T > > images;
@@ -490,8 +489,8 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 			{
 				final V background = volatileType.createVariable();
 				background.setValid( true );
-				final FunctionRandomAccessible< V > stichedTimepointAtLevel = new FunctionRandomAccessible( 3, new VolatileValueFromTilesFetcherSupplier( tileStore, t, level, background ).get(), () -> volatileType.createVariable() );
-				final IntervalView< V > rai = Views.interval( stichedTimepointAtLevel, getInterval( level ) );
+				final VolatileStitchedRandomAccessible stitchedTimepointAtLevel = new VolatileStitchedRandomAccessible( tileStore, t, level, background );
+				final IntervalView< V > rai = Views.interval( stitchedTimepointAtLevel, getInterval( level ) );
 				stitched.get( t ).add( rai );
 			}
 		}
@@ -499,15 +498,57 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 		return stitched;
 	}
 
-	class VolatileValueFromTilesFetcherSupplier implements Supplier< BiConsumer< Localizable, V > >
+	protected Map< Integer, List< RandomAccessibleInterval< T > > > stitchTiles( TileStore tileStore )
+	{
+		final Map< Integer, List< RandomAccessibleInterval< T > > > stitched = new HashMap<>();
+
+		for ( int t = 0; t < numTimepoints; t++ )
+		{
+			stitched.put( t, new ArrayList<>() );
+
+			for ( int level = 0; level < numMipmapLevels; level++ )
+			{
+				final StitchedRandomAccessible stitchedTimepointAtLevel = new StitchedRandomAccessible( tileStore, t, level, type.createVariable() );
+				final IntervalView< T > rai = Views.interval( stitchedTimepointAtLevel, getInterval( level ) );
+				stitched.get( t ).add( rai );
+			}
+		}
+
+		return stitched;
+	}
+
+	/**
+	 * {@code StitchedRandomAccessible} builds one large (stitched) RandomAccessible
+	 * from (many) smaller ones, i.e. the tiles of the {@code TileStore}.
+	 *
+	 * This approach has certain features that solve some issues
+	 * that I had with other approaches.
+	 *
+	 * 1. No additional caching is needed as one directly forwards
+	 *    the (volatile) values from the underlying {@code Image} tiles.
+	 * 2. This also means that one does not have to decide some grid (cell)
+	 *    size as one would have to do using a {@code CachedCellImg}.
+	 * 3. One can avoid blocking of BDV that could happen when individually
+	 *    displaying all the {@code Image} tiles,
+	 *    when having to wait during {@code getSource( t, level )};
+	 *    an issue in particular when opening from S3.
+	 *    Here, this is dealt with by returning invalid volatiles until the
+	 *    {@code getSource( t, level )} is done (this happens in the
+	 *    {@code TileStore}).
+	 *
+	 * The {@code StitchedRandomAccess} holds on to the random access
+	 * of the current tile and only looks up another tile when its
+	 * position leaves the current tile.
+	 */
+	abstract class AbstractStitchedRandomAccessible< R extends Type< R > > implements RandomAccessible< R >
 	{
-		private final TileStore tileStore;
-		private final int t;
-		private final int level;
-		private int[] tileDimension;
-		private final V background;
+		protected final TileStore tileStore;
+		protected final int t;
+		protected final int level;
+		protected final int[] tileDimension;
+		protected final R background;
 
-		public VolatileValueFromTilesFetcherSupplier( TileStore tileStore, int t, int level, V background )
+		public AbstractStitchedRandomAccessible( TileStore tileStore, int t, int level, R background )
 		{
 			this.tileStore = tileStore;
 			this.t = t;
@@ -516,167 +557,203 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 			this.background = background;
 		}
 
+		/**
+		 * Called once when a {@code StitchedRandomAccess} moves into a tile.
+		 */
+		protected abstract void requestTile( int xTileIndex, int yTileIndex );
+
+		/**
+		 * @return the tile, or null if it is not available yet
+		 */
+		@Nullable
+		protected abstract RandomAccessible< R > getTile( int xTileIndex, int yTileIndex );
+
+		/**
+		 * @return a value for locations within a tile that is not available yet
+		 */
+		protected abstract R createUnavailable();
+
 		@Override
-		public synchronized BiConsumer< Localizable, V > get()
+		public RandomAccess< R > randomAccess()
 		{
-			return new VolatileValueFromTilesFetcher();
+			return new StitchedRandomAccess();
 		}
 
+		@Override
+		public RandomAccess< R > randomAccess( Interval interval )
+		{
+			return randomAccess();
+		}
 
-		/**
-		 * {@code ValueFromTilesFetcher} feeds the {@code FunctionRandomAccessible}
-		 * and thereby builds one large (stitched) RandomAccessible from (many)
-		 * smaller ones.
-		 *
-		 * This approach has certain features that solve some issues
-		 * that I had with other approaches.
-		 *
-		 * 1. No additional caching is needed as one directly forwards
-		 *    the volatile values from the underlying {@code Image} tiles.
-		 * 2. This also means that one does not have to decide some grid (cell)
-		 *    size as one would have to do using a {@code CachedCellImg}.
-		 * 3. One can position the {@code Image} tiles freely, as one can
-		 *    decide within the {@code accept} method from where
-		 *    in which {@code Image} one fetches the {@code volatileValue}
-		 *    corresponding to the {@code location}.
-		 * 4. One can avoid blocking of BDV that could happen when individually
-		 *    displaying all the {@code Image} tiles,
-		 *    when having to wait during {@code getSource( t, level )};
-		 *    an issue in particular when opening from S3.
-		 *    Here, this is dealt with by returning invalid volatiles until the
-		 *    {@code getSource( t, level )} is done (this happens in the
-		 *    {@code TileStore}).
-		 *
-		 *    TODO: Tobias
-		 *       Discuss potential drawbacks of this approach...
-		 *       1. probably quite some computations for fetching each pixel?
-		 */
-		class VolatileValueFromTilesFetcher implements BiConsumer< Localizable, V >
+		@Override
+		public int numDimensions()
+		{
+			return 3;
+		}
+
+		class StitchedRandomAccess extends Point implements RandomAccess< R >
 		{
+			private final R background;
+			private final R unavailable;
+			private int xTileIndex;
+			private int yTileIndex;
+			// empty interval, such that the first get() looks up the tile
+			private long tileMinX = 0;
+			private long tileMaxX = -1;
+			private long tileMinY = 0;
+			private long tileMaxY = -1;
+			private boolean isTile;
+			private RandomAccess< R > tileAccess;
+
+			public StitchedRandomAccess()
+			{
+				super( 3 );
+				this.background = AbstractStitchedRandomAccessible.this.background.copy();
+				this.unavailable = createUnavailable();
+			}
+
 			@Override
-			public void accept( Localizable location, V volatileValue )
+			public R get()
 			{
-				int x = location.getIntPosition( 0 );
-				int y = location.getIntPosition( 1 );
-				final int xTileIndex = x / tileDimension[ 0 ];
-				final int yTileIndex = y / tileDimension[ 1 ];
+				final long x = position[ 0 ];
+				final long y = position[ 1 ];
 
-				if ( ! tileStore.contains( t, level, xTileIndex, yTileIndex ) )
-				{
-					volatileValue.set( background.copy() );
-					volatileValue.setValid( true );
-					return;
-				}
+				if ( x < tileMinX || x > tileMaxX || y < tileMinY || y > tileMaxY )
+					setTile( x, y );
 
-				final Status status = tileStore.getStatus( t, level, xTileIndex, yTileIndex );
+				if ( ! isTile )
+					return background;
 
-				if ( status.equals( Status.Closed ) )
+				if ( tileAccess == null )
 				{
-					ThreadHelper.stitchedImageExecutorService.submit( new TileOpener( t, level, xTileIndex, yTileIndex ) );
+					final RandomAccessible< R > tile = getTile( xTileIndex, yTileIndex );
 
-					volatileValue.setValid( false );
-				}
-				else if ( status.equals( Status.Opening ) )
-				{
-					volatileValue.setValid( false );
-				}
-				else if ( status.equals( Status.Open ) )
-				{
-					// TODO: The margin logic could be here!
-					//   then we would not need to translate the individual RAIs
-					//   this could improve performance and may help with the
-					//   jumping between resolution layers.
-					//   lower resolutions are closer to 0,0
-					//   higher resolutions are further
-					//   => jump to bottom right
-					x = x - xTileIndex * tileDimension[ 0 ];
-					y = y - yTileIndex * tileDimension[ 1 ];
-					final int z = location.getIntPosition( 2 );
-
-					// TODO (ask @tpietzsch)
-					//   Instead of calling getAt(... )
-					//   I tried holding on to the random accesses
-					//   but got some buggy behaviour.
-					//   I removed this to keep it simpler.
-					//   This logic could be added back, if needed.
-					//   For this it would be good to know if that actually does
-					//   yield a performance improvement
-					final V volatileType = tileStore.getVolatileRandomAccessible( t, level, xTileIndex, yTileIndex ).getAt( x, y, z );
-					volatileValue.set( volatileType );
+					if ( tile == null )
+						return unavailable;
+
+					tileAccess = tile.randomAccess();
 				}
-			}
-		}
 
-		class TileOpener implements Runnable
-		{
-			private final int t;
-			private final int level;
-			private final int xTileIndex;
-			private final int yTileIndex;
+				// TODO: The margin logic could be here!
+				//   then we would not need to translate the individual RAIs
+				//   this could improve performance and may help with the
+				//   jumping between resolution layers.
+				tileAccess.setPosition( x - tileMinX, 0 );
+				tileAccess.setPosition( y - tileMinY, 1 );
+				tileAccess.setPosition( position[ 2 ], 2 );
+				return tileAccess.get();
+			}
 
-			public TileOpener( int t, int level, int xTileIndex, int yTileIndex )
+			private void setTile( long x, long y )
 			{
-				//System.out.println( name + " t" + t + "  l" + level + " x" + xTileIndex + " y" + yTileIndex + " i" + valueSupplierIndex.incrementAndGet() );
+				xTileIndex = ( int ) Math.floorDiv( x, ( long ) tileDimension[ 0 ] );
+				yTileIndex = ( int ) Math.floorDiv( y, ( long ) tileDimension[ 1 ] );
+				tileMinX = ( long ) xTileIndex * tileDimension[ 0 ];
+				tileMaxX = tileMinX + tileDimension[ 0 ] - 1;
+				tileMinY = ( long ) yTileIndex * tileDimension[ 1 ];
+				tileMaxY = tileMinY + tileDimension[ 1 ] - 1;
+				tileAccess = null;
+				isTile = tileStore.contains( t, level, xTileIndex, yTileIndex );
+
+				if ( isTile )
+					requestTile( xTileIndex, yTileIndex );
+			}
 
-				this.t = t;
-				this.level = level;
-				this.xTileIndex = xTileIndex;
-				this.yTileIndex = yTileIndex;
+			@Override
+			public StitchedRandomAccess copy()
+			{
+				final StitchedRandomAccess copy = new StitchedRandomAccess();
+				copy.setPosition( this );
+				return copy;
 			}
 
 			@Override
-			public void run()
+			public StitchedRandomAccess copyRandomAccess()
 			{
-				tileStore.open( t, level, xTileIndex, yTileIndex );
+				return copy();
 			}
 		}
 	}
 
-	protected Map< Integer, List< RandomAccessibleInterval< T > > > stitchTiles( TileStore tileStore )
+	class StitchedRandomAccessible extends AbstractStitchedRandomAccessible< T >
 	{
-		final Map< Integer, List< RandomAccessibleInterval< T > > > stitched = new HashMap<>();
+		public StitchedRandomAccessible( TileStore tileStore, int t, int level, T background )
+		{
+			super( tileStore, t, level, background );
+		}
 
-		for ( int t = 0; t < numTimepoints; t++ )
+		@Override
+		protected void requestTile( int xTileIndex, int yTileIndex )
 		{
-			stitched.put( t, new ArrayList<>() );
+			// the tile is opened in getTile()
+		}
+
+		@Override
+		protected RandomAccessible< T > getTile( int xTileIndex, int yTileIndex )
+		{
+			// this blocks until the tile is open, which is fine, because
+			// the non-volatile source is not used for the rendering in BDV,
+			// but for fetching pixel values, e.g. upon segment selections,
+			// or for exporting and measuring the image.
+			return tileStore.getOpenedRandomAccessible( t, level, xTileIndex, yTileIndex );
+		}
+
+		@Override
+		protected T createUnavailable()
+		{
+			// not used, because getTile() always returns the opened tile
+			return type.createVariable();
+		}
+	}
+
+	class VolatileStitchedRandomAccessible extends AbstractStitchedRandomAccessible< V >
+	{
+		public VolatileStitchedRandomAccessible( TileStore tileStore, int t, int level, V background )
+		{
+			super( tileStore, t, level, background );
+		}
 
-			for ( int l = 0; l < numMipmapLevels; l++ )
+		@Override
+		protected void requestTile( int xTileIndex, int yTileIndex )
+		{
+			if ( tileStore.getStatus( t, level, xTileIndex, yTileIndex ).equals( Status.Closed ) )
+				ThreadHelper.stitchedImageExecutorService.execute( new TileOpener( xTileIndex, yTileIndex ) );
+		}
+
+		@Override
+		protected RandomAccessible< V > getTile( int xTileIndex, int yTileIndex )
+		{
+			if ( tileStore.getStatus( t, level, xTileIndex, yTileIndex ).equals( Status.Open ) )
+				return tileStore.getVolatileRandomAccessible( t, level, xTileIndex, yTileIndex );
+			else
+				return null;
+		}
+
+		@Override
+		protected V createUnavailable()
+		{
+			final V invalid = volatileType.createVariable();
+			invalid.setValid( false );
+			return invalid;
+		}
+
+		class TileOpener implements Runnable
+		{
+			private final int xTileIndex;
+			private final int yTileIndex;
+
+			public TileOpener( int xTileIndex, int yTileIndex )
 			{
-				final int[] tileDimension = tileDimensions[ l ];
-				final int level = l;
-				final int timepoint = t;
-				BiConsumer< Localizable, T > biConsumer = ( location, value ) ->
-				{
-					int x = location.getIntPosition( 0 );
-					int y = location.getIntPosition( 1 );
-					final int xTileIndex = x / tileDimension[ 0 ];
-					final int yTileIndex = y / tileDimension[ 1 ];
-					x = x - xTileIndex * tileDimension[ 0 ];
-					y = y - yTileIndex * tileDimension[ 1 ];
-
-					if ( ! tileStore.contains( timepoint, level, xTileIndex, yTileIndex ) )
-					{
-						value.set( type.createVariable() ); // background
-						return;
-					}
+				this.xTileIndex = xTileIndex;
+				this.yTileIndex = yTileIndex;
+			}
 
-					// this is less efficient as the corresponding volatile
-					// implementation, but right now this mainly needed
-					// to fetch very few pixel values upon segment selections
-					//
-					//
-					tileStore.open( timepoint, level, xTileIndex, yTileIndex );
-					final T type = tileStore.getRandomAccessible( timepoint, level, xTileIndex, yTileIndex ).randomAccess().setPositionAndGet( x, y, location.getIntPosition( 2 ) );
-					value.set( type );
-				} ;
-
-				final FunctionRandomAccessible< T > randomAccessible = new FunctionRandomAccessible( 3, biConsumer, () -> type.createVariable() );
-				final IntervalView< T > rai = Views.interval( randomAccessible, getInterval( level ) );
-				stitched.get( t ).add( rai );
+			@Override
+			public void run()
+			{
+				tileStore.open( t, level, xTileIndex, yTileIndex );
 			}
 		}
-
-		return stitched;
 	}
 
 	protected void setTileRealDimensions( int[] tileDimensions )
@@ -868,82 +945,155 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 
 	class TileStore
 	{
+		// The tiles are addressed by a dense index that is computed
+		// from ( t, level, xTileIndex, yTileIndex ).
+		// This avoids building String keys, because the tile lookup
+		// happens for every voxel that is rendered.
+		//
 		// TODO: does it make sense to use something like
 		// 	  https://github.com/google/guava/wiki/CachesExplained
 		//    here? I am not sure, because (probably) the RandomAccessible and Image
 		//    values are already backed by some SoftRef cache?!
-		protected Map< String, RandomAccessible< T > > timeLevelTileToRA;
-		protected Map< String, RandomAccessible< V > > timeLevelTileToVolatileRA;
-		protected Map< String, Image< T > > tileToImage;
-		protected Map< String, Status > timeLevelTileToStatus;
+		private final int numXTiles;
+		private final int numYTiles;
+		private final Image< T >[] tileToImage;
+		private final RandomAccessible< T >[] timeLevelTileToRA;
+		private final RandomAccessible< V >[] timeLevelTileToVolatileRA;
+		// Holds the {@code Status.ordinal()}, such that the status transitions
+		// can be done with compareAndSet, i.e. without locking.
+		// Writing the status also publishes the above RandomAccessibles.
+		private final AtomicIntegerArray timeLevelTileToStatus;
+		// Notified when a tile is not Opening anymore,
+		// i.e. it either has been opened or the opening failed.
+		private final Object openingMonitor = new Object();
 
 		public TileStore( List< ? extends Image< T > > images, List< int[] > positions )
 		{
-			timeLevelTileToRA = new ConcurrentHashMap<>( );
-			timeLevelTileToVolatileRA = new ConcurrentHashMap<>();
-			timeLevelTileToStatus = new ConcurrentHashMap<>();
-			tileToImage = new ConcurrentHashMap<>();
+			numXTiles = positions.stream().mapToInt( pos -> pos[ 0 ] ).max().orElse( -1 ) + 1;
+			numYTiles = positions.stream().mapToInt( pos -> pos[ 1 ] ).max().orElse( -1 ) + 1;
+			final int numTimeLevelTiles = numTimepoints * numMipmapLevels * numXTiles * numYTiles;
+
+			tileToImage = new Image[ numXTiles * numYTiles ];
+			timeLevelTileToRA = new RandomAccessible[ numTimeLevelTiles ];
+			timeLevelTileToVolatileRA = new RandomAccessible[ numTimeLevelTiles ];
+			timeLevelTileToStatus = new AtomicIntegerArray( numTimeLevelTiles );
 
 			for ( int gridIndex = 0; gridIndex < positions.size(); gridIndex++ )
 			{
 				final int[] position = positions.get( gridIndex );
-				tileToImage.put( getTileKey( position[ 0 ], position[ 1 ] ), images.get( gridIndex ) );
+				tileToImage[ getTileIndex( position[ 0 ], position[ 1 ] ) ] = images.get( gridIndex );
 
 				for ( int t = 0; t < numTimepoints; t++ )
 					for ( int level = 0; level < numMipmapLevels; level++ )
-						timeLevelTileToStatus.put( getKey( t, level, position[ 0 ], position[ 1 ] ), Status.Closed );
+						timeLevelTileToStatus.set( getIndex( t, level, position[ 0 ], position[ 1 ] ), Status.Closed.ordinal() );
 			}
 		}
 
 		public RandomAccessible< T > getRandomAccessible( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToRA.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			return timeLevelTileToRA[ getIndex( t, level, xTileIndex, yTileIndex ) ];
+		}
+
+		public RandomAccessible< T > getOpenedRandomAccessible( int t, int level, int xTileIndex, int yTileIndex )
+		{
+			final int index = getIndex( t, level, xTileIndex, yTileIndex );
+			while ( true )
+			{
+				open( t, level, xTileIndex, yTileIndex );
+
+				// the tile may concurrently be opened by another thread
+				synchronized ( openingMonitor )
+				{
+					while ( timeLevelTileToStatus.get( index ) == Status.Opening.ordinal() )
+					{
+						try
+						{
+							openingMonitor.wait();
+						}
+						catch ( InterruptedException e )
+						{
+							Thread.currentThread().interrupt();
+							throw new RuntimeException( "Interrupted while opening tile " + index, e );
+						}
+					}
+				}
+
+				if ( timeLevelTileToStatus.get( index ) == Status.Open.ordinal() )
+					return timeLevelTileToRA[ index ];
+
+				// the opening by the other thread failed, thus try it here,
+				// which throws the Exception in this thread if it fails again
+			}
 		}
 
 		public RandomAccessible< V > getVolatileRandomAccessible( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToVolatileRA.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			return timeLevelTileToVolatileRA[ getIndex( t, level, xTileIndex, yTileIndex ) ];
 		}
 
-		private String getTileKey( int xTileIndex, int yTileIndex )
+		private int getTileIndex( int xTileIndex, int yTileIndex )
 		{
-			return xTileIndex + SEP + yTileIndex;
+			return xTileIndex * numYTiles + yTileIndex;
 		}
 
-		private String getKey( int t, int level, int xTileIndex, int yTileIndex )
+		private int getIndex( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return t + SEP + level + SEP + xTileIndex + SEP + yTileIndex;
+			return ( ( t * numMipmapLevels + level ) * numXTiles + xTileIndex ) * numYTiles + yTileIndex;
 		}
 
 		public Status getStatus( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToStatus.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			return STATUSES[ timeLevelTileToStatus.get( getIndex( t, level, xTileIndex, yTileIndex ) ) ];
 		}
 
 		public boolean contains( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToStatus.containsKey( getKey( t, level, xTileIndex, yTileIndex ) );
+			if ( t < 0 || t >= numTimepoints || level < 0 || level >= numMipmapLevels )
+				return false;
+
+			if ( xTileIndex < 0 || xTileIndex >= numXTiles || yTileIndex < 0 || yTileIndex >= numYTiles )
+				return false;
+
+			return tileToImage[ getTileIndex( xTileIndex, yTileIndex ) ] != null;
 		}
 
 		public void open( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			final String key = getKey( t, level, xTileIndex, yTileIndex );
+			final int index = getIndex( t, level, xTileIndex, yTileIndex );
 
-			synchronized ( timeLevelTileToStatus )
-			{
-				if ( ! timeLevelTileToStatus.get( key ).equals( Status.Closed ) )
-					return;
+			if ( ! timeLevelTileToStatus.compareAndSet( index, Status.Closed.ordinal(), Status.Opening.ordinal() ) )
+				return;
 
-				timeLevelTileToStatus.put( key, Status.Opening );
+			try
+			{
+				open( t, level, xTileIndex, yTileIndex, index );
+				timeLevelTileToStatus.set( index, Status.Open.ordinal() );
 			}
+			catch ( RuntimeException | Error e )
+			{
+				// such that the opening can be tried again,
+				// instead of the tile being Opening forever
+				timeLevelTileToStatus.set( index, Status.Closed.ordinal() );
+				throw e;
+			}
+			finally
+			{
+				synchronized ( openingMonitor )
+				{
+					openingMonitor.notifyAll();
+				}
+			}
+		}
 
+		private void open( int t, int level, int xTileIndex, int yTileIndex, int index )
+		{
 			// open the image
 			//
-			final Image< T > image = tileToImage.get( getTileKey( xTileIndex, yTileIndex ) );
+			final Image< T > image = tileToImage[ getTileIndex( xTileIndex, yTileIndex ) ];
 
 			if ( debug )
 			{
-				System.out.println( "Opening tile image " + key + ": " + image.getName() );
+				System.out.println( "Opening tile image " + index + ": " + image.getName() );
 			}
 
 			// fetch the requested volume (t, level)
@@ -978,13 +1128,12 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 				e.printStackTrace();
 			}
 
-			timeLevelTileToRA.put( key, translateRa );
-			timeLevelTileToVolatileRA.put( key, translateVRa );
-			timeLevelTileToStatus.put( key, Status.Open );
+			timeLevelTileToRA[ index ] = translateRa;
+			timeLevelTileToVolatileRA[ index ] = translateVRa;
 
 			if ( debug )
 			{
-				System.out.println( "Opened tile image " + key + ": " + image.getName() );
+				System.out.println( "Opened tile image " + index + ": " + image.getName() );
 			}
 		}
 	}
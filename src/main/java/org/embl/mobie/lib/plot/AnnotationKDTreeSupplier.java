@@ -32,13 +32,15 @@ import de.embl.cba.tables.Utils;
 import org.embl.mobie.lib.annotation.Annotation;
 import net.imglib2.KDTree;
 import net.imglib2.RealPoint;
+import org.embl.mobie.lib.table.AnnotationTableModel;
+import org.embl.mobie.lib.table.NumberColumnAccessor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -62,12 +64,12 @@ public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplie
 	double[] max = new double[ numDimensions ];
 	private HashMap< String, Double > stringToNumber;
 
-	public AnnotationKDTreeSupplier( Collection< A > inputData, String[] columns )
+	public AnnotationKDTreeSupplier( AnnotationTableModel< A > tableModel, Predicate< A > isIncluded, String[] columns )
 	{
 		Arrays.fill( min, Double.MAX_VALUE );
 		Arrays.fill( max, -Double.MAX_VALUE );
 
-		initialiseDataPoints( inputData, columns );
+		initialiseDataPoints( tableModel, isIncluded, columns );
 
 		annotationToCoordinate = IntStream.range( 0, locations.size() ).boxed().collect( Collectors.toMap( i -> annotations.get( i ), i -> locations.get( i ) ) );
 	}
@@ -87,55 +89,68 @@ public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplie
 		return kdTree;
 	}
 
-	private void initialiseDataPoints( Collection< A > inputData, String[] columns )
+	private void initialiseDataPoints( AnnotationTableModel< A > tableModel, Predicate< A > isIncluded, String[] columns )
 	{
 		stringToNumber = new HashMap<>(); // in case we need to plot categorical columns
 		locations = new ArrayList<>();
 		annotations = new ArrayList<>( );
 
-		Double[] coordinate = new Double[ numDimensions ];
+		// numeric columns are read by row index, without parsing
+		final List< String > numericColumnNames = tableModel.numericColumnNames();
+		final NumberColumnAccessor[] accessors = new NumberColumnAccessor[ numDimensions ];
+		for ( int d = 0; d < numDimensions; d++ )
+			if ( numericColumnNames.contains( columns[ d ] ) )
+				accessors[ d ] = tableModel.numberColumnAccessor( columns[ d ] );
+
+		final double[] coordinate = new double[ numDimensions ];
 		boolean isValidDataPoint;
 
-		final Iterator< A > iterator = inputData.iterator();
-		while( iterator.hasNext() )
+		final int numAnnotations = tableModel.numAnnotations();
+		for ( int rowIndex = 0; rowIndex < numAnnotations; rowIndex++ )
 		{
-			final A annotation = iterator.next();
+			final A annotation = tableModel.annotation( rowIndex );
+
+			if ( ! isIncluded.test( annotation ) )
+				continue;
 
 			isValidDataPoint = true;
 
 			for ( int d = 0; d < numDimensions; d++ )
 			{
-				// TODO with the new table model we don't have to
-				//  do the conversion to Double via String anymore.
-
-				// TODO it would be convenient to be able to ask the annotation
-				//   whether a feature is numeric or categorical
-
-				Object value = annotation.getValue( columns[ d ] );
-				if ( value == null )
+				if ( accessors[ d ] != null )
 				{
-					// This can happen when merging tables
+					// NaN if the value is missing, e.g. when merging tables
 					// and not all rows have a match
-					isValidDataPoint = false;
-					break;
-				}
-
-				String cell = value.toString();
-				try
-				{
-					coordinate[ d ] = Utils.parseDouble( cell );
+					coordinate[ d ] = accessors[ d ].getDouble( rowIndex );
 				}
-				catch ( Exception e )
+				else
 				{
-					if ( ! stringToNumber.containsKey( cell ) )
+					Object value = annotation.getValue( columns[ d ] );
+					if ( value == null )
 					{
-						stringToNumber.put( cell, Double.valueOf( stringToNumber.size() ) );
+						// This can happen when merging tables
+						// and not all rows have a match
+						isValidDataPoint = false;
+						break;
 					}
 
-					coordinate[ d ] =  stringToNumber.get( cell );
+					String cell = value.toString();
+					try
+					{
+						coordinate[ d ] = Utils.parseDouble( cell );
+					}
+					catch ( Exception e )
+					{
+						if ( ! stringToNumber.containsKey( cell ) )
+						{
+							stringToNumber.put( cell, Double.valueOf( stringToNumber.size() ) );
+						}
+
+						coordinate[ d ] = stringToNumber.get( cell );
+					}
 				}
 
-				if ( coordinate[ d ].isNaN() || coordinate[ d ].isInfinite() )
+				if ( Double.isNaN( coordinate[ d ] ) || Double.isInfinite( coordinate[ d ] ) )
 				{
 					isValidDataPoint = false;
 					break;
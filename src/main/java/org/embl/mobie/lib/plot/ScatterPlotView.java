@@ -68,12 +68,11 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 public class ScatterPlotView< A extends Annotation > implements SelectionListener< A >, ColoringListener, TimePointListener
 {
@@ -153,8 +152,7 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 		if ( bdvStackSource != null)
 			bdvStackSource.removeFromBdv();
 
-		Collection< A > annotations = getAnnotationsForCurrentTimePoint( );
-		AnnotationKDTreeSupplier< A > kdTreeSupplier = new AnnotationKDTreeSupplier<>( annotations, settings.selectedColumns );
+		AnnotationKDTreeSupplier< A > kdTreeSupplier = new AnnotationKDTreeSupplier<>( tableModel, isShownAtCurrentTimePoint(), settings.selectedColumns );
 		KDTree< A > kdTree = kdTreeSupplier.get();
 		min = kdTreeSupplier.getMin();
 		max = kdTreeSupplier.getMax();
@@ -194,15 +192,16 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 		showInBdv( scatterPlotSource );
 	}
 
-	private Collection< A > getAnnotationsForCurrentTimePoint( )
+	private Predicate< A > isShownAtCurrentTimePoint( )
 	{
 		if ( settings.showAllTimepoints )
 		{
-			return tableModel.annotations();
+			return annotation -> true;
 		}
 		else
 		{
-			return tableModel.annotations().stream().filter( annotation -> annotation.timePoint() == null || annotation.timePoint() == currentTimePoint ).collect( Collectors.toList() );
+			final int currentTimePoint = this.currentTimePoint;
+			return annotation -> annotation.timePoint() == null || annotation.timePoint() == currentTimePoint;
 		}
 	}
 
@@ -316,8 +315,9 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 
 	private void logCoordinates( A selection )
 	{
-		final Double x = selection.getNumber( settings.selectedColumns[ 0 ] );
-		final Double y = selection.getNumber( settings.selectedColumns[ 1 ] );
+		final int rowIndex = tableModel.rowIndexOf( selection );
+		final double x = tableModel.numberColumnAccessor( settings.selectedColumns[ 0 ] ).getDouble( rowIndex );
+		final double y = tableModel.numberColumnAccessor( settings.selectedColumns[ 1 ] ).getDouble( rowIndex );
 		IJ.log( "ScatterPlot: id = " + selection.uuid() + ", x = " + x + ", y = " + y );
 	}
 
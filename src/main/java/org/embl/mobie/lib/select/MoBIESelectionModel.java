@@ -28,22 +28,43 @@
  */
 package org.embl.mobie.lib.select;
 
+import org.embl.mobie.lib.ThreadHelper;
+
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads ({@code isSelected}, {@code isEmpty}, {@code getSelected})
+ * do not lock, because they operate on a concurrent set;
+ * this matters, because {@code isSelected} is called for
+ * every rendered pixel.
+ *
+ * Writes are synchronized. Single objects are added to or removed
+ * from the current set, whereas bulk changes via
+ * {@code setSelected( Collection, boolean )} fill a copy of the
+ * selection and publish it at once, such that readers never see
+ * a partially applied bulk change.
+ * As before, a bulk change always notifies the listeners,
+ * even if it did not change the selection.
+ *
+ * Listeners are notified on an executor via a {@link SelectionEventDispatcher},
+ * which coalesces bursts of events.
+ */
 public class MoBIESelectionModel< T > implements SelectionModel< T >
 {
 	private final Listeners.SynchronizedList< SelectionListener > listeners = new Listeners.SynchronizedList<>( );
-	private final Set< T > selected = new HashSet();
-	private T focusObject;
+	private volatile Set< T > selected = ConcurrentHashMap.newKeySet();
+	private volatile T focusObject;
+	private final SelectionEventDispatcher< T > dispatcher = new SelectionEventDispatcher<>( () -> ThreadHelper.selectionListenerExecutorService );
 
 	public MoBIESelectionModel()
 	{
 	}
 
 	@Override
-	public synchronized boolean isSelected( T object )
+	public boolean isSelected( T object )
 	{
 		return selected.contains( object );
 	}
@@ -64,20 +85,17 @@ public class MoBIESelectionModel< T > implements SelectionModel< T >
 
 	private synchronized void remove( T object, boolean notify )
 	{
-		if ( selected.contains( object ) )
+		if ( selected.remove( object ) )
 		{
-			selected.remove( object );
 			if ( notify )
 				notifySelectionListeners();
-			notifySelectionListeners();
 		}
 	}
 
 	private synchronized void add( T object, boolean notify )
 	{
-		if ( ! selected.contains( object ) )
+		if ( selected.add( object ) )
 		{
-			selected.add( object );
 			if ( notify )
 				notifySelectionListeners();
 		}
@@ -85,8 +103,7 @@ public class MoBIESelectionModel< T > implements SelectionModel< T >
 
 	private void notifySelectionListeners()
 	{
-		for ( SelectionListener listener : listeners.list )
-			new Thread( () -> listener.selectionChanged() ).start();
+		dispatcher.selectionChanged( ( Iterable ) listeners.listCopy() );
 	}
 
 	@Override
@@ -103,45 +120,64 @@ public class MoBIESelectionModel< T > implements SelectionModel< T >
 	{
 		focusObject = object;
 
-		for ( SelectionListener listener : listeners.list )
-			new Thread( () -> listener.focusEvent( object, initiator ) ).start();
+		dispatcher.focusEvent( ( Iterable ) listeners.listCopy(), object, initiator );
+	}
+
+	/**
+	 * @return the number of selection and focus events that have been
+	 * coalesced with pending events, rather than delivered separately
+	 */
+	public long getNumCoalescedEvents()
+	{
+		return dispatcher.getNumCoalescedEvents();
+	}
+
+	/**
+	 * @return the number of selection and focus events that
+	 * have been delivered to the listeners
+	 */
+	public long getNumDispatchedEvents()
+	{
+		return dispatcher.getNumDispatchedEvents();
 	}
 
 	@Override
 	public boolean isFocused( T object )
 	{
-		if ( focusObject != null && focusObject.equals( object ) )
-			return true;
-		else
-			return false;
+		final T focusObject = this.focusObject;
+		return focusObject != null && focusObject.equals( object );
 	}
 
 	@Override
 	public synchronized boolean setSelected( Collection< T > objects, boolean select )
 	{
-		for( T object : objects )
-			setSelected( object, select, false );
+		final Set< T > newSelected = ConcurrentHashMap.newKeySet( selected.size() + ( select ? objects.size() : 0 ) );
+		newSelected.addAll( selected );
 
-		notifySelectionListeners();
+		boolean changed = false;
+		for ( T object : objects )
+			changed |= select ? newSelected.add( object ) : newSelected.remove( object );
 
-		return true;
+		if ( changed )
+			selected = newSelected;
+
+		notifySelectionListeners();
+		return changed;
 	}
 
 	@Override
 	public synchronized boolean clearSelection()
 	{
-		if ( selected.size() == 0 )
+		if ( selected.isEmpty() )
 			return false;
-		else
-		{
-			selected.clear();
-			notifySelectionListeners();
-			return true;
-		}
+
+		selected = ConcurrentHashMap.newKeySet();
+		notifySelectionListeners();
+		return true;
 	}
 
 	@Override
-	public synchronized Set< T > getSelected()
+	public Set< T > getSelected()
 	{
 		return new HashSet< T >( selected );
 	}
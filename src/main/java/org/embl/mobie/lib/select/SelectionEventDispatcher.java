@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.select;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Dispatches selection and focus events to {@link SelectionListener}s
+ * on an executor, coalescing bursts of events:
+ * per listener, at most one {@code selectionChanged} and one
+ * {@code focusEvent} are pending at any time.
+ * A {@code selectionChanged} that arrives while one is pending is dropped,
+ * because the listener will query the current selection anyway;
+ * a {@code focusEvent} that arrives while one is pending replaces it,
+ * such that only the most recent focus is delivered.
+ *
+ * @param <T> the type of the selected objects
+ */
+public class SelectionEventDispatcher< T >
+{
+	private final Supplier< ExecutorService > executorServiceSupplier;
+	// weak keys, such that the states of listeners that
+	// have been removed (e.g. of closed views) are freed
+	private final Map< SelectionListener< T >, ListenerState > listenerToState = Collections.synchronizedMap( new WeakHashMap<>() );
+	private final AtomicLong numDispatchedEvents = new AtomicLong();
+	private final AtomicLong numCoalescedEvents = new AtomicLong();
+
+	public SelectionEventDispatcher( Supplier< ExecutorService > executorServiceSupplier )
+	{
+		this.executorServiceSupplier = executorServiceSupplier;
+	}
+
+	public void selectionChanged( Iterable< SelectionListener< T > > listeners )
+	{
+		for ( SelectionListener< T > listener : listeners )
+		{
+			final ListenerState state = getState( listener );
+
+			if ( ! state.selectionChangedPending.compareAndSet( false, true ) )
+			{
+				numCoalescedEvents.incrementAndGet();
+				continue;
+			}
+
+			executorServiceSupplier.get().execute( () ->
+			{
+				// reset before notifying, such that changes that happen
+				// during the notification cause another notification
+				state.selectionChangedPending.set( false );
+				numDispatchedEvents.incrementAndGet();
+				notifyListener( () -> listener.selectionChanged() );
+			} );
+		}
+	}
+
+	public void focusEvent( Iterable< SelectionListener< T > > listeners, T object, Object initiator )
+	{
+		for ( SelectionListener< T > listener : listeners )
+		{
+			final ListenerState state = getState( listener );
+
+			if ( state.pendingFocusEvent.getAndSet( new FocusEvent( object, initiator ) ) != null )
+			{
+				numCoalescedEvents.incrementAndGet();
+				continue;
+			}
+
+			executorServiceSupplier.get().execute( () ->
+			{
+				final FocusEvent focusEvent = state.pendingFocusEvent.getAndSet( null );
+				numDispatchedEvents.incrementAndGet();
+				notifyListener( () -> listener.focusEvent( focusEvent.object, focusEvent.initiator ) );
+			} );
+		}
+	}
+
+	/**
+	 * @return the number of events that have been delivered to listeners
+	 */
+	public long getNumDispatchedEvents()
+	{
+		return numDispatchedEvents.get();
+	}
+
+	/**
+	 * @return the number of events that have been merged into
+	 * an already pending event, and thus not been delivered separately
+	 */
+	public long getNumCoalescedEvents()
+	{
+		return numCoalescedEvents.get();
+	}
+
+	// a failing listener must neither go unnoticed
+	// nor prevent the notification of the others
+	private static void notifyListener( Runnable notification )
+	{
+		try
+		{
+			notification.run();
+		}
+		catch ( Exception e )
+		{
+			e.printStackTrace();
+		}
+	}
+
+	private ListenerState getState( SelectionListener< T > listener )
+	{
+		return listenerToState.computeIfAbsent( listener, l -> new ListenerState() );
+	}
+
+	private class ListenerState
+	{
+		final AtomicBoolean selectionChangedPending = new AtomicBoolean();
+		final AtomicReference< FocusEvent > pendingFocusEvent = new AtomicReference<>();
+	}
+
+	private class FocusEvent
+	{
+		final T object;
+		final Object initiator;
+
+		FocusEvent( T object, Object initiator )
+		{
+			this.object = object;
+			this.initiator = initiator;
+		}
+	}
+}
@@ -28,6 +28,9 @@
  */
 package org.embl.mobie.lib.serialize;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public abstract class AbstractDataSource implements DataSource
 {
 	// Serialisation
@@ -38,6 +41,10 @@ public abstract class AbstractDataSource implements DataSource
 
 	protected transient boolean preInit;
 
+	// table columns that are needed right away, e.g. for coloring;
+	// the other columns are loaded on demand
+	protected transient Set< String > requiredTableColumns;
+
 	public String getName(){ return name; };
 
 	public void setName( String name ){ this.name = name; };
@@ -46,6 +53,14 @@ public abstract class AbstractDataSource implements DataSource
 
 	public boolean preInit(){ return preInit; };
 
+	public synchronized Set< String > getRequiredTableColumns()
+	{
+		// transient fields are not initialised by the deserialisation
+		if ( requiredTableColumns == null )
+			requiredTableColumns = ConcurrentHashMap.newKeySet();
+		return requiredTableColumns;
+	}
+
 	public AbstractDataSource()
 	{
 		this.name = "dataSource";
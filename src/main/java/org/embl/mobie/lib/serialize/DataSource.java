@@ -28,10 +28,13 @@
  */
 package org.embl.mobie.lib.serialize;
 
+import java.util.Set;
+
 public interface DataSource
 {
 	String getName();
 	void setName( String name );
 	void preInit( boolean preInit );
 	boolean preInit();
+	Set< String > getRequiredTableColumns();
 }
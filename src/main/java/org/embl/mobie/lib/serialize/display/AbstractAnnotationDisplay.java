@@ -52,6 +52,7 @@ import org.embl.mobie.lib.annotation.Annotation;
 import org.embl.mobie.lib.table.AnnData;
 import org.embl.mobie.lib.table.AnnDataHelper;
 import org.embl.mobie.lib.table.ColumnNames;
+import org.embl.mobie.lib.table.ConcatenatedAnnData;
 import org.embl.mobie.lib.table.TableView;
 import net.imglib2.util.ValuePair;
 
@@ -286,6 +287,16 @@ public abstract class AbstractAnnotationDisplay< A extends Annotation > extends
 		annotationAdapter = new DefaultAnnotationAdapter<>( annData );
 	}
 
+	// Releases the concatenation of the tables that
+	// was created by {@code initAnnData}; the tables of
+	// the images are kept, as the images may be cached.
+	public void closeAnnData()
+	{
+		if ( annData instanceof ConcatenatedAnnData
+				&& images().stream().noneMatch( image -> ( ( AnnotationImage< A > ) image ).getAnnData() == annData ) )
+			( ( ConcatenatedAnnData< A > ) annData ).close();
+	}
+
 	public AnnotationAdapter<A> annotationAdapter()
 	{
 		return annotationAdapter;
@@ -34,4 +34,10 @@ import org.embl.mobie.lib.select.Listeners;
 public abstract class AbstractAnnotationTableModel< A extends Annotation > implements AnnotationTableModel< A >
 {
 	protected final Listeners.SynchronizedList< AnnotationListener< A > > listeners = new Listeners.SynchronizedList<>();
+
+	@Override
+	public void removeAnnotationListener( AnnotationListener< A > listener )
+	{
+		listeners.remove( listener );
+	}
 }
@@ -35,5 +35,6 @@ import java.util.Collection;
 public interface AnnotationListener< A extends Annotation >
 {
 	void annotationsAdded( Collection< A > annotations );
+	void annotationsRemoved( Collection< A > annotations );
 	void columnAdded( String columnName );
 }
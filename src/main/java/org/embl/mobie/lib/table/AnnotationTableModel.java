@@ -59,6 +59,35 @@ public interface AnnotationTableModel< A extends Annotation >
 		return new ValuePair<>( min, max );
 	}
 
+	default ValuePair< Double, Double > getColumnMinMax( NumberColumnAccessor accessor, int numRows )
+	{
+		double min = Double.MAX_VALUE;
+		double max = -min;
+		for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+		{
+			final double number = accessor.getDouble( rowIndex );
+
+			if ( number > max )
+				max = number;
+
+			if ( number < min )
+				min = number;
+		}
+
+		return new ValuePair<>( min, max );
+	}
+
+	// For reading many values of a numeric column, e.g. for rendering or plotting.
+	// Implementations should override this to avoid the per row column lookup.
+	default NumberColumnAccessor numberColumnAccessor( String columnName )
+	{
+		return rowIndex ->
+		{
+			final Double number = annotation( rowIndex ).getNumber( columnName );
+			return number == null ? Double.NaN : number;
+		};
+	}
+
 	List< String > columnNames();
 	List< String > numericColumnNames();
 	Class< ? > columnClass( String columnName );
@@ -76,4 +105,5 @@ public interface AnnotationTableModel< A extends Annotation >
 	StorageLocation getStorageLocation();
 	void transform( AffineTransform3D affineTransform3D );
 	void addAnnotationListener(  AnnotationListener< A > listener );
+	void removeAnnotationListener( AnnotationListener< A > listener );
 }
@@ -48,4 +48,9 @@ public class ConcatenatedAnnData< A extends Annotation > implements AnnData< A >
 	{
 		return concatenatedAnnotationTableModel;
 	}
+
+	public void close()
+	{
+		concatenatedAnnotationTableModel.close();
+	}
 }
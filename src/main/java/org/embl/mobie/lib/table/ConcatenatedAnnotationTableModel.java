@@ -28,6 +28,9 @@
  */
 package org.embl.mobie.lib.table;
 
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.custom_hash.TObjectIntCustomHashMap;
+import gnu.trove.strategy.IdentityHashingStrategy;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.util.Pair;
 import org.embl.mobie.lib.annotation.Annotation;
@@ -35,30 +38,54 @@ import org.embl.mobie.lib.io.StorageLocation;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
-public class ConcatenatedAnnotationTableModel< A extends Annotation > extends AbstractAnnotationTableModel< A > implements AnnotationListener< A >
+public class ConcatenatedAnnotationTableModel< A extends Annotation > extends AbstractAnnotationTableModel< A >
 {
 	private final Set< AnnotationTableModel< A > > tableModels;
+	private final List< TableModelListener > tableModelListeners = new ArrayList<>();
 	private AnnotationTableModel< A > referenceTable;
 	private ArrayList< A > annotations = new ArrayList<>();
 
+	// For constant time {@code rowIndexOf}, which is called
+	// for each selected annotation, e.g. to scroll the table to it.
+	// Identity based, because equal annotations may exist in different tables.
+	private final TObjectIntCustomHashMap< A > annotationToRowIndex = new TObjectIntCustomHashMap<>( new IdentityHashingStrategy<>(), 10, 0.5F, -1 );
+
+	// For reading the columns of the concatenated tables by row index,
+	// see {@code numberColumnAccessor}: for each row the index of the
+	// table that it stems from and its row index within that table.
+	private final TIntArrayList rowToTable = new TIntArrayList();
+	private final TIntArrayList rowToTableRow = new TIntArrayList();
+
 	public ConcatenatedAnnotationTableModel( Set< AnnotationTableModel< A > > tableModels )
 	{
 		this.tableModels = tableModels;
 
 		// note that all loading of data from the {@code tableModels}
 		// it handled by the listening.
+		int tableIndex = 0;
 		for ( AnnotationTableModel< A > tableModel : tableModels )
 		{
-			tableModel.addAnnotationListener( this );
+			final TableModelListener listener = new TableModelListener( tableModel, tableIndex++ );
+			tableModelListeners.add( listener );
+			tableModel.addAnnotationListener( listener );
 		}
 
 		this.referenceTable = tableModels.iterator().next();
 	}
 
+	// Stops listening to the concatenated table models,
+	// which may outlive this model, e.g. if their images are cached.
+	public void close()
+	{
+		for ( TableModelListener listener : tableModelListeners )
+			listener.tableModel.removeAnnotationListener( listener );
+	}
+
 	@Override
 	public List< String > columnNames()
 	{
@@ -84,9 +111,9 @@ public class ConcatenatedAnnotationTableModel< A extends Annotation > extends Ab
 	}
 
 	@Override
-	public int rowIndexOf( A annotation )
+	public synchronized int rowIndexOf( A annotation )
 	{
-		return annotations.indexOf( annotation );
+		return annotationToRowIndex.get( annotation );
 	}
 
 	@Override
@@ -127,7 +154,40 @@ public class ConcatenatedAnnotationTableModel< A extends Annotation > extends Ab
 	@Override
 	public Pair< Double, Double > getMinMax( String columnName )
 	{
-		return getColumnMinMax( columnName, annotations() );
+		return getColumnMinMax( numberColumnAccessor( columnName ), numAnnotations() );
+	}
+
+	@Override
+	public NumberColumnAccessor numberColumnAccessor( String columnName )
+	{
+		// the column is resolved in each of the concatenated tables
+		// only once a row of it is read, because resolving it
+		// may load the table, e.g. for lazy loading of grid tables
+		final NumberColumnAccessor[] accessors = new NumberColumnAccessor[ tableModelListeners.size() ];
+
+		return rowIndex ->
+		{
+			final int tableIndex;
+			final int tableRowIndex;
+			synchronized ( this )
+			{
+				tableIndex = rowToTable.get( rowIndex );
+				tableRowIndex = rowToTableRow.get( rowIndex );
+			}
+
+			if ( tableIndex != -1 )
+			{
+				NumberColumnAccessor accessor = accessors[ tableIndex ];
+				if ( accessor == null )
+					accessors[ tableIndex ] = accessor = tableModelListeners.get( tableIndex ).tableModel.numberColumnAccessor( columnName );
+
+				return accessor.getDouble( tableRowIndex );
+			}
+
+			// row is not (yet) in any of the concatenated tables
+			final Double number = annotation( rowIndex ).getNumber( columnName );
+			return number == null ? Double.NaN : number;
+		};
 	}
 
 	@Override
@@ -164,26 +224,68 @@ public class ConcatenatedAnnotationTableModel< A extends Annotation > extends Ab
 			listener.annotationsAdded( annotations );
 	}
 
-	@Override
-	public void annotationsAdded( Collection< A > annotations )
+	private void addAnnotations( TableModelListener listener, Collection< A > annotations )
 	{
-		// A main reason this method is called is
-		// that {@code Annotations} have been added to the wrapped
-		// {code Set< AnnotationTableModel< A > > tableModels}
-		// and should thus be added to this model.
-		addAnnotations( annotations );
+		final List< A > addedAnnotations = new ArrayList<>( annotations.size() );
+		synchronized ( this )
+		{
+			int rowIndex = this.annotations.size();
+			for ( A annotation : annotations )
+			{
+				// already added, e.g. when registering as a listener
+				if ( annotationToRowIndex.containsKey( annotation ) )
+					continue;
+
+				annotationToRowIndex.put( annotation, rowIndex++ );
+				rowToTable.add( listener.tableIndex );
+				rowToTableRow.add( listener.numTableRows++ );
+				addedAnnotations.add( annotation );
+			}
+			this.annotations.addAll( addedAnnotations );
+		}
+
+		if ( addedAnnotations.isEmpty() )
+			return;
+
+		for ( AnnotationListener< A > annotationListener : listeners.list )
+			annotationListener.annotationsAdded( addedAnnotations );
 	}
 
-	private void addAnnotations( Collection< A > annotations )
+	private void removeAnnotations( Collection< A > annotations )
 	{
-		this.annotations.addAll( annotations );
+		synchronized ( this )
+		{
+			this.annotations.removeAll( new HashSet<>( annotations ) );
+
+			// the row indices of the remaining annotations have shifted,
+			// both in this model and in the concatenated table models
+			annotationToRowIndex.clear();
+			final int numAnnotations = this.annotations.size();
+			for ( int rowIndex = 0; rowIndex < numAnnotations; rowIndex++ )
+				annotationToRowIndex.put( this.annotations.get( rowIndex ), rowIndex );
+
+			rowToTable.fill( 0, numAnnotations, -1 );
+			rowToTable.remove( numAnnotations, rowToTable.size() - numAnnotations );
+			rowToTableRow.remove( numAnnotations, rowToTableRow.size() - numAnnotations );
+			for ( TableModelListener listener : tableModelListeners )
+			{
+				final ArrayList< A > tableAnnotations = listener.tableModel.annotations();
+				listener.numTableRows = tableAnnotations.size();
+				for ( int tableRowIndex = 0; tableRowIndex < listener.numTableRows; tableRowIndex++ )
+				{
+					final int rowIndex = annotationToRowIndex.get( tableAnnotations.get( tableRowIndex ) );
+					if ( rowIndex < 0 ) continue;
+					rowToTable.set( rowIndex, listener.tableIndex );
+					rowToTableRow.set( rowIndex, tableRowIndex );
+				}
+			}
+		}
 
 		for ( AnnotationListener< A > annotationListener : listeners.list )
-			annotationListener.annotationsAdded( annotations );
+			annotationListener.annotationsRemoved( annotations );
 	}
 
-	@Override
-	public void columnAdded( String columnName )
+	private void addColumn( String columnName )
 	{
 		for ( AnnotationListener< A > annotationListener : listeners.list )
 			annotationListener.columnAdded( columnName );
@@ -193,4 +295,41 @@ public class ConcatenatedAnnotationTableModel< A extends Annotation > extends Ab
 	{
 		return tableModels;
 	}
+
+	// Listens to one of the concatenated table models,
+	// such that the rows of this model can be mapped to the rows of that table.
+	private class TableModelListener implements AnnotationListener< A >
+	{
+		private final AnnotationTableModel< A > tableModel;
+		private final int tableIndex;
+		private int numTableRows; // guarded by the outer model
+
+		TableModelListener( AnnotationTableModel< A > tableModel, int tableIndex )
+		{
+			this.tableModel = tableModel;
+			this.tableIndex = tableIndex;
+		}
+
+		@Override
+		public void annotationsAdded( Collection< A > annotations )
+		{
+			// A main reason this method is called is
+			// that {@code Annotations} have been added to the wrapped
+			// {code Set< AnnotationTableModel< A > > tableModels}
+			// and should thus be added to this model.
+			addAnnotations( this, annotations );
+		}
+
+		@Override
+		public void annotationsRemoved( Collection< A > annotations )
+		{
+			removeAnnotations( annotations );
+		}
+
+		@Override
+		public void columnAdded( String columnName )
+		{
+			addColumn( columnName );
+		}
+	}
 }
@@ -36,9 +36,11 @@ import org.embl.mobie.lib.io.StorageLocation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class LazyAnnotatedSegmentTableModel extends AbstractAnnotationTableModel< AnnotatedSegment >
@@ -48,6 +50,7 @@ public class LazyAnnotatedSegmentTableModel extends AbstractAnnotationTableModel
 	private final List< String > numericColumnNames;
 	private final LinkedHashSet< String > loadedColumnPaths;
 	private final ArrayList< AnnotatedSegment > annotations = new ArrayList<>();
+	private volatile Predicate< AnnotatedSegment > isRetained = annotation -> false;
 
 	public LazyAnnotatedSegmentTableModel( String dataSourceName )
 	{
@@ -154,6 +157,14 @@ public class LazyAnnotatedSegmentTableModel extends AbstractAnnotationTableModel
 	public void addAnnotationListener( AnnotationListener< AnnotatedSegment > listener )
 	{
 		listeners.add( listener );
+
+		// a copy, because annotations may be added concurrently while browsing
+		final ArrayList< AnnotatedSegment > annotations;
+		synchronized ( this )
+		{
+			annotations = new ArrayList<>( this.annotations );
+		}
+
 		if ( annotations.size() > 0 )
 			listener.annotationsAdded( annotations );
 	}
@@ -161,13 +172,42 @@ public class LazyAnnotatedSegmentTableModel extends AbstractAnnotationTableModel
 	public AnnotatedSegment createAnnotation( String source, int timePoint, int label )
 	{
 		final DefaultAnnotatedSegment annotatedSegment = new DefaultAnnotatedSegment( source, timePoint, label );
+		addAnnotation( annotatedSegment );
+		return annotatedSegment;
+	}
 
-		annotations.add( annotatedSegment );
+	public void addAnnotation( AnnotatedSegment annotatedSegment )
+	{
+		synchronized ( this )
+		{
+			annotations.add( annotatedSegment );
+		}
 
 		final Set< AnnotatedSegment > singletonCollection = Collections.singleton( annotatedSegment );
 		for ( AnnotationListener< AnnotatedSegment > listener : listeners.list )
 			listener.annotationsAdded( singletonCollection );
+	}
 
-		return annotatedSegment;
+	// Annotations that must not be removed again, e.g. selected ones,
+	// see {@code LazyAnnotatedSegmentAdapter}.
+	public void setRetained( Predicate< AnnotatedSegment > isRetained )
+	{
+		this.isRetained = isRetained;
+	}
+
+	public boolean isRetained( AnnotatedSegment annotation )
+	{
+		return isRetained.test( annotation );
+	}
+
+	public void removeAnnotations( Collection< AnnotatedSegment > annotations )
+	{
+		synchronized ( this )
+		{
+			this.annotations.removeAll( new HashSet<>( annotations ) );
+		}
+
+		for ( AnnotationListener< AnnotatedSegment > listener : listeners.list )
+			listener.annotationsRemoved( annotations );
 	}
 }
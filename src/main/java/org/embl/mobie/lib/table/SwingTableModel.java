@@ -105,6 +105,9 @@ public class SwingTableModel implements TableModel
 		{
 			final String columnName = getColumnName( columnIndex );
 			tableModel.annotations().get( rowIndex ).setString( columnName, aValue.toString() );
+			final TableModelEvent event = new TableModelEvent( this, rowIndex, rowIndex, columnIndex );
+			for ( TableModelListener listener : tableModelListeners )
+				listener.tableChanged( event );
 		}
 	}
 
@@ -55,12 +55,15 @@ public enum TableDataFormat
 	TSV,  // TSV file
 	@SerializedName( TableDataFormatNames.CSV )
 	CSV,  // CSV file
+	@SerializedName( TableDataFormatNames.PARQUET )
+	Parquet,  // Parquet file
 	@SerializedName( TableDataFormatNames.RESULTS_TABLE )
 	ResultsTable,  // ResultsTable in memory
 	@SerializedName( TableDataFormatNames.TABLE )
 	Table;  // tablesaw table in memory
 
 	public static final String MOBIE_DEFAULT_CHUNK = "default.tsv";
+	public static final String MOBIE_DEFAULT_PARQUET_CHUNK = "default.parquet";
 
 	@Override
 	public String toString()
@@ -73,16 +76,30 @@ public enum TableDataFormat
 				return TABLE;
 			case CSV:
 				return TableDataFormatNames.CSV;
+			case Parquet:
+				return TableDataFormatNames.PARQUET;
 			case TSV:
 			default:
 				return TableDataFormatNames.TSV;
 		}
 	}
 
+	public String getDefaultChunk()
+	{
+		switch ( this )
+		{
+			case Parquet:
+				return MOBIE_DEFAULT_PARQUET_CHUNK;
+			default:
+				return MOBIE_DEFAULT_CHUNK;
+		}
+	}
+
 	public static TableDataFormat fromPath( String path )
 	{
 		if ( path.endsWith( ".csv" ) ) return CSV;
 		if ( path.endsWith( ".tsv" ) ) return TSV;
+		if ( path.endsWith( ".parquet" ) ) return Parquet;
 		throw new RuntimeException("Could not determine table format of " + path );
 	}
 
@@ -32,6 +32,7 @@ public class TableDataFormatNames
 {
 	public static final String TSV = "tsv";
 	public static final String CSV = "csv";
+	public static final String PARQUET = "parquet";
 	public static final String RESULTS_TABLE = "ResultsTable";
 	public static final String TABLE = "Table";
 }
@@ -52,6 +52,7 @@ import net.imglib2.type.numeric.ARGBType;
 import org.embl.mobie.lib.ui.UserInterfaceHelper;
 
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
@@ -60,6 +61,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static org.embl.mobie.lib.MoBIEHelper.FileLocation;
@@ -105,6 +107,7 @@ public class TableView< A extends Annotation > implements SelectionListener< A >
 
 	public void close()
 	{
+		tableModel.removeAnnotationListener( this );
 		frame.dispose();
 	}
 
@@ -142,6 +145,12 @@ public class TableView< A extends Annotation > implements SelectionListener< A >
 	{
 		swingTableModel = new SwingTableModel( tableModel );
 		jTable = new JTable( swingTableModel );
+		swingTableModel.addTableModelListener( e ->
+		{
+			// edited values may change the coloring
+			if ( e.getType() == TableModelEvent.UPDATE && e.getFirstRow() >= 0 )
+				coloringModel.invalidateColors( Collections.singleton( tableModel.annotation( e.getFirstRow() ) ) );
+		} );
 		jTable.updateUI();
 		jTable.setPreferredScrollableViewportSize( new Dimension(500, 200) );
 		jTable.setFillsViewportHeight( true );
@@ -408,9 +417,11 @@ public class TableView< A extends Annotation > implements SelectionListener< A >
 		if ( numeric )
 		{
 			selectedNumber = Double.parseDouble( selectedValue );
-			for( A row: rows )
-				if ( row.getNumber( columnName ).equals( selectedNumber ) )
-					selectedRows.add( row );
+			final NumberColumnAccessor accessor = tableModel.numberColumnAccessor( columnName );
+			final int numRows = rows.size();
+			for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+				if ( accessor.getDouble( rowIndex ) == selectedNumber )
+					selectedRows.add( rows.get( rowIndex ) );
 		}
 		else
 		{
@@ -443,11 +454,13 @@ public class TableView< A extends Annotation > implements SelectionListener< A >
 		ArrayList< A > selectedRows = new ArrayList<>();
 		final ArrayList< A > rows = tableModel.annotations();
 
-		for( A row: rows )
+		final NumberColumnAccessor accessor = tableModel.numberColumnAccessor( columnName );
+		final int numRows = rows.size();
+		for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
 			if ( greaterThan ?
-					row.getNumber( columnName ) > value :
-					row.getNumber( columnName ) < value )
-				selectedRows.add( row );
+					accessor.getDouble( rowIndex ) > value :
+					accessor.getDouble( rowIndex ) < value )
+				selectedRows.add( rows.get( rowIndex ) );
 
 		if ( selectedRows.size() > 0 )
 			selectRows( selectedRows, keepCurrentSelection );
@@ -820,6 +833,13 @@ public class TableView< A extends Annotation > implements SelectionListener< A >
 		updateTable();
 	}
 
+	@Override
+	public void annotationsRemoved( Collection< A > annotations )
+	{
+		coloringModel.invalidateColors( annotations );
+		updateTable();
+	}
+
 	@Override
 	public void columnAdded( String columnName )
 	{
@@ -28,6 +28,8 @@
  */
 package org.embl.mobie.lib.table;
 
+import gnu.trove.map.custom_hash.TObjectIntCustomHashMap;
+import gnu.trove.strategy.IdentityHashingStrategy;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.util.Pair;
 import org.embl.mobie.lib.annotation.Annotation;
@@ -36,14 +38,21 @@ import org.embl.mobie.lib.transform.AnnotationTransformer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
-public class TransformedAnnotationTableModel< A extends Annotation, TA extends A > extends AbstractAnnotationTableModel< TA >
+public class TransformedAnnotationTableModel< A extends Annotation, TA extends A > extends AbstractAnnotationTableModel< TA > implements AnnotationListener< A >
 {
 	private final AnnotationTableModel< A > tableModel;
 	private final AnnotationTransformer< A, TA > transformer;
 	private ArrayList< TA > annotations;
+	private final Map< A, TA > annotationToTransformed = new HashMap<>();
+
+	// For constant time {@code rowIndexOf}, see {@code ConcatenatedAnnotationTableModel}.
+	private final TObjectIntCustomHashMap< TA > annotationToRowIndex = new TObjectIntCustomHashMap<>( new IdentityHashingStrategy<>(), 10, 0.5F, -1 );
 
 	public TransformedAnnotationTableModel( AnnotationTableModel< A > tableModel, AnnotationTransformer< A, TA > transformer )
 	{
@@ -76,10 +85,10 @@ public class TransformedAnnotationTableModel< A extends Annotation, TA extends A
 	}
 
 	@Override
-	public int rowIndexOf( TA annotation )
+	public synchronized int rowIndexOf( TA annotation )
 	{
 		update();
-		return annotations.indexOf( annotation );
+		return annotationToRowIndex.get( annotation );
 	}
 
 	@Override
@@ -127,6 +136,16 @@ public class TransformedAnnotationTableModel< A extends Annotation, TA extends A
 		return annotations;
 	}
 
+	public AnnotationTableModel< A > getTableModel()
+	{
+		return tableModel;
+	}
+
+	public synchronized TA getTransformedAnnotation( A annotation )
+	{
+		return annotationToTransformed.get( annotation );
+	}
+
 	private synchronized void update()
 	{
 		if ( annotations == null )
@@ -136,15 +155,80 @@ public class TransformedAnnotationTableModel< A extends Annotation, TA extends A
 			final int numAnnotations = tableModel.numAnnotations();
 			for ( int rowIndex = 0; rowIndex < numAnnotations; rowIndex++ )
 			{
-				final TA transformedAnnotation = transformer.transform( tableModel.annotation( rowIndex ) );
+				final A annotation = tableModel.annotation( rowIndex );
+				final TA transformedAnnotation = transformer.transform( annotation );
+				annotationToRowIndex.put( transformedAnnotation, annotations.size() );
 				annotations.add( transformedAnnotation );
+				annotationToTransformed.put( annotation, transformedAnnotation );
 			}
 
+			// follow the changes of the table model,
+			// e.g. segments that are created or removed while browsing
+			tableModel.addAnnotationListener( this );
+
 			for ( AnnotationListener< TA > listener : listeners.list )
 				listener.annotationsAdded( annotations );
 		}
 	}
 
+	@Override
+	public synchronized void annotationsAdded( Collection< A > annotations )
+	{
+		final List< TA > transformedAnnotations = new ArrayList<>();
+		for ( A annotation : annotations )
+		{
+			// already added, e.g. when registering as a listener
+			if ( annotationToTransformed.containsKey( annotation ) )
+				continue;
+
+			final TA transformedAnnotation = transformer.transform( annotation );
+			annotationToTransformed.put( annotation, transformedAnnotation );
+			annotationToRowIndex.put( transformedAnnotation, this.annotations.size() + transformedAnnotations.size() );
+			transformedAnnotations.add( transformedAnnotation );
+		}
+
+		if ( transformedAnnotations.isEmpty() )
+			return;
+
+		this.annotations.addAll( transformedAnnotations );
+
+		for ( AnnotationListener< TA > listener : listeners.list )
+			listener.annotationsAdded( transformedAnnotations );
+	}
+
+	@Override
+	public synchronized void annotationsRemoved( Collection< A > annotations )
+	{
+		final List< TA > transformedAnnotations = new ArrayList<>();
+		for ( A annotation : annotations )
+		{
+			final TA transformedAnnotation = annotationToTransformed.remove( annotation );
+			if ( transformedAnnotation != null )
+				transformedAnnotations.add( transformedAnnotation );
+		}
+
+		if ( transformedAnnotations.isEmpty() )
+			return;
+
+		this.annotations.removeAll( new HashSet<>( transformedAnnotations ) );
+
+		// the row indices of the remaining annotations have shifted
+		annotationToRowIndex.clear();
+		final int numAnnotations = this.annotations.size();
+		for ( int rowIndex = 0; rowIndex < numAnnotations; rowIndex++ )
+			annotationToRowIndex.put( this.annotations.get( rowIndex ), rowIndex );
+
+		for ( AnnotationListener< TA > listener : listeners.list )
+			listener.annotationsRemoved( transformedAnnotations );
+	}
+
+	@Override
+	public void columnAdded( String columnName )
+	{
+		for ( AnnotationListener< TA > listener : listeners.list )
+			listener.columnAdded( columnName );
+	}
+
 	@Override
 	public void addStringColumn( String columnName )
 	{
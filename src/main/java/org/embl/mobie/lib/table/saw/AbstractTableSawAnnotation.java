@@ -29,6 +29,7 @@
 package org.embl.mobie.lib.table.saw;
 
 import org.embl.mobie.lib.annotation.Annotation;
+import tech.tablesaw.api.Table;
 
 public abstract class AbstractTableSawAnnotation implements Annotation
 {
@@ -51,7 +52,8 @@ public abstract class AbstractTableSawAnnotation implements Annotation
 	{
 		try
 		{
-			final Object object = model.getTable().get( rowIndex, model.getTable().columnIndex( feature ) );
+			final Table table = model.getTable( feature );
+			final Object object = table.get( rowIndex, table.columnIndex( feature ) );
 			return object;
 		}
 		catch ( Exception e )
@@ -64,13 +66,13 @@ public abstract class AbstractTableSawAnnotation implements Annotation
 	@Override
 	public Double getNumber( String feature )
 	{
-		return model.getTable().numberColumn( feature ).getDouble( rowIndex );
+		return model.getTable( feature ).numberColumn( feature ).getDouble( rowIndex );
 	}
 
 	@Override
 	public void setString( String columnName, String value )
 	{
-		model.getTable().stringColumn( columnName ).set( rowIndex, value );
+		model.getTable( columnName ).stringColumn( columnName ).set( rowIndex, value );
 	}
 
 }
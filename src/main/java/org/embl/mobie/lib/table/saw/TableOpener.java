@@ -32,7 +32,15 @@ import IceInternal.Ex;
 import ij.IJ;
 import ij.measure.ResultsTable;
 import net.thisptr.jackson.jq.internal.misc.Strings;
+import net.tlabs.tablesaw.parquet.TablesawParquetReadOptions;
+import net.tlabs.tablesaw.parquet.TablesawParquetReader;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.Type;
 import org.embl.mobie.io.util.IOHelper;
+import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.io.StorageLocation;
 import org.embl.mobie.lib.table.ColumnNames;
 import org.embl.mobie.lib.table.TableDataFormat;
@@ -43,20 +51,49 @@ import tech.tablesaw.api.ColumnType;
 import tech.tablesaw.api.DoubleColumn;
 import tech.tablesaw.api.IntColumn;
 import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
 import tech.tablesaw.io.csv.CsvReadOptions;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class TableOpener
 {
+	// number of rows that are parsed together in one task
+	public static int numRowsPerParsingChunk = 100000;
+
+	// number of chunks that are read but not yet parsed;
+	// bounds the memory that is needed in addition to the table
+	public static int maxNumPendingParsingChunks = 2 * Runtime.getRuntime().availableProcessors();
+
+	// tables that take longer to open are logged
+	public static long logTimeThresholdMillis = 1000;
+
+	// local copies of remote Parquet files
+	private static final Map< String, File > remotePathToLocalFile = new ConcurrentHashMap<>();
+
 	public static Map< String, ColumnType > nameToType;
 	static
 	{
@@ -74,6 +111,16 @@ public class TableOpener
 	}
 
 	public static Table open( StorageLocation storageLocation, String chunk, TableDataFormat tableDataFormat )
+	{
+		return open( storageLocation, chunk, tableDataFormat, null );
+	}
+
+	/**
+	 * @param columns
+	 *            the names of the columns to be loaded; if {@code null}, all columns are loaded.
+	 *            Only applies to tables that are read from CSV, TSV or Parquet files.
+	 */
+	public static Table open( StorageLocation storageLocation, String chunk, TableDataFormat tableDataFormat, @Nullable Collection< String > columns )
 	{
 		switch ( tableDataFormat )
 		{
@@ -82,23 +129,190 @@ public class TableOpener
 				return openResultTable( (ResultsTable) storageLocation.data );
 			case Table:
 				return (Table) storageLocation.data;
+			case Parquet:
+				return openParquetFile( storageLocation, chunk, columns );
 			case TSV:
 			case CSV:
 			default:
-				return openFile( storageLocation, chunk, tableDataFormat );
+				return openFile( storageLocation, chunk, tableDataFormat, columns );
 		}
 	}
 
-	private static Table openFile( StorageLocation storageLocation, String relativeChunkLocation, TableDataFormat tableDataFormat )
+	/**
+	 * Reads only the header of a table, e.g. to decide which columns to load.
+	 *
+	 * @return the names of the columns, or {@code null} if they cannot be
+	 *         read without opening the whole table
+	 */
+	@Nullable
+	public static List< String > readColumnNames( StorageLocation storageLocation, String chunk, TableDataFormat tableDataFormat )
 	{
-		return openFile( storageLocation, relativeChunkLocation, tableDataFormat, -1 );
+		switch ( tableDataFormat )
+		{
+			case TSV:
+			case CSV:
+				return readHeader( resolveTablePath( IOHelper.combinePath( storageLocation.absolutePath, chunk ) ), tableDataFormat.getSeparator() );
+			case Parquet:
+				return readParquetSchema( IOHelper.combinePath( storageLocation.absolutePath, chunk ) );
+			default:
+				return null;
+		}
 	}
 
-	private static Table openFile( StorageLocation storageLocation, String chunk, TableDataFormat tableDataFormat, int numSamples )
+	// Only reads the footer of the file, which contains the schema.
+	private static List< String > readParquetSchema( String path )
+	{
+		try ( ParquetFileReader reader = ParquetFileReader.open( HadoopInputFile.fromPath( new Path( getLocalFile( path ).toURI() ), new Configuration() ) ) )
+		{
+			return reader.getFileMetaData().getSchema().getFields().stream()
+					.map( Type::getName )
+					.collect( Collectors.toList() );
+		}
+		catch ( IOException e )
+		{
+			e.printStackTrace();
+			throw new RuntimeException( "Could not read the schema of table " + path, e );
+		}
+	}
+
+	private static List< String > readHeader( String path, Character separator )
+	{
+		try ( BufferedReader reader = new BufferedReader( new InputStreamReader( IOHelper.getInputStream( path ), StandardCharsets.UTF_8 ) ) )
+		{
+			final String header = reader.readLine();
+			if ( header == null )
+				throw new IOException( "Table " + path + " is empty." );
+
+			return Arrays.stream( header.replace( "\uFEFF", "" ).split( separator.toString(), -1 ) )
+					.map( columnName -> columnName.trim().replaceAll( "^\"|\"$", "" ) )
+					.collect( Collectors.toList() );
+		}
+		catch ( IOException e )
+		{
+			e.printStackTrace();
+			throw new RuntimeException( "Could not read the header of table " + path, e );
+		}
+	}
+
+	private static Table openFile( StorageLocation storageLocation, String chunk, TableDataFormat tableDataFormat, @Nullable Collection< String > columns )
 	{
 		final String path = resolveTablePath( IOHelper.combinePath( storageLocation.absolutePath, chunk ) );
 		final Character separator = tableDataFormat.getSeparator();
 
+		final long start = System.currentTimeMillis();
+		Table table;
+		try
+		{
+			table = openFileInParallel( path, separator, columns );
+		}
+		catch ( ChunkingNotPossibleException e )
+		{
+			table = openFileSequentially( path, separator, -1, columns );
+		}
+		catch ( IOException | ExecutionException e )
+		{
+			e.printStackTrace();
+			throw new RuntimeException( "Could not open table " + path, e );
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException( "Interrupted while opening table " + path, e );
+		}
+
+		logOpened( path, tableDataFormat, table, start );
+
+		return table;
+	}
+
+	// Parquet files are columnar, thus only the requested columns are read,
+	// and they are typed, thus no parsing is needed.
+	private static Table openParquetFile( StorageLocation storageLocation, String chunk, @Nullable Collection< String > columns )
+	{
+		// Parquet files are binary, thus they cannot contain a link to another table
+		final String path = IOHelper.combinePath( storageLocation.absolutePath, chunk );
+
+		final long start = System.currentTimeMillis();
+		final Table table;
+		try
+		{
+			final TablesawParquetReadOptions.Builder builder = TablesawParquetReadOptions.builder( getLocalFile( path ) );
+			if ( columns != null )
+				builder.withOnlyTheseColumns( columns.toArray( new String[ 0 ] ) );
+			table = new TablesawParquetReader().read( builder.build() );
+		}
+		catch ( Exception e )
+		{
+			e.printStackTrace();
+			throw new RuntimeException( "Could not open table " + path, e );
+		}
+
+		logOpened( path, TableDataFormat.Parquet, table, start );
+
+		return table;
+	}
+
+	// Parquet files need random access, thus remote files
+	// are first copied into a temporary file.
+	// Each file is only copied once, because the same table
+	// is opened again, e.g. to load additional columns.
+	private static File getLocalFile( String path ) throws IOException
+	{
+		if ( ! path.startsWith( "http" ) && ! path.startsWith( "s3" ) )
+			return new File( path );
+
+		final File cachedFile = remotePathToLocalFile.get( path );
+		if ( cachedFile != null && cachedFile.exists() )
+			return cachedFile;
+
+		try
+		{
+			return remotePathToLocalFile.compute( path, ( remotePath, file ) ->
+			{
+				if ( file != null && file.exists() )
+					return file; // downloaded concurrently
+
+				try
+				{
+					return download( remotePath );
+				}
+				catch ( IOException e )
+				{
+					throw new UncheckedIOException( e );
+				}
+			} );
+		}
+		catch ( UncheckedIOException e )
+		{
+			throw e.getCause();
+		}
+	}
+
+	private static File download( String path ) throws IOException
+	{
+		final File file = File.createTempFile( "mobie-table-", ".parquet" );
+		file.deleteOnExit();
+		try ( InputStream inputStream = IOHelper.getInputStream( path ) )
+		{
+			Files.copy( inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+		}
+		catch ( IOException e )
+		{
+			file.delete();
+			throw e;
+		}
+		return file;
+	}
+
+	private static void logOpened( String path, TableDataFormat tableDataFormat, Table table, long start )
+	{
+		final long durationMillis = System.currentTimeMillis() - start;
+		if ( durationMillis > logTimeThresholdMillis )
+			IJ.log( "Opened " + tableDataFormat + " table " + path + " (" + table.rowCount() + " rows, " + table.columnCount() + " columns, ~" + estimateMegaBytes( table ) + " MB) in " + durationMillis + " ms." );
+	}
+
+	private static Table openFileSequentially( String path, Character separator, int numSamples, @Nullable Collection< String > columns )
+	{
 		try
 		{
 			// while it appears to be faster to
@@ -106,7 +320,6 @@ public class TableOpener
 			// it has the drawback that we temporarily need to
 			// allocate twice the memory and the GC has some
 			// work to do, which can become a bottleneck.
-			final long start = System.currentTimeMillis();
 			final InputStream inputStream = IOHelper.getInputStream( path );
 			// final String string = IOHelper.read( path );
 			// https://jtablesaw.github.io/tablesaw/userguide/importing_data.html
@@ -115,10 +328,8 @@ public class TableOpener
 					.missingValueIndicator( "na", "none", "nan" )
 					.sample( numSamples > 0 )
 					.sampleSize( numSamples )
-					.columnTypesPartial( nameToType );
-			final Table rows = Table.read().usingOptions( builder );
-			//System.out.println("Read table " + path + " with " + rows.rowCount() + " rows in " + ( System.currentTimeMillis() - start ) + " ms." );
-			return rows;
+					.columnTypesPartial( columnTypes( columns ) );
+			return Table.read().usingOptions( builder );
 		}
 		catch ( Exception e )
 		{
@@ -127,6 +338,182 @@ public class TableOpener
 		}
 	}
 
+	// Reads the file line by line and parses chunks of rows in parallel,
+	// while the remaining lines are still being read.
+	// The column types are determined from the first chunk
+	// and then enforced for the other chunks, such that they can be appended.
+	private static Table openFileInParallel( String path, Character separator, @Nullable Collection< String > columns ) throws IOException, ExecutionException, InterruptedException, ChunkingNotPossibleException
+	{
+		final List< Future< Table > > futures = new ArrayList<>();
+		final Semaphore pendingChunks = new Semaphore( Math.max( 1, maxNumPendingParsingChunks ) );
+
+		try ( BufferedReader reader = new BufferedReader( new InputStreamReader( IOHelper.getInputStream( path ), StandardCharsets.UTF_8 ) ) )
+		{
+			final String header = reader.readLine();
+			if ( header == null )
+				throw new IOException( "Table " + path + " is empty." );
+
+			Table table = null;
+			ColumnType[] columnTypes = null;
+
+			StringBuilder rows = new StringBuilder( header ).append( '\n' );
+			int numRows = 0;
+			String line = header;
+			while ( line != null )
+			{
+				// a quote may enclose a separator or a line break,
+				// which the splitting into chunks does not handle
+				if ( line.indexOf( '"' ) >= 0 )
+					throw new ChunkingNotPossibleException( "Cannot split tables with quoted values into chunks." );
+
+				line = reader.readLine();
+				if ( line != null )
+				{
+					rows.append( line ).append( '\n' );
+					numRows++;
+				}
+
+				if ( numRows == numRowsPerParsingChunk || ( line == null && ( numRows > 0 || table == null ) ) )
+				{
+					// the column types cannot be determined without rows
+					if ( numRows == 0 )
+						throw new ChunkingNotPossibleException( "Table " + path + " has no rows." );
+
+					final String chunk = rows.toString();
+					rows = new StringBuilder( header ).append( '\n' );
+					numRows = 0;
+
+					if ( table == null )
+					{
+						table = parseChunk( chunk, separator, columnTypes( columns ), null );
+						continue;
+					}
+
+					if ( columnTypes == null )
+						columnTypes = columnTypes( header, separator, table, columns );
+
+					// wait until the reading is not too far ahead of the parsing
+					pendingChunks.acquire();
+					final ColumnType[] finalColumnTypes = columnTypes;
+					futures.add( ThreadHelper.tableParsingExecutorService.submit( () ->
+					{
+						try
+						{
+							return parseChunk( chunk, separator, null, finalColumnTypes );
+						}
+						catch ( RuntimeException e )
+						{
+							// the chunk is parsed from memory and has the same columns
+							// as the first one, thus the values do not match the
+							// column types that were determined from the first chunk,
+							// e.g. a column of integers also contains decimals
+							// (tablesaw does not always report this as AddCellToColumnException)
+							throw new ChunkingNotPossibleException( e.toString() );
+						}
+						finally
+						{
+							pendingChunks.release();
+						}
+					} ) );
+				}
+			}
+
+			for ( Future< Table > future : futures )
+				table.append( getParsedChunk( future ) );
+
+			return table;
+		}
+		finally
+		{
+			// only has an effect if the parsing has been aborted
+			for ( Future< Table > future : futures )
+				future.cancel( true );
+		}
+	}
+
+	private static Table getParsedChunk( Future< Table > future ) throws ExecutionException, InterruptedException, ChunkingNotPossibleException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch ( ExecutionException e )
+		{
+			if ( e.getCause() instanceof ChunkingNotPossibleException )
+				throw ( ChunkingNotPossibleException ) e.getCause();
+
+			throw e;
+		}
+	}
+
+	private static Table parseChunk( String chunk, Character separator, @Nullable Function< String, Optional< ColumnType > > partialColumnTypes, @Nullable ColumnType[] columnTypes )
+	{
+		CsvReadOptions.Builder builder = CsvReadOptions.builderFromString( chunk )
+				.separator( separator )
+				.missingValueIndicator( "na", "none", "nan" );
+
+		if ( columnTypes != null )
+			builder.columnTypes( columnTypes );
+		else
+			builder.columnTypesPartial( partialColumnTypes );
+
+		return Table.read().usingOptions( builder );
+	}
+
+	private static Function< String, Optional< ColumnType > > columnTypes( @Nullable Collection< String > columns )
+	{
+		return columnName ->
+		{
+			if ( columns != null && ! columns.contains( columnName ) )
+				return Optional.of( ColumnType.SKIP );
+
+			return Optional.ofNullable( nameToType.get( columnName ) );
+		};
+	}
+
+	// The types of all columns in the header, including the skipped ones.
+	private static ColumnType[] columnTypes( String header, Character separator, Table table, @Nullable Collection< String > columns ) throws ChunkingNotPossibleException
+	{
+		final String[] columnNames = header.split( separator.toString(), -1 );
+		final ColumnType[] columnTypes = new ColumnType[ columnNames.length ];
+		int columnIndex = 0;
+		for ( int i = 0; i < columnNames.length; i++ )
+		{
+			if ( columns != null && ! columns.contains( columnNames[ i ].trim() ) )
+				columnTypes[ i ] = ColumnType.SKIP;
+			else
+			{
+				final Column< ? > column = table.column( columnIndex++ );
+				// the type of a column without values cannot be determined
+				if ( column.countMissing() == column.size() )
+					throw new ChunkingNotPossibleException( "Could not determine the type of column " + column.name() );
+				columnTypes[ i ] = column.type();
+			}
+		}
+
+		if ( columnIndex != table.columnCount() )
+			throw new ChunkingNotPossibleException( "Could not determine the column types of the table." );
+
+		return columnTypes;
+	}
+
+	// The table cannot be parsed in chunks and is thus parsed sequentially.
+	private static class ChunkingNotPossibleException extends Exception
+	{
+		ChunkingNotPossibleException( String message )
+		{
+			super( message );
+		}
+	}
+
+	private static long estimateMegaBytes( Table table )
+	{
+		long numBytes = 0;
+		for ( Column< ? > column : table.columns() )
+			numBytes += ( long ) column.size() * column.byteSize();
+		return numBytes / ( 1024 * 1024 );
+	}
+
 	// Sometimes the path does not actually contain a table
 	// but another link to a table
 	// Example: https://raw.githubusercontent.com/mobie/platybrowser-datasets/mobie3/data/1.0.1/tables/sbem-6dpf-1-whole-segmented-ganglia/default.tsv
@@ -57,7 +57,7 @@ public class TableSawAnnotatedRegionCreator implements TableSawAnnotationCreator
 
 		final int labelId = rowIndex + 1; // 0 is the background label, thus we add 1
 
-		Integer timePoint = timePointColumnIndex > -1 ? ( int ) table.get( rowIndex, timePointColumnIndex ) : null;
+		Integer timePoint = timePointColumnIndex > -1 ? ( int ) table.numberColumn( timePointColumnIndex ).getDouble( rowIndex ) : null;
 
 		final String uuid = timePoint + ";" + regionId;
 
@@ -30,7 +30,6 @@ package org.embl.mobie.lib.table.saw;
 
 import net.imglib2.realtransform.AffineTransform3D;
 import org.embl.mobie.lib.annotation.AnnotatedSegment;
-import net.imglib2.FinalRealInterval;
 import net.imglib2.RealInterval;
 import org.embl.mobie.lib.table.ColumnNames;
 import org.embl.mobie.lib.volume.MeshTransformer;
@@ -39,33 +38,20 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 {
 	private static final String[] idColumns = new String[]{ ColumnNames.LABEL_ID, ColumnNames.TIMEPOINT };
 
-	private final int timePoint;
-	private final int labelId;
-	private final double[] position;
-	private RealInterval boundingBox;
+	private final TableSawSegmentStore store;
 	private float[] mesh;
-	private String source;
-	private String uuid;
 
+	// The values are not held by the segment itself but in the store,
+	// such that millions of segments do not need millions of small objects.
 	// TODO only the model is TableSaw specific
 	//   all the other code is generic and could be reused to open other tables
 	public TableSawAnnotatedSegment(
 			TableSawAnnotationTableModel< TableSawAnnotatedSegment > model,
 			int rowIndex,
-			String source,
-			String uuid,
-			Integer labelId,
-			int timePoint,
-			double[] position,
-			FinalRealInterval boundingBox )
+			TableSawSegmentStore store )
 	{
 		super( model, rowIndex );
-		this.source = source;
-		this.uuid = uuid;
-		this.labelId = labelId;
-		this.timePoint = timePoint;
-		this.position = position;
-		this.boundingBox = boundingBox;
+		this.store = store;
 	}
 
 	@Override
@@ -77,37 +63,37 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public int label()
 	{
-		return labelId;
+		return store.label( rowIndex );
 	}
 
 	@Override
 	public Integer timePoint()
 	{
-		return timePoint;
+		return store.timePoint( rowIndex );
 	}
 
 	@Override
 	public double[] positionAsDoubleArray()
 	{
-		return position;
+		return store.positionAsDoubleArray( rowIndex );
 	}
 
 	@Override
 	public double getDoublePosition( int d )
 	{
-		return position[ d ];
+		return store.getDoublePosition( rowIndex, d );
 	}
 
 	@Override
 	public RealInterval boundingBox()
 	{
-		return boundingBox;
+		return store.boundingBox( rowIndex );
 	}
 
 	@Override
 	public void setBoundingBox( RealInterval boundingBox )
 	{
-		this.boundingBox = boundingBox;
+		store.setBoundingBox( rowIndex, boundingBox );
 	}
 
 	@Override
@@ -125,13 +111,14 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public String uuid()
 	{
-		return uuid;
+		// computed on demand, as it is rarely needed
+		return source() + ";" + timePoint() + ";" + label();
 	}
 
 	@Override
 	public String source()
 	{
-		return source;
+		return store.source( rowIndex );
 	}
 
 	@Override
@@ -143,11 +130,7 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public void transform( AffineTransform3D affineTransform3D )
 	{
-		if ( position != null )
-			affineTransform3D.apply( position, position );
-
-		if ( boundingBox != null )
-			boundingBox = affineTransform3D.estimateBounds( boundingBox );
+		store.transform( rowIndex, affineTransform3D );
 
 		if ( mesh != null )
 			mesh = MeshTransformer.transform( mesh, affineTransform3D );
@@ -156,6 +139,6 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public int numDimensions()
 	{
-		return positionAsDoubleArray().length;
+		return 3;
 	}
 }
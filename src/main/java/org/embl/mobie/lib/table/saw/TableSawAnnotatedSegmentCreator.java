@@ -28,14 +28,20 @@
  */
 package org.embl.mobie.lib.table.saw;
 
-import net.imglib2.FinalRealInterval;
 import org.embl.mobie.lib.table.TableDataFormat;
 import org.embl.mobie.lib.table.columns.SegmentColumnNames;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.NumericColumn;
+import tech.tablesaw.api.StringColumn;
 import tech.tablesaw.api.Table;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreator< TableSawAnnotatedSegment >
@@ -51,6 +57,8 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 	private AtomicBoolean columnsInitialised = new AtomicBoolean( false );
 	private boolean is3D;
 	private boolean hasBoundingBox;
+	private TableSawSegmentStore store;
+	private Table storeTable; // the table from which the store has been filled
 
 	public TableSawAnnotatedSegmentCreator(
 			@Nullable SegmentColumnNames segmentColumnNames,
@@ -104,24 +112,27 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 		if ( ! columnsInitialised.get() )
 			initColumns( table );
 
-		Integer labelId = table.intColumn( labelIdColumnIndex ).get( rowIndex );
-
-		String source = labelImageColumnIndex > -1 ? table.stringColumn( labelImageColumnIndex ).get( rowIndex ) : table.name();
-
-		int timePoint = timePointColumnIndex > -1 ? table.intColumn( timePointColumnIndex ).get( rowIndex ) : 0;
-
-		final FinalRealInterval boundingBox = boundingBox( table, rowIndex );
-
-		// TODO do we want to support missing anchor columns?
-		double[] position = new double[]{
-				table.numberColumn( anchorColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( anchorColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( anchorColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
+		return new TableSawAnnotatedSegment( model, rowIndex, getStore( table ) );
+	}
 
-		final String uuid = source + ";" + timePoint + ";" + labelId;
+	@Override
+	@Nullable
+	public synchronized Collection< String > requiredColumns( List< String > columnNames )
+	{
+		if ( segmentColumnNames == null )
+			segmentColumnNames = TableDataFormat.getSegmentColumnNames( columnNames );
 
-		return new TableSawAnnotatedSegment( model, rowIndex, source, uuid, labelId, timePoint, position, boundingBox );
+		if ( segmentColumnNames == null )
+			return null; // fails later, when the columns are initialised
+
+		final List< String > columns = new ArrayList<>();
+		columns.add( segmentColumnNames.labelImageColumn() );
+		columns.add( segmentColumnNames.labelIdColumn() );
+		columns.add( segmentColumnNames.timePointColumn() );
+		columns.addAll( Arrays.asList( segmentColumnNames.anchorColumns() ) );
+		columns.addAll( Arrays.asList( segmentColumnNames.bbMinColumns() ) );
+		columns.addAll( Arrays.asList( segmentColumnNames.bbMaxColumns() ) );
+		return columns;
 	}
 
 	@Override
@@ -130,27 +141,87 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 		return new int[ 0 ];
 	}
 
-	private FinalRealInterval boundingBox( Table table, int rowIndex )
+	// the store is filled column by column, when the first segment of a table is created;
+	// another table (e.g. with joined columns) may have other column indices
+	private synchronized TableSawSegmentStore getStore( Table table )
 	{
-		if ( ! hasBoundingBox ) return null;
+		if ( store != null && storeTable == table )
+			return store;
+
+		initColumns( table );
+
+		final int numRows = table.rowCount();
+
+		final int[] labelIds = getIntValues( table.numberColumn( labelIdColumnIndex ) );
+
+		final int[] timePoints = timePointColumnIndex > -1 ? getIntValues( table.numberColumn( timePointColumnIndex ) ) : null;
+
+		String[] sources = new String[]{ table.name() };
+		int[] sourceIndices = null;
+		if ( labelImageColumnIndex > -1 )
+		{
+			final StringColumn sourceColumn = table.stringColumn( labelImageColumnIndex );
+			final Map< String, Integer > sourceToIndex = new LinkedHashMap<>();
+			sourceIndices = new int[ numRows ];
+			for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+			{
+				final String source = sourceColumn.get( rowIndex );
+				Integer sourceIndex = sourceToIndex.get( source );
+				if ( sourceIndex == null )
+				{
+					sourceIndex = sourceToIndex.size();
+					sourceToIndex.put( source, sourceIndex );
+				}
+				sourceIndices[ rowIndex ] = sourceIndex;
+			}
+			sources = sourceToIndex.keySet().toArray( new String[ 0 ] );
+		}
+
+		// TODO do we want to support missing anchor columns?
+		final double[] positions = new double[ 3 * numRows ];
+		copyColumns( table, anchorColumnIndices, positions, 0, 3 );
 
 		// TODO: if we want to support this for IJ ParticleAnalyzer ResultsTable
 		//  we need to do some math, because it is given as min and size.
+		double[] boundingBoxes = null;
+		if ( hasBoundingBox )
+		{
+			boundingBoxes = new double[ 6 * numRows ];
+			copyColumns( table, bbMinColumnIndices, boundingBoxes, 0, 6 );
+			copyColumns( table, bbMaxColumnIndices, boundingBoxes, 3, 6 );
+		}
+
+		store = new TableSawSegmentStore( labelIds, timePoints, sources, sourceIndices, positions, boundingBoxes );
+		storeTable = table;
+
+		return store;
+	}
 
-		final double[] min = {
-				table.numberColumn( bbMinColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( bbMinColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( bbMinColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
-
-		final double[] max = {
-				table.numberColumn( bbMaxColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( bbMaxColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( bbMaxColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
-
-		final FinalRealInterval boundingBox = new FinalRealInterval( min, max );
+	// integer columns may also be read as long columns,
+	// e.g. from INT64 Parquet columns
+	private static int[] getIntValues( NumericColumn< ? > column )
+	{
+		if ( column instanceof IntColumn )
+			return ( ( IntColumn ) column ).asIntArray();
+
+		final int numRows = column.size();
+		final int[] values = new int[ numRows ];
+		for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+			values[ rowIndex ] = ( int ) column.getDouble( rowIndex );
+		return values;
+	}
 
-		return boundingBox;
+	// copies the x, y (and z) columns into the interleaved array,
+	// leaving z at 0 for 2D tables
+	private void copyColumns( Table table, int[] columnIndices, double[] values, int offset, int stride )
+	{
+		final int numDimensions = is3D ? 3 : 2;
+		for ( int d = 0; d < numDimensions; d++ )
+		{
+			final NumericColumn< ? > column = table.numberColumn( columnIndices[ d ] );
+			final int numRows = column.size();
+			for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+				values[ stride * rowIndex + offset + d ] = column.getDouble( rowIndex );
+		}
 	}
 }
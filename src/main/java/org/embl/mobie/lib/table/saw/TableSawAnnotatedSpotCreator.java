@@ -31,41 +31,59 @@ package org.embl.mobie.lib.table.saw;
 import org.embl.mobie.lib.table.ColumnNames;
 import tech.tablesaw.api.Table;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 public class TableSawAnnotatedSpotCreator implements TableSawAnnotationCreator< TableSawAnnotatedSpot >
 {
-	private final int spotIDColumnIndex;
-	private final int xColumnIndex;
-	private final int yColumnIndex;
-	private final int zColumnIndex;
+	private static final List< String > columns = Arrays.asList( ColumnNames.SPOT_ID, ColumnNames.SPOT_X, ColumnNames.SPOT_Y, ColumnNames.SPOT_Z, ColumnNames.TIMEPOINT );
+
+	private volatile Table columnsTable; // the table from which the column indices are determined
+	private int spotIDColumnIndex;
+	private int xColumnIndex;
+	private int yColumnIndex;
+	private int zColumnIndex;
 	private int timePointColumnIndex;
 
-	public TableSawAnnotatedSpotCreator( Table table )
+	// the columns are determined from the table of the model,
+	// when the first spot is created
+	public TableSawAnnotatedSpotCreator()
+	{
+	}
+
+	private synchronized void initColumns( Table table )
 	{
+		if ( columnsTable == table ) return;
+
 		final List< String > columnNames = table.columnNames();
 		spotIDColumnIndex = columnNames.indexOf( ColumnNames.SPOT_ID );
 		xColumnIndex = columnNames.indexOf( ColumnNames.SPOT_X );
 		yColumnIndex = columnNames.indexOf( ColumnNames.SPOT_Y );
 		zColumnIndex = columnNames.indexOf( ColumnNames.SPOT_Z );
 		timePointColumnIndex = columnNames.indexOf( ColumnNames.TIMEPOINT );
+		columnsTable = table;
 	}
 
 	@Override
 	public TableSawAnnotatedSpot create( TableSawAnnotationTableModel< TableSawAnnotatedSpot > model, int rowIndex )
 	{
 		final Table table = model.getTable();
+		if ( columnsTable != table )
+			initColumns( table );
+
 		final float[] position = new float[ 3 ];
-		position[ 0 ] = (float) table.get( rowIndex, xColumnIndex );
-		position[ 1 ] = (float) table.get( rowIndex, yColumnIndex );
+		position[ 0 ] = (float) table.numberColumn( xColumnIndex ).getDouble( rowIndex );
+		position[ 1 ] = (float) table.numberColumn( yColumnIndex ).getDouble( rowIndex );
 		if ( zColumnIndex > -1 )
-			position[ 2 ] =  (float) table.get( rowIndex, zColumnIndex ) + (float) ( 1e-3 * Math.random() ); // FIXME kdTree issue: https://imagesc.zulipchat.com/#narrow/stream/327240-ImgLib2/topic/kdTree.20issue
+			position[ 2 ] =  (float) table.numberColumn( zColumnIndex ).getDouble( rowIndex ) + (float) ( 1e-3 * Math.random() ); // FIXME kdTree issue: https://imagesc.zulipchat.com/#narrow/stream/327240-ImgLib2/topic/kdTree.20issue
 
-		int label = ( int ) table.get( rowIndex, spotIDColumnIndex );
+		// the columns may be of any numeric type, e.g. long for INT64 Parquet columns
+		int label = ( int ) table.numberColumn( spotIDColumnIndex ).getDouble( rowIndex );
 
 		int timePoint = 0;
 		if ( timePointColumnIndex > -1 )
-			timePoint = ( int ) table.get( rowIndex, timePointColumnIndex );
+			timePoint = ( int ) table.numberColumn( timePointColumnIndex ).getDouble( rowIndex );
 
 		String source = table.name();
 
@@ -75,6 +93,15 @@ public class TableSawAnnotatedSpotCreator implements TableSawAnnotationCreator<
 	@Override
 	public int[] removeColumns()
 	{
-		return new int[]{ xColumnIndex, yColumnIndex, zColumnIndex };
+		if ( columnsTable == null )
+			return new int[ 0 ]; // no spots have been created
+
+		return Arrays.stream( new int[]{ xColumnIndex, yColumnIndex, zColumnIndex } ).filter( index -> index > -1 ).toArray();
+	}
+
+	@Override
+	public Collection< String > requiredColumns( List< String > columnNames )
+	{
+		return columns;
 	}
 }
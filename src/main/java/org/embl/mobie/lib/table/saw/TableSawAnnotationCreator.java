@@ -30,10 +30,21 @@ package org.embl.mobie.lib.table.saw;
 
 import org.embl.mobie.lib.annotation.Annotation;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
 
 public interface TableSawAnnotationCreator< A extends Annotation >
 {
 	A create( TableSawAnnotationTableModel< A > tableModel, int rowIndex );
 
 	int[] removeColumns();
+
+	// The columns that are needed to create the annotations,
+	// given the columns of the table; null: all columns are needed.
+	@Nullable
+	default Collection< String > requiredColumns( List< String > columnNames )
+	{
+		return null;
+	}
 }
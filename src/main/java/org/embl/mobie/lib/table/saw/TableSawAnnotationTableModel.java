@@ -38,19 +38,24 @@ import org.embl.mobie.lib.io.StorageLocation;
 import org.embl.mobie.lib.table.AbstractAnnotationTableModel;
 import org.embl.mobie.lib.table.AnnotationListener;
 import org.embl.mobie.lib.table.DefaultValues;
+import org.embl.mobie.lib.table.NumberColumnAccessor;
 import org.embl.mobie.lib.table.TableDataFormat;
-import tech.tablesaw.api.ColumnType;
 import tech.tablesaw.api.StringColumn;
 import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 // https://jtablesaw.github.io/tablesaw/userguide/tables.html
@@ -58,29 +63,65 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 {
 	private final String dataSourceName;
 	private final TableSawAnnotationCreator< A > annotationCreator;
-	private ArrayList< A > annotations = new ArrayList<>();
+	private volatile ArrayList< A > annotations = new ArrayList<>();
 
 	private Set< String > availableTableChunks;
 	private LinkedHashMap< String, Status > chunkToStatus = new LinkedHashMap<>();
 	private LinkedHashMap< StorageLocation, Status > externalChunkToStatus = new LinkedHashMap<>();
 
-	private Table table;
+	private volatile Table table;
 	private AffineTransform3D affineTransform3D = new AffineTransform3D();
 	private boolean updateTransforms = false;
+
+	// table chunks or transforms are pending, which need an {@code update()},
+	// as long as the updated version is behind the requested one
+	private final AtomicInteger requestedVersion = new AtomicInteger( 1 );
+	private volatile int updatedVersion = 0;
+
+	// the column metadata, which the read paths (e.g. of the Swing table)
+	// use without locking; it is replaced whenever the columns change
+	private volatile ColumnSchema columnSchema;
 	private final StorageLocation storageLocation;
 	private final TableDataFormat tableDataFormat;
 
+	// null: all columns of the default chunk are loaded right away
+	@Nullable
+	private final Collection< String > requiredColumns;
+
+	// the columns of the default chunk that are only loaded
+	// when they are accessed; replaced whenever columns are loaded
+	private volatile Set< String > deferredColumns = Collections.emptySet();
+
 	public TableSawAnnotationTableModel(
 			String name,
 			TableSawAnnotationCreator< A > annotationCreator,
 			@Nullable StorageLocation storageLocation, // needed to load additional table chunks
 			@Nullable TableDataFormat tableDataFormat, // needed to load additional table chunks
 			@Nullable Table defaultTable )
+	{
+		this( name, annotationCreator, storageLocation, tableDataFormat, defaultTable, null );
+	}
+
+	/**
+	 * @param requiredColumns
+	 *            if not {@code null}, only these columns and the ones that are needed to
+	 *            create the annotations are loaded from the default chunk right away;
+	 *            the other columns are loaded when they are first accessed.
+	 *            Has no effect if a {@code defaultTable} is given.
+	 */
+	public TableSawAnnotationTableModel(
+			String name,
+			TableSawAnnotationCreator< A > annotationCreator,
+			@Nullable StorageLocation storageLocation, // needed to load additional table chunks
+			@Nullable TableDataFormat tableDataFormat, // needed to load additional table chunks
+			@Nullable Table defaultTable,
+			@Nullable Collection< String > requiredColumns )
 	{
 		this.dataSourceName = name;
 		this.annotationCreator = annotationCreator;
 		this.storageLocation = storageLocation;
 		this.tableDataFormat = tableDataFormat;
+		this.requiredColumns = requiredColumns;
 
 		if ( defaultTable != null )
 		{
@@ -93,11 +134,22 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		return dataSourceName;
 	}
 
+	private void updateIfNeeded()
+	{
+		if ( updatedVersion != requestedVersion.get() || columnSchema == null )
+			update();
+	}
+
 	private synchronized void update()
 	{
+		// work that is requested meanwhile is done by the next update
+		final int version = requestedVersion.get();
+		if ( updatedVersion == version && columnSchema != null )
+			return; // updated concurrently
+
 		if ( table == null )
 		{
-			initTable( openTableChunk( storageLocation.defaultChunk ) );
+			initTable( openTableChunk( storageLocation.defaultChunk, selectInitialColumns() ) );
 		}
 
 		// load and join internal table chunks
@@ -120,6 +172,9 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		for ( StorageLocation storageLocation : storageLocations )
 			joinTable( openExternalTableChunk( storageLocation ) );
 
+		if ( tableChunks.size() > 0 || storageLocations.size() > 0 )
+			columnSchema = new ColumnSchema( table );
+
 		synchronized ( affineTransform3D )
 		{
 			if ( updateTransforms )
@@ -132,16 +187,91 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 				affineTransform3D = new AffineTransform3D();
 			}
 		}
+
+		// only now, such that lock-free readers do not
+		// skip the update before the columns are joined
+		updatedVersion = version;
 	}
 
 	private Table openTableChunk( String tableChunk )
+	{
+		return openTableChunk( tableChunk, null );
+	}
+
+	private Table openTableChunk( String tableChunk, @Nullable Collection< String > columns )
 	{
 		chunkToStatus.put( tableChunk, Status.Opening );
-		final Table table = TableOpener.open( storageLocation, tableChunk, tableDataFormat );
+		final Table table = TableOpener.open( storageLocation, tableChunk, tableDataFormat, columns );
 		chunkToStatus.put( tableChunk, Status.Open );
 		return table;
 	}
 
+	// Returns the columns of the default chunk that are loaded right away,
+	// and defers the others; null: all columns are loaded.
+	@Nullable
+	private Collection< String > selectInitialColumns()
+	{
+		if ( requiredColumns == null )
+			return null;
+
+		final List< String > columnNames = TableOpener.readColumnNames( storageLocation, storageLocation.defaultChunk, tableDataFormat );
+		if ( columnNames == null )
+			return null;
+
+		final Collection< String > creatorColumns = annotationCreator.requiredColumns( columnNames );
+		if ( creatorColumns == null )
+			return null;
+
+		final Set< String > columns = new LinkedHashSet<>( creatorColumns );
+		columns.addAll( requiredColumns );
+		columns.retainAll( columnNames );
+
+		final Set< String > deferredColumns = new LinkedHashSet<>( columnNames );
+		deferredColumns.removeAll( columns );
+		this.deferredColumns = Collections.unmodifiableSet( deferredColumns );
+
+		return columns;
+	}
+
+	// Loads deferred columns of the default chunk.
+	// The chunk is read again, but only the requested columns are parsed,
+	// which have the same row order as the already loaded ones.
+	// Thus, they are added by row, because the join by the id columns
+	// requires all of them, e.g. also the label image column of
+	// tables that annotate several images.
+	private synchronized void loadDeferredColumns( Collection< String > columnNames )
+	{
+		final Set< String > deferredColumns = new LinkedHashSet<>( this.deferredColumns );
+		final List< String > columns = columnNames.stream().filter( deferredColumns::contains ).collect( Collectors.toList() );
+		if ( columns.isEmpty() )
+			return; // loaded concurrently, or not in the default chunk
+
+		updateIfNeeded();
+
+		final Table deferredTable = TableOpener.open( storageLocation, storageLocation.defaultChunk, tableDataFormat, columns );
+		if ( deferredTable.rowCount() != table.rowCount() )
+			throw new RuntimeException( "Could not load the columns " + columns + " of table " + dataSourceName + ": the number of rows changed from " + table.rowCount() + " to " + deferredTable.rowCount() + "." );
+
+		// a new table object, such that lock-free readers
+		// do not see the column list while it changes
+		final Table extendedTable = Table.create( table.name(), table.columns().toArray( new Column< ? >[ 0 ] ) );
+		extendedTable.addColumns( deferredTable.columns().toArray( new Column< ? >[ 0 ] ) );
+		table = extendedTable;
+		deferredColumns.removeAll( columns );
+		columnSchema = new ColumnSchema( table );
+		this.deferredColumns = Collections.unmodifiableSet( deferredColumns );
+
+		for ( AnnotationListener< A > listener : listeners.list )
+			for ( String column : columns )
+				listener.columnAdded( column );
+	}
+
+	private void loadAllDeferredColumns()
+	{
+		if ( ! deferredColumns.isEmpty() )
+			loadDeferredColumns( deferredColumns );
+	}
+
 	private Table openExternalTableChunk( StorageLocation storageLocation )
 	{
 		externalChunkToStatus.put( storageLocation, Status.Opening );
@@ -211,6 +341,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		// Currently, this only concerns the SpotAnnotations.
 		table.removeColumns( annotationCreator.removeColumns() );
 
+		columnSchema = new ColumnSchema( table );
 	}
 
 	public Table getTable()
@@ -218,28 +349,43 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		return table;
 	}
 
+	/**
+	 * @return the table, which contains the given column
+	 *         if it is in the table at all
+	 */
+	public Table getTable( String columnName )
+	{
+		if ( deferredColumns.contains( columnName ) )
+			loadDeferredColumns( Collections.singletonList( columnName ) );
+
+		return table;
+	}
+
 	@Override
 	public List< String > columnNames()
 	{
-		update();
+		updateIfNeeded();
+		loadAllDeferredColumns();
 
-		return table.columnNames();
+		return columnSchema.columnNames;
 	}
 
 	@Override
 	public List< String > numericColumnNames()
 	{
-		update();
+		updateIfNeeded();
+		loadAllDeferredColumns();
 
-		return table.numericColumns().stream().map( c -> c.name() ).collect( Collectors.toList() );
+		return columnSchema.numericColumnNames;
 	}
 
 	@Override
-	public synchronized Class< ? > columnClass( String columnName )
+	public Class< ? > columnClass( String columnName )
 	{
-		update();
-		final ColumnType type = table.column( columnName ).type();
-		final Class< ? > columnClass = TableSawColumnTypes.typeToClass.get( type );
+		updateIfNeeded();
+		getTable( columnName );
+
+		final Class< ? > columnClass = columnSchema.columnClasses.get( columnName );
 		if ( columnClass == null )
 			throw new RuntimeException("Could determine the class of column " + columnName );
 		return columnClass;
@@ -248,7 +394,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	@Override
 	public int numAnnotations()
 	{
-		update();
+		updateIfNeeded();
 
 		return annotations.size();
 	}
@@ -256,7 +402,16 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	@Override
 	public synchronized int rowIndexOf( A annotation )
 	{
-		update();
+		updateIfNeeded();
+
+		// constant time for the annotations created by this model,
+		// which know their row, e.g. for coloring by a column
+		if ( annotation instanceof AbstractTableSawAnnotation )
+		{
+			final int rowIndex = ( ( AbstractTableSawAnnotation ) annotation ).rowIndex;
+			if ( rowIndex < annotations.size() && annotations.get( rowIndex ) == annotation )
+				return rowIndex;
+		}
 
 		// TODO a Map may be more efficient, but
 		//   since this method is not called very frequently
@@ -273,22 +428,28 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	}
 
 	@Override
-	public synchronized A annotation( int rowIndex )
+	public A annotation( int rowIndex )
 	{
-		update();
-		return  annotations.get( rowIndex );
+		updateIfNeeded();
+
+		return annotations.get( rowIndex );
 	}
 
 	@Override
-	public void loadTableChunk( String tableChunk )
+	public synchronized void loadTableChunk( String tableChunk )
 	{
+		// e.g. when a view with cached data is shown again
+		if ( chunkToStatus.containsKey( tableChunk ) ) return;
+
 		chunkToStatus.put( tableChunk, Status.Closed );
+		requestedVersion.incrementAndGet();
 	}
 
 	@Override
-	public void loadExternalTableChunk( StorageLocation location )
+	public synchronized void loadExternalTableChunk( StorageLocation location )
 	{
 		externalChunkToStatus.put( location, Status.Closed );
+		requestedVersion.incrementAndGet();
 	}
 
 //	@Override
@@ -315,13 +476,22 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	@Override
 	public Pair< Double, Double > getMinMax( String columnName )
 	{
-		return getColumnMinMax( columnName, annotations() );
+		return getColumnMinMax( numberColumnAccessor( columnName ), numAnnotations() );
+	}
+
+	@Override
+	public synchronized NumberColumnAccessor numberColumnAccessor( String columnName )
+	{
+		updateIfNeeded();
+		getTable( columnName );
+
+		return new TableSawNumberColumnAccessor( this, columnName );
 	}
 
 	@Override
 	public synchronized ArrayList< A > annotations()
 	{
-		update();
+		updateIfNeeded();
 
 		return annotations;
 	}
@@ -329,7 +499,8 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	@Override
 	public void addStringColumn( String columnName )
 	{
-		update();
+		updateIfNeeded();
+		getTable( columnName );
 
 		if ( ! table.containsColumn( columnName ) )
 		{
@@ -337,6 +508,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 			Arrays.fill( strings, DefaultValues.NONE );
 			final StringColumn stringColumn = StringColumn.create( columnName, strings );
 			table.addColumns( stringColumn );
+			columnSchema = new ColumnSchema( table );
 
 			for ( AnnotationListener< A > listener : listeners.list )
 				listener.columnAdded( columnName );
@@ -362,6 +534,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 			this.updateTransforms = true;
 			this.affineTransform3D.preConcatenate( affineTransform3D );
 		}
+		requestedVersion.incrementAndGet();
 	}
 
 	@Override
@@ -371,4 +544,28 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		if ( table != null )
 			listener.annotationsAdded( annotations() );
 	}
+
+	/*
+	 * Immutable snapshot of the column names and classes of the table.
+	 */
+	private static class ColumnSchema
+	{
+		private final List< String > columnNames;
+		private final List< String > numericColumnNames;
+		private final Map< String, Class< ? > > columnClasses;
+
+		ColumnSchema( Table table )
+		{
+			columnNames = Collections.unmodifiableList( new ArrayList<>( table.columnNames() ) );
+			numericColumnNames = Collections.unmodifiableList( table.numericColumns().stream().map( c -> c.name() ).collect( Collectors.toList() ) );
+			final Map< String, Class< ? > > classes = new HashMap<>();
+			for ( Column< ? > column : table.columns() )
+			{
+				final Class< ? > columnClass = TableSawColumnTypes.typeToClass.get( column.type() );
+				if ( columnClass != null )
+					classes.put( column.name(), columnClass );
+			}
+			columnClasses = Collections.unmodifiableMap( classes );
+		}
+	}
 }
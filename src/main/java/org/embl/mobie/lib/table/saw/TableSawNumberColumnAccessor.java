@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import org.embl.mobie.lib.table.NumberColumnAccessor;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.NumericColumn;
+import tech.tablesaw.api.Table;
+
+class TableSawNumberColumnAccessor implements NumberColumnAccessor
+{
+	private final TableSawAnnotationTableModel< ? > model;
+	private final String columnName;
+	private volatile ResolvedColumn resolvedColumn;
+
+	public TableSawNumberColumnAccessor( TableSawAnnotationTableModel< ? > model, String columnName )
+	{
+		this.model = model;
+		this.columnName = columnName;
+		this.resolvedColumn = new ResolvedColumn( model.getTable( columnName ) );
+	}
+
+	@Override
+	public double getDouble( int rowIndex )
+	{
+		return column().getDouble( rowIndex );
+	}
+
+	@Override
+	public int getInt( int rowIndex )
+	{
+		final NumericColumn< ? > column = column();
+		if ( column instanceof IntColumn )
+			return ( ( IntColumn ) column ).getInt( rowIndex );
+		else
+			return ( int ) column.getDouble( rowIndex );
+	}
+
+	private NumericColumn< ? > column()
+	{
+		// the table object within the model changes
+		// when additional table chunks are joined
+		ResolvedColumn resolvedColumn = this.resolvedColumn;
+		final Table table = model.getTable();
+		if ( resolvedColumn.table != table )
+		{
+			resolvedColumn = new ResolvedColumn( table );
+			this.resolvedColumn = resolvedColumn;
+		}
+		return resolvedColumn.column;
+	}
+
+	private class ResolvedColumn
+	{
+		final Table table;
+		final NumericColumn< ? > column;
+
+		ResolvedColumn( Table table )
+		{
+			this.table = table;
+			this.column = table.numberColumn( columnName );
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import net.imglib2.FinalRealInterval;
+import net.imglib2.RealInterval;
+import net.imglib2.realtransform.AffineTransform3D;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Holds the label ids, time points, sources, anchors and bounding boxes
+ * of all segments of a table in primitive arrays (one entry per row),
+ * from which the {@link TableSawAnnotatedSegment}s read their values.
+ *
+ * Positions and bounding boxes are always 3D.
+ *
+ * Reads do not lock: the bounding box array is published via a volatile
+ * reference and the per dimension accessors do not allocate.
+ * Writes are synchronized, but a bounding box that is read while
+ * it is being set may be seen partially updated.
+ */
+public class TableSawSegmentStore
+{
+	private final int numSegments;
+	private final int[] labelIds;
+	private final int[] timePoints; // null: all segments are at time point 0
+	private final String[] sources; // the distinct sources
+	private final int[] sourceIndices; // null: all segments are in sources[ 0 ]
+	private final double[] positions; // x, y, z per segment
+	private volatile double[] boundingBoxes; // min x, y, z, max x, y, z per segment; null or NaN: no bounding box
+
+	public TableSawSegmentStore(
+			int[] labelIds,
+			@Nullable int[] timePoints,
+			String[] sources,
+			@Nullable int[] sourceIndices,
+			double[] positions,
+			@Nullable double[] boundingBoxes )
+	{
+		this.numSegments = labelIds.length;
+		this.labelIds = labelIds;
+		this.timePoints = timePoints;
+		this.sources = sources;
+		this.sourceIndices = sourceIndices;
+		this.positions = positions;
+		this.boundingBoxes = boundingBoxes;
+	}
+
+	public int size()
+	{
+		return numSegments;
+	}
+
+	public int label( int rowIndex )
+	{
+		return labelIds[ rowIndex ];
+	}
+
+	public int timePoint( int rowIndex )
+	{
+		return timePoints == null ? 0 : timePoints[ rowIndex ];
+	}
+
+	public String source( int rowIndex )
+	{
+		return sourceIndices == null ? sources[ 0 ] : sources[ sourceIndices[ rowIndex ] ];
+	}
+
+	public double getDoublePosition( int rowIndex, int d )
+	{
+		return positions[ 3 * rowIndex + d ];
+	}
+
+	// Returns a copy; use getDoublePosition to avoid the allocation.
+	public double[] positionAsDoubleArray( int rowIndex )
+	{
+		return Arrays.copyOfRange( positions, 3 * rowIndex, 3 * rowIndex + 3 );
+	}
+
+	public boolean hasBoundingBox( int rowIndex )
+	{
+		final double[] boundingBoxes = this.boundingBoxes;
+		return boundingBoxes != null && ! Double.isNaN( boundingBoxes[ 6 * rowIndex ] );
+	}
+
+	public double realMin( int rowIndex, int d )
+	{
+		final double[] boundingBoxes = this.boundingBoxes;
+		return boundingBoxes == null ? Double.NaN : boundingBoxes[ 6 * rowIndex + d ];
+	}
+
+	public double realMax( int rowIndex, int d )
+	{
+		final double[] boundingBoxes = this.boundingBoxes;
+		return boundingBoxes == null ? Double.NaN : boundingBoxes[ 6 * rowIndex + 3 + d ];
+	}
+
+	// Returns a copy; use realMin and realMax to avoid the allocation.
+	public RealInterval boundingBox( int rowIndex )
+	{
+		final double[] boundingBoxes = this.boundingBoxes;
+		final int offset = 6 * rowIndex;
+		if ( boundingBoxes == null || Double.isNaN( boundingBoxes[ offset ] ) )
+			return null;
+
+		return FinalRealInterval.wrap(
+				Arrays.copyOfRange( boundingBoxes, offset, offset + 3 ),
+				Arrays.copyOfRange( boundingBoxes, offset + 3, offset + 6 ) );
+	}
+
+	public synchronized void setBoundingBox( int rowIndex, @Nullable RealInterval boundingBox )
+	{
+		double[] boundingBoxes = this.boundingBoxes;
+		if ( boundingBoxes == null )
+		{
+			if ( boundingBox == null ) return;
+			boundingBoxes = new double[ 6 * numSegments ];
+			Arrays.fill( boundingBoxes, Double.NaN );
+			// publish only once filled
+			this.boundingBoxes = boundingBoxes;
+		}
+
+		final int offset = 6 * rowIndex;
+		for ( int d = 0; d < 3; d++ )
+		{
+			// 2D bounding boxes are stored with z = 0
+			final boolean hasDimension = boundingBox != null && d < boundingBox.numDimensions();
+			boundingBoxes[ offset + d ] = boundingBox == null ? Double.NaN : hasDimension ? boundingBox.realMin( d ) : 0;
+			boundingBoxes[ offset + 3 + d ] = boundingBox == null ? Double.NaN : hasDimension ? boundingBox.realMax( d ) : 0;
+		}
+	}
+
+	public void transform( int rowIndex, AffineTransform3D affineTransform3D )
+	{
+		final double[] position = positionAsDoubleArray( rowIndex );
+		affineTransform3D.apply( position, position );
+		System.arraycopy( position, 0, positions, 3 * rowIndex, 3 );
+
+		final RealInterval boundingBox = boundingBox( rowIndex );
+		if ( boundingBox != null )
+			setBoundingBox( rowIndex, affineTransform3D.estimateBounds( boundingBox ) );
+	}
+}
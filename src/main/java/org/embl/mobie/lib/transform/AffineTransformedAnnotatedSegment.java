@@ -71,8 +71,11 @@ public class AffineTransformedAnnotatedSegment< AS extends AnnotatedSegment > im
 	{
 		if ( position == null )
 		{
-			position = new double[ 3 ];
-			affineTransform3D.apply( annotatedSegment.positionAsDoubleArray(), position );
+			final double[] position = new double[ 3 ];
+			for ( int d = 0; d < 3; d++ )
+				position[ d ] = annotatedSegment.getDoublePosition( d );
+			affineTransform3D.apply( position, position );
+			this.position = position;
 		}
 
 		return position;
@@ -169,15 +169,21 @@ public class TransformHelper
 	}
 
 	public static AffineTransform3D createUnnormalizedViewerTransform( AffineTransform3D normalisedTransform, ViewerPanel viewerPanel )
+	{
+		return createUnnormalizedViewerTransform( normalisedTransform, new int[]{ viewerPanel.getDisplay().getWidth(), viewerPanel.getDisplay().getHeight() } );
+	}
+
+	// For a viewer window of the given dimensions, which does not need to exist.
+	public static AffineTransform3D createUnnormalizedViewerTransform( AffineTransform3D normalisedTransform, int[] windowDimensions )
 	{
 		final AffineTransform3D transform = normalisedTransform.copy();
 
-		final int bdvWindowWidth = viewerPanel.getDisplay().getWidth();
+		final int bdvWindowWidth = windowDimensions[ 0 ];
 		final Scale3D scale = new Scale3D( 1.0 / bdvWindowWidth, 1.0 / bdvWindowWidth, 1.0 / bdvWindowWidth );
 		transform.preConcatenate( scale.inverse() );
 
 		AffineTransform3D translate = new AffineTransform3D();
-		translate.translate( BdvPlaygroundHelper.getWindowCentreInPixelUnits( viewerPanel ) );
+		translate.translate( windowDimensions[ 0 ] / 2.0, windowDimensions[ 1 ] / 2.0, 0.0 );
 
 		transform.preConcatenate( translate );
 
@@ -215,6 +221,12 @@ public class TransformHelper
 	}
 
 	public static AffineTransform3D getIntervalViewerTransform( BdvHandle bdv, RealInterval interval  )
+	{
+		return getIntervalViewerTransform( interval, getWindowDimensions( bdv ) );
+	}
+
+	// For a viewer window of the given dimensions, which does not need to exist.
+	public static AffineTransform3D getIntervalViewerTransform( RealInterval interval, int[] bdvWindowDimensions )
 	{
 		final AffineTransform3D affineTransform3D = new AffineTransform3D();
 
@@ -226,8 +238,6 @@ public class TransformHelper
 		}
 		affineTransform3D.translate( centerPosition );
 
-		int[] bdvWindowDimensions = getWindowDimensions( bdv );
-
 		double scale = Double.MAX_VALUE;
 		for ( int d = 0; d < 2; d++ )
 		{
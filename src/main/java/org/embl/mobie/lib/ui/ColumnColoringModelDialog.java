@@ -79,7 +79,7 @@ public class ColumnColoringModelDialog< A extends Annotation>
 		if ( LUTs.isNumeric( lut ) )
 		{
 			final Pair< Double, Double > minMax = table.getMinMax( columnName );
-			return ColoringModels.createNumericModel( columnName, lut, minMax, true );
+			return ColoringModels.createNumericModel( columnName, lut, minMax, table, true );
 		}
 		else if ( LUTs.isCategorical( lut ) )
 		{
@@ -61,7 +61,9 @@ import org.embl.mobie.lib.image.StitchedImage;
 import org.embl.mobie.lib.plot.ScatterPlotSettings;
 import org.embl.mobie.lib.plot.ScatterPlotView;
 import org.embl.mobie.lib.select.MoBIESelectionModel;
+import org.embl.mobie.lib.select.SelectionModel;
 import org.embl.mobie.lib.serialize.DataSource;
+import org.embl.mobie.lib.serialize.JsonHelper;
 import org.embl.mobie.lib.serialize.View;
 import org.embl.mobie.lib.serialize.display.AbstractAnnotationDisplay;
 import org.embl.mobie.lib.serialize.display.Display;
@@ -69,18 +71,20 @@ import org.embl.mobie.lib.serialize.display.ImageDisplay;
 import org.embl.mobie.lib.serialize.display.RegionDisplay;
 import org.embl.mobie.lib.serialize.display.SegmentationDisplay;
 import org.embl.mobie.lib.serialize.display.SpotDisplay;
+import org.embl.mobie.lib.serialize.transformation.AbstractImageTransformation;
 import org.embl.mobie.lib.serialize.transformation.AffineTransformation;
 import org.embl.mobie.lib.serialize.transformation.CropTransformation;
 import org.embl.mobie.lib.serialize.transformation.GridTransformation;
 import org.embl.mobie.lib.serialize.transformation.MergedGridTransformation;
 import org.embl.mobie.lib.serialize.transformation.TimepointsTransformation;
 import org.embl.mobie.lib.serialize.transformation.Transformation;
-import org.embl.mobie.lib.source.AnnotationType;
 import org.embl.mobie.lib.image.CroppedImage;
 import org.embl.mobie.lib.source.SourceHelper;
 import org.embl.mobie.lib.table.AnnData;
 import org.embl.mobie.lib.table.AnnotationTableModel;
 import org.embl.mobie.lib.table.ConcatenatedAnnotationTableModel;
+import org.embl.mobie.lib.table.LazyAnnotatedSegmentTableModel;
+import org.embl.mobie.lib.table.TransformedAnnotationTableModel;
 import org.embl.mobie.lib.table.RegionDisplayAnnDataCreator;
 import org.embl.mobie.lib.table.TableView;
 import org.embl.mobie.lib.transform.viewer.ImageZoomViewerTransform;
@@ -103,10 +107,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ViewManager
@@ -129,7 +136,9 @@ public class ViewManager
 		this.userInterface = userInterface;
 		currentDisplays = new ArrayList<>();
 		currentTransformations = new ArrayList<>();
-		sliceViewer = new SliceViewer( moBIE, is2D );
+		// without a user interface, e.g. on a headless machine,
+		// the views are only opened, see openHeadless
+		sliceViewer = userInterface == null ? null : new SliceViewer( moBIE, is2D );
 		universeManager = new UniverseManager();
 		additionalViewsLoader = new AdditionalViewsLoader( moBIE );
 		viewSaver = new ViewSaver( moBIE );
@@ -236,6 +245,13 @@ public class ViewManager
 		final long startTime = System.currentTimeMillis();
 		IJ.log( "Opening view: " + view.getName() );
 
+		if ( sliceViewer == null )
+		{
+			openHeadless( view );
+			IJ.log("Opened view: " + view.getName() + " in " + (System.currentTimeMillis() - startTime) + " ms." );
+			return;
+		}
+
 		if ( view.isExclusive() )
 		{
 			removeAllSourceDisplays( true );
@@ -245,10 +261,9 @@ public class ViewManager
 		final boolean viewerWasEmpty = currentDisplays.size() == 0;
 
 		// init and transform the data of this view
-		// currently, data is reloaded every time a view is shown
-		// this is a bit expensive, but simpler and has the
-		// advantage that one could change the data on disk
-		// and use MoBIE to interactively view changes
+		// data that has been opened for a recently shown view
+		// is taken from the cache; to see changes of the
+		// data on disk use {@code reloadCurrentView()}
 		initData( view );
 
 		// set the viewer transform *after* initialising the data
@@ -305,6 +320,47 @@ public class ViewManager
 		IJ.log("Opened view: " + view.getName() + " in " + (System.currentTimeMillis() - startTime) + " ms." );
 	}
 
+	/*
+	 * Initialises the data of the view and creates the sources of its displays,
+	 * as they are shown in the slice viewer, but without showing them.
+	 * This works without a display, such that the sources can be rendered
+	 * on a headless machine, e.g. by the TiledScreenShotExporter.
+	 */
+	private void openHeadless( View view )
+	{
+		initData( view );
+
+		for ( Display< ? > display : view.displays() )
+		{
+			if ( currentDisplays.contains( display ) ) continue;
+
+			initImages( display );
+
+			if ( display instanceof ImageDisplay )
+			{
+				ImageSliceView.createSourceAndConverters( ( ImageDisplay ) display );
+			}
+			else if ( display instanceof AbstractAnnotationDisplay )
+			{
+				final AbstractAnnotationDisplay< ? > annotationDisplay = ( AbstractAnnotationDisplay< ? > ) display;
+				initAnnotationModels( annotationDisplay );
+				AnnotationSliceView.createSourceAndConverters( annotationDisplay );
+			}
+
+			currentDisplays.add( display );
+		}
+	}
+
+	// Forgets all cached data and shows the current
+	// view again, such that the data is reloaded from disk.
+	public synchronized void reloadCurrentView()
+	{
+		final View view = createViewFromCurrentState( null, true, true );
+		view.setName( "current view" );
+		DataStore.clearCache();
+		show( view );
+	}
+
 	// initialize and transform
 	public void initData( View view )
 	{
@@ -317,6 +373,23 @@ public class ViewManager
 		// (other sources may be created later,
 		// by a display or transformation)
 		final List< DataSource > dataSources = moBIE.getDataSources( sourceToTransformOrDisplay.keySet() );
+		addRequiredTableColumns( view, dataSources );
+
+		final List< Transformation > transformations = view.getTransformations();
+
+		// if all images of this view are cached,
+		// e.g. because the view has been shown recently,
+		// reuse them without opening or transforming anything
+		final Map< String, String > imageKeys = getImageKeys( dataSources, transformations );
+		if ( putCachedImages( imageKeys ) )
+		{
+			// region tables
+			moBIE.initDataSources( dataSources.stream().filter( dataSource -> imageKeys.get( dataSource.getName() ) == null ).collect( Collectors.toList() ) );
+			if ( transformations != null )
+				currentTransformations.addAll( transformations );
+			initRegionImages( view );
+			return;
+		}
 
 		for ( DataSource dataSource : dataSources )
 		{
@@ -352,13 +425,16 @@ public class ViewManager
 		// this may create new images with new names
 
 		// TODO factor this out int an image transformer class
-		final List< Transformation > transformations = view.getTransformations();
 		if ( transformations != null )
 		{
 			for ( Transformation transformation : transformations )
 			{
 				currentTransformations.add( transformation );
 
+				final Map< String, String > transformedImageKeys = getTransformedImageKeys( transformation, DataStore::getCacheKey );
+				if ( putCachedImages( transformedImageKeys ) )
+					continue;
+
 				if ( transformation instanceof AffineTransformation )
 				{
 					final AffineTransformation< ? > affineTransformation = ( AffineTransformation< ? > ) transformation;
@@ -372,7 +448,7 @@ public class ViewManager
 									image,
 									affineTransformation.getAffineTransform3D(),
 									affineTransformation.getTransformedImageName( image.getName() ) );
-						DataStore.putImage( transformedImage );
+						DataStore.putImage( transformedImage, transformedImageKeys.get( transformedImage.getName() ) );
 					}
 				}
 				else if ( transformation instanceof CropTransformation )
@@ -387,7 +463,7 @@ public class ViewManager
 								cropTransformation.min,
 								cropTransformation.max,
 								cropTransformation.centerAtOrigin );
-						DataStore.putImage( croppedImage );
+						DataStore.putImage( croppedImage, transformedImageKeys.get( croppedImage.getName() ) );
 					}
 				}
 				else if ( transformation instanceof MergedGridTransformation )
@@ -417,12 +493,12 @@ public class ViewManager
 							}
 						}
 
-						DataStore.putImage( annotatedStitchedImage );
+						DataStore.putImage( annotatedStitchedImage, transformedImageKeys.get( annotatedStitchedImage.getName() ) );
 					}
 					else
 					{
 						final StitchedImage stitchedImage = new StitchedImage( gridImages, metadataImage, mergedGridTransformation.positions, mergedGridTransformation.getName(), mergedGridTransformation.margin );
-						DataStore.putImage( stitchedImage );
+						DataStore.putImage( stitchedImage, transformedImageKeys.get( stitchedImage.getName() ) );
 					}
 				}
 				else if ( transformation instanceof GridTransformation )
@@ -463,7 +539,8 @@ public class ViewManager
 
 					final List< ? extends Image< ? > > transformedImages = ImageTransformer.gridTransform( nestedImages, gridTransformation.transformedNames, gridPositions, tileRealDimensions, gridTransformation.centerAtOrigin, offset );
 
-					DataStore.putImages( transformedImages );
+					for ( Image< ? > transformedImage : transformedImages )
+						DataStore.putImage( transformedImage, transformedImageKeys.get( transformedImage.getName() ) );
 				}
 				else if ( transformation instanceof TimepointsTransformation )
 				{
@@ -479,7 +556,7 @@ public class ViewManager
 										timepointsTransformation.getTimepointsMapping(),
 										timepointsTransformation.isKeep(),
 										timepointsTransformation.getTransformedImageName( image.getName() ) );
-						DataStore.putImage( transformedImage );
+						DataStore.putImage( transformedImage, transformedImageKeys.get( transformedImage.getName() ) );
 					}
 				}
 				else
@@ -489,6 +566,11 @@ public class ViewManager
 			}
 		}
 
+		initRegionImages( view );
+	}
+
+	private void initRegionImages( View view )
+	{
 		// instantiate {@code RegionDisplay}
 		// note that this cannot be done already in MoBIE.initData()
 		// because we need to wait until all images are initialised
@@ -512,103 +594,150 @@ public class ViewManager
 		}
 	}
 
-	public synchronized < A extends Annotation > void show( Display< ? > display )
+	// Returns the cache keys of all images of the view,
+	// i.e. of the data sources and of the images that are
+	// created by the chain of transformations.
+	// Images that cannot be cached have a null key.
+	// the columns by which the annotations are colored
+	// are loaded together with the annotations
+	private static void addRequiredTableColumns( View view, List< DataSource > dataSources )
 	{
-		if ( currentDisplays.contains( display ) ) return;
+		for ( Display< ? > display : view.displays() )
+		{
+			if ( ! ( display instanceof AbstractAnnotationDisplay ) )
+				continue;
 
-		// remove previous images
-		// this is necessary because the object identity of the images
-		// changes when they are reloaded, which
-		// currently is the case when (repeatedly) selecting a view
-		display.images().clear();
+			final String coloringColumnName = ( ( AbstractAnnotationDisplay< ? > ) display ).getColoringColumnName();
+			if ( coloringColumnName == null )
+				continue;
 
-		if ( display instanceof ImageDisplay )
+			for ( DataSource dataSource : dataSources )
+				if ( display.getSources().contains( dataSource.getName() ) )
+					dataSource.getRequiredTableColumns().add( coloringColumnName );
+		}
+	}
+
+	private Map< String, String > getImageKeys( List< DataSource > dataSources, List< Transformation > transformations )
+	{
+		final Map< String, String > imageKeys = new HashMap<>();
+		for ( DataSource dataSource : dataSources )
+			imageKeys.put( dataSource.getName(), moBIE.getCacheKey( dataSource ) );
+
+		if ( transformations != null )
+			for ( Transformation transformation : transformations )
+				imageKeys.putAll( getTransformedImageKeys( transformation, name -> imageKeys.containsKey( name ) ? imageKeys.get( name ) : DataStore.getCacheKey( name ) ) );
+
+		return imageKeys;
+	}
+
+	// Returns the cache keys of the images that the transformation creates,
+	// derived from the transformation and the keys of its input images.
+	// Note that transformations without new image names
+	// replace the input image.
+	private static Map< String, String > getTransformedImageKeys( Transformation transformation, Function< String, String > inputKeys )
+	{
+		final Map< String, String > transformedImageKeys = new HashMap<>();
+		final String transformationKey = transformation.getClass().getName() + JsonHelper.buildGson( false ).toJson( transformation );
+		final List< String > sources = transformation.getSources();
+
+		if ( transformation instanceof MergedGridTransformation )
 		{
-			for ( String name : display.getSources() )
-				display.images().add( ( Image ) DataStore.getImage( name ) );
-			showImageDisplay( ( ImageDisplay ) display );
+			final List< String > keys = sources.stream().map( inputKeys ).collect( Collectors.toList() );
+			final String key = keys.contains( null ) ? null : DataStore.createCacheKey( transformationKey, String.join( ",", keys ) );
+			transformedImageKeys.put( ( ( MergedGridTransformation ) transformation ).getName(), key );
 		}
-		else if ( display instanceof AbstractAnnotationDisplay )
+		else if ( transformation instanceof GridTransformation )
 		{
-			final AbstractAnnotationDisplay< A > annotationDisplay = ( AbstractAnnotationDisplay ) display;
-
-			// create combined AnnData from all images
-			// that are shown
-			for ( String name : display.getSources() )
+			// the position of each image depends on the size of all images
+			final GridTransformation gridTransformation = ( GridTransformation ) transformation;
+			final List< String > keys = sources.stream().map( inputKeys ).collect( Collectors.toList() );
+			final String gridKey = keys.contains( null ) ? null : DataStore.createCacheKey( transformationKey, String.join( ",", keys ) );
+			for ( int gridIndex = 0; gridIndex < gridTransformation.nestedSources.size(); gridIndex++ )
 			{
-				final Image< ? > image = DataStore.getImage( name );
-				annotationDisplay.images().add( ( Image< AnnotationType< A > > ) image );
-			}
-			annotationDisplay.initAnnData();
-
-			// load additional tables (to be merged)
-			final List< String > requestedTableChunks = annotationDisplay.getRequestedTableChunks();
-			if ( requestedTableChunks != null )
-				for ( String tableChunk : requestedTableChunks )
+				final List< String > names = gridTransformation.nestedSources.get( gridIndex );
+				for ( int imageIndex = 0; imageIndex < names.size(); imageIndex++ )
 				{
-					final AnnotationTableModel< A > tableModel = annotationDisplay.getAnnData().getTable();
-					tableModel.loadTableChunk( tableChunk );
+					final String name = names.get( imageIndex );
+					final String transformedName = gridTransformation.transformedNames == null ? name : gridTransformation.transformedNames.get( gridIndex ).get( imageIndex );
+					final String key = gridKey == null ? null : DataStore.createCacheKey( gridKey, inputKeys.apply( name ) );
+					transformedImageKeys.put( transformedName, key );
 				}
-
-			// configure selection model
-			//
-			annotationDisplay.selectionModel = new MoBIESelectionModel<>();
-
-			// set selected segments
-			//
-			final Set< String > selectedAnnotationIds = annotationDisplay.selectedAnnotationIds();
-			if ( selectedAnnotationIds != null )
+			}
+		}
+		else if ( transformation instanceof AbstractImageTransformation )
+		{
+			final AbstractImageTransformation< ?, ? > imageTransformation = ( AbstractImageTransformation< ?, ? > ) transformation;
+			for ( String name : sources )
 			{
-				final Set< A > annotations = annotationDisplay.annotationAdapter().getAnnotations( selectedAnnotationIds );
-				annotationDisplay.selectionModel.setSelected( annotations, true );
+				final String transformedName = imageTransformation.getTransformedImageName( name );
+				final String inputKey = inputKeys.apply( name );
+				final String key = inputKey == null ? null : DataStore.createCacheKey( transformationKey, inputKey );
+				transformedImageKeys.put( transformedName == null ? name : transformedName, key );
 			}
+		}
 
-			// configure coloring model
-			//
-			String lut = annotationDisplay.getLut();
+		return transformedImageKeys;
+	}
 
-			if ( LUTs.isCategorical( lut ) )
-			{
-				CategoricalAnnotationColoringModel< Annotation > coloringModel = ColoringModels.createCategoricalModel( annotationDisplay.getColoringColumnName(), lut, LUTs.TRANSPARENT );
+	// Puts the cached images into the current view,
+	// if all of them are cached; region tables, which have
+	// no key, are kept separately as raw data.
+	private static boolean putCachedImages( Map< String, String > imageKeys )
+	{
+		if ( imageKeys.isEmpty() ) return false;
 
-				if ( LUTs.getLut( lut ) instanceof ColumnARGBLut )
-				{
-					// note that this currently forces loading of the table(s)
-					// for big data this may need some improvement
-					final AnnotationTableModel< A > table = annotationDisplay.getAnnData().getTable();
-					for ( A annotation : table.annotations() )
-					{
-						String argbString = annotation.getValue( annotationDisplay.getColoringColumnName() ).toString();
+		final List< String > cacheKeys = new ArrayList<>();
+		for ( Map.Entry< String, String > entry : imageKeys.entrySet() )
+		{
+			if ( entry.getValue() != null )
+				cacheKeys.add( entry.getValue() );
+			else if ( ! DataStore.containsRawData( entry.getKey() ) )
+				return false;
+		}
 
-						if ( argbString.equals("") )
-							continue;
+		return DataStore.putCachedImages( cacheKeys );
+	}
 
-						final ARGBType argbType = ColorHelper.getARGBType( argbString );
+	// Segments that are created while browsing a segmentation
+	// without a table may be removed again, but not the selected ones.
+	private static void retainSelectedAnnotations( AnnotationTableModel< ? > tableModel, Predicate< Annotation > isSelected )
+	{
+		if ( tableModel instanceof ConcatenatedAnnotationTableModel )
+		{
+			for ( AnnotationTableModel< ? > concatenatedTableModel : ( ( ConcatenatedAnnotationTableModel< ? > ) tableModel ).getTableModels() )
+				retainSelectedAnnotations( concatenatedTableModel, isSelected );
+		}
+		else if ( tableModel instanceof TransformedAnnotationTableModel )
+		{
+			// the selection contains the transformed annotations
+			final TransformedAnnotationTableModel< Annotation, ? > transformedTableModel = ( TransformedAnnotationTableModel ) tableModel;
+			retainSelectedAnnotations( transformedTableModel.getTableModel(), annotation ->
+			{
+				final Annotation transformedAnnotation = transformedTableModel.getTransformedAnnotation( annotation );
+				return transformedAnnotation != null && isSelected.test( transformedAnnotation );
+			} );
+		}
+		else if ( tableModel instanceof LazyAnnotatedSegmentTableModel )
+		{
+			( ( LazyAnnotatedSegmentTableModel ) tableModel ).setRetained( isSelected::test );
+		}
+	}
 
-						coloringModel.assignColor( argbString, argbType.get() );
-					}
-				}
+	public synchronized < A extends Annotation > void show( Display< ? > display )
+	{
+		if ( currentDisplays.contains( display ) ) return;
 
-				coloringModel.setRandomSeed( annotationDisplay.getRandomColorSeed() );
+		initImages( display );
 
-				annotationDisplay.coloringModel = new MobieColoringModel( coloringModel, annotationDisplay.selectionModel, annotationDisplay.getSelectionColor(), annotationDisplay.getOpacityNotSelected() );
-			}
-			else if ( LUTs.isNumeric( lut ) )
-			{
-				NumericAnnotationColoringModel< Annotation > coloringModel
-						= ColoringModels.createNumericModel(
-								annotationDisplay.getColoringColumnName(),
-								lut,
-								annotationDisplay.getValueLimits(),
-						 true
-							);
-
-				annotationDisplay.coloringModel = new MobieColoringModel( coloringModel, annotationDisplay.selectionModel, annotationDisplay.getSelectionColor(), annotationDisplay.getOpacityNotSelected() );
-			}
-			else
-			{
-				throw new UnsupportedOperationException("Coloring LUT " + lut + " is not supported.");
-			}
+		if ( display instanceof ImageDisplay )
+		{
+			showImageDisplay( ( ImageDisplay ) display );
+		}
+		else if ( display instanceof AbstractAnnotationDisplay )
+		{
+			final AbstractAnnotationDisplay< A > annotationDisplay = ( AbstractAnnotationDisplay ) display;
+
+			initAnnotationModels( annotationDisplay );
 
 			// show in slice viewer
 			//
@@ -624,6 +753,97 @@ public class ViewManager
 		currentDisplays.add( display );
 	}
 
+	private static void initImages( Display< ? > display )
+	{
+		// remove previous images
+		// this is necessary because the object identity of the images
+		// changes when they are reloaded, e.g. when
+		// they have been evicted from the cache
+		display.images().clear();
+
+		for ( String name : display.getSources() )
+			display.images().add( ( Image ) DataStore.getImage( name ) );
+	}
+
+	// creates the combined AnnData from all images that are shown,
+	// as well as the selection and coloring models
+	private static < A extends Annotation > void initAnnotationModels( AbstractAnnotationDisplay< A > annotationDisplay )
+	{
+		annotationDisplay.initAnnData();
+
+		// load additional tables (to be merged)
+		final List< String > requestedTableChunks = annotationDisplay.getRequestedTableChunks();
+		if ( requestedTableChunks != null )
+			for ( String tableChunk : requestedTableChunks )
+			{
+				final AnnotationTableModel< A > tableModel = annotationDisplay.getAnnData().getTable();
+				tableModel.loadTableChunk( tableChunk );
+			}
+
+		// configure selection model
+		//
+		annotationDisplay.selectionModel = new MoBIESelectionModel<>();
+		final SelectionModel< A > selectionModel = annotationDisplay.selectionModel;
+		retainSelectedAnnotations( annotationDisplay.getAnnData().getTable(), annotation -> selectionModel.isSelected( ( A ) annotation ) );
+
+		// set selected segments
+		//
+		final Set< String > selectedAnnotationIds = annotationDisplay.selectedAnnotationIds();
+		if ( selectedAnnotationIds != null )
+		{
+			final Set< A > annotations = annotationDisplay.annotationAdapter().getAnnotations( selectedAnnotationIds );
+			annotationDisplay.selectionModel.setSelected( annotations, true );
+		}
+
+		// configure coloring model
+		//
+		String lut = annotationDisplay.getLut();
+
+		if ( LUTs.isCategorical( lut ) )
+		{
+			CategoricalAnnotationColoringModel< Annotation > coloringModel = ColoringModels.createCategoricalModel( annotationDisplay.getColoringColumnName(), lut, LUTs.TRANSPARENT );
+
+			if ( LUTs.getLut( lut ) instanceof ColumnARGBLut )
+			{
+				// note that this currently forces loading of the table(s)
+				// for big data this may need some improvement
+				final AnnotationTableModel< A > table = annotationDisplay.getAnnData().getTable();
+				for ( A annotation : table.annotations() )
+				{
+					String argbString = annotation.getValue( annotationDisplay.getColoringColumnName() ).toString();
+
+					if ( argbString.equals("") )
+						continue;
+
+					final ARGBType argbType = ColorHelper.getARGBType( argbString );
+
+					coloringModel.assignColor( argbString, argbType.get() );
+				}
+			}
+
+			coloringModel.setRandomSeed( annotationDisplay.getRandomColorSeed() );
+
+			annotationDisplay.coloringModel = new MobieColoringModel( coloringModel, annotationDisplay.selectionModel, annotationDisplay.getSelectionColor(), annotationDisplay.getOpacityNotSelected() );
+		}
+		else if ( LUTs.isNumeric( lut ) )
+		{
+			NumericAnnotationColoringModel< A > coloringModel
+					= ColoringModels.createNumericModel(
+							annotationDisplay.getColoringColumnName(),
+							lut,
+							annotationDisplay.getValueLimits(),
+							annotationDisplay.getAnnData().getTable(),
+					 true
+						);
+
+			annotationDisplay.coloringModel = new MobieColoringModel( coloringModel, annotationDisplay.selectionModel, annotationDisplay.getSelectionColor(), annotationDisplay.getOpacityNotSelected() );
+		}
+		else
+		{
+			throw new UnsupportedOperationException("Coloring LUT " + lut + " is not supported.");
+		}
+	}
+
 	public synchronized void removeAllSourceDisplays( boolean closeImgLoader )
 	{
 		// create a copy of the currently shown displays...
@@ -719,6 +939,8 @@ public class ViewManager
 				( ( SegmentationDisplay ) annotationDisplay ).segmentVolumeViewer.close();
 			}
 
+			annotationDisplay.closeAnnData();
+
 		}
 		else if ( display instanceof ImageDisplay )
 		{
@@ -762,6 +984,13 @@ public class ViewManager
 
 	public void close()
 	{
+		if ( sliceViewer == null )
+		{
+			// headless, see openHeadless
+			currentDisplays.clear();
+			return;
+		}
+
 		IJ.log( "Closing BDV..." );
 		removeAllSourceDisplays( true );
 		sliceViewer.getBdvHandle().close();
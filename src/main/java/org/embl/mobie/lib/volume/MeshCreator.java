@@ -53,6 +53,8 @@ import sc.fiji.bdvpg.sourceandconverter.SourceAndConverterHelper;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 public class MeshCreator< S extends Segment >
 {
@@ -65,7 +67,7 @@ public class MeshCreator< S extends Segment >
 		this.maxNumSegmentVoxels = maxNumSegmentVoxels;
 	}
 
-	private float[] createMesh( S segment, @Nullable double[] targetVoxelSpacing, Source< AnnotationType< S > > source )
+	private float[] createMesh( S segment, @Nullable double[] targetVoxelSpacing, Source< AnnotationType< S > > source, BooleanSupplier isCanceled )
 	{
 		Integer renderingLevel = getLevel( segment, source, targetVoxelSpacing );
 
@@ -128,10 +130,14 @@ public class MeshCreator< S extends Segment >
 				voxelBounds,
 				new AffineTransform3D(),
 				new int[]{ 1, 1, 1 },
-				() -> false );
+				isCanceled );
 
 		final float[] mesh = meshExtractor.extractMesh( new AnnotationType( segment ) );
 
+		// the extraction stops early if it is canceled
+		if ( isCanceled.getAsBoolean() )
+			throw new CancellationException( "The mesh computation for segment " + segment.label() + " was canceled." );
+
 		if ( mesh.length == 0 )
 			throw new RuntimeException("The mesh has zero vertices.");
 
@@ -140,20 +146,26 @@ public class MeshCreator< S extends Segment >
 		return transformedMesh;
 	}
 
-	public CustomTriangleMesh createSmoothCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > > source )
+	// Throws a {@code CancellationException} if {@code isCanceled}
+	// becomes true while the mesh is computed.
+	public CustomTriangleMesh createSmoothCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > > source, BooleanSupplier isCanceled )
 	{
-		CustomTriangleMesh triangleMesh = createCustomTriangleMesh( segment, voxelSpacing, recomputeMesh, source );
+		CustomTriangleMesh triangleMesh = createCustomTriangleMesh( segment, voxelSpacing, recomputeMesh, source, isCanceled );
 		MeshEditor.smooth2( triangleMesh, meshSmoothingIterations );
 		return triangleMesh;
 	}
 
-	private CustomTriangleMesh createCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > >  source )
+	private CustomTriangleMesh createCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > >  source, BooleanSupplier isCanceled )
 	{
 		if ( segment.mesh() == null || recomputeMesh )
 		{
 			try
 			{
-				segment.setMesh( createMesh( segment, voxelSpacing, source ) );
+				segment.setMesh( createMesh( segment, voxelSpacing, source, isCanceled ) );
+			}
+			catch ( CancellationException e )
+			{
+				throw e;
 			}
 			catch ( Exception e )
 			{
@@ -35,6 +35,7 @@ import ij3d.Content;
 import ij3d.Image3DUniverse;
 import ij3d.ImageWindow3D;
 import ij3d.UniverseListener;
+import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.serialize.display.VisibilityListener;
 import org.embl.mobie.lib.annotation.Segment;
 import org.embl.mobie.lib.color.ColorHelper;
@@ -57,7 +58,10 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SegmentVolumeViewer< S extends Segment > implements ColoringListener, SelectionListener< S >
 {
@@ -83,7 +87,14 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 	private final MeshCreator< S > meshCreator;
 	private List< VisibilityListener > listeners = new ArrayList<>(  );
 	private ImageWindow3D window;
-	private Image3DUniverse universe;
+	private volatile Image3DUniverse universe;
+
+	// Meshes are computed on the {@code ThreadHelper.meshExecutorService}
+	// and added to the universe by the {@code ThreadHelper.universeExecutorService}.
+	// Each update of the view increments the {@code meshGeneration},
+	// which cancels the mesh computations of the previous update.
+	private final List< Future< ? > > meshFutures = new ArrayList<>();
+	private final AtomicInteger meshGeneration = new AtomicInteger();
 
 	public SegmentVolumeViewer(
 			final SelectionModel< S > selectionModel,
@@ -146,12 +157,15 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 
 	private void updateSegmentColors()
 	{
-		for ( S segment : segmentToContent.keySet() )
+		ThreadHelper.universeExecutorService.execute( () ->
 		{
-			final Color3f color3f = getColor3f( segment );
-			final Content content = segmentToContent.get( segment );
-			content.setColor( color3f );
-		}
+			for ( S segment : segmentToContent.keySet() )
+			{
+				final Color3f color3f = getColor3f( segment );
+				final Content content = segmentToContent.get( segment );
+				content.setColor( color3f );
+			}
+		} );
 	}
 
 	public synchronized void updateView( boolean recomputeMeshes )
@@ -159,53 +173,68 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 		if ( universe == null )
 			return;
 
-		new Thread( () ->
-		{
-			universe.setAutoAdjustView( true );
-			updateSelectedSegments( recomputeMeshes );
-			removeUnselectedSegments();
-		}).start();
-	}
-
-	private void removeUnselectedSegments( )
-	{
-		final Set< S > selectedSegments = selectionModel.getSelected();
-		final Set< S > currentSegments = segmentToContent.keySet();
-		final Set< S > remove = new HashSet<>();
-
-		for ( S segment : currentSegments )
-			if ( ! selectedSegments.contains( segment ) )
-				remove.add( segment );
+		final int generation = cancelMeshComputations();
 
-		for( S segment : remove )
-			removeSegment( segment );
-	}
+		final Set< S > selected = new HashSet<>( selectionModel.getSelected() );
+		final Set< S > visible = new HashSet<>();
+		for ( S segment : selected )
+			if ( segment.timePoint() == null || segment.timePoint() == currentTimePoint )
+				visible.add( segment );
 
-	private synchronized void updateSelectedSegments( boolean recomputeMeshes )
-	{
-		final Set< S > selected = selectionModel.getSelected();
+		// the removal is queued before the meshes below are added
+		ThreadHelper.universeExecutorService.execute( () ->
+		{
+			final Image3DUniverse universe = this.universe;
+			if ( universe == null ) return;
+			universe.setAutoAdjustView( true );
+			for ( S segment : new ArrayList<>( segmentToContent.keySet() ) )
+				if ( recomputeMeshes || ! visible.contains( segment ) )
+					removeSegment( segment );
+		} );
 
-		for ( S segment : selected )
+		// compute the missing meshes in parallel
+		// and show each of them as soon as it is ready
+		for ( S segment : visible )
 		{
-			if ( segment.timePoint() == null || segment.timePoint() == currentTimePoint )
-			{
-				if ( recomputeMeshes ) removeSegment( segment );
+			if ( ! recomputeMeshes && segmentToContent.containsKey( segment ) )
+				continue;
 
-				if ( ! segmentToContent.containsKey( segment ) )
+			meshFutures.add( ThreadHelper.meshExecutorService.submit( () ->
+			{
+				try
 				{
-					final Source< AnnotationType< S > > source = getSource( segment );
-					final CustomTriangleMesh mesh = meshCreator.createSmoothCustomTriangleMesh( segment, voxelSpacing, recomputeMeshes, source );
-					mesh.setColor( getColor3f( segment ) );
-					addSegmentMeshToUniverse( segment, mesh );
+					final CustomTriangleMesh mesh = meshCreator.createSmoothCustomTriangleMesh( segment, voxelSpacing, recomputeMeshes, getSource( segment ), () -> meshGeneration.get() != generation );
+					ThreadHelper.universeExecutorService.execute( () ->
+					{
+						if ( meshGeneration.get() != generation ) return;
+						mesh.setColor( getColor3f( segment ) );
+						addSegmentMeshToUniverse( segment, mesh );
+					} );
 				}
-			}
-			else // segment is of another time point
-			{
-				removeSegment( segment );
-			}
+				catch ( CancellationException e )
+				{
+					// the selection has changed meanwhile
+				}
+				catch ( Exception e )
+				{
+					e.printStackTrace();
+				}
+			} ) );
 		}
 	}
 
+	// Returns the generation of the next update.
+	private synchronized int cancelMeshComputations()
+	{
+		// tasks that already run stop themselves,
+		// because their generation is outdated
+		final int generation = meshGeneration.incrementAndGet();
+		for ( Future< ? > future : meshFutures )
+			future.cancel( false );
+		meshFutures.clear();
+		return generation;
+	}
+
 	private Source< AnnotationType< S > > getSource( S segment )
 	{
 		for ( Image< AnnotationType< S > > image : images )
@@ -215,10 +244,13 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 		throw new UnsupportedOperationException( "An image segment from " + segment.imageId() + " did not have a corresponding image source."  );
 	}
 
-	private synchronized void removeSegment( S segment )
+	private void removeSegment( S segment )
 	{
 		final Content content = segmentToContent.get( segment );
-		universe.removeContent( content.getName() );
+		if ( content == null ) return;
+		final Image3DUniverse universe = this.universe;
+		if ( universe != null )
+			universe.removeContent( content.getName() );
 		segmentToContent.remove( segment );
 		contentToSegment.remove( content );
 	}
@@ -235,6 +267,7 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 				{
 					public void windowClosing( WindowEvent ev )
 					{
+						cancelMeshComputations();
 						window = null;
 						universe = null;
 						segmentToContent.clear();
@@ -257,7 +290,8 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 			}
 			else
 			{
-				new Thread( () -> removeSegments() ).start();
+				cancelMeshComputations();
+				ThreadHelper.universeExecutorService.execute( () -> removeSegments() );
 			}
 		}
 	}
@@ -273,16 +307,18 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 
 	private void removeSegments()
 	{
-		final Set< S > segments = selectionModel.getSelected();
-
-		for ( S segment : segments )
+		for ( S segment : new ArrayList<>( segmentToContent.keySet() ) )
 		{
 			removeSegment( segment );
 		}
 	}
 
-	private synchronized void addSegmentMeshToUniverse( S segment, CustomTriangleMesh mesh )
+	private void addSegmentMeshToUniverse( S segment, CustomTriangleMesh mesh )
 	{
+		final Image3DUniverse universe = this.universe;
+		if ( universe == null || segmentToContent.containsKey( segment ) )
+			return;
+
 		// below lines were for debugging https://github.com/fiji/3D_Viewer/issues/32
 //		final float volume = mesh.getVolume();
 //		final List< Point3f > mesh1 = mesh.getMesh();
@@ -463,9 +499,9 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 		if ( universe.getContents().size() == 0 ) return;
 		if ( ! segmentToContent.containsKey( selection ) )
 		{
-			// selected segment is not shown in 3d
+			// selected segment is not (yet) shown in 3d
 			// thus select nothing
-			universe.select( null );
+			select( null );
 			return;
 		}
 
@@ -485,13 +521,23 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 
 		// implement "focus" by setting the content "selected",
 		// which will paint a red box around it
-		universe.select( content );
+		select( content );
 
 		// an alternative (addition) would be to also focus
 		// the object by zooming in on it:
 		// focus( content )
 	}
 
+	private void select( Content content )
+	{
+		ThreadHelper.universeExecutorService.execute( () ->
+		{
+			final Image3DUniverse universe = this.universe;
+			if ( universe != null )
+				universe.select( content );
+		} );
+	}
+
 	// TODO: needs improvement; if appears to first zoom out and then in again
 	private void focus( Content content )
 	{
@@ -0,0 +1,174 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import net.imglib2.Cursor;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.type.numeric.ARGBType;
+import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
+
+import java.util.Random;
+
+/**
+ * Measures the throughput of the accumulation in
+ * {@code AccumulateAlphaBlendingProjectorARGB} for 2, 8 and 32 sources
+ * of screen size, comparing the per pixel accumulation over cursors
+ * with floating point alpha (previous implementation) to the row-wise
+ * accumulation over the int[] pixel arrays with integer alpha.
+ *
+ * The maximal difference of any colour channel between the two is
+ * reported as well; it is caused by the integer rounding only.
+ */
+public class BenchmarkAlphaBlendingProjector
+{
+	public static final int WIDTH = 1920;
+	public static final int HEIGHT = 1080;
+	public static final int[] NUM_SOURCES = { 2, 8, 32 };
+	public static final int NUM_ITERATIONS = 10;
+
+	public static void main( String[] args )
+	{
+		final Random random = new Random( 42 );
+
+		for ( int numSources : NUM_SOURCES )
+		{
+			final ArrayImg< ARGBType, IntArray >[] sources = new ArrayImg[ numSources ];
+			final int[][] sourcePixels = new int[ numSources ][];
+			final boolean[] alphaBlending = new boolean[ numSources ];
+			final int[] order = new int[ numSources ];
+			for ( int s = 0; s < numSources; s++ )
+			{
+				sources[ s ] = ArrayImgs.argbs( WIDTH, HEIGHT );
+				sourcePixels[ s ] = sources[ s ].update( null ).getCurrentStorageArray();
+				for ( int i = 0; i < sourcePixels[ s ].length; i++ )
+				{
+					// one third of the pixels is fully transparent, as outside of an image
+					final int alpha = random.nextInt( 3 ) == 0 ? 0 : random.nextInt( 256 );
+					sourcePixels[ s ][ i ] = ( alpha << 24 ) | random.nextInt( 1 << 24 );
+				}
+				alphaBlending[ s ] = s % 2 == 0;
+				order[ s ] = numSources - 1 - s;
+			}
+
+			final ArrayImg< ARGBType, IntArray > previousTarget = ArrayImgs.argbs( WIDTH, HEIGHT );
+			final ArrayImg< ARGBType, IntArray > target = ArrayImgs.argbs( WIDTH, HEIGHT );
+
+			System.out.println( numSources + " sources:" );
+			for ( int iteration = 0; iteration < NUM_ITERATIONS; iteration++ )
+			{
+				long start = System.nanoTime();
+				accumulatePerPixel( sources, previousTarget, alphaBlending, order );
+				final long perPixelNanos = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				accumulateRows( sourcePixels, target.update( null ).getCurrentStorageArray(), alphaBlending, order );
+				final long rowNanos = System.nanoTime() - start;
+
+				System.out.println( String.format( "  per pixel (previous): %6.1f ms; rows: %6.1f ms; speed-up: %.1fx",
+						perPixelNanos / 1e6, rowNanos / 1e6, ( double ) perPixelNanos / rowNanos ) );
+			}
+
+			System.out.println( "  max channel difference: " + maxChannelDifference(
+					previousTarget.update( null ).getCurrentStorageArray(),
+					target.update( null ).getCurrentStorageArray() ) );
+		}
+	}
+
+	private static void accumulatePerPixel( ArrayImg< ARGBType, IntArray >[] sources, ArrayImg< ARGBType, IntArray > target, boolean[] alphaBlending, int[] order )
+	{
+		final Cursor< ARGBType >[] cursors = new Cursor[ sources.length ];
+		for ( int s = 0; s < sources.length; s++ )
+			cursors[ s ] = sources[ s ].cursor();
+
+		final Cursor< ARGBType > targetCursor = target.cursor();
+		while ( targetCursor.hasNext() )
+		{
+			targetCursor.fwd();
+			for ( Cursor< ARGBType > cursor : cursors )
+				cursor.fwd();
+			targetCursor.get().set( getArgbIndexDouble( cursors, alphaBlending, order ) );
+		}
+	}
+
+	private static void accumulateRows( int[][] sourcePixels, int[] targetPixels, boolean[] alphaBlending, int[] order )
+	{
+		final int[][] orderedSources = new int[ order.length ][];
+		final boolean[] orderedAlphaBlending = new boolean[ order.length ];
+		for ( int i = 0; i < order.length; i++ )
+		{
+			orderedSources[ i ] = sourcePixels[ order[ i ] ];
+			orderedAlphaBlending[ i ] = alphaBlending[ order[ i ] ];
+		}
+
+		final int[] red = new int[ WIDTH ];
+		final int[] green = new int[ WIDTH ];
+		final int[] blue = new int[ WIDTH ];
+		for ( int row = 0; row < HEIGHT; row++ )
+			AccumulateAlphaBlendingProjectorARGB.blendRow( orderedSources, orderedAlphaBlending, targetPixels, row * WIDTH, WIDTH, red, green, blue );
+	}
+
+	/*
+	 * The previous accumulation, using floating point alpha.
+	 */
+	private static int getArgbIndexDouble( Cursor< ARGBType >[] accesses, boolean[] alphaBlending, int[] order )
+	{
+		int rAccu = 0, gAccu = 0, bAccu = 0;
+
+		for ( int sourceIndex : order )
+		{
+			final int argb = accesses[ sourceIndex ].get().get();
+			final double alpha = ARGBType.alpha( argb ) / 255.0;
+			if ( alpha == 0 ) continue;
+
+			if ( alphaBlending[ sourceIndex ] )
+			{
+				rAccu *= ( 1 - alpha );
+				gAccu *= ( 1 - alpha );
+				bAccu *= ( 1 - alpha );
+			}
+
+			rAccu += ARGBType.red( argb ) * alpha;
+			gAccu += ARGBType.green( argb ) * alpha;
+			bAccu += ARGBType.blue( argb ) * alpha;
+		}
+
+		return ARGBType.rgba( Math.min( rAccu, 255 ), Math.min( gAccu, 255 ), Math.min( bAccu, 255 ), 0 );
+	}
+
+	private static int maxChannelDifference( int[] a, int[] b )
+	{
+		int max = 0;
+		for ( int i = 0; i < a.length; i++ )
+			for ( int shift = 0; shift < 24; shift += 8 )
+				max = Math.max( max, Math.abs( ( ( a[ i ] >> shift ) & 0xff ) - ( ( b[ i ] >> shift ) & 0xff ) ) );
+		return max;
+	}
+}
@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import org.embl.mobie.lib.annotation.AnnotatedSegment;
+import org.embl.mobie.lib.annotation.DefaultAnnotationAdapter;
+import org.embl.mobie.lib.table.DefaultAnnData;
+import org.embl.mobie.lib.table.LazyAnnotatedSegmentTableModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mimics the multi-threaded rendering of an {@code AnnotatedLabelSource},
+ * where each render thread looks up the annotation of every voxel
+ * via {@code AnnotationAdapter.getAnnotation( source, t, label )}.
+ */
+public class BenchmarkAnnotationAdapter
+{
+	public static final String SOURCE = "segmentation";
+	public static final int NUM_LABELS = 1_000_000;
+	public static final int NUM_VOXELS_PER_THREAD = 20_000_000;
+
+	public static void main( String[] args ) throws Exception
+	{
+		final LazyAnnotatedSegmentTableModel tableModel = new LazyAnnotatedSegmentTableModel( SOURCE );
+		for ( int label = 1; label <= NUM_LABELS; label++ )
+			tableModel.createAnnotation( SOURCE, 0, label );
+
+		final DefaultAnnotationAdapter< AnnotatedSegment > adapter = new DefaultAnnotationAdapter<>( new DefaultAnnData<>( tableModel ) );
+
+		final int numProcessors = Runtime.getRuntime().availableProcessors();
+		for ( int numThreads = 1; numThreads <= numProcessors; numThreads *= 2 )
+		{
+			final ExecutorService executorService = Executors.newFixedThreadPool( numThreads );
+			final List< Future< Long > > futures = new ArrayList<>();
+
+			final long start = System.currentTimeMillis();
+			for ( int thread = 0; thread < numThreads; thread++ )
+			{
+				final int seed = thread;
+				futures.add( executorService.submit( () -> render( adapter, seed ) ) );
+			}
+
+			long numAnnotated = 0;
+			for ( Future< Long > future : futures )
+				numAnnotated += future.get();
+
+			final long durationMillis = System.currentTimeMillis() - start;
+			final long numVoxels = ( long ) numThreads * NUM_VOXELS_PER_THREAD;
+			System.out.println( "Threads: " + numThreads
+					+ "; voxels: " + numVoxels
+					+ "; time [ms]: " + durationMillis
+					+ "; voxels/s: " + String.format( "%.2e", 1000.0 * numVoxels / Math.max( 1, durationMillis ) )
+					+ "; annotated: " + numAnnotated );
+
+			executorService.shutdown();
+		}
+	}
+
+	private static long render( DefaultAnnotationAdapter< AnnotatedSegment > adapter, int seed )
+	{
+		long numAnnotated = 0;
+		int label = seed;
+		for ( int i = 0; i < NUM_VOXELS_PER_THREAD; i++ )
+		{
+			// neighbouring voxels mostly have the same label
+			if ( i % 16 == 0 )
+				label = ( label * 1103515245 + 12345 ) & Integer.MAX_VALUE;
+
+			if ( adapter.getAnnotation( SOURCE, 0, label % ( NUM_LABELS + 1 ) ) != null )
+				numAnnotated++;
+		}
+		return numAnnotated;
+	}
+}
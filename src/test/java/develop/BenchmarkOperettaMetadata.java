@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import org.embl.mobie.lib.hcs.OperettaMetadata;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Compares parsing time and retained heap of a synthetic Operetta Index.xml
+ * for the streaming {@code OperettaMetadata} and a DOM based parser
+ * (as it was used by {@code OperettaMetadata} before).
+ */
+public class BenchmarkOperettaMetadata
+{
+	public static final int NUM_WELLS = 1536;
+	public static final int NUM_SITES = 9;
+	public static final int NUM_CHANNELS = 4;
+
+	public static void main( String[] args ) throws Exception
+	{
+		final File xml = File.createTempFile( "Index", ".xml" );
+		xml.deleteOnExit();
+		writeIndexXml( xml );
+		System.out.println( "Index.xml: " + NUM_WELLS * NUM_SITES * NUM_CHANNELS + " images, " + xml.length() / ( 1024 * 1024 ) + " MB" );
+
+		for ( int iteration = 0; iteration < 3; iteration++ )
+		{
+			System.out.println( "Iteration #" + iteration );
+
+			long usedMemory = usedMemory();
+			long start = System.currentTimeMillis();
+			final HashMap< String, Element > dom = parseDOM( xml );
+			System.out.println( "DOM: " + ( System.currentTimeMillis() - start ) + " ms, " + ( usedMemory() - usedMemory ) / ( 1024 * 1024 ) + " MB retained, " + dom.size() + " images" );
+			dom.clear();
+
+			usedMemory = usedMemory();
+			start = System.currentTimeMillis();
+			final OperettaMetadata metadata = new OperettaMetadata( xml );
+			System.out.println( "StAX: " + ( System.currentTimeMillis() - start ) + " ms, " + ( usedMemory() - usedMemory ) / ( 1024 * 1024 ) + " MB retained, " + metadata.numImages() + " images" );
+		}
+	}
+
+	private static HashMap< String, Element > parseDOM( File xml ) throws Exception
+	{
+		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		Document doc = builder.parse( xml );
+		doc.getDocumentElement().normalize();
+
+		final HashMap< String, Element > filenameToMetadata = new HashMap<>();
+		final NodeList fileNames = doc.getElementsByTagName( "URL" );
+		final int numFiles = fileNames.getLength();
+		for ( int i = 0; i < numFiles; i++ )
+		{
+			final Node item = fileNames.item( i );
+			final Element parentNode = (Element) item.getParentNode();
+			filenameToMetadata.put( item.getTextContent(), parentNode );
+		}
+		return filenameToMetadata;
+	}
+
+	private static long usedMemory()
+	{
+		for ( int i = 0; i < 3; i++ )
+			System.gc();
+		final Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void writeIndexXml( File xml ) throws IOException
+	{
+		try ( BufferedWriter writer = new BufferedWriter( new FileWriter( xml ) ) )
+		{
+			writer.write( "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" );
+			writer.write( "<EvaluationInputData Version=\"2\">\n<Images>\n" );
+			for ( int well = 0; well < NUM_WELLS; well++ )
+			{
+				final int row = well / 48 + 1;
+				final int column = well % 48 + 1;
+				for ( int site = 1; site <= NUM_SITES; site++ )
+				{
+					for ( int channel = 1; channel <= NUM_CHANNELS; channel++ )
+					{
+						final String url = String.format( "r%02dc%02df%02dp01-ch%dsk1fk1fl1.tiff", row, column, site, channel );
+						writer.write( "<Image Version=\"1\">\n" );
+						writer.write( "<id>" + url.replace( ".tiff", "" ) + "</id>\n" );
+						writer.write( "<State>Ok</State>\n" );
+						writer.write( "<URL>" + url + "</URL>\n" );
+						writer.write( "<Row>" + row + "</Row>\n<Col>" + column + "</Col>\n<FieldID>" + site + "</FieldID>\n<PlaneID>1</PlaneID>\n<TimepointID>1</TimepointID>\n" );
+						writer.write( "<ChannelID>" + channel + "</ChannelID>\n<ChannelName>Channel " + channel + "</ChannelName>\n" );
+						writer.write( "<ImageResolutionX Unit=\"m\">2.9869125587591715E-07</ImageResolutionX>\n" );
+						writer.write( "<ImageResolutionY Unit=\"m\">2.9869125587591715E-07</ImageResolutionY>\n" );
+						writer.write( "<ImageSizeX>2160</ImageSizeX>\n<ImageSizeY>2160</ImageSizeY>\n" );
+						writer.write( "<PositionX Unit=\"m\">" + ( site % 3 ) * 6.5E-4 + "</PositionX>\n" );
+						writer.write( "<PositionY Unit=\"m\">" + ( site / 3 ) * 6.5E-4 + "</PositionY>\n" );
+						writer.write( "<PositionZ Unit=\"m\">0</PositionZ>\n<AbsPositionZ Unit=\"m\">0.135</AbsPositionZ>\n" );
+						writer.write( "<ObjectiveMagnification Unit=\"\">40</ObjectiveMagnification>\n<ObjectiveNA Unit=\"\">1.1</ObjectiveNA>\n" );
+						writer.write( "<ExposureTime Unit=\"s\">0.2</ExposureTime>\n<MainExcitationWavelength Unit=\"nm\">650</MainExcitationWavelength>\n" );
+						writer.write( "<MainEmissionWavelength Unit=\"nm\">688</MainEmissionWavelength>\n<AcquisitionType>NipkowConfocal</AcquisitionType>\n" );
+						writer.write( "<ChannelType>Fluorescence</ChannelType>\n<MeasurementTimeOffset Unit=\"s\">0</MeasurementTimeOffset>\n" );
+						writer.write( "<AbsTime>2023-03-14T10:00:00.000+01:00</AbsTime>\n" );
+						writer.write( "</Image>\n" );
+					}
+				}
+			}
+			writer.write( "</Images>\n<Wells>\n" );
+			for ( int well = 0; well < NUM_WELLS; well++ )
+				writer.write( "<Well><id>" + well + "</id><Image id=\"" + well + "\" /></Well>\n" );
+			writer.write( "</Wells>\n</EvaluationInputData>\n" );
+		}
+	}
+}
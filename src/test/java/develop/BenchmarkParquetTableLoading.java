@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import net.tlabs.tablesaw.parquet.TablesawParquetWriteOptions;
+import net.tlabs.tablesaw.parquet.TablesawParquetWriter;
+import org.embl.mobie.lib.io.StorageLocation;
+import org.embl.mobie.lib.table.TableDataFormat;
+import org.embl.mobie.lib.table.saw.TableOpener;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.io.csv.CsvWriteOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares opening a segment table from TSV and from Parquet,
+ * both with all columns and with only the columns that are
+ * needed to create the segments.
+ */
+public class BenchmarkParquetTableLoading
+{
+	public static final int NUM_ROWS = 1_000_000;
+	public static final int NUM_FEATURE_COLUMNS = 20;
+	public static final int NUM_ITERATIONS = 3;
+
+	public static void main( String[] args ) throws IOException
+	{
+		final File directory = Files.createTempDirectory( "mobie-tables" ).toFile();
+		final Table table = createSegmentTable();
+
+		final File tsv = new File( directory, TableDataFormat.MOBIE_DEFAULT_CHUNK );
+		table.write().csv( CsvWriteOptions.builder( tsv ).separator( '\t' ).build() );
+		final File parquet = new File( directory, TableDataFormat.MOBIE_DEFAULT_PARQUET_CHUNK );
+		new TablesawParquetWriter().write( table, TablesawParquetWriteOptions.builder( parquet ).build() );
+
+		System.out.println( "TSV: " + tsv.length() / ( 1024 * 1024 ) + " MB; Parquet: " + parquet.length() / ( 1024 * 1024 ) + " MB" );
+
+		final StorageLocation storageLocation = new StorageLocation();
+		storageLocation.absolutePath = directory.getAbsolutePath();
+		final List< String > segmentColumns = Arrays.asList( "label_id", "anchor_x", "anchor_y", "anchor_z" );
+
+		// log every table opening
+		TableOpener.logTimeThresholdMillis = -1;
+
+		for ( int iteration = 0; iteration < NUM_ITERATIONS; iteration++ )
+		{
+			System.out.println( "Iteration #" + iteration );
+			for ( TableDataFormat format : new TableDataFormat[]{ TableDataFormat.TSV, TableDataFormat.Parquet } )
+			{
+				long start = System.currentTimeMillis();
+				TableOpener.open( storageLocation, format.getDefaultChunk(), format );
+				System.out.println( format + ", all columns: " + ( System.currentTimeMillis() - start ) + " ms" );
+
+				start = System.currentTimeMillis();
+				TableOpener.open( storageLocation, format.getDefaultChunk(), format, segmentColumns );
+				System.out.println( format + ", " + segmentColumns.size() + " columns: " + ( System.currentTimeMillis() - start ) + " ms" );
+			}
+		}
+
+		tsv.delete();
+		parquet.delete();
+		directory.delete();
+	}
+
+	private static Table createSegmentTable()
+	{
+		final Random random = new Random( 42 );
+		final int[] labels = new int[ NUM_ROWS ];
+		for ( int i = 0; i < NUM_ROWS; i++ )
+			labels[ i ] = i + 1;
+
+		final Table table = Table.create( "segments" );
+		table.addColumns( IntColumn.create( "label_id", labels ) );
+		for ( String column : new String[]{ "anchor_x", "anchor_y", "anchor_z", "bb_min_x", "bb_min_y", "bb_min_z", "bb_max_x", "bb_max_y", "bb_max_z" } )
+			table.addColumns( DoubleColumn.create( column, random.doubles( NUM_ROWS, 0, 10000 ).toArray() ) );
+		for ( int i = 0; i < NUM_FEATURE_COLUMNS; i++ )
+			table.addColumns( DoubleColumn.create( "feature_" + i, random.doubles( NUM_ROWS ).toArray() ) );
+		return table;
+	}
+}
@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import net.imglib2.RealPoint;
+import net.imglib2.roi.RealMaskRealInterval;
+import net.imglib2.roi.geom.GeomMasks;
+import org.embl.mobie.lib.image.RealMaskGridIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how fast the regions of a 1536-well plate can be resolved
+ * for all pixels of a plate overview, as done by the
+ * {@code RegionAnnotationImage} when rendering a region display.
+ *
+ * For comparison, the previous lookup, which tested the most
+ * recently found region and then scanned all regions, is measured as well.
+ */
+public class BenchmarkRegionAnnotationImage
+{
+	public static final int NUM_ROWS = 32;
+	public static final int NUM_COLUMNS = 48;
+	public static final double WELL_SIZE = 100;
+	public static final double WELL_SPACING = 110;
+	public static final int VIEWER_WIDTH = 1920;
+	public static final int VIEWER_HEIGHT = 1280;
+	public static final int NUM_ITERATIONS = 5;
+
+	public static void main( String[] args )
+	{
+		final List< RealMaskRealInterval > masks = new ArrayList<>();
+		final List< String > regions = new ArrayList<>();
+		for ( int row = 0; row < NUM_ROWS; row++ )
+			for ( int column = 0; column < NUM_COLUMNS; column++ )
+			{
+				final double[] min = { column * WELL_SPACING, row * WELL_SPACING, 0 };
+				final double[] max = { min[ 0 ] + WELL_SIZE, min[ 1 ] + WELL_SIZE, 0 };
+				masks.add( GeomMasks.closedBox( min, max ) );
+				regions.add( "well_" + row + "_" + column );
+			}
+
+		final double scale = Math.max( NUM_COLUMNS * WELL_SPACING / VIEWER_WIDTH, NUM_ROWS * WELL_SPACING / VIEWER_HEIGHT );
+
+		for ( int iteration = 0; iteration < NUM_ITERATIONS; iteration++ )
+		{
+			System.out.println( "Iteration #" + iteration );
+
+			long start = System.currentTimeMillis();
+			final RealMaskGridIndex< String > index = new RealMaskGridIndex<>( masks, regions );
+			System.out.println( "Building the index: " + ( System.currentTimeMillis() - start ) + " ms" );
+
+			start = System.currentTimeMillis();
+			long numAnnotated = renderWithIndex( index, scale );
+			report( "Grid index", System.currentTimeMillis() - start, numAnnotated );
+
+			start = System.currentTimeMillis();
+			numAnnotated = renderWithLinearScan( masks, regions, scale );
+			report( "Linear scan (previous)", System.currentTimeMillis() - start, numAnnotated );
+		}
+	}
+
+	private static long renderWithIndex( RealMaskGridIndex< String > index, double scale )
+	{
+		final RealPoint location = new RealPoint( 3 );
+		int recentIndex = 0;
+		long numAnnotated = 0;
+		for ( int y = 0; y < VIEWER_HEIGHT; y++ )
+			for ( int x = 0; x < VIEWER_WIDTH; x++ )
+			{
+				location.setPosition( x * scale, 0 );
+				location.setPosition( y * scale, 1 );
+				if ( index.getMask( recentIndex ).test( location ) )
+				{
+					numAnnotated++;
+					continue;
+				}
+
+				final int maskIndex = index.find( location );
+				if ( maskIndex >= 0 )
+				{
+					recentIndex = maskIndex;
+					numAnnotated++;
+				}
+			}
+		return numAnnotated;
+	}
+
+	private static long renderWithLinearScan( List< RealMaskRealInterval > masks, List< String > regions, double scale )
+	{
+		final Map< RealMaskRealInterval, String > maskToRegion = new HashMap<>();
+		for ( int i = 0; i < masks.size(); i++ )
+			maskToRegion.put( masks.get( i ), regions.get( i ) );
+
+		final RealPoint location = new RealPoint( 3 );
+		RealMaskRealInterval recentMask = masks.get( 0 );
+		long numAnnotated = 0;
+		for ( int y = 0; y < VIEWER_HEIGHT; y++ )
+			for ( int x = 0; x < VIEWER_WIDTH; x++ )
+			{
+				location.setPosition( x * scale, 0 );
+				location.setPosition( y * scale, 1 );
+				if ( recentMask.test( location ) )
+				{
+					numAnnotated++;
+					continue;
+				}
+
+				for ( RealMaskRealInterval mask : maskToRegion.keySet() )
+				{
+					if ( mask == recentMask )
+						continue;
+
+					if ( mask.test( location ) )
+					{
+						recentMask = mask;
+						numAnnotated++;
+						break;
+					}
+				}
+			}
+		return numAnnotated;
+	}
+
+	private static void report( String name, long durationMillis, long numAnnotated )
+	{
+		final long numPixels = ( long ) VIEWER_WIDTH * VIEWER_HEIGHT;
+		final double pixelsPerSecond = 1000.0 * numPixels / Math.max( 1, durationMillis );
+		System.out.println( name + ": " + numPixels + " pixels (" + numAnnotated + " in regions) in " + durationMillis + " ms; " + String.format( "%.2e", pixelsPerSecond ) + " pixels/s" );
+	}
+}
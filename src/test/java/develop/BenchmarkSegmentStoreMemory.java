@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import net.imglib2.FinalRealInterval;
+import org.embl.mobie.lib.table.ColumnNames;
+import org.embl.mobie.lib.table.saw.TableSawAnnotatedSegment;
+import org.embl.mobie.lib.table.saw.TableSawAnnotatedSegmentCreator;
+import org.embl.mobie.lib.table.saw.TableSawAnnotationTableModel;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the heap that is needed for the segments of a table
+ * with 10^6 and 10^7 rows, on top of the table itself, comparing
+ * the {@code TableSawAnnotatedSegment}s that read from a
+ * {@code TableSawSegmentStore} to segments that hold their own
+ * uuid, position and bounding box (previous implementation).
+ *
+ * Run with enough heap for 10^7 rows, e.g. -Xmx12g.
+ */
+public class BenchmarkSegmentStoreMemory
+{
+	public static final int[] NUM_ROWS = { 1_000_000, 10_000_000 };
+
+	public static void main( String[] args )
+	{
+		for ( int numRows : NUM_ROWS )
+		{
+			final Table table = createSegmentTable( numRows );
+
+			long before = usedMemory();
+			final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, table ), null, null, table );
+			long after = usedMemory();
+			report( "Segment store", numRows, after - before, model.numAnnotations() );
+
+			before = usedMemory();
+			final List< PreviousSegment > previousSegments = createPreviousSegments( table );
+			after = usedMemory();
+			report( "One object per segment (previous)", numRows, after - before, previousSegments.size() );
+		}
+	}
+
+	private static Table createSegmentTable( int numRows )
+	{
+		final Random random = new Random( 42 );
+		final int[] labels = new int[ numRows ];
+		for ( int i = 0; i < numRows; i++ )
+			labels[ i ] = i + 1;
+
+		final Table table = Table.create( "segments" );
+		table.addColumns( IntColumn.create( ColumnNames.LABEL_ID, labels ) );
+		for ( String column : new String[]{
+				ColumnNames.ANCHOR_X, ColumnNames.ANCHOR_Y, ColumnNames.ANCHOR_Z,
+				ColumnNames.BB_MIN_X, ColumnNames.BB_MIN_Y, ColumnNames.BB_MIN_Z,
+				ColumnNames.BB_MAX_X, ColumnNames.BB_MAX_Y, ColumnNames.BB_MAX_Z } )
+			table.addColumns( DoubleColumn.create( column, random.doubles( numRows, 0, 10000 ).toArray() ) );
+		return table;
+	}
+
+	private static List< PreviousSegment > createPreviousSegments( Table table )
+	{
+		final int numRows = table.rowCount();
+		final List< PreviousSegment > segments = new ArrayList<>( numRows );
+		for ( int rowIndex = 0; rowIndex < numRows; rowIndex++ )
+		{
+			final int labelId = table.intColumn( ColumnNames.LABEL_ID ).get( rowIndex );
+			final double[] position = {
+					table.numberColumn( ColumnNames.ANCHOR_X ).getDouble( rowIndex ),
+					table.numberColumn( ColumnNames.ANCHOR_Y ).getDouble( rowIndex ),
+					table.numberColumn( ColumnNames.ANCHOR_Z ).getDouble( rowIndex ) };
+			final FinalRealInterval boundingBox = new FinalRealInterval(
+					new double[]{
+							table.numberColumn( ColumnNames.BB_MIN_X ).getDouble( rowIndex ),
+							table.numberColumn( ColumnNames.BB_MIN_Y ).getDouble( rowIndex ),
+							table.numberColumn( ColumnNames.BB_MIN_Z ).getDouble( rowIndex ) },
+					new double[]{
+							table.numberColumn( ColumnNames.BB_MAX_X ).getDouble( rowIndex ),
+							table.numberColumn( ColumnNames.BB_MAX_Y ).getDouble( rowIndex ),
+							table.numberColumn( ColumnNames.BB_MAX_Z ).getDouble( rowIndex ) } );
+			final String uuid = table.name() + ";" + 0 + ";" + labelId;
+			segments.add( new PreviousSegment( table, rowIndex, table.name(), uuid, labelId, 0, position, boundingBox ) );
+		}
+		return segments;
+	}
+
+	private static long usedMemory()
+	{
+		for ( int i = 0; i < 3; i++ )
+			System.gc();
+		final Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report( String name, int numRows, long bytes, int numSegments )
+	{
+		System.out.println( String.format( "%s, %,d rows: %,d MB (%.1f bytes per segment, %d segments)",
+				name, numRows, bytes / ( 1024 * 1024 ), ( double ) bytes / numRows, numSegments ) );
+	}
+
+	/*
+	 * The fields of the previous TableSawAnnotatedSegment.
+	 */
+	private static class PreviousSegment
+	{
+		private final Object model;
+		private final int rowIndex;
+		private final int timePoint;
+		private final int labelId;
+		private final double[] position;
+		private final FinalRealInterval boundingBox;
+		private final float[] mesh = null;
+		private final String source;
+		private final String uuid;
+
+		PreviousSegment( Object model, int rowIndex, String source, String uuid, int labelId, int timePoint, double[] position, FinalRealInterval boundingBox )
+		{
+			this.model = model;
+			this.rowIndex = rowIndex;
+			this.source = source;
+			this.uuid = uuid;
+			this.labelId = labelId;
+			this.timePoint = timePoint;
+			this.position = position;
+			this.boundingBox = boundingBox;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package develop;
+
+import bdv.util.RandomAccessibleIntervalSource;
+import bdv.viewer.Source;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.converter.Converters;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.roi.geom.GeomMasks;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.volatiles.VolatileUnsignedByteType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+import org.embl.mobie.lib.image.DefaultImage;
+import org.embl.mobie.lib.image.DefaultSourcePair;
+import org.embl.mobie.lib.image.Image;
+import org.embl.mobie.lib.image.StitchedImage;
+import org.embl.mobie.lib.io.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures the pixel throughput through the (volatile and non-volatile)
+ * {@code StitchedSource} of a {@code StitchedImage}.
+ *
+ * For comparison, the cost of the tile lookup using the previous
+ * String keys ( "t,level,x,y" ) is measured for the same number of pixels.
+ */
+public class BenchmarkStitchedImage
+{
+	public static final int TILE_SIZE = 256;
+	public static final int GRID_SIZE = 16; // 16 x 16 tiles
+	public static final int NUM_ITERATIONS = 5;
+
+	public static void main( String[] args ) throws InterruptedException
+	{
+		final List< Image< UnsignedByteType > > images = new ArrayList<>();
+		for ( int i = 0; i < GRID_SIZE * GRID_SIZE; i++ )
+			images.add( createTileImage( "tile" + i, ( byte ) i ) );
+
+		final StitchedImage< UnsignedByteType, VolatileUnsignedByteType > stitchedImage = new StitchedImage<>( images, images.get( 0 ), null, "stitched", 0.0 );
+
+		final RandomAccessibleInterval< UnsignedByteType > rai = stitchedImage.getSourcePair().getSource().getSource( 0, 0 );
+		final RandomAccessibleInterval< ? extends VolatileUnsignedByteType > vRai = ( RandomAccessibleInterval< ? extends VolatileUnsignedByteType > ) stitchedImage.getSourcePair().getVolatileSource().getSource( 0, 0 );
+
+		// wait until all volatile tiles are opened
+		while ( countInvalid( vRai ) > 0 )
+			Thread.sleep( 100 );
+
+		for ( int iteration = 0; iteration < NUM_ITERATIONS; iteration++ )
+		{
+			System.out.println( "Iteration #" + iteration );
+
+			long start = System.currentTimeMillis();
+			long sum = 0;
+			for ( UnsignedByteType value : Views.flatIterable( rai ) )
+				sum += value.get();
+			reportPixelsPerSecond( "StitchedSource", rai, System.currentTimeMillis() - start, sum );
+
+			start = System.currentTimeMillis();
+			sum = 0;
+			for ( VolatileUnsignedByteType value : Views.flatIterable( vRai ) )
+				sum += value.get().get();
+			reportPixelsPerSecond( "Volatile StitchedSource", vRai, System.currentTimeMillis() - start, sum );
+
+			start = System.currentTimeMillis();
+			sum = stringKeyLookups( rai );
+			reportPixelsPerSecond( "String key tile lookups (previous TileStore)", rai, System.currentTimeMillis() - start, sum );
+		}
+	}
+
+	private static Image< UnsignedByteType > createTileImage( String name, byte value )
+	{
+		final ArrayImg< UnsignedByteType, ByteArray > img = ArrayImgs.unsignedBytes( TILE_SIZE, TILE_SIZE, 1 );
+		img.forEach( pixel -> pixel.setByte( value ) );
+
+		final RandomAccessibleInterval< VolatileUnsignedByteType > vImg = Converters.convert(
+				( RandomAccessibleInterval< UnsignedByteType > ) img,
+				( input, output ) -> {
+					output.get().set( input.get() );
+					output.setValid( true );
+				},
+				new VolatileUnsignedByteType() );
+
+		final Source< UnsignedByteType > source = new RandomAccessibleIntervalSource<>( img, new UnsignedByteType(), new AffineTransform3D(), name );
+		final Source< VolatileUnsignedByteType > vSource = new RandomAccessibleIntervalSource<>( vImg, new VolatileUnsignedByteType(), new AffineTransform3D(), name );
+
+		return new DefaultImage<>( name, new DefaultSourcePair<>( source, vSource ), GeomMasks.closedBox( new double[]{ 0, 0, 0 }, new double[]{ TILE_SIZE - 1, TILE_SIZE - 1, 0 } ) );
+	}
+
+	private static long countInvalid( RandomAccessibleInterval< ? extends VolatileUnsignedByteType > vRai )
+	{
+		long numInvalid = 0;
+		for ( VolatileUnsignedByteType value : Views.flatIterable( vRai ) )
+			if ( ! value.isValid() ) numInvalid++;
+		return numInvalid;
+	}
+
+	private static long stringKeyLookups( RandomAccessibleInterval< ? > rai )
+	{
+		final Map< String, Status > keyToStatus = new ConcurrentHashMap<>();
+		for ( int x = 0; x < GRID_SIZE; x++ )
+			for ( int y = 0; y < GRID_SIZE; y++ )
+				keyToStatus.put( 0 + "," + 0 + "," + x + "," + y, Status.Open );
+
+		long numOpen = 0;
+		final Cursor< ? > cursor = Views.flatIterable( rai ).localizingCursor();
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			final int xTileIndex = cursor.getIntPosition( 0 ) / TILE_SIZE;
+			final int yTileIndex = cursor.getIntPosition( 1 ) / TILE_SIZE;
+			final String key = 0 + "," + 0 + "," + xTileIndex + "," + yTileIndex;
+			if ( keyToStatus.containsKey( key ) && keyToStatus.get( key ).equals( Status.Open ) )
+				numOpen++;
+		}
+
+		return numOpen;
+	}
+
+	private static void reportPixelsPerSecond( String name, RandomAccessibleInterval< ? > rai, long durationMillis, long checksum )
+	{
+		final long numPixels = Intervals.numElements( rai );
+		final double pixelsPerSecond = 1000.0 * numPixels / Math.max( 1, durationMillis );
+		System.out.println( name + ": " + numPixels + " pixels in " + durationMillis + " ms; " + String.format( "%.2e", pixelsPerSecond ) + " pixels/s (checksum " + checksum + ")" );
+	}
+}
@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib;
+
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.roi.RealMaskRealInterval;
+import org.embl.mobie.lib.image.Image;
+import org.embl.mobie.lib.image.SourcePair;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStoreTest
+{
+	@Test
+	void cache()
+	{
+		DataStore.clearImages();
+		DataStore.clearCache();
+		DataStore.setMaxNumCachedImages( 2 );
+
+		final Image< ? > a = new TestImage( "a" );
+		final Image< ? > b = new TestImage( "b" );
+		final Image< ? > c = new TestImage( "c" );
+		DataStore.putImage( a, "a" );
+		DataStore.putImage( b, "b" );
+		DataStore.putImage( c, "c" );
+
+		// images of the current view are not evicted
+		assertEquals( 3, DataStore.getNumCachedImages() );
+
+		// an in place transformation changes the key
+		DataStore.putImage( a, "transformed a" );
+		assertFalse( DataStore.containsCachedImage( "a" ) );
+		assertSame( a, DataStore.getCachedImage( "transformed a" ) );
+
+		// the least recently used image is evicted
+		DataStore.clearImages();
+		assertEquals( 2, DataStore.getNumCachedImages() );
+		assertFalse( DataStore.containsCachedImage( "b" ) );
+		assertSame( c, DataStore.getCachedImage( "c" ) );
+
+		// nothing is reused if one of the images is not cached
+		assertFalse( DataStore.putCachedImages( Arrays.asList( "transformed a", "b" ) ) );
+		assertThrows( RuntimeException.class, () -> DataStore.getImage( "a" ) );
+
+		// the cached image is reused by the next view
+		assertTrue( DataStore.putCachedImage( "transformed a" ) );
+		assertSame( a, DataStore.getImage( "a" ) );
+		assertEquals( "transformed a", DataStore.getCacheKey( "a" ) );
+
+		DataStore.clearCache();
+		assertEquals( 0, DataStore.getNumCachedImages() );
+		DataStore.clearImages();
+	}
+
+	private static class TestImage implements Image< Object >
+	{
+		private final String name;
+
+		TestImage( String name )
+		{
+			this.name = name;
+		}
+
+		@Override
+		public SourcePair< Object > getSourcePair()
+		{
+			return null;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public void transform( AffineTransform3D affineTransform3D )
+		{
+		}
+
+		@Override
+		public RealMaskRealInterval getMask()
+		{
+			return null;
+		}
+	}
+}
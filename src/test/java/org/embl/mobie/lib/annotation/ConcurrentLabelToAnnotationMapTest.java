@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.annotation;
+
+import org.embl.mobie.lib.table.DefaultAnnotatedSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLabelToAnnotationMapTest
+{
+	@Test
+	void addOncePerLabel()
+	{
+		final AtomicInteger numAdded = new AtomicInteger();
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > map = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( "source", 0, label ),
+				annotation -> numAdded.incrementAndGet(),
+				-1, null, annotation -> false );
+
+		IntStream.range( 0, 1_000_000 ).parallel().forEach( i -> {
+			final int label = 1 + i % 1000;
+			assertEquals( label, map.get( label ).label() );
+		} );
+
+		// annotations that are created concurrently
+		// for the same label are not added
+		assertEquals( 1000, numAdded.get() );
+		assertSame( map.get( 1 ), map.get( 1 ) );
+	}
+
+	@Test
+	void evictOldest()
+	{
+		final List< AnnotatedSegment > evicted = Collections.synchronizedList( new ArrayList<>() );
+		final int maxNumAnnotations = 64 * 100;
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > map = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( "source", 0, label ),
+				maxNumAnnotations,
+				evicted::addAll );
+
+		final int numLabels = 100_000;
+		for ( int label = 1; label <= numLabels; label++ )
+			map.get( label );
+
+		assertTrue( numLabels - evicted.size() <= maxNumAnnotations );
+
+		// the most recent label is still there
+		assertSame( map.get( numLabels ), map.get( numLabels ) );
+	}
+
+	@Test
+	void keepRecentlyUsed()
+	{
+		final List< AnnotatedSegment > evicted = Collections.synchronizedList( new ArrayList<>() );
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > map = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( "source", 0, label ),
+				64 * 4,
+				evicted::addAll );
+
+		final AnnotatedSegment recentlyUsed = map.get( 1 );
+		for ( int label = 2; label <= 10_000; label++ )
+		{
+			map.get( label );
+			assertSame( recentlyUsed, map.get( 1 ) );
+		}
+
+		assertFalse( evicted.isEmpty() );
+		assertFalse( evicted.contains( recentlyUsed ) );
+	}
+
+	@Test
+	void keepRetained()
+	{
+		final List< AnnotatedSegment > evicted = Collections.synchronizedList( new ArrayList<>() );
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > map = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( "source", 0, label ),
+				null,
+				64 * 4,
+				evicted::addAll,
+				annotation -> annotation.label() <= 100 );
+
+		final List< AnnotatedSegment > retained = new ArrayList<>();
+		for ( int label = 1; label <= 100; label++ )
+			retained.add( map.get( label ) );
+
+		for ( int label = 101; label <= 10_000; label++ )
+			map.get( label );
+
+		assertFalse( evicted.isEmpty() );
+		for ( AnnotatedSegment annotation : retained )
+		{
+			assertFalse( evicted.contains( annotation ) );
+			assertSame( annotation, map.get( annotation.label() ) );
+		}
+	}
+
+	@Test
+	void notifyAddedBeforeEvicted()
+	{
+		// the annotations the consumers have been told about
+		final Set< AnnotatedSegment > added = ConcurrentHashMap.newKeySet();
+		final AtomicInteger numEvictedBeforeAdded = new AtomicInteger();
+		final ConcurrentLabelToAnnotationMap< AnnotatedSegment > map = new ConcurrentLabelToAnnotationMap<>(
+				label -> new DefaultAnnotatedSegment( "source", 0, label ),
+				added::add,
+				64 * 4,
+				evicted -> evicted.forEach( annotation -> {
+					if ( ! added.remove( annotation ) )
+						numEvictedBeforeAdded.incrementAndGet();
+				} ),
+				annotation -> false );
+
+		IntStream.range( 0, 1_000_000 ).parallel().forEach( i -> map.get( 1 + ( i * 7919 ) % 20_000 ) );
+
+		assertEquals( 0, numEvictedBeforeAdded.get() );
+		assertTrue( added.size() <= 64 * 4 );
+	}
+}
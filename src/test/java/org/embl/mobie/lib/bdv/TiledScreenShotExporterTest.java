@@ -0,0 +1,169 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv;
+
+import net.imglib2.Interval;
+import net.imglib2.realtransform.AffineTransform3D;
+import org.janelia.saalfeldlab.n5.ByteArrayDataBlock;
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.N5Writer;
+import org.janelia.saalfeldlab.n5.zarr.N5ZarrWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TiledScreenShotExporterTest
+{
+	@Test
+	void tiles()
+	{
+		final List< long[] > levelDimensions = TiledScreenShotExporter.getLevelDimensions( new long[]{ 2500, 1000 }, 1024 );
+		assertEquals( 3, levelDimensions.size() );
+		assertArrayEquals( new long[]{ 2500, 1000, 3 }, levelDimensions.get( 0 ) );
+		assertArrayEquals( new long[]{ 1250, 500, 3 }, levelDimensions.get( 1 ) );
+		assertArrayEquals( new long[]{ 625, 250, 3 }, levelDimensions.get( 2 ) );
+
+		final List< Interval > tiles = TiledScreenShotExporter.getTiles( levelDimensions.get( 0 ), 1024 );
+		assertEquals( 3, tiles.size() );
+		final Interval lastTile = tiles.get( 2 );
+		assertEquals( 452, lastTile.dimension( 0 ) );
+		assertEquals( 1000, lastTile.dimension( 1 ) );
+		assertArrayEquals( new long[]{ 2, 0, 1 }, TiledScreenShotExporter.getGridPosition( lastTile, 1024, 1 ) );
+	}
+
+	@Test
+	void captureSize()
+	{
+		// one viewer pixel shows 0.5 physical units
+		final AffineTransform3D viewerTransform = new AffineTransform3D();
+		viewerTransform.scale( 2.0 );
+		viewerTransform.translate( 100, 50, 0 );
+		final double viewerVoxelSpacing = TiledScreenShotExporter.getViewerVoxelSpacing( viewerTransform );
+		assertEquals( 0.5, viewerVoxelSpacing, 1e-12 );
+
+		// an 800 x 600 window thus shows 400 x 300 physical units
+		assertArrayEquals( new long[]{ 1600, 1200 }, TiledScreenShotExporter.getCaptureImageSizeInPixels( new int[]{ 800, 600 }, viewerVoxelSpacing, 0.25 ) );
+	}
+
+	@Test
+	void pyramid()
+	{
+		// 3x3 pixels in 2x2 tiles, i.e. the tiles at the border are smaller
+		final int tileSize = 2;
+		final int[][] image = {
+				{ 0, 10, 20 },
+				{ 30, 40, 50 },
+				{ 60, 70, 80 } };
+
+		final List< long[] > levelDimensions = TiledScreenShotExporter.getLevelDimensions( new long[]{ 3, 3 }, tileSize );
+		assertEquals( 2, levelDimensions.size() );
+		assertArrayEquals( new long[]{ 2, 2, 3 }, levelDimensions.get( 1 ) );
+
+		// gather the 2x2 tiles of level 0 for the single tile of level 1
+		final int[] previous = new int[ 3 * 3 ];
+		final List< Interval > tiles = TiledScreenShotExporter.getTiles( levelDimensions.get( 0 ), tileSize );
+		assertEquals( 4, tiles.size() );
+		for ( Interval tile : tiles )
+		{
+			final int width = ( int ) tile.dimension( 0 );
+			final int height = ( int ) tile.dimension( 1 );
+			final byte[] data = new byte[ width * height ];
+			for ( int y = 0; y < height; y++ )
+				for ( int x = 0; x < width; x++ )
+					data[ y * width + x ] = ( byte ) image[ ( int ) tile.min( 1 ) + y ][ ( int ) tile.min( 0 ) + x ];
+
+			final long[] gridPosition = TiledScreenShotExporter.getGridPosition( tile, tileSize, 0 );
+			TiledScreenShotExporter.copyBlock( data, width, height, ( int ) gridPosition[ 0 ], ( int ) gridPosition[ 1 ], tileSize, previous, 3, 3 );
+		}
+		assertArrayEquals( new int[]{ 0, 10, 20, 30, 40, 50, 60, 70, 80 }, previous );
+
+		// the last row and column are repeated
+		final byte[] downsampled = TiledScreenShotExporter.downsample( previous, 3, 3, 2, 2 );
+		assertArrayEquals( new byte[]{ 20, 35, 65, 80 }, downsampled );
+	}
+
+	@Test
+	void pyramidWithBorderTiles() throws IOException
+	{
+		// as above, but written to and read back from Zarr,
+		// which pads the tiles at the border to the full tile size
+		final int tileSize = 2;
+		final int[][] image = {
+				{ 0, 10, 20 },
+				{ 30, 40, 50 },
+				{ 60, 70, 80 } };
+
+		final List< long[] > levelDimensions = TiledScreenShotExporter.getLevelDimensions( new long[]{ 3, 3 }, tileSize );
+		final DatasetAttributes attributes0 = new DatasetAttributes( levelDimensions.get( 0 ), new int[]{ tileSize, tileSize, 1 }, DataType.UINT8, new GzipCompression() );
+		final DatasetAttributes attributes1 = new DatasetAttributes( levelDimensions.get( 1 ), new int[]{ tileSize, tileSize, 1 }, DataType.UINT8, new GzipCompression() );
+
+		final N5Writer n5 = new N5ZarrWriter( Files.createTempDirectory( "tiled-screenshot" ).toString() );
+		try
+		{
+			n5.createDataset( TiledScreenShotExporter.getDataset( 0 ), attributes0 );
+			n5.createDataset( TiledScreenShotExporter.getDataset( 1 ), attributes1 );
+
+			for ( Interval tile : TiledScreenShotExporter.getTiles( levelDimensions.get( 0 ), tileSize ) )
+			{
+				final int width = ( int ) tile.dimension( 0 );
+				final int height = ( int ) tile.dimension( 1 );
+				for ( int c = 0; c < 3; c++ )
+				{
+					final byte[] data = new byte[ width * height ];
+					for ( int y = 0; y < height; y++ )
+						for ( int x = 0; x < width; x++ )
+							data[ y * width + x ] = ( byte ) ( image[ ( int ) tile.min( 1 ) + y ][ ( int ) tile.min( 0 ) + x ] + c );
+					final int[] size = { width, height, 1 };
+					n5.writeBlock( TiledScreenShotExporter.getDataset( 0 ), attributes0, new ByteArrayDataBlock( size, TiledScreenShotExporter.getGridPosition( tile, tileSize, c ), data ) );
+				}
+			}
+
+			final List< Interval > tiles = TiledScreenShotExporter.getTiles( levelDimensions.get( 1 ), tileSize );
+			assertEquals( 1, tiles.size() );
+			TiledScreenShotExporter.writeDownsampledTile( n5, 1, attributes0, attributes1, tiles.get( 0 ), tileSize );
+
+			for ( int c = 0; c < 3; c++ )
+			{
+				final DataBlock< ? > block = n5.readBlock( TiledScreenShotExporter.getDataset( 1 ), attributes1, 0, 0, c );
+				assertArrayEquals( new byte[]{ ( byte ) ( 20 + c ), ( byte ) ( 35 + c ), ( byte ) ( 65 + c ), ( byte ) ( 80 + c ) }, ( byte[] ) block.getData() );
+			}
+		}
+		finally
+		{
+			n5.remove();
+		}
+	}
+}
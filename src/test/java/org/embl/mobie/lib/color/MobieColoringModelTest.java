@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.color;
+
+import net.imglib2.type.numeric.ARGBType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MobieColoringModelTest
+{
+	@Test
+	void cacheColors()
+	{
+		final CountingColoringModel wrapped = new CountingColoringModel();
+		final MobieColoringModel< String > coloringModel = new MobieColoringModel<>( wrapped, null, null, 0.15 );
+
+		final ARGBType color = new ARGBType();
+		coloringModel.convert( "a", color );
+		assertEquals( "a".hashCode(), color.get() );
+		coloringModel.convert( "a", color );
+		coloringModel.convert( "b", color );
+		assertEquals( 2, wrapped.numConversions.get() );
+
+		coloringModel.invalidateColors( Collections.singleton( "a" ) );
+		coloringModel.convert( "a", color );
+		coloringModel.convert( "b", color );
+		assertEquals( 3, wrapped.numConversions.get() );
+	}
+
+	@Test
+	void listenToWrappedModelOnly()
+	{
+		final CountingColoringModel first = new CountingColoringModel();
+		final CountingColoringModel second = new CountingColoringModel();
+		final MobieColoringModel< String > coloringModel = new MobieColoringModel<>( first, null, null, 0.15 );
+		assertEquals( 1, first.listeners.list.size() );
+
+		coloringModel.setColoringModel( second );
+		assertTrue( first.listeners.list.isEmpty() );
+		assertEquals( 1, second.listeners.list.size() );
+
+		coloringModel.setColoringModel( first );
+		assertEquals( 1, first.listeners.list.size() );
+		assertTrue( second.listeners.list.isEmpty() );
+	}
+
+	private static class CountingColoringModel extends AbstractColoringModel< String >
+	{
+		final AtomicInteger numConversions = new AtomicInteger();
+
+		@Override
+		public void convert( String value, ARGBType color )
+		{
+			numConversions.incrementAndGet();
+			color.set( value.hashCode() );
+		}
+	}
+}
@@ -51,4 +51,15 @@ class HCSPatternTest
 		final HCSPattern moldev = HCSPattern.fromPath( HCSPatternTest.moldev );
 		assertTrue( moldev.equals( HCSPattern.MolecularDevices ) );
 	}
+
+	@Test
+	void match()
+	{
+		final HCSFile hcsFile = HCSPattern.Operetta.match( HCSPatternTest.operetta );
+		assertEquals( "1", hcsFile.getChannel() );
+		assertEquals( "r01c01", hcsFile.getWell() );
+		assertEquals( "04", hcsFile.getSite() );
+
+		assertNull( HCSPattern.Operetta.match( HCSPatternTest.incucyte ) );
+	}
 }
@@ -0,0 +1,73 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.image;
+
+import net.imglib2.KDTree;
+import net.imglib2.RealPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotRasterizerTest
+{
+	@Test
+	void downsample()
+	{
+		final int numSpots = 100000;
+		final Random random = new Random( 42 );
+		final ArrayList< Integer > indices = new ArrayList<>();
+		final ArrayList< RealPoint > positions = new ArrayList<>();
+		for ( int i = 0; i < numSpots; i++ )
+		{
+			indices.add( i );
+			positions.add( new RealPoint( 1000 * random.nextDouble(), 1000 * random.nextDouble() ) );
+		}
+
+		SpotRasterizer rasterizer = new SpotRasterizer( new KDTree<>( indices, positions ), new double[]{ 0, 0 }, new double[]{ 1000, 1000 }, 0.5 );
+		assertEquals( numSpots, rasterizer.getNumSpots() );
+
+		int numLevels = 1;
+		while ( ! rasterizer.isSingleCell() )
+		{
+			rasterizer = rasterizer.downsample();
+			numLevels++;
+
+			// at most one representative spot per pixel
+			final long[] dimensions = rasterizer.getDimensions();
+			assertTrue( rasterizer.getNumSpots() <= dimensions[ 0 ] * dimensions[ 1 ] * dimensions[ 2 ] );
+		}
+
+		assertEquals( 1, rasterizer.getDimensions()[ 2 ] );
+		assertEquals( 0.5 * Math.pow( 2, numLevels - 1 ), rasterizer.getPixelSize() );
+		assertTrue( rasterizer.getNumSpots() <= 128 * 128 );
+	}
+}
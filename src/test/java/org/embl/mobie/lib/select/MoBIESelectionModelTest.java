@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.select;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoBIESelectionModelTest
+{
+	@Test
+	void bulkSelection()
+	{
+		final MoBIESelectionModel< Integer > selectionModel = new MoBIESelectionModel<>();
+
+		final List< Integer > objects = new ArrayList<>();
+		for ( int i = 0; i < 100000; i++ )
+			objects.add( i );
+
+		assertTrue( selectionModel.setSelected( objects, true ) );
+		assertFalse( selectionModel.setSelected( objects, true ) );
+		assertTrue( selectionModel.isSelected( 99999 ) );
+
+		final Set< Integer > snapshot = selectionModel.getSelected();
+
+		assertTrue( selectionModel.setSelected( objects.subList( 0, 50000 ), false ) );
+		assertFalse( selectionModel.isSelected( 0 ) );
+		assertTrue( selectionModel.isSelected( 50000 ) );
+		assertEquals( 100000, snapshot.size() );
+
+		assertTrue( selectionModel.clearSelection() );
+		assertTrue( selectionModel.isEmpty() );
+		assertFalse( selectionModel.clearSelection() );
+	}
+
+	@Test
+	void unchangedBulkSelectionNotifies() throws InterruptedException
+	{
+		final MoBIESelectionModel< Integer > selectionModel = new MoBIESelectionModel<>();
+		selectionModel.listeners().add( new SelectionListener< Integer >()
+		{
+			@Override
+			public void selectionChanged()
+			{
+			}
+
+			@Override
+			public void focusEvent( Integer selection, Object initiator )
+			{
+			}
+		} );
+
+		assertFalse( selectionModel.setSelected( Collections.singletonList( 1 ), false ) );
+
+		final long start = System.currentTimeMillis();
+		while ( selectionModel.getNumDispatchedEvents() + selectionModel.getNumCoalescedEvents() < 1
+				&& System.currentTimeMillis() - start < 10000 )
+			Thread.sleep( 10 );
+
+		assertEquals( 1, selectionModel.getNumDispatchedEvents() + selectionModel.getNumCoalescedEvents() );
+	}
+}
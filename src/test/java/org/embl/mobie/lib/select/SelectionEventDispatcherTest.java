@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.select;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectionEventDispatcherTest
+{
+	@Test
+	void coalesceSelectionChanges() throws InterruptedException
+	{
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		final SelectionEventDispatcher< Integer > dispatcher = new SelectionEventDispatcher<>( () -> executorService );
+
+		// block the executor, such that all events arrive while one is pending
+		final CountDownLatch latch = new CountDownLatch( 1 );
+		executorService.submit( () -> { latch.await(); return null; } );
+
+		final AtomicInteger numSelectionChanged = new AtomicInteger();
+		final AtomicInteger lastFocus = new AtomicInteger( -1 );
+		final List< SelectionListener< Integer > > listeners = Collections.singletonList( new SelectionListener< Integer >()
+		{
+			@Override
+			public void selectionChanged()
+			{
+				numSelectionChanged.incrementAndGet();
+			}
+
+			@Override
+			public void focusEvent( Integer selection, Object initiator )
+			{
+				lastFocus.set( selection );
+			}
+		} );
+
+		for ( int i = 0; i < 1000; i++ )
+		{
+			dispatcher.selectionChanged( listeners );
+			dispatcher.focusEvent( listeners, i, null );
+		}
+
+		latch.countDown();
+		executorService.shutdown();
+		assertTrue( executorService.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+		assertEquals( 1, numSelectionChanged.get() );
+		assertEquals( 999, lastFocus.get() );
+		assertEquals( 2, dispatcher.getNumDispatchedEvents() );
+		assertEquals( 1998, dispatcher.getNumCoalescedEvents() );
+	}
+
+	@Test
+	void failingListener() throws Exception
+	{
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		final SelectionEventDispatcher< Integer > dispatcher = new SelectionEventDispatcher<>( () -> executorService );
+
+		final AtomicInteger numSelectionChanged = new AtomicInteger();
+		final SelectionListener< Integer > listener = new SelectionListener< Integer >()
+		{
+			@Override
+			public void selectionChanged()
+			{
+				numSelectionChanged.incrementAndGet();
+				throw new RuntimeException( "Expected test exception." );
+			}
+
+			@Override
+			public void focusEvent( Integer selection, Object initiator )
+			{
+			}
+		};
+
+		// the failing notification does not prevent the next one
+		dispatcher.selectionChanged( Collections.singletonList( listener ) );
+		executorService.submit( () -> null ).get( 10, TimeUnit.SECONDS );
+		dispatcher.selectionChanged( Collections.singletonList( listener ) );
+
+		executorService.shutdown();
+		assertTrue( executorService.awaitTermination( 10, TimeUnit.SECONDS ) );
+		assertEquals( 2, numSelectionChanged.get() );
+	}
+}
@@ -0,0 +1,79 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table;
+
+import org.embl.mobie.lib.annotation.AnnotatedSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcatenatedAnnotationTableModelTest
+{
+	@Test
+	void followRemovedRows()
+	{
+		final LazyAnnotatedSegmentTableModel tableModelA = new LazyAnnotatedSegmentTableModel( "a" );
+		tableModelA.createAnnotation( "a", 0, 1 );
+		final AnnotatedSegment segment = tableModelA.createAnnotation( "a", 0, 2 );
+		tableModelA.createAnnotation( "a", 0, 3 );
+		final LazyAnnotatedSegmentTableModel tableModelB = new LazyAnnotatedSegmentTableModel( "b" );
+		tableModelB.createAnnotation( "b", 0, 11 );
+
+		final Set< AnnotationTableModel< AnnotatedSegment > > tableModels = new LinkedHashSet<>();
+		tableModels.add( tableModelA );
+		tableModels.add( tableModelB );
+		final ConcatenatedAnnotationTableModel< AnnotatedSegment > concatenated = new ConcatenatedAnnotationTableModel<>( tableModels );
+		final NumberColumnAccessor accessor = concatenated.numberColumnAccessor( ColumnNames.LABEL_ID );
+		assertRows( concatenated, accessor, 4 );
+
+		// the rows of both the concatenated model and the table model shift
+		tableModelA.removeAnnotations( Collections.singletonList( segment ) );
+		assertEquals( -1, concatenated.rowIndexOf( segment ) );
+		assertRows( concatenated, accessor, 3 );
+
+		tableModelA.createAnnotation( "a", 0, 4 );
+		tableModelB.createAnnotation( "b", 0, 12 );
+		assertRows( concatenated, accessor, 5 );
+	}
+
+	private static void assertRows( ConcatenatedAnnotationTableModel< AnnotatedSegment > concatenated, NumberColumnAccessor accessor, int numAnnotations )
+	{
+		assertEquals( numAnnotations, concatenated.numAnnotations() );
+		for ( int rowIndex = 0; rowIndex < numAnnotations; rowIndex++ )
+		{
+			final AnnotatedSegment annotation = concatenated.annotation( rowIndex );
+			assertEquals( rowIndex, concatenated.rowIndexOf( annotation ) );
+			assertEquals( annotation.label(), accessor.getInt( rowIndex ) );
+		}
+	}
+}
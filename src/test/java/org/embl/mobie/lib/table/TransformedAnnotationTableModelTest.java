@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table;
+
+import org.embl.mobie.lib.annotation.AnnotatedSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformedAnnotationTableModelTest
+{
+	@Test
+	void forwardChanges()
+	{
+		final LazyAnnotatedSegmentTableModel tableModel = new LazyAnnotatedSegmentTableModel( "segments" );
+		final AnnotatedSegment segment = tableModel.createAnnotation( "segments", 0, 1 );
+		tableModel.createAnnotation( "segments", 0, 2 );
+
+		final TransformedAnnotationTableModel< AnnotatedSegment, AnnotatedSegment > transformedTableModel =
+				new TransformedAnnotationTableModel<>( tableModel, annotation -> new DefaultAnnotatedSegment( "transformed", annotation.timePoint(), annotation.label() ) );
+		assertEquals( 2, transformedTableModel.annotations().size() );
+
+		final List< AnnotatedSegment > removed = new ArrayList<>();
+		transformedTableModel.addAnnotationListener( new AnnotationListener< AnnotatedSegment >()
+		{
+			@Override
+			public void annotationsAdded( Collection< AnnotatedSegment > annotations ) { }
+
+			@Override
+			public void annotationsRemoved( Collection< AnnotatedSegment > annotations )
+			{
+				removed.addAll( annotations );
+			}
+
+			@Override
+			public void columnAdded( String columnName ) { }
+		} );
+
+		final AnnotatedSegment transformedSegment = transformedTableModel.getTransformedAnnotation( segment );
+		tableModel.removeAnnotations( Collections.singletonList( segment ) );
+		assertEquals( Collections.singletonList( transformedSegment ), removed );
+		assertEquals( 1, transformedTableModel.annotations().size() );
+		assertNull( transformedTableModel.getTransformedAnnotation( segment ) );
+
+		tableModel.createAnnotation( "segments", 0, 3 );
+		assertEquals( 2, transformedTableModel.annotations().size() );
+		assertEquals( 3, transformedTableModel.annotation( 1 ).label() );
+		assertEquals( 1, transformedTableModel.rowIndexOf( transformedTableModel.annotation( 1 ) ) );
+		assertEquals( -1, transformedTableModel.rowIndexOf( transformedSegment ) );
+	}
+}
@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import org.embl.mobie.lib.io.StorageLocation;
+import org.embl.mobie.lib.table.TableDataFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.io.csv.CsvReadOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableOpenerTest
+{
+	private final int numRowsPerParsingChunk = TableOpener.numRowsPerParsingChunk;
+	private final int maxNumPendingParsingChunks = TableOpener.maxNumPendingParsingChunks;
+
+	@AfterEach
+	void tearDown()
+	{
+		TableOpener.numRowsPerParsingChunk = numRowsPerParsingChunk;
+		TableOpener.maxNumPendingParsingChunks = maxNumPendingParsingChunks;
+	}
+
+	@Test
+	void chunks() throws IOException
+	{
+		final StringBuilder rows = new StringBuilder( "label_id\tvalue\tname\n" );
+		for ( int i = 0; i < 10; i++ )
+			rows.append( i ).append( '\t' ).append( i * 0.5 ).append( '\t' ).append( "cell" ).append( i ).append( '\n' );
+
+		// the reading waits for the parsing
+		TableOpener.maxNumPendingParsingChunks = 1;
+		assertOpensLikeSequentialParsing( rows.toString(), TableDataFormat.TSV, null );
+	}
+
+	@Test
+	void quotedValues() throws IOException
+	{
+		final String rows = "label_id,name\n1,a\n2,b\n3,\"c, d\"\n4,\"e\nf\"\n";
+
+		final Table table = assertOpensLikeSequentialParsing( rows, TableDataFormat.CSV, null );
+		assertEquals( "c, d", table.stringColumn( "name" ).get( 2 ) );
+	}
+
+	@Test
+	void typeChangeAfterFirstChunk() throws IOException
+	{
+		final String rows = "label_id\tvalue\n1\t1\n2\t2\n3\t3\n4\t4.5\n";
+
+		final Table table = assertOpensLikeSequentialParsing( rows, TableDataFormat.TSV, null );
+		assertEquals( ColumnType.DOUBLE, table.column( "value" ).type() );
+		assertEquals( 4.5, table.doubleColumn( "value" ).get( 3 ) );
+	}
+
+	@Test
+	void columnProjection() throws IOException
+	{
+		final String rows = "label_id\tvalue\tname\n1\t1.5\ta\n2\t2.5\tb\n3\t3.5\tc\n4\t4.5\td\n5\t5.5\te\n";
+
+		final Table table = assertOpensLikeSequentialParsing( rows, TableDataFormat.TSV, Arrays.asList( "label_id", "name" ) );
+		assertEquals( Arrays.asList( "label_id", "name" ), table.columnNames() );
+	}
+
+	@Test
+	void typeChangeAfterFirstChunkWithColumnProjection() throws IOException
+	{
+		final String rows = "label_id\tname\tvalue\n1\ta\t1\n2\tb\t2\n3\tc\t3\n4\td\t4.5\n";
+
+		final Table table = assertOpensLikeSequentialParsing( rows, TableDataFormat.TSV, Arrays.asList( "label_id", "value" ) );
+		assertEquals( 4.5, table.doubleColumn( "value" ).get( 3 ) );
+	}
+
+	@Test
+	void emptyTable() throws IOException
+	{
+		final Table table = assertOpensLikeSequentialParsing( "label_id\tvalue\n", TableDataFormat.TSV, null );
+		assertEquals( 0, table.rowCount() );
+	}
+
+	private static Table assertOpensLikeSequentialParsing( String rows, TableDataFormat format, Collection< String > columns ) throws IOException
+	{
+		final File file = File.createTempFile( "mobie-table-", "." + format.toString().toLowerCase() );
+		file.deleteOnExit();
+		Files.write( file.toPath(), rows.getBytes( StandardCharsets.UTF_8 ) );
+
+		CsvReadOptions.Builder builder = CsvReadOptions.builderFromString( rows )
+				.separator( format.getSeparator() )
+				.missingValueIndicator( "na", "none", "nan" );
+		if ( columns != null )
+			builder.columnTypesPartial( columnName -> columns.contains( columnName ) ? Optional.empty() : Optional.of( ColumnType.SKIP ) );
+		final Table expected = Table.read().usingOptions( builder );
+
+		final StorageLocation storageLocation = new StorageLocation();
+		storageLocation.absolutePath = file.getParent();
+		TableOpener.numRowsPerParsingChunk = 2;
+		final Table table = TableOpener.open( storageLocation, file.getName(), format, columns );
+
+		assertEquals( expected.columnNames(), table.columnNames() );
+		assertEquals( expected.rowCount(), table.rowCount() );
+		for ( int columnIndex = 0; columnIndex < expected.columnCount(); columnIndex++ )
+		{
+			assertEquals( expected.column( columnIndex ).type(), table.column( columnIndex ).type() );
+			for ( int rowIndex = 0; rowIndex < expected.rowCount(); rowIndex++ )
+				assertEquals( expected.getString( rowIndex, columnIndex ), table.getString( rowIndex, columnIndex ) );
+		}
+
+		return table;
+	}
+}
@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import net.imglib2.FinalRealInterval;
+import net.imglib2.RealInterval;
+import net.tlabs.tablesaw.parquet.TablesawParquetWriteOptions;
+import net.tlabs.tablesaw.parquet.TablesawParquetWriter;
+import org.embl.mobie.lib.io.StorageLocation;
+import org.embl.mobie.lib.table.ColumnNames;
+import org.embl.mobie.lib.table.TableDataFormat;
+import org.junit.jupiter.api.Test;
+import tech.tablesaw.api.ColumnType;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.LongColumn;
+import tech.tablesaw.api.StringColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableSawAnnotatedSegmentCreatorTest
+{
+	@Test
+	void create()
+	{
+		final Table table = Table.create( "segments" );
+		table.addColumns(
+				StringColumn.create( ColumnNames.LABEL_IMAGE_ID, new String[]{ "cells", "nuclei", "cells" } ),
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 1, 2, 3 } ),
+				IntColumn.create( ColumnNames.TIMEPOINT, new int[]{ 0, 0, 1 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1, 2, 3 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 4, 5, 6 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Z, new double[]{ 7, 8, 9 } ),
+				DoubleColumn.create( ColumnNames.BB_MIN_X, new double[]{ 0, 1, 2 } ),
+				DoubleColumn.create( ColumnNames.BB_MIN_Y, new double[]{ 3, 4, 5 } ),
+				DoubleColumn.create( ColumnNames.BB_MIN_Z, new double[]{ 6, 7, 8 } ),
+				DoubleColumn.create( ColumnNames.BB_MAX_X, new double[]{ 2, 3, 4 } ),
+				DoubleColumn.create( ColumnNames.BB_MAX_Y, new double[]{ 5, 6, 7 } ),
+				DoubleColumn.create( ColumnNames.BB_MAX_Z, new double[]{ 8, 9, 10 } ) );
+
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, table ), null, null, table );
+		final List< TableSawAnnotatedSegment > segments = model.annotations();
+		assertEquals( 3, segments.size() );
+
+		final TableSawAnnotatedSegment segment = segments.get( 2 );
+		assertEquals( 3, segment.label() );
+		assertEquals( 1, segment.timePoint() );
+		assertEquals( "cells", segment.source() );
+		assertEquals( "cells;1;3", segment.uuid() );
+		assertArrayEquals( new double[]{ 3, 6, 9 }, segment.positionAsDoubleArray() );
+		assertEquals( 6, segment.getDoublePosition( 1 ) );
+
+		final RealInterval boundingBox = segment.boundingBox();
+		assertArrayEquals( new double[]{ 2, 5, 8 }, boundingBox.minAsDoubleArray() );
+		assertArrayEquals( new double[]{ 4, 7, 10 }, boundingBox.maxAsDoubleArray() );
+
+		assertEquals( "nuclei", segments.get( 1 ).source() );
+
+		segment.setBoundingBox( new FinalRealInterval( new double[]{ 0, 0, 0 }, new double[]{ 1, 1, 1 } ) );
+		assertArrayEquals( new double[]{ 1, 1, 1 }, segment.boundingBox().maxAsDoubleArray() );
+		assertArrayEquals( new double[]{ 3, 6, 9 }, segments.get( 1 ).boundingBox().maxAsDoubleArray() );
+	}
+
+	@Test
+	void createFromAnotherTable()
+	{
+		final Table table = Table.create( "segments" );
+		table.addColumns(
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 3, 4 } ) );
+
+		// same row count, but other values and column order
+		final Table otherTable = Table.create( "otherSegments" );
+		otherTable.addColumns(
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 7, 8 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 5, 6 } ),
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 3, 4 } ) );
+
+		final TableSawAnnotatedSegmentCreator creator = new TableSawAnnotatedSegmentCreator( null, table );
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", creator, null, null, table );
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > otherModel = new TableSawAnnotationTableModel<>( "otherSegments", creator, null, null, otherTable );
+
+		assertEquals( 1, model.annotation( 0 ).label() );
+		assertEquals( 4, otherModel.annotation( 1 ).label() );
+		assertArrayEquals( new double[]{ 6, 8, 0 }, otherModel.annotation( 1 ).positionAsDoubleArray() );
+		assertEquals( "otherSegments", otherModel.annotation( 1 ).source() );
+	}
+
+	@Test
+	void create2D()
+	{
+		final Table table = Table.create( "segments" );
+		table.addColumns(
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 5 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 2 } ) );
+
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, table ), null, null, table );
+		final TableSawAnnotatedSegment segment = model.annotation( 0 );
+
+		assertEquals( 0, segment.timePoint() );
+		assertEquals( "segments", segment.source() );
+		assertArrayEquals( new double[]{ 1, 2, 0 }, segment.positionAsDoubleArray() );
+		assertNull( segment.boundingBox() );
+	}
+
+	@Test
+	void createFromInt64ParquetTable() throws IOException
+	{
+		final Table table = Table.create( "segments" );
+		table.addColumns(
+				LongColumn.create( ColumnNames.LABEL_ID, new long[]{ 1, 2 } ),
+				LongColumn.create( ColumnNames.TIMEPOINT, new long[]{ 0, 1 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 3, 4 } ) );
+
+		final File file = new File( Files.createTempDirectory( "mobie-" ).toFile(), "segments.parquet" );
+		file.deleteOnExit();
+		new TablesawParquetWriter().write( table, TablesawParquetWriteOptions.builder( file ).build() );
+
+		final StorageLocation storageLocation = new StorageLocation();
+		storageLocation.absolutePath = file.getParent();
+		final Table parquetTable = TableOpener.open( storageLocation, file.getName(), TableDataFormat.Parquet );
+		assertEquals( ColumnType.LONG, parquetTable.column( ColumnNames.LABEL_ID ).type() );
+
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, parquetTable ), null, null, parquetTable );
+		final TableSawAnnotatedSegment segment = model.annotation( 1 );
+
+		assertEquals( 2, segment.label() );
+		assertEquals( 1, segment.timePoint() );
+	}
+}
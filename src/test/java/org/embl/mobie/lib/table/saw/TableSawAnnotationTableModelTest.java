@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import org.embl.mobie.lib.io.StorageLocation;
+import org.embl.mobie.lib.table.AnnotationListener;
+import org.embl.mobie.lib.table.AnnotationTableModel;
+import org.embl.mobie.lib.table.ColumnNames;
+import org.embl.mobie.lib.table.ConcatenatedAnnotationTableModel;
+import org.embl.mobie.lib.table.NumberColumnAccessor;
+import org.embl.mobie.lib.table.TableDataFormat;
+import org.junit.jupiter.api.Test;
+import tech.tablesaw.api.DoubleColumn;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableSawAnnotationTableModelTest
+{
+	@Test
+	void columnSchema()
+	{
+		final Table table = Table.create( "segments" );
+		table.addColumns(
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 3, 4 } ) );
+
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, table ), null, null, table );
+
+		final List< String > columnNames = model.columnNames();
+		assertTrue( columnNames.contains( ColumnNames.ANCHOR_X ) );
+		assertTrue( columnNames.contains( "source" ) );
+		assertFalse( model.numericColumnNames().contains( "source" ) );
+		assertEquals( String.class, model.columnClass( "source" ) );
+
+		model.addStringColumn( "annotation" );
+
+		// the snapshot is immutable, the added column is in a new snapshot
+		assertFalse( columnNames.contains( "annotation" ) );
+		assertTrue( model.columnNames().contains( "annotation" ) );
+		assertEquals( String.class, model.columnClass( "annotation" ) );
+		assertThrows( UnsupportedOperationException.class, () -> model.columnNames().add( "column" ) );
+	}
+
+	@Test
+	void closeConcatenatedModel()
+	{
+		final Set< AnnotationTableModel< TableSawAnnotatedSegment > > models = new HashSet<>();
+		models.add( createModel( "a" ) );
+		models.add( createModel( "b" ) );
+
+		final ConcatenatedAnnotationTableModel< TableSawAnnotatedSegment > concatenated = new ConcatenatedAnnotationTableModel<>( models );
+		final AtomicInteger numColumnsAdded = new AtomicInteger();
+		concatenated.addAnnotationListener( new AnnotationListener< TableSawAnnotatedSegment >()
+		{
+			@Override
+			public void annotationsAdded( Collection< TableSawAnnotatedSegment > annotations ) { }
+
+			@Override
+			public void annotationsRemoved( Collection< TableSawAnnotatedSegment > annotations ) { }
+
+			@Override
+			public void columnAdded( String columnName )
+			{
+				numColumnsAdded.incrementAndGet();
+			}
+		} );
+
+		models.iterator().next().addStringColumn( "annotation" );
+		assertEquals( 1, numColumnsAdded.get() );
+
+		// the table models may outlive the concatenated model,
+		// e.g. if their images are cached, but must not reach it anymore
+		concatenated.close();
+		models.iterator().next().addStringColumn( "other annotation" );
+		assertEquals( 1, numColumnsAdded.get() );
+	}
+
+	@Test
+	void concatenatedNumberColumnAccessor()
+	{
+		final Set< AnnotationTableModel< TableSawAnnotatedSegment > > models = new HashSet<>();
+		models.add( createModel( "a", 0 ) );
+		models.add( createModel( "b", 10 ) );
+
+		final ConcatenatedAnnotationTableModel< TableSawAnnotatedSegment > concatenated = new ConcatenatedAnnotationTableModel<>( models );
+		final NumberColumnAccessor accessor = concatenated.numberColumnAccessor( ColumnNames.ANCHOR_X );
+
+		assertEquals( 4, concatenated.numAnnotations() );
+		for ( int rowIndex = 0; rowIndex < concatenated.numAnnotations(); rowIndex++ )
+		{
+			final TableSawAnnotatedSegment annotation = concatenated.annotation( rowIndex );
+			assertEquals( rowIndex, concatenated.rowIndexOf( annotation ) );
+			assertEquals( annotation.getNumber( ColumnNames.ANCHOR_X ), accessor.getDouble( rowIndex ) );
+		}
+
+		for ( AnnotationTableModel< TableSawAnnotatedSegment > model : models )
+			for ( int rowIndex = 0; rowIndex < model.numAnnotations(); rowIndex++ )
+				assertEquals( rowIndex, model.rowIndexOf( model.annotation( rowIndex ) ) );
+
+		assertEquals( 1, concatenated.getMinMax( ColumnNames.ANCHOR_X ).getA() );
+		assertEquals( 12, concatenated.getMinMax( ColumnNames.ANCHOR_X ).getB() );
+	}
+
+	@Test
+	void deferredColumns() throws IOException
+	{
+		final File file = File.createTempFile( "mobie-table-", ".tsv" );
+		file.deleteOnExit();
+		final String rows = "label_id\tanchor_x\tanchor_y\tvalue\tname\n1\t1\t4\t0.5\ta\n2\t2\t5\t1.5\tb\n3\t3\t6\t2.5\tc\n";
+		Files.write( file.toPath(), rows.getBytes( StandardCharsets.UTF_8 ) );
+
+		final StorageLocation storageLocation = new StorageLocation();
+		storageLocation.absolutePath = file.getParent();
+		storageLocation.defaultChunk = file.getName();
+
+		final TableSawAnnotationTableModel< TableSawAnnotatedSegment > model = new TableSawAnnotationTableModel<>( "segments", new TableSawAnnotatedSegmentCreator( null, null ), storageLocation, TableDataFormat.TSV, null, Collections.singleton( "name" ) );
+		final AtomicInteger numColumnsAdded = new AtomicInteger();
+		model.addAnnotationListener( new AnnotationListener< TableSawAnnotatedSegment >()
+		{
+			@Override
+			public void annotationsAdded( Collection< TableSawAnnotatedSegment > annotations ) { }
+
+			@Override
+			public void annotationsRemoved( Collection< TableSawAnnotatedSegment > annotations ) { }
+
+			@Override
+			public void columnAdded( String columnName )
+			{
+				numColumnsAdded.incrementAndGet();
+			}
+		} );
+
+		// only the columns that are needed for the segments and the required ones are loaded
+		assertEquals( 3, model.numAnnotations() );
+		assertEquals( 2, model.annotation( 1 ).getDoublePosition( 0 ) );
+		assertEquals( "b", model.annotation( 1 ).getValue( "name" ) );
+		assertFalse( model.getTable().containsColumn( "value" ) );
+
+		// the other columns are loaded on access
+		assertEquals( 2.5, model.annotation( 2 ).getNumber( "value" ) );
+		assertEquals( 1, numColumnsAdded.get() );
+		assertTrue( model.columnNames().contains( "value" ) );
+		assertEquals( 1, numColumnsAdded.get() );
+		assertEquals( 0.5, model.numberColumnAccessor( "value" ).getDouble( 0 ) );
+	}
+
+	private static TableSawAnnotationTableModel< TableSawAnnotatedSegment > createModel( String name )
+	{
+		return createModel( name, 0 );
+	}
+
+	private static TableSawAnnotationTableModel< TableSawAnnotatedSegment > createModel( String name, double offsetX )
+	{
+		final Table table = Table.create( name );
+		table.addColumns(
+				IntColumn.create( ColumnNames.LABEL_ID, new int[]{ 1, 2 } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_X, new double[]{ 1 + offsetX, 2 + offsetX } ),
+				DoubleColumn.create( ColumnNames.ANCHOR_Y, new double[]{ 3, 4 } ) );
+
+		return new TableSawAnnotationTableModel<>( name, new TableSawAnnotatedSegmentCreator( null, table ), null, null, table );
+	}
+}
@@ -0,0 +1,66 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2023 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import net.imglib2.FinalRealInterval;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableSawSegmentStoreTest
+{
+	@Test
+	void boundingBox()
+	{
+		final TableSawSegmentStore store = new TableSawSegmentStore(
+				new int[]{ 1, 2 },
+				null,
+				new String[]{ "cells" },
+				null,
+				new double[]{ 1, 2, 3, 4, 5, 6 },
+				null );
+
+		assertFalse( store.hasBoundingBox( 1 ) );
+		assertTrue( Double.isNaN( store.realMin( 1, 0 ) ) );
+		assertNull( store.boundingBox( 1 ) );
+
+		// 2D bounding boxes are stored with z = 0
+		store.setBoundingBox( 1, new FinalRealInterval( new double[]{ 3, 4 }, new double[]{ 5, 6 } ) );
+		assertFalse( store.hasBoundingBox( 0 ) );
+		assertTrue( store.hasBoundingBox( 1 ) );
+		assertEquals( 4, store.realMin( 1, 1 ) );
+		assertEquals( 6, store.realMax( 1, 1 ) );
+		assertEquals( 0, store.realMax( 1, 2 ) );
+		assertArrayEquals( new double[]{ 3, 4, 0 }, store.boundingBox( 1 ).minAsDoubleArray() );
+		assertEquals( 5, store.getDoublePosition( 1, 1 ) );
+
+		store.setBoundingBox( 1, null );
+		assertFalse( store.hasBoundingBox( 1 ) );
+	}
+}